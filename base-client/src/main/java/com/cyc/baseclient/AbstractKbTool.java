@@ -31,6 +31,7 @@ import com.cyc.base.cycobject.CycList;
 import com.cyc.base.cycobject.DenotationalTerm;
 import com.cyc.baseclient.cycobject.CycConstantImpl;
 import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.kbtool.TaxonomyCache;
 import static com.cyc.baseclient.CycObjectFactory.makeCycSymbol;
 
 /**
@@ -89,6 +90,38 @@ public class AbstractKbTool {
     return getCyc().converse();
   }
   
+  /**
+   * Returns the taxonomy cache of the client, or null if the client has none or it is disabled.
+   */
+  protected TaxonomyCache getTaxonomyCache() {
+    if (getCyc() instanceof CycClient) {
+      final TaxonomyCache cache = ((CycClient) getCyc()).getTaxonomyCache();
+      return cache.isEnabled() ? cache : null;
+    }
+    return null;
+  }
+  
+  /**
+   * Invalidates any taxonomy cache entries which may be changed by asserting or unasserting the
+   * given GAF.
+   */
+  protected void noteTaxonomyChange(Object gaf) {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      cache.noteChange(gaf);
+    }
+  }
+  
+  /**
+   * Clears the taxonomy cache, after a change whose effect on it cannot be determined cheaply.
+   */
+  protected void clearTaxonomyCache() {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+  
   
   // Private
   
@@ -0,0 +1,182 @@
+package com.cyc.baseclient;
+
+/*
+ * #%L
+ * File: ConstantChangeEvent.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycSymbol;
+import com.cyc.base.cycobject.Guid;
+import com.cyc.base.exception.CycApiException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A change made on the Cyc server to a constant, which makes any client-side cache entries for the
+ * constant stale. Events are reported by the Cyc server as lists of the form:
+ *
+ * <ul>
+ * <li><code>(:RENAME guid old-name new-name)</code></li>
+ * <li><code>(:KILL guid name)</code></li>
+ * <li><code>(:MERGE guid name surviving-guid surviving-name)</code>, where the constant
+ * <code>guid</code> was merged into, and killed in favor of, <code>surviving-guid</code></li>
+ * </ul>
+ *
+ * GUIDs may be sent either as GUIDs or as strings.
+ *
+ * @see ConstantChangeSubscription
+ * @see CycObjectFactory#invalidateCycConstant(ConstantChangeEvent)
+ */
+public class ConstantChangeEvent {
+
+  public enum Type {
+    RENAME, KILL, MERGE
+  }
+
+  //// Constructors
+
+  private ConstantChangeEvent(Type type, Guid guid, String name, Guid otherGuid, String otherName) {
+    this.type = type;
+    this.guid = guid;
+    this.name = name;
+    this.otherGuid = otherGuid;
+    this.otherName = otherName;
+  }
+
+  public static ConstantChangeEvent rename(Guid guid, String oldName, String newName) {
+    return new ConstantChangeEvent(Type.RENAME, guid, oldName, guid, newName);
+  }
+
+  public static ConstantChangeEvent kill(Guid guid, String name) {
+    return new ConstantChangeEvent(Type.KILL, guid, name, null, null);
+  }
+
+  public static ConstantChangeEvent merge(Guid guid, String name,
+          Guid survivingGuid, String survivingName) {
+    return new ConstantChangeEvent(Type.MERGE, guid, name, survivingGuid, survivingName);
+  }
+
+  //// Public Area
+
+  /**
+   * Parses one event, or a list of events, as reported by the Cyc server.
+   *
+   * @param data an event list, or a list of event lists
+   *
+   * @return the events, in order
+   *
+   * @throws CycApiException if <code>data</code> is not a well-formed event or list of events
+   */
+  public static List<ConstantChangeEvent> parseEvents(Object data) throws CycApiException {
+    if (CycObjectFactory.nil.equals(data)) {
+      return Collections.emptyList();
+    }
+    if (!(data instanceof List)) {
+      throw new CycApiException("Invalid constant change events " + data);
+    }
+    final List<?> list = (List<?>) data;
+    if (!list.isEmpty() && list.get(0) instanceof CycSymbol) {
+      return Collections.singletonList(parseEvent(list));
+    }
+    final List<ConstantChangeEvent> events = new ArrayList<>(list.size());
+    for (Object event : list) {
+      if (!(event instanceof List)) {
+        throw new CycApiException("Invalid constant change event " + event);
+      }
+      events.add(parseEvent((List<?>) event));
+    }
+    return events;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /** Returns the GUID of the constant which was renamed, killed or merged away. */
+  public Guid getGuid() {
+    return guid;
+  }
+
+  /** Returns the name which the constant had before the change. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the new name of a renamed constant, the name of the surviving constant of a merge, or
+   * null for a kill.
+   */
+  public String getNewName() {
+    return otherName;
+  }
+
+  /** Returns the GUID of the surviving constant of a merge, or null for other changes. */
+  public Guid getSurvivingGuid() {
+    return (type == Type.MERGE) ? otherGuid : null;
+  }
+
+  @Override
+  public String toString() {
+    switch (type) {
+      case RENAME:
+        return "rename " + name + " (" + guid + ") to " + otherName;
+      case MERGE:
+        return "merge " + name + " (" + guid + ") into " + otherName + " (" + otherGuid + ")";
+      default:
+        return "kill " + name + " (" + guid + ")";
+    }
+  }
+
+  //// Private Area
+
+  private static ConstantChangeEvent parseEvent(List<?> event) {
+    try {
+      final String keyword = ((CycSymbol) event.get(0)).toString();
+      if (RENAME_KEYWORD.equalsIgnoreCase(keyword) && event.size() == 4) {
+        return rename(toGuid(event.get(1)), (String) event.get(2), (String) event.get(3));
+      } else if (KILL_KEYWORD.equalsIgnoreCase(keyword) && event.size() == 3) {
+        return kill(toGuid(event.get(1)), (String) event.get(2));
+      } else if (MERGE_KEYWORD.equalsIgnoreCase(keyword) && event.size() == 5) {
+        return merge(toGuid(event.get(1)), (String) event.get(2),
+                toGuid(event.get(3)), (String) event.get(4));
+      }
+    } catch (ClassCastException ex) {
+      throw new CycApiException("Invalid constant change event " + event, ex);
+    }
+    throw new CycApiException("Invalid constant change event " + event);
+  }
+
+  private static Guid toGuid(Object obj) {
+    return (obj instanceof Guid) ? (Guid) obj : CycObjectFactory.makeGuid((String) obj);
+  }
+
+  //// Internal Rep
+
+  private static final String RENAME_KEYWORD = ":RENAME";
+  private static final String KILL_KEYWORD = ":KILL";
+  private static final String MERGE_KEYWORD = ":MERGE";
+
+  private final Type type;
+  private final Guid guid;
+  private final String name;
+  private final Guid otherGuid;
+  private final String otherName;
+
+}
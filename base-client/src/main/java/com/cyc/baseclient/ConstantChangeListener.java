@@ -0,0 +1,35 @@
+package com.cyc.baseclient;
+
+/*
+ * #%L
+ * File: ConstantChangeListener.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.EventListener;
+
+/**
+ * Notified when a constant has been renamed, killed or merged on the Cyc server, after the
+ * constant has been removed from the {@link CycObjectFactory} caches. Implemented by higher-level
+ * caches which must evict their own entries for the constant.
+ *
+ * @see CycObjectFactory#addConstantChangeListener(ConstantChangeListener)
+ */
+public interface ConstantChangeListener extends EventListener {
+  public void constantChanged(ConstantChangeEvent event);
+}
@@ -0,0 +1,196 @@
+package com.cyc.baseclient;
+
+/*
+ * #%L
+ * File: ConstantChangeSubscription.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.connection.CycConnection;
+import com.cyc.base.connection.Worker;
+import com.cyc.base.connection.WorkerEvent;
+import com.cyc.base.connection.WorkerListener;
+import com.cyc.base.connection.WorkerStatus;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.base.exception.CycConnectionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the client-side constant caches in step with the Cyc server, by running a long-lived SubL
+ * command over the task-processor channel which reports each rename, kill and merge of a constant
+ * as it happens. Each reported {@link ConstantChangeEvent} is passed to
+ * {@link CycObjectFactory#invalidateCycConstant(ConstantChangeEvent)}, which evicts exactly the
+ * affected entries and notifies the registered {@link ConstantChangeListener}s.
+ *
+ * <p>This class is only a hook: the Cyc server has no standard way to report constant changes, and
+ * no subscription command ships with the client. The command must be supplied by the caller, or in
+ * the system property {@value #COMMAND_PROPERTY}. It must run until it is cancelled, and send the
+ * events with <code>(post-task-info-processor-partial-results events)</code>, in the format
+ * documented by {@link ConstantChangeEvent}. When the system property is set, each
+ * {@link CycClient} starts a subscription as its session is initialized and cancels it when it is
+ * closed; see {@link CycClient#getConstantChangeSubscription()}. Without one, the client-side
+ * caches are not invalidated.
+ *
+ * <p>Events are applied on the connection's notification thread, so listeners must be quick. If
+ * the subscription terminates other than by {@link #cancel()}, later changes will be missed; this
+ * is logged, and {@link #isActive()} returns false.
+ *
+ * <P>Example usage: <code>
+ *  ConstantChangeSubscription subscription = new ConstantChangeSubscription(access);
+ *  subscription.start();
+ *  ...
+ *  subscription.cancel();
+ * </code>
+ */
+public class ConstantChangeSubscription {
+
+  /** The system property which holds the default subscription command, as a SubL string. */
+  public static final String COMMAND_PROPERTY
+          = "com.cyc.baseclient.constantChangeSubscription.command";
+
+  //// Constructors
+
+  /**
+   * Creates a new subscription which runs <code>command</code>.
+   *
+   * @param access  the Cyc server whose constant changes are to be reported
+   * @param command the SubL command which reports the changes
+   */
+  public ConstantChangeSubscription(CycAccess access, CycList command) {
+    this.worker = new DefaultSublWorker(command, access, true, Worker.NO_TIMEOUT,
+            CycConnection.BACKGROUND_PRIORITY);
+    this.worker.addListener(new EventApplier());
+  }
+
+  /**
+   * Creates a new subscription which runs the command given by the system property
+   * {@value #COMMAND_PROPERTY}.
+   *
+   * @param access the Cyc server whose constant changes are to be reported
+   *
+   * @throws CycApiException if the system property is not set
+   */
+  public ConstantChangeSubscription(CycAccess access) throws CycApiException {
+    this(access, access.getObjectTool().makeCycList(getDefaultCommand()));
+  }
+
+  //// Public Area
+
+  /**
+   * Sends the subscription command to the Cyc server. Returns immediately; events are applied as
+   * they arrive.
+   *
+   * @throws CycConnectionException if communications with the Cyc server fail
+   */
+  public void start() throws CycConnectionException {
+    worker.start();
+  }
+
+  /**
+   * Ends the subscription.
+   *
+   * @throws CycConnectionException if communications with the Cyc server fail
+   */
+  public void cancel() throws CycConnectionException {
+    cancelled = true;
+    worker.cancel();
+  }
+
+  /**
+   * Returns true iff the subscription has been started and has not terminated.
+   *
+   * @return true iff events are being received
+   */
+  public boolean isActive() {
+    return !worker.isDone() && worker.getStatus() != WorkerStatus.NOT_STARTED_STATUS;
+  }
+
+  /**
+   * Returns the number of events which have been applied.
+   *
+   * @return the number of events applied
+   */
+  public long getEventCount() {
+    return eventCount.get();
+  }
+
+  /**
+   * Returns true iff a default subscription command has been set in the system property
+   * {@value #COMMAND_PROPERTY}.
+   *
+   * @return true iff a default subscription command is available
+   */
+  public static boolean isConfigured() {
+    final String command = System.getProperty(COMMAND_PROPERTY);
+    return command != null && !command.trim().isEmpty();
+  }
+
+  //// Private Area
+
+  private static String getDefaultCommand() {
+    if (!isConfigured()) {
+      throw new CycApiException("No constant change subscription command; set the system property "
+              + COMMAND_PROPERTY);
+    }
+    return System.getProperty(COMMAND_PROPERTY);
+  }
+
+  private class EventApplier implements WorkerListener {
+
+    @Override
+    public void notifySublWorkerStarted(WorkerEvent event) {
+      LOGGER.debug("Started constant change subscription {}", worker.getId());
+    }
+
+    @Override
+    public void notifySublWorkerDataAvailable(WorkerEvent event) {
+      try {
+        for (ConstantChangeEvent change : ConstantChangeEvent.parseEvents(event.getWork())) {
+          LOGGER.debug("Invalidating constant: {}", change);
+          CycObjectFactory.invalidateCycConstant(change);
+          eventCount.incrementAndGet();
+        }
+      } catch (CycApiException ex) {
+        LOGGER.error("Ignoring invalid constant change events: {}", ex.getMessage());
+      }
+    }
+
+    @Override
+    public void notifySublWorkerTerminated(WorkerEvent event) {
+      if (cancelled) {
+        LOGGER.debug("Cancelled constant change subscription {}", worker.getId());
+      } else {
+        LOGGER.warn("Constant change subscription terminated with status " + event.getStatus()
+                + "; client-side constant caches may become stale.", event.getException());
+      }
+    }
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConstantChangeSubscription.class);
+
+  private final DefaultSublWorker worker;
+  private final AtomicLong eventCount = new AtomicLong(0);
+  private volatile boolean cancelled = false;
+
+}
@@ -50,6 +50,7 @@ import com.cyc.baseclient.kbtool.KbObjectToolImpl;
 import com.cyc.baseclient.kbtool.KeTextToolImpl;
 import com.cyc.baseclient.kbtool.LookupToolImpl;
 import com.cyc.baseclient.kbtool.ObjectToolImpl;
+import com.cyc.baseclient.kbtool.TaxonomyCache;
 import com.cyc.baseclient.kbtool.UnassertToolImpl;
 import com.cyc.baseclient.subl.SublResourceLoader;
 import com.cyc.baseclient.subl.SublSourceFile;
@@ -68,12 +69,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -439,6 +442,13 @@ public class CycClient implements CycAccess {
   
   private boolean hasServerPatchingBeenChecked = false;
   
+  private boolean hasConstantCacheBeenWarmed = false;
+  
+  /**
+   * The subscription to constant changes on the server, or null if none has been configured.
+   */
+  private ConstantChangeSubscription constantChangeSubscription;
+  
   private boolean reestablishClosedConnections = true;
   private Boolean isOpenCyc = null;
   private CycCommandTool converseTool;
@@ -451,6 +461,7 @@ public class CycClient implements CycAccess {
   private LookupToolImpl lookupTool;
   private ObjectToolImpl objectTool;
   private UnassertToolImpl unassertTool;
+  private final TaxonomyCache taxonomyCache = new TaxonomyCache(this);
   //private OwlToolImpl owlTool;
   //private RkfToolImpl rkfTool;
   private CycServerInfoImpl serverInfo;
@@ -751,6 +762,7 @@ public class CycClient implements CycAccess {
       return;
     }
     LOGGER.debug("Attempting to close {}", this);
+    cancelConstantChangeSubscription();
 
     isClosed = true;
     //TODO: Fix CycLeaseManager
@@ -1055,6 +1067,15 @@ public class CycClient implements CycAccess {
     return lookupTool;
   }
 
+  /**
+   * Provides the cache of genls and isa edges used by this client's tools, when it is enabled.
+   * 
+   * @return the TaxonomyCache of this client
+   */
+  public TaxonomyCache getTaxonomyCache() {
+    return taxonomyCache;
+  }
+
   /**
    * Provides tools for creating simple CycObjects, such as constants and lists.
    * 
@@ -1158,6 +1179,20 @@ public class CycClient implements CycAccess {
     return response;
   }
   
+  /**
+   * Converses with Cyc to perform an API command without waiting for the response.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result as an object array of two objects
+   * @see CycConnectionImpl#converseAsync(java.lang.Object, long)
+   */
+  protected CompletableFuture<Object[]> converseAsync(Object command, long timeoutMsecs) {
+    previousAccessedMilliseconds = System.currentTimeMillis();
+    return ((CycConnectionImpl) getCycConnection()).converseAsync(command, timeoutMsecs);
+  }
+  
   /**
    * Send a command to Cyc, and maybe try to recover from a closed connection.
    *
@@ -1186,6 +1221,19 @@ public class CycClient implements CycAccess {
   
   protected synchronized void initializeSession(CycSessionConfiguration config) {
     loadSublPatches(config);
+    warmConstantCache();
+    startConstantChangeSubscription();
+  }
+  
+  /**
+   * Returns the subscription to constant changes on the server which was started when this
+   * client's session was initialized, or null if the system property
+   * {@value ConstantChangeSubscription#COMMAND_PROPERTY} is not set.
+   *
+   * @return the constant change subscription, or null
+   */
+  public synchronized ConstantChangeSubscription getConstantChangeSubscription() {
+    return constantChangeSubscription;
   }
   
   /** 
@@ -1228,6 +1276,7 @@ public class CycClient implements CycAccess {
     if (!(cycImageID.equals(getCycImageID()))) {
       LOGGER.warn("New Cyc image detected, resetting caches.");
       CycObjectFactory.resetCaches();
+      taxonomyCache.clear();
     }
   }
   
@@ -1271,6 +1320,50 @@ public class CycClient implements CycAccess {
     }
   }
   
+  /**
+   * Resolves the constants in the warm set file named by {@link LookupToolImpl#WARM_SET_PROPERTY},
+   * if any. A warm set which cannot be loaded is logged and otherwise ignored.
+   */
+  private void warmConstantCache() {
+    final String warmSet = System.getProperty(LookupToolImpl.WARM_SET_PROPERTY);
+    if (hasConstantCacheBeenWarmed || warmSet == null || warmSet.trim().isEmpty()) {
+      return;
+    }
+    hasConstantCacheBeenWarmed = true;
+    try {
+      final long start = System.currentTimeMillis();
+      final int found = getLookupTool().warmConstantCache(Paths.get(warmSet.trim()));
+      LOGGER.info("Warmed the constant cache with {} constants from {} in {} msecs",
+              found, warmSet, System.currentTimeMillis() - start);
+    } catch (IOException | CycConnectionException | RuntimeException ex) {
+      LOGGER.warn("Could not warm the constant cache from " + warmSet, ex);
+    }
+  }
+  
+  private void startConstantChangeSubscription() {
+    if (constantChangeSubscription != null || !ConstantChangeSubscription.isConfigured()) {
+      return;
+    }
+    try {
+      constantChangeSubscription = new ConstantChangeSubscription(this);
+      constantChangeSubscription.start();
+    } catch (CycConnectionException | RuntimeException ex) {
+      LOGGER.warn("Could not start the constant change subscription for " + this, ex);
+    }
+  }
+  
+  private void cancelConstantChangeSubscription() {
+    if (constantChangeSubscription == null) {
+      return;
+    }
+    try {
+      constantChangeSubscription.cancel();
+    } catch (CycConnectionException | RuntimeException ex) {
+      LOGGER.debug("Could not cancel the constant change subscription for {}", this, ex);
+    }
+    constantChangeSubscription = null;
+  }
+  
   private void maybeReEstablishCycConnection() throws CycConnectionException, CycApiException {
     //if (!isSOAPConnection) {
 //      if ((previousAccessedMilliseconds + MAX_UNACCESSED_MILLIS) < System.currentTimeMillis()) {
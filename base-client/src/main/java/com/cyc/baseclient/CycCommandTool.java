@@ -23,17 +23,25 @@ package com.cyc.baseclient;
 
 import com.cyc.base.CommandTool;
 import com.cyc.base.CycAccess;
+import com.cyc.base.connection.Worker;
 import com.cyc.base.cycobject.CycObject;
 import com.cyc.base.cycobject.FormulaSentence;
 import com.cyc.base.cycobject.Fort;
 import com.cyc.base.exception.BaseClientRuntimeException;
 import com.cyc.base.exception.CycApiException;
 import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.connection.BatchSublWorkerSynch;
+import com.cyc.baseclient.connection.BatchSublWorkerSynch.CommandResult;
+import com.cyc.baseclient.connection.CompletableSublWorker;
 import com.cyc.baseclient.cycobject.CycArrayList;
 import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +53,12 @@ import org.slf4j.LoggerFactory;
  */
 public class CycCommandTool implements CommandTool {
   
+  /**
+   * The maximum number of commands which {@link #converseBatch(java.util.List)} sends to Cyc in a
+   * single request.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  
   protected CycCommandTool(CycAccess client) {
     this.client = client;
   }
@@ -66,14 +80,7 @@ public class CycCommandTool implements CommandTool {
   @Override
   public Object converseObject(Object command)
           throws CycConnectionException, CycApiException {
-    Object[] response = {null, null};
-    response = converse(command);
-
-    if (response[0].equals(Boolean.TRUE)) {
-      return response[1];
-    } else {
-      throw new ConverseException(command, this.getCyc(), response);
-    }
+    return responseToObject(command, converse(command));
   }
 
   /**
@@ -91,19 +98,7 @@ public class CycCommandTool implements CommandTool {
   @Override
   public CycArrayList converseList(Object command)
           throws CycConnectionException, CycApiException {
-    Object[] response = {null, null};
-    response = converse(command);
-
-    if (response[0].equals(Boolean.TRUE)) {
-      if (response[1].equals(CycObjectFactory.nil)) {
-        return new CycArrayList();
-      } else {
-        if (response[1] instanceof CycArrayList) {
-          return (CycArrayList) response[1];
-        }
-      }
-    }
-    throw new ConverseException(command, this.getCyc(), response);
+    return responseToList(command, converse(command));
   }
 
   /**
@@ -166,19 +161,7 @@ public class CycCommandTool implements CommandTool {
   @Override
   public String converseString(Object command)
           throws CycConnectionException, CycApiException {
-    Object[] response = {null, null};
-    response = converse(command);
-
-    if (response[0].equals(Boolean.TRUE)) {
-      if (!(response[1] instanceof String)) {
-        throw new BaseClientRuntimeException("Expected String but received (" + response[1].getClass()
-                + ") " + response[1] + "\n in response to command " + command);
-      }
-
-      return (String) response[1];
-    } else {
-      throw new ConverseException(command, this.getCyc(), response);
-    }
+    return responseToString(command, converse(command));
   }
   
   /**
@@ -195,18 +178,7 @@ public class CycCommandTool implements CommandTool {
   @Override
   public boolean converseBoolean(Object command)
           throws CycConnectionException, CycApiException {
-    Object[] response = {null, null};
-    response = converse(command);
-
-    if (response[0].equals(Boolean.TRUE)) {
-      if (response[1].toString().equals("T")) {
-        return true;
-      } else {
-        return false;
-      }
-    } else {
-      throw new ConverseException(command, this.getCyc(), response);
-    }
+    return responseToBoolean(command, converse(command));
   }
 
   /**
@@ -223,14 +195,7 @@ public class CycCommandTool implements CommandTool {
   @Override
   public int converseInt(Object command)
           throws CycConnectionException, CycApiException {
-    Object[] response = {null, null};
-    response = converse(command);
-
-    if (response[0].equals(Boolean.TRUE)) {
-      return Integer.valueOf(response[1].toString());
-    } else {
-      throw new ConverseException(command, this.getCyc(), response);
-    }
+    return responseToInt(command, converse(command));
   }
 
   /**
@@ -280,6 +245,194 @@ public class CycCommandTool implements CommandTool {
     return converse(command);
   }
   
+  /**
+   * Converses with Cyc to perform a batch of API commands in as few round trips as possible. The
+   * commands are sent in requests of at most {@link #DEFAULT_BATCH_SIZE} commands, and each
+   * command is evaluated in its own error handler, so an error signaled by one command is reported
+   * in that command's result rather than thrown.
+   *
+   * @param commands the command strings or CycLists
+   *
+   * @return one result per command, in the order of the commands
+   *
+   * @throws CycConnectionException if cyc server host not found on the network or a data communication error occurs
+   * @throws CycApiException if a batch as a whole could not be evaluated
+   * @see BatchSublWorkerSynch
+   */
+  public List<CommandResult> converseBatch(List<?> commands)
+          throws CycConnectionException, CycApiException {
+    return converseBatch(commands, DEFAULT_BATCH_SIZE);
+  }
+  
+  /**
+   * Converses with Cyc to perform a batch of API commands, sending at most <code>batchSize</code>
+   * commands per request. Each command is evaluated in its own error handler, so an error signaled
+   * by one command is reported in that command's result rather than thrown.
+   *
+   * @param commands the command strings or CycLists
+   * @param batchSize the maximum number of commands per request
+   *
+   * @return one result per command, in the order of the commands
+   *
+   * @throws CycConnectionException if cyc server host not found on the network or a data communication error occurs
+   * @throws CycApiException if a batch as a whole could not be evaluated
+   * @see BatchSublWorkerSynch
+   */
+  public List<CommandResult> converseBatch(List<?> commands, int batchSize)
+          throws CycConnectionException, CycApiException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be at least 1, got " + batchSize);
+    }
+    final List<CommandResult> results = new ArrayList<>(commands.size());
+    for (int start = 0; start < commands.size(); start += batchSize) {
+      final List<?> batch = commands.subList(start, Math.min(start + batchSize, commands.size()));
+      LOGGER.debug("batch of {} commands", batch.size());
+      results.addAll(new BatchSublWorkerSynch(batch, getCyc()).getResults());
+    }
+    return results;
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as an object, without
+   * waiting for the response. The future is completed by the thread which receives the response,
+   * so dependent actions which do significant work should be attached with the <code>*Async</code>
+   * methods of the future. Cancelling the future aborts the command on the Cyc server.
+   * <p>
+   * The future completes exceptionally with the exception which {@link #converseObject(Object)}
+   * would throw. Commands with nested backquotes are not supported.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever);
+   * when it is exceeded the future completes with a CycTimeOutException and the command is aborted
+   *
+   * @return a future for the result of processing the API command
+   * @see CompletableSublWorker
+   */
+  public CompletableFuture<Object> converseObjectAsync(Object command, long timeoutMsecs) {
+    return converseAsync(command, timeoutMsecs, this::responseToObject);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as an object, without
+   * waiting for the response, and without a timeout.
+   *
+   * @param command the command string or CycArrayList
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseObjectAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<Object> converseObjectAsync(Object command) {
+    return converseObjectAsync(command, Worker.NO_TIMEOUT);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a list, without
+   * waiting for the response. The symbol nil is returned as the empty list.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseObjectAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<CycArrayList> converseListAsync(Object command, long timeoutMsecs) {
+    return converseAsync(command, timeoutMsecs, this::responseToList);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a list, without
+   * waiting for the response, and without a timeout.
+   *
+   * @param command the command string or CycArrayList
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseListAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<CycArrayList> converseListAsync(Object command) {
+    return converseListAsync(command, Worker.NO_TIMEOUT);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a String, without
+   * waiting for the response.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseObjectAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<String> converseStringAsync(Object command, long timeoutMsecs) {
+    return converseAsync(command, timeoutMsecs, this::responseToString);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a String, without
+   * waiting for the response, and without a timeout.
+   *
+   * @param command the command string or CycArrayList
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseStringAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<String> converseStringAsync(Object command) {
+    return converseStringAsync(command, Worker.NO_TIMEOUT);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a boolean, without
+   * waiting for the response.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseObjectAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<Boolean> converseBooleanAsync(Object command, long timeoutMsecs) {
+    return converseAsync(command, timeoutMsecs, this::responseToBoolean);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as a boolean, without
+   * waiting for the response, and without a timeout.
+   *
+   * @param command the command string or CycArrayList
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseBooleanAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<Boolean> converseBooleanAsync(Object command) {
+    return converseBooleanAsync(command, Worker.NO_TIMEOUT);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as an int, without
+   * waiting for the response.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseObjectAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<Integer> converseIntAsync(Object command, long timeoutMsecs) {
+    return converseAsync(command, timeoutMsecs, this::responseToInt);
+  }
+  
+  /**
+   * Converses with Cyc to perform an API command whose result is returned as an int, without
+   * waiting for the response, and without a timeout.
+   *
+   * @param command the command string or CycArrayList
+   *
+   * @return a future for the result of processing the API command
+   * @see #converseIntAsync(java.lang.Object, long)
+   */
+  public CompletableFuture<Integer> converseIntAsync(Object command) {
+    return converseIntAsync(command, Worker.NO_TIMEOUT);
+  }
+  
   /**
    * Wraps the given api command string with the binding environment for bookkeeping assertions.
    *
@@ -382,12 +535,101 @@ public class CycCommandTool implements CommandTool {
     return result;
   }
   
+  /**
+   * Converses with Cyc to perform an API command without waiting for the response. Cancelling the
+   * returned future aborts the command on the Cyc server.
+   *
+   * @param command the command string or CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the result as an object array of two objects
+   * @see com.cyc.baseclient.connection.CycConnectionImpl#converseAsync(java.lang.Object, long)
+   */
+  protected CompletableFuture<Object[]> converseAsync(Object command, long timeoutMsecs) {
+    LOGGER.debug("async command: {}", command);
+    final CompletableFuture<Object[]> result = getCycClient().converseAsync(command, timeoutMsecs);
+    if (LOGGER.isDebugEnabled()) {
+      result.thenAccept(response -> LOGGER.debug(" async result: {}", Arrays.asList(response)));
+    }
+    return result;
+  }
+  
   protected CycAccess getCyc() {
     return this.client;
   }
   
   
   // Private
+  
+  /**
+   * Converses with Cyc to perform an API command without waiting for the response, and converts
+   * the response when it arrives. Cancelling the returned future aborts the command.
+   */
+  private <T> CompletableFuture<T> converseAsync(Object command, long timeoutMsecs,
+          BiFunction<Object, Object[], T> converter) {
+    final CompletableFuture<Object[]> response = converseAsync(command, timeoutMsecs);
+    final CompletableFuture<T> result = response.thenApply(r -> converter.apply(command, r));
+    result.whenComplete((r, ex) -> {
+      if (ex instanceof CancellationException) {
+        response.cancel(false);
+      }
+    });
+    return result;
+  }
+  
+  private Object responseToObject(Object command, Object[] response) throws CycApiException {
+    if (response[0].equals(Boolean.TRUE)) {
+      return response[1];
+    } else {
+      throw new ConverseException(command, this.getCyc(), response);
+    }
+  }
+  
+  private CycArrayList responseToList(Object command, Object[] response) throws CycApiException {
+    if (response[0].equals(Boolean.TRUE)) {
+      if (response[1].equals(CycObjectFactory.nil)) {
+        return new CycArrayList();
+      } else {
+        if (response[1] instanceof CycArrayList) {
+          return (CycArrayList) response[1];
+        }
+      }
+    }
+    throw new ConverseException(command, this.getCyc(), response);
+  }
+  
+  private String responseToString(Object command, Object[] response) throws CycApiException {
+    if (response[0].equals(Boolean.TRUE)) {
+      if (!(response[1] instanceof String)) {
+        throw new BaseClientRuntimeException("Expected String but received (" + response[1].getClass()
+                + ") " + response[1] + "\n in response to command " + command);
+      }
+
+      return (String) response[1];
+    } else {
+      throw new ConverseException(command, this.getCyc(), response);
+    }
+  }
+  
+  private boolean responseToBoolean(Object command, Object[] response) throws CycApiException {
+    if (response[0].equals(Boolean.TRUE)) {
+      if (response[1].toString().equals("T")) {
+        return true;
+      } else {
+        return false;
+      }
+    } else {
+      throw new ConverseException(command, this.getCyc(), response);
+    }
+  }
+  
+  private int responseToInt(Object command, Object[] response) throws CycApiException {
+    if (response[0].equals(Boolean.TRUE)) {
+      return Integer.valueOf(response[1].toString());
+    } else {
+      throw new ConverseException(command, this.getCyc(), response);
+    }
+  }
     
   private CycClient getCycClient() {
     return CycClientManager.getClientManager().fromCycAccess(getCyc());
@@ -44,6 +44,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.parsers.DocumentBuilder;
@@ -57,6 +58,8 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Provides the way to create cyc objects and reuse previously cached instances.<br>
@@ -99,20 +102,25 @@ public class CycObjectFactory {
    */
   public static final CycArrayList END_CYC_CONNECTION = (new CycArrayList(makeCycSymbol(
           "end-cyc-connection")));
+  /**
+   * The system property which sets the size of each of the constant caches.
+   */
+  public static final String CONSTANT_CACHE_SIZE_PROPERTY = "com.cyc.baseclient.constantCacheSize";
   /**
    * the default size of the constant cache by name
    */
-  public static final int CONSTANT_CACHE_BY_NAME_SIZE = 10000;
+  public static final int CONSTANT_CACHE_BY_NAME_SIZE
+          = Math.max(1, Integer.getInteger(CONSTANT_CACHE_SIZE_PROPERTY, 10000));
   /**
    * Least Recently Used Cache of CycConstants, so that a reference to an existing <tt>CycConstantImpl</tt>
    * is returned instead of constructing a duplicate. Indexed via the name, so is optimised for the ascii api.
    */
-  protected static LruCache cycConstantCacheByName = new LruCache(1000,
-          CONSTANT_CACHE_BY_NAME_SIZE, true);
+  protected static LruCache cycConstantCacheByName = new LruCache(
+          Math.min(1000, CONSTANT_CACHE_BY_NAME_SIZE), CONSTANT_CACHE_BY_NAME_SIZE, true);
   /**
    * the default size of the constant cache by GUID
    */
-  public static final int CONSTANT_CACHE_BY_GUID_SIZE = 10000;
+  public static final int CONSTANT_CACHE_BY_GUID_SIZE = CONSTANT_CACHE_BY_NAME_SIZE;
   /**
    * Least Recently Used Cache of CycConstants, so that a reference to an existing <tt>CycConstantImpl</tt>
    * is returned instead of constructing a duplicate. Indexed via the guid.
@@ -135,6 +143,12 @@ public class CycObjectFactory {
    * is returned instead of constructing a duplicate.
    */
   protected static LruCache guidCache = new LruCache(500, 500, true);
+  /**
+   * the listeners notified when a constant is invalidated
+   */
+  private static final CopyOnWriteArrayList<ConstantChangeListener> CONSTANT_CHANGE_LISTENERS
+          = new CopyOnWriteArrayList<>();
+  private static final Logger LOGGER = LoggerFactory.getLogger(CycObjectFactory.class);
   /**
    * the default size of the variable cache
    */
@@ -267,7 +281,7 @@ public class CycObjectFactory {
     cycConstantCacheByName = new LruCache(CONSTANT_CACHE_BY_NAME_SIZE,
             CONSTANT_CACHE_BY_NAME_SIZE, true);
     cycConstantCacheByGuid = new LruCache(CONSTANT_CACHE_BY_GUID_SIZE,
-            CONSTANT_CACHE_BY_NAME_SIZE, true);
+            CONSTANT_CACHE_BY_GUID_SIZE, true);
   }
 
   /**
@@ -309,13 +323,49 @@ public class CycObjectFactory {
       }
     }
     if (cycConstant.getGuid() != null) {
-      Object element = cycConstantCacheByGuid.get(cycConstant.getGuid());
+      Object element = cycConstantCacheByGuid.get(cycConstant.getGuid().toString());
       if (element != null) {
-        cycConstantCacheByGuid.put(cycConstant.getGuid(), null);
+        cycConstantCacheByGuid.put(cycConstant.getGuid().toString(), null);
       }
     }
   }
 
+  /**
+   * Removes the constant affected by <code>event</code> from the caches, by its former name and by
+   * its guid, then notifies the registered {@link ConstantChangeListener}s.
+   *
+   * @param event the change made to the constant on the Cyc server
+   */
+  public static void invalidateCycConstant(final ConstantChangeEvent event) {
+    if (event.getName() != null) {
+      cycConstantCacheByName.remove(event.getName());
+    }
+    if (event.getGuid() != null) {
+      cycConstantCacheByGuid.remove(event.getGuid().toString());
+    }
+    for (ConstantChangeListener listener : CONSTANT_CHANGE_LISTENERS) {
+      try {
+        listener.constantChanged(event);
+      } catch (RuntimeException ex) {
+        LOGGER.error("Constant change listener " + listener + " failed for " + event, ex);
+      }
+    }
+  }
+
+  /**
+   * Registers <code>listener</code> to be notified of each constant invalidated by
+   * {@link #invalidateCycConstant(ConstantChangeEvent)}.
+   *
+   * @param listener the listener
+   */
+  public static void addConstantChangeListener(final ConstantChangeListener listener) {
+    CONSTANT_CHANGE_LISTENERS.addIfAbsent(listener);
+  }
+
+  public static void removeConstantChangeListener(final ConstantChangeListener listener) {
+    CONSTANT_CHANGE_LISTENERS.remove(listener);
+  }
+
   /**
    * Returns the size of the <tt>CycConstant</tt> object cache by id.
    *
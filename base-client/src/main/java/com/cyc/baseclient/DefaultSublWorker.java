@@ -40,6 +40,7 @@ import java.io.IOException;
 import java.util.EventListener;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.event.EventListenerList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -143,6 +144,12 @@ public class DefaultSublWorker implements Worker {
    */
   private final EventListenerList listeners = new EventListenerList();
   
+  /**
+   * Serializes the delivery of events to listeners. A lock is used rather than a monitor so that
+   * a listener which blocks does not pin the carrier of a virtual thread.
+   */
+  private final ReentrantLock listenersLock = new ReentrantLock();
+  
   private final BlockingQueue<NotificationTask> notificationQueue = new LinkedBlockingQueue<>();
   
   private final CycList subLCommand;
@@ -687,17 +694,20 @@ public class DefaultSublWorker implements Worker {
         event.getEventType().getName());
     }
     setId(event.getId());
-    synchronized(listeners) {
-   Object[] curListeners = listeners.getListenerList();
-    for (int i = curListeners.length-2; i >= 0; i -= 2) {
-      if (curListeners[i] == LISTENER_CLASS) {
-        try {
-          ((WorkerListener)curListeners[i+1]).notifySublWorkerStarted(event);
-        } catch (Exception e) {
-          LOGGER.warn(e.getMessage(), e);
+    listenersLock.lock();
+    try {
+      Object[] curListeners = listeners.getListenerList();
+      for (int i = curListeners.length-2; i >= 0; i -= 2) {
+        if (curListeners[i] == LISTENER_CLASS) {
+          try {
+            ((WorkerListener)curListeners[i+1]).notifySublWorkerStarted(event);
+          } catch (Exception e) {
+            LOGGER.warn(e.getMessage(), e);
+          }
         }
       }
-    }
+    } finally {
+      listenersLock.unlock();
     }
   }
     
@@ -713,20 +723,23 @@ public class DefaultSublWorker implements Worker {
       throw new BaseClientRuntimeException("Got bad event type; " + 
         event.getEventType().getName());
     } 
-    synchronized(listeners) {
-   Object[] curListeners = listeners.getListenerList();
-    for (int i = curListeners.length-2; i >= 0; i -= 2) {
-      if (curListeners[i] == LISTENER_CLASS) {
-        try {
-          //System.out.println("GOT DATA FOR SUBL CALL: " + event);
-          ((WorkerListener)curListeners[i+1]).notifySublWorkerDataAvailable(event);
-        } catch (Exception e) {
-          LOGGER.warn(e.getMessage(), e);
+    listenersLock.lock();
+    try {
+      Object[] curListeners = listeners.getListenerList();
+      for (int i = curListeners.length-2; i >= 0; i -= 2) {
+        if (curListeners[i] == LISTENER_CLASS) {
+          try {
+            //System.out.println("GOT DATA FOR SUBL CALL: " + event);
+            ((WorkerListener)curListeners[i+1]).notifySublWorkerDataAvailable(event);
+          } catch (Exception e) {
+            LOGGER.warn(e.getMessage(), e);
+          }
         }
       }
+    } finally {
+      listenersLock.unlock();
     }
   }
-  }
     
   /**
    * Public for implementation reasons only, this method should
@@ -741,19 +754,22 @@ public class DefaultSublWorker implements Worker {
         event.getEventType().getName());
     }
     setStatus(event.getStatus());
-    synchronized(listeners) {
-   Object[] curListeners = listeners.getListenerList();
-    for (int i = curListeners.length-2; i >= 0; i -= 2) {
-      if (curListeners[i] == LISTENER_CLASS) {
-        try {
-          ((WorkerListener)curListeners[i+1]).notifySublWorkerTerminated(event);
-        } catch (Exception e) {
-          LOGGER.warn(e.getMessage(), e);
+    listenersLock.lock();
+    try {
+      Object[] curListeners = listeners.getListenerList();
+      for (int i = curListeners.length-2; i >= 0; i -= 2) {
+        if (curListeners[i] == LISTENER_CLASS) {
+          try {
+            ((WorkerListener)curListeners[i+1]).notifySublWorkerTerminated(event);
+          } catch (Exception e) {
+            LOGGER.warn(e.getMessage(), e);
+          }
         }
       }
+    } finally {
+      listenersLock.unlock();
     }
   }
-  }
   
   /**
    * Indicates whether this communication should be attempted even if
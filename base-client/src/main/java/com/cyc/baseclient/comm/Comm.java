@@ -24,7 +24,9 @@ package com.cyc.baseclient.comm;
 import com.cyc.baseclient.exception.CommException;
 import com.cyc.base.exception.CycConnectionException;
 import com.cyc.base.connection.CycConnection;
+import com.cyc.baseclient.connection.DirectBufferOutputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /** 
  * <P>Comm is an interface that can be used to create new CycAccess objects
@@ -66,6 +68,24 @@ public interface Comm {
    */
   InputStream sendRequest(byte request[], String requestSummary, RequestType requestType) throws CommException, CycConnectionException;
 
+  /**
+   * Send a request to Cyc, held in a sequence of buffers. Implementations backed by a socket
+   * channel should write the buffers with a gathering write; by default, the buffers are copied
+   * into a byte array and sent via {@link #sendRequest(byte[], String, RequestType)}.
+   *
+   * @param request The buffers holding the bytes in the request to send to Cyc. The bytes between
+   * each buffer's position and limit are sent.
+   * @param requestSummary This should be the results of calling makeRequestSummary() on the text of the request.
+   * @param requestType The type of request.
+   * @return InputStream that should be used to read the requested results.
+   * @throws CommException If a  problem with Cyc is encountered.
+   * @throws CycConnectionException if a fundamental communications error occurs
+   */
+  default InputStream sendRequest(ByteBuffer[] request, String requestSummary, RequestType requestType)
+          throws CommException, CycConnectionException {
+    return sendRequest(DirectBufferOutputStream.toByteArray(request), requestSummary, requestType);
+  }
+
   /**
    * Given the text of a request to Cyc, generate a summary that can be used for logging the request. 
    *
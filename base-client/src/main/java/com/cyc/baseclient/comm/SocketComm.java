@@ -26,8 +26,12 @@ import com.cyc.base.exception.CycConnectionException;
 import com.cyc.base.connection.CycConnection;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import com.cyc.baseclient.connection.CycConnectionImpl;
+import com.cyc.baseclient.connection.DirectBufferOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +55,7 @@ public class SocketComm extends AbstractComm implements Comm {
   private final String hostName;
   private final int port;
   private Socket socket;
+  private SocketChannel channel;
   private InputStream inputStream;
   private CommOutputStream outputStream;
   private boolean isInitialized = false;
@@ -67,7 +72,10 @@ public class SocketComm extends AbstractComm implements Comm {
     switch (requestType) {
       case INIT:
         try {
-          socket = new Socket(this.hostName, this.port);
+          // Open the request socket through a channel, so requests held in buffers can be sent
+          // with gathering writes:
+          channel = SocketChannel.open(new InetSocketAddress(this.hostName, this.port));
+          socket = channel.socket();
           int val1 = socket.getReceiveBufferSize();
           socket.setReceiveBufferSize(val1 * 2);
           socket.setTcpNoDelay(true);
@@ -106,6 +114,26 @@ public class SocketComm extends AbstractComm implements Comm {
     }
   }
 
+  @Override
+  public InputStream sendRequest(ByteBuffer[] request, String requestSummary, RequestType requestType)
+          throws CommException, CycConnectionException {
+    if (requestType != RequestType.NORMAL) {
+      return super.sendRequest(request, requestSummary, requestType);
+    }
+    LOGGER.debug("{}", requestSummary);
+    possiblyInitializeCommWIthServer();
+    CommOutputStream oStream = outputStream;
+    synchronized (oStream) {
+      try {
+        oStream.flush();
+        DirectBufferOutputStream.writeFully(channel, request);
+      } catch (IOException ioe) {
+        throw new CycConnectionException(ioe);
+      }
+    }
+    return inputStream;
+  }
+
   public synchronized void possiblyInitializeCommWIthServer()
           throws CommException, CycConnectionException {
     try {
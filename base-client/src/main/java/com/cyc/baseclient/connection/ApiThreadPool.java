@@ -23,7 +23,8 @@ package com.cyc.baseclient.connection;
 
 //// Internal Imports
 
-import java.util.concurrent.BlockingQueue;
+import com.cyc.baseclient.util.VirtualThreads;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
@@ -49,7 +50,18 @@ public class ApiThreadPool extends ThreadPoolExecutor {
   /** Creates a new instance of ApiThreadPool. */
   public ApiThreadPool() {
     super(MIN_THREADS, MAX_THREADS, KEEP_ALIVE_TIME, KEEP_ALIVE_UNITS,
-      DEFAULT_WORK_QUEUE, DEFAULT_THREAD_FACTORY);
+      new SynchronousQueue<Runnable>(), DEFAULT_THREAD_FACTORY);
+  }
+  
+  /**
+   * Creates the executor which handles API responses for a connection, delivering notifications
+   * to workers and calling their listeners. When {@link VirtualThreads#isEnabled() virtual threads
+   * are enabled} it runs each task on its own virtual thread; otherwise it is a new ApiThreadPool.
+   *
+   * @return a new executor for API response handling
+   */
+  public static ExecutorService newApiExecutor() {
+    return VirtualThreads.newExecutor("SubL Virtual Thread #", ApiThreadPool::new);
   }
   
   public static synchronized ApiThreadPool getDefaultPool() {
@@ -83,7 +95,6 @@ public class ApiThreadPool extends ThreadPoolExecutor {
 
   private static final int MIN_THREADS = 4;
   private static final int MAX_THREADS = 50;
-  private static final BlockingQueue<Runnable> DEFAULT_WORK_QUEUE = new SynchronousQueue<Runnable>();
   private static final int KEEP_ALIVE_TIME = 60;
   private static final TimeUnit KEEP_ALIVE_UNITS = TimeUnit.SECONDS;
   private static final ThreadFactory DEFAULT_THREAD_FACTORY = new ThreadFactory() {
@@ -0,0 +1,231 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: BackquoteExpander.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cyc.baseclient.CycObjectFactory.makeCycSymbol;
+
+/**
+ * Expands the backquoted templates in a SubL command into the equivalent <code>list</code>,
+ * <code>append</code> and <code>quote</code> forms, so that the command can be sent to Cyc without
+ * first asking Cyc to read it.
+ *
+ * <p>{@link com.cyc.baseclient.cycobject.CycListParser} reads <code>`(a ,b ,@c)</code> into
+ * the backquote symbol followed by the template, <code>` (A , B ,@ C)</code>, and likewise for
+ * commas. This is expanded to <code>(append (list (quote a) b) c)</code>. Cyc's reader would
+ * expand it into <code>bq-list</code> and <code>bq-append</code> forms instead, but those are
+ * internal to its reader, whereas <code>list</code>, <code>append</code> and <code>quote</code> are
+ * available to every API request and build the same structure. A backquote nested within a
+ * template, other than within a comma, is not expanded; such commands are left for Cyc to read.
+ */
+final class BackquoteExpander {
+
+  //// Constructors
+
+  private BackquoteExpander() {
+  }
+
+  //// Protected Area
+
+  /**
+   * Returns true if a command may contain a backquote, in constant time for a
+   * {@link CycArrayList}; see {@link CycArrayList#mayContainBackquote()}.
+   *
+   * @param command the command
+   *
+   * @return false if the command does not contain a backquote
+   */
+  static boolean mayContainBackquote(CycList command) {
+    return (command instanceof CycArrayList)
+           ? ((CycArrayList) command).mayContainBackquote()
+           : command.treeContains(CycObjectFactory.backquote);
+  }
+
+  /**
+   * Expands the backquoted templates in a command. The command itself is not modified; lists
+   * which contain no backquote are shared with the result.
+   *
+   * @param command the command
+   *
+   * @return the expanded command, or null if it contains a nested backquote
+   *
+   * @throws CycApiException if a backquote or comma is not followed by a form
+   */
+  static CycList expand(CycList command) throws CycApiException {
+    try {
+      return (CycList) expandForms(command);
+    } catch (NestedBackquoteException ex) {
+      return null;
+    }
+  }
+
+  //// Private Area
+
+  /**
+   * Expands the backquoted templates within a form which is to be evaluated.
+   */
+  private static Object expandForms(Object form) {
+    if (!(form instanceof CycList)
+            || ((form instanceof CycArrayList) && !((CycArrayList) form).mayContainBackquote())) {
+      return form;
+    }
+    final CycList<?> list = (CycList) form;
+    final CycArrayList<Object> result = new CycArrayList<>(list.getProperListSize());
+    boolean changed = false;
+    for (int i = 0; i < list.getProperListSize(); i++) {
+      final Object element = list.get(i);
+      if (isMarker(element, BACKQUOTE)) {
+        final Object template = operand(list, ++i, element);
+        if (isMarker(template, COMMA)) {
+          // `,x is just x:
+          result.add(expandForms(operand(list, ++i, template)));
+        } else if (isMarker(template, COMMA_AT)) {
+          throw new CycApiException(",@ after ` in " + list.cyclify());
+        } else {
+          result.add(expandTemplate(template));
+        }
+        changed = true;
+      } else {
+        final Object expanded = expandForms(element);
+        changed |= (expanded != element);
+        result.add(expanded);
+      }
+    }
+    if (!list.isProperList()) {
+      final Object expanded = expandForms(list.getDottedElement());
+      changed |= (expanded != list.getDottedElement());
+      result.setDottedElement(expanded);
+    }
+    return changed ? result : form;
+  }
+
+  /**
+   * Returns a form which evaluates to the template, with the forms following each comma
+   * evaluated.
+   */
+  private static Object expandTemplate(Object template) {
+    if (isMarker(template, BACKQUOTE)) {
+      throw new NestedBackquoteException();
+    } else if (!(template instanceof CycList)) {
+      return ((template instanceof Number) || (template instanceof String))
+             ? template
+             : quote(template);
+    }
+    final CycList<?> list = (CycList) template;
+    // The segments to be appended, each either a (list ...) form or a spliced form:
+    final List<Object> segments = new ArrayList<>();
+    CycArrayList<Object> items = null;
+    boolean literal = true;
+    for (int i = 0; i < list.getProperListSize(); i++) {
+      final Object element = list.get(i);
+      final Object form;
+      if (isMarker(element, COMMA)) {
+        form = expandForms(operand(list, ++i, element));
+        literal = false;
+      } else if (isMarker(element, COMMA_AT)) {
+        if (items != null) {
+          segments.add(items);
+          items = null;
+        }
+        segments.add(expandForms(operand(list, ++i, element)));
+        literal = false;
+        continue;
+      } else {
+        form = expandTemplate(element);
+        literal &= isLiteral(form, element);
+      }
+      if (items == null) {
+        items = new CycArrayList<>();
+        items.add(LIST);
+      }
+      items.add(form);
+    }
+    if (items != null) {
+      segments.add(items);
+    }
+    if (!list.isProperList()) {
+      final Object form = expandTemplate(list.getDottedElement());
+      literal &= isLiteral(form, list.getDottedElement());
+      segments.add(form);
+    }
+    if (literal) {
+      return quote(template);
+    } else if ((segments.size() == 1) && (segments.get(0) == items)) {
+      return items;
+    }
+    final CycArrayList<Object> append = new CycArrayList<>(segments.size() + 1);
+    append.add(APPEND);
+    append.addAll(segments);
+    return append;
+  }
+
+  private static Object operand(CycList<?> list, int index, Object marker) {
+    if (index >= list.getProperListSize()) {
+      throw new CycApiException(marker + " is not followed by a form in " + list.cyclify());
+    }
+    return list.get(index);
+  }
+
+  private static boolean isMarker(Object object, String name) {
+    return (object instanceof CycSymbolImpl)
+           && name.equals(((CycSymbolImpl) object).getSymbolName());
+  }
+
+  /**
+   * Returns true iff <code>form</code> evaluates to <code>template</code> without substitution.
+   */
+  private static boolean isLiteral(Object form, Object template) {
+    return (form == template)
+           || ((form instanceof CycList) && (((CycList) form).size() == 2)
+               && (((CycList) form).first() == QUOTE) && (((CycList) form).second() == template));
+  }
+
+  private static CycList quote(Object object) {
+    return CycArrayList.makeCycList(QUOTE, object);
+  }
+
+  //// Internal Rep
+
+  private static final String BACKQUOTE = "`";
+  private static final String COMMA = ",";
+  private static final String COMMA_AT = ",@";
+
+  private static final CycSymbolImpl QUOTE = CycObjectFactory.quote;
+  private static final CycSymbolImpl LIST = makeCycSymbol("list");
+  private static final CycSymbolImpl APPEND = makeCycSymbol("append");
+
+  /** Signals a nested backquote, which is not expanded. */
+  private static class NestedBackquoteException extends RuntimeException {
+
+    private NestedBackquoteException() {
+      super(null, null, false, false);
+    }
+  }
+
+}
@@ -0,0 +1,311 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: BatchSublWorkerSynch.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+//// Internal Imports
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.exception.CycTimeOutException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.exception.CycApiServerSideException;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <P>BatchSublWorkerSynch evaluates a batch of SubL commands in a single task-processor request,
+ * and splits the response back into one {@link CommandResult} per command. Each command is
+ * evaluated inside its own error handler on the Cyc server, so an error in one command is reported
+ * for that command only and does not prevent the remaining commands from being evaluated.
+ *
+ * <P>The commands are evaluated in order, within a single task process. Backquotes are expanded
+ * on the client, as by {@link CycConnectionImpl#converse(java.lang.Object)}, but commands with
+ * nested backquotes are not supported.
+ *
+ * <P>Example usage: <code>
+ *  List&lt;Object&gt; commands = Arrays.asList("(+ 1 1)", "(/ 1 0)");
+ *  BatchSublWorkerSynch worker = new BatchSublWorkerSynch(commands, access);
+ *  for (BatchSublWorkerSynch.CommandResult result : worker.getResults()) {
+ *    System.out.println(result);
+ *  }
+ * </code>
+ *
+ * @see com.cyc.baseclient.CycCommandTool#converseBatch(java.util.List)
+ */
+public class BatchSublWorkerSynch extends DefaultSublWorkerSynch {
+
+  //// Constructors
+
+  /**
+   * Creates a new instance of BatchSublWorkerSynch.
+   *
+   * @param commands     the SubL commands, each either a String or a CycList
+   * @param access       the Cyc server that should process the SubL commands
+   * @param timeoutMsecs the max time to wait in msecs for the whole batch to be completed before
+   *                     giving up (0 means to wait forever)
+   * @param priority     the priority at which the worker will be scheduled on the CYC server side
+   */
+  public BatchSublWorkerSynch(List<?> commands,
+                              CycAccess access,
+                              long timeoutMsecs,
+                              Integer priority) {
+    this(access, toCycLists(commands, access), timeoutMsecs, priority);
+  }
+
+  /**
+   * Creates a new instance of BatchSublWorkerSynch with the default priority.
+   *
+   * @param commands     the SubL commands, each either a String or a CycList
+   * @param access       the Cyc server that should process the SubL commands
+   * @param timeoutMsecs the max time to wait in msecs for the whole batch to be completed before
+   *                     giving up (0 means to wait forever)
+   */
+  public BatchSublWorkerSynch(List<?> commands, CycAccess access, long timeoutMsecs) {
+    this(commands, access, timeoutMsecs, PRIORITY_DEFAULT);
+  }
+
+  /**
+   * Creates a new instance of BatchSublWorkerSynch with no timeout and the default priority.
+   *
+   * @param commands the SubL commands, each either a String or a CycList
+   * @param access   the Cyc server that should process the SubL commands
+   */
+  public BatchSublWorkerSynch(List<?> commands, CycAccess access) {
+    this(commands, access, TIMEOUT_MSECS_DEFAULT);
+  }
+
+  private BatchSublWorkerSynch(CycAccess access,
+                               List<CycList> commandLists,
+                               long timeoutMsecs,
+                               Integer priority) {
+    super(makeBatchCommand(commandLists), access, timeoutMsecs, priority);
+    this.commands = Collections.unmodifiableList(commandLists);
+  }
+
+  //// Public Area
+
+  /**
+   * Starts communications with the Cyc server, waits for the whole batch to be evaluated, then
+   * returns one result per command, in the order in which the commands were given.
+   *
+   * @return the results of the commands
+   *
+   * @throws CycConnectionException if communications with the Cyc server fail
+   * @throws CycTimeOutException if the batch takes too long to be evaluated
+   * @throws CycApiException if the batch as a whole could not be evaluated
+   * @throws CycTaskInterruptedException if the task is interrupted
+   */
+  public List<CommandResult> getResults()
+          throws CycConnectionException, CycTimeOutException, CycApiException, CycTaskInterruptedException {
+    if (results == null) {
+      results = parseResults(commands, getWork());
+    }
+    return results;
+  }
+
+  /**
+   * Returns the SubL commands of this batch, as CycLists.
+   *
+   * @return the SubL commands of this batch
+   */
+  public List<CycList> getCommands() {
+    return commands;
+  }
+
+  /**
+   * The outcome of evaluating one command of a batch: either a value, or the message of the error
+   * which the Cyc server signaled while evaluating the command.
+   */
+  public static class CommandResult {
+
+    private final CycList command;
+    private final Object value;
+    private final String errorMessage;
+
+    CommandResult(CycList command, Object value, String errorMessage) {
+      this.command = command;
+      this.value = value;
+      this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Returns the command which produced this result.
+     *
+     * @return the command
+     */
+    public CycList getCommand() {
+      return command;
+    }
+
+    /**
+     * Returns true iff the command was evaluated without error.
+     *
+     * @return true iff the command was evaluated without error
+     */
+    public boolean isSuccessful() {
+      return errorMessage == null;
+    }
+
+    /**
+     * Returns the error message signaled by the Cyc server, or null if the command succeeded.
+     *
+     * @return the error message, or null
+     */
+    public String getErrorMessage() {
+      return errorMessage;
+    }
+
+    /**
+     * Returns the value of the command.
+     *
+     * @return the value of the command
+     * @throws CycApiServerSideException if the command signaled an error on the Cyc server
+     */
+    public Object getValue() throws CycApiServerSideException {
+      if (errorMessage != null) {
+        throw new CycApiServerSideException(errorMessage + "\nrequest: " + command.cyclify());
+      }
+      return value;
+    }
+
+    /**
+     * Returns the value of the command as a boolean, in the same manner as
+     * {@link com.cyc.base.CommandTool#converseBoolean(java.lang.Object)}.
+     *
+     * @return the value of the command as a boolean
+     * @throws CycApiServerSideException if the command signaled an error on the Cyc server
+     */
+    public boolean getBooleanValue() throws CycApiServerSideException {
+      return getValue().toString().equals("T");
+    }
+
+    @Override
+    public String toString() {
+      return isSuccessful()
+              ? command.cyclify() + " => " + value
+              : command.cyclify() + " => error: " + errorMessage;
+    }
+  }
+
+  //// Protected Area
+
+  /**
+   * Builds <code>(list (clet (result error) (catch-error-message (error) (csetq result
+   * COMMAND)) (fif error (list :error error) (list :ok result))) ...)</code> for the given
+   * commands.
+   */
+  static CycList makeBatchCommand(List<CycList> commandLists) {
+    final CycArrayList batch = new CycArrayList(commandLists.size() + 1);
+    batch.add(LIST);
+    for (CycList command : commandLists) {
+      final CycArrayList catchError = new CycArrayList();
+      catchError.add(CATCH_ERROR_MESSAGE);
+      catchError.add(CycArrayList.makeCycList(ERROR_VAR));
+      catchError.add(CycArrayList.makeCycList(CSETQ, RESULT_VAR, command));
+      final CycArrayList outcome = new CycArrayList();
+      outcome.add(FIF);
+      outcome.add(ERROR_VAR);
+      outcome.add(CycArrayList.makeCycList(LIST, ERROR_KEYWORD, ERROR_VAR));
+      outcome.add(CycArrayList.makeCycList(LIST, OK_KEYWORD, RESULT_VAR));
+      final CycArrayList evaluation = new CycArrayList();
+      evaluation.add(CLET);
+      evaluation.add(CycArrayList.makeCycList(RESULT_VAR, ERROR_VAR));
+      evaluation.add(catchError);
+      evaluation.add(outcome);
+      batch.add(evaluation);
+    }
+    return batch;
+  }
+
+  /**
+   * Splits the response to a {@link #makeBatchCommand batch command} into one result per command.
+   */
+  static List<CommandResult> parseResults(List<CycList> commands, Object work) {
+    if (!(work instanceof List) && !CycObjectFactory.nil.equals(work)) {
+      throw new CycApiException("Invalid batch response " + work + " for "
+              + makeBatchCommand(commands).cyclify());
+    }
+    final List<?> responses = (work instanceof List) ? (List<?>) work : Collections.emptyList();
+    if (responses.size() != commands.size()) {
+      throw new CycApiException("Expected " + commands.size() + " batch responses but received "
+              + responses.size());
+    }
+    final List<CommandResult> parsed = new ArrayList<>(responses.size());
+    for (int i = 0; i < responses.size(); i++) {
+      final List<?> response = (List<?>) responses.get(i);
+      if (ERROR_KEYWORD.equals(response.get(0))) {
+        parsed.add(new CommandResult(commands.get(i), null, String.valueOf(response.get(1))));
+      } else {
+        parsed.add(new CommandResult(commands.get(i), response.get(1), null));
+      }
+    }
+    return Collections.unmodifiableList(parsed);
+  }
+
+  //// Private Area
+
+  private static List<CycList> toCycLists(List<?> commands, CycAccess access) {
+    final List<CycList> commandLists = new ArrayList<>(commands.size());
+    for (Object command : commands) {
+      if (command instanceof CycList) {
+        commandLists.add(expandBackquotes((CycList) command));
+      } else if (command instanceof String) {
+        commandLists.add(expandBackquotes(access.getObjectTool().makeCycList((String) command)));
+      } else {
+        throw new CycApiException("Invalid class for batched command " + command);
+      }
+    }
+    return commandLists;
+  }
+
+  private static CycList expandBackquotes(CycList command) {
+    if (!BackquoteExpander.mayContainBackquote(command)) {
+      return command;
+    }
+    final CycList expanded = BackquoteExpander.expand(command);
+    if (expanded == null) {
+      throw new CycApiException("Nested backquotes cannot be batched: " + command.cyclify());
+    }
+    return expanded;
+  }
+
+  //// Internal Rep
+
+  private static final CycSymbolImpl LIST = CycObjectFactory.makeCycSymbol("list");
+  private static final CycSymbolImpl CLET = CycObjectFactory.makeCycSymbol("clet");
+  private static final CycSymbolImpl CSETQ = CycObjectFactory.makeCycSymbol("csetq");
+  private static final CycSymbolImpl FIF = CycObjectFactory.makeCycSymbol("fif");
+  private static final CycSymbolImpl CATCH_ERROR_MESSAGE = CycObjectFactory.makeCycSymbol("catch-error-message");
+  private static final CycSymbolImpl RESULT_VAR = CycObjectFactory.makeCycSymbol("batch-command-result");
+  private static final CycSymbolImpl ERROR_VAR = CycObjectFactory.makeCycSymbol("batch-command-error");
+  private static final CycSymbolImpl OK_KEYWORD = CycObjectFactory.makeCycSymbol(":OK");
+  private static final CycSymbolImpl ERROR_KEYWORD = CycObjectFactory.makeCycSymbol(":ERROR");
+
+  private final List<CycList> commands;
+  private volatile List<CommandResult> results = null;
+
+}
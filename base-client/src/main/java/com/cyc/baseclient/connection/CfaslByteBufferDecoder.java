@@ -0,0 +1,616 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CfaslByteBufferDecoder.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycAssertion;
+import com.cyc.base.cycobject.CycConstant;
+import com.cyc.base.cycobject.CycObject;
+import com.cyc.base.exception.BaseClientRuntimeException;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.ByteArray;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycAssertionImpl;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.cycobject.CycTermInterner;
+import com.cyc.baseclient.cycobject.CycVariableImpl;
+import com.cyc.baseclient.cycobject.GuidImpl;
+import com.cyc.baseclient.cycobject.NartImpl;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.cyc.baseclient.connection.CfaslInputStream.*;
+
+/**
+ * A CFASL decoder which reads from a {@link ByteBuffer}, as an alternative to
+ * {@link CfaslInputStream} for callers which already hold CFASL-encoded bytes in memory. It
+ * produces the same objects as CfaslInputStream, but reads fixnum bodies, strings, GUIDs and byte
+ * vectors with bulk buffer operations rather than one <code>read()</code> call per byte, probes
+ * opcodes with absolute gets rather than <code>mark</code>/<code>reset</code>, and decodes
+ * strings from direct buffers through a scratch array which is reused across calls. GUIDs which
+ * the decoder has read recently are found from their 16 bytes, without building a UUID or a
+ * string.
+ *
+ * <p>It is meant for CFASL which is already in memory, such as the compact HL IDs decoded by
+ * {@link CompactHlidConverter}. Responses are still read from a connection's socket by
+ * CfaslInputStream, which decodes them as they arrive, without knowing their length in advance.
+ *
+ * <p>{@link #readObject(ByteBuffer)} returns fixnums boxed, as CfaslInputStream does, although
+ * immediate fixnums come from Integer's cache. Callers which expect a fixnum or a float can read
+ * it as a primitive with {@link #readFixnum(ByteBuffer)} or {@link #readDouble(ByteBuffer)}.
+ *
+ * <p>If the buffer ends partway through an object, {@link #readObject(ByteBuffer)} throws a
+ * {@link BufferUnderflowException} and leaves the buffer's position where it was, so the caller
+ * may read more bytes into the buffer and try again.
+ *
+ * <p>A decoder is not thread-safe, but may be reused for any number of buffers.
+ *
+ * @see CfaslInputStream
+ */
+public class CfaslByteBufferDecoder {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CfaslByteBufferDecoder.class);
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final int DEFAULT_SCRATCH_SIZE = 1024;
+
+  /** log2 of the number of recently read GUIDs which are remembered */
+  private static final int GUID_CACHE_BITS = 8;
+
+  private static final CycSymbolImpl FREE_SYMBOL = CycObjectFactory.makeCycSymbol(":FREE");
+
+  /**
+   * Parameter that when set true, causes CFASL object errors to be reported back as strings the
+   * caller.
+   */
+  private boolean reportCfaslErrors = false;
+
+  /** indicator that the input contains something invalid, for example an invalid constant */
+  private boolean isInvalidObject = false;
+
+  /** reused to decode strings from buffers which are not backed by an accessible array */
+  private byte[] scratch = new byte[DEFAULT_SCRATCH_SIZE];
+
+  /**
+   * The GUIDs read recently, indexed by a hash of their bits, which are held alongside them so
+   * that a GUID can be found without building it.
+   */
+  private final GuidImpl[] recentGuids = new GuidImpl[1 << GUID_CACHE_BITS];
+  private final long[] recentGuidMsbs = new long[1 << GUID_CACHE_BITS];
+  private final long[] recentGuidLsbs = new long[1 << GUID_CACHE_BITS];
+
+  //// Constructors
+
+  /** Creates a new CfaslByteBufferDecoder. */
+  public CfaslByteBufferDecoder() {
+  }
+
+  //// Public Area
+
+  /**
+   * Sets whether unknown CFASL opcodes are returned as strings, rather than signaling an error.
+   *
+   * @param reportCfaslErrors true iff unknown opcodes should be returned as strings
+   */
+  public void setReportCfaslErrors(boolean reportCfaslErrors) {
+    this.reportCfaslErrors = reportCfaslErrors;
+  }
+
+  /** Gets the indicator that the input contains something invalid, for example an invalid constant.
+   *
+   * @return the indicator that the input contains something invalid, for example an invalid constant
+   */
+  public boolean isInvalidObject() {
+    return isInvalidObject;
+  }
+
+  /** Resets the indicator that the input contains something invalid, for example an invalid constant.  */
+  public void resetIsInvalidObject() {
+    isInvalidObject = false;
+  }
+
+  /**
+   * Reads an Object from <code>buffer</code>, starting at its position. On success, the position
+   * is advanced past the object. Basic Java types are wrapped as appropriate, exactly as by
+   * {@link CfaslInputStream#readObject()}.
+   *
+   * @param buffer the buffer holding the CFASL-encoded object
+   *
+   * @return the object read
+   *
+   * @throws BufferUnderflowException if the buffer holds only part of the object, in which case
+   *         the buffer's position is left unchanged
+   */
+  public Object readObject(ByteBuffer buffer) {
+    final int start = buffer.position();
+    try {
+      return readObjectInternal(buffer);
+    } catch (BufferUnderflowException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns true iff the next object in <code>buffer</code> is a fixnum, i.e. an integer which can
+   * be read by {@link #readFixnum(ByteBuffer)}. The buffer's position is not changed.
+   *
+   * @param buffer the buffer holding the CFASL-encoded object
+   *
+   * @return true iff the next object is a fixnum
+   *
+   * @throws BufferUnderflowException if the buffer has no remaining bytes
+   */
+  public boolean isFixnumNext(ByteBuffer buffer) {
+    final int opcode = peekOpcode(buffer);
+    return (opcode >= CFASL_IMMEDIATE_FIXNUM_OFFSET)
+            || (opcode >= CFASL_P_8BIT_INT && opcode <= CFASL_N_32BIT_INT);
+  }
+
+  /**
+   * Reads a fixnum from <code>buffer</code> as a primitive int, without boxing it. If the next
+   * object is not a fixnum, an exception is thrown and the buffer's position is left unchanged.
+   *
+   * @param buffer the buffer holding the CFASL-encoded fixnum
+   *
+   * @return the int read
+   *
+   * @throws BufferUnderflowException if the buffer holds only part of the fixnum
+   * @throws BaseClientRuntimeException if the next object is not a fixnum
+   */
+  public int readFixnum(ByteBuffer buffer) {
+    final int start = buffer.position();
+    try {
+      return readInt(buffer);
+    } catch (BufferUnderflowException | BaseClientRuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Reads a float from <code>buffer</code> as a primitive double, without boxing it. If the next
+   * object is not a float, an exception is thrown and the buffer's position is left unchanged.
+   *
+   * @param buffer the buffer holding the CFASL-encoded float
+   *
+   * @return the double read
+   *
+   * @throws BufferUnderflowException if the buffer holds only part of the float
+   * @throws BaseClientRuntimeException if the next object is not a float
+   */
+  public double readDouble(ByteBuffer buffer) {
+    final int start = buffer.position();
+    try {
+      final int cfaslOpcode = readOpcode(buffer);
+      switch (cfaslOpcode) {
+        case CFASL_P_FLOAT:
+          return readFloatBody(buffer, false);
+        case CFASL_N_FLOAT:
+          return readFloatBody(buffer, true);
+        default:
+          throw new BaseClientRuntimeException(
+                  "Expected a double but received OpCode=" + cfaslOpcode);
+      }
+    } catch (BufferUnderflowException | BaseClientRuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Reads a byte vector from <code>buffer</code> without copying it. The returned buffer is a
+   * read-only view of the byte vector's contents within <code>buffer</code>, so it is only valid
+   * until <code>buffer</code> is next written to. If the next object is not a byte vector, an
+   * exception is thrown and the buffer's position is left unchanged.
+   *
+   * @param buffer the buffer holding the CFASL-encoded byte vector
+   *
+   * @return a view of the bytes read
+   *
+   * @throws BufferUnderflowException if the buffer holds only part of the byte vector
+   * @throws BaseClientRuntimeException if the next object is not a byte vector
+   */
+  public ByteBuffer readByteVectorView(ByteBuffer buffer) {
+    final int start = buffer.position();
+    try {
+      final int cfaslOpcode = readOpcode(buffer);
+      if (cfaslOpcode != CFASL_BYTE_VECTOR) {
+        throw new BaseClientRuntimeException(
+                "Expected a byte vector but received OpCode=" + cfaslOpcode);
+      }
+      return sliceBody(buffer, readInt(buffer)).asReadOnlyBuffer();
+    } catch (BufferUnderflowException | BaseClientRuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+  }
+
+  //// Private Area
+
+  private Object readObjectInternal(ByteBuffer buffer) {
+    final int cfaslOpcode = readOpcode(buffer);
+    if (cfaslOpcode >= CFASL_IMMEDIATE_FIXNUM_OFFSET) {
+      // Immediate fixnums all fall within the range of Integer's own cache:
+      return cfaslOpcode - CFASL_IMMEDIATE_FIXNUM_OFFSET;
+    }
+    switch (cfaslOpcode) {
+      case CFASL_P_8BIT_INT:
+        return readFixnumBody(buffer, 1, false);
+      case CFASL_N_8BIT_INT:
+        return readFixnumBody(buffer, 1, true);
+      case CFASL_P_16BIT_INT:
+        return readFixnumBody(buffer, 2, false);
+      case CFASL_N_16BIT_INT:
+        return readFixnumBody(buffer, 2, true);
+      case CFASL_P_24BIT_INT:
+        return readFixnumBody(buffer, 3, false);
+      case CFASL_N_24BIT_INT:
+        return readFixnumBody(buffer, 3, true);
+      case CFASL_P_32BIT_INT:
+        return readFixnumBody(buffer, 4, false);
+      case CFASL_N_32BIT_INT:
+        return readFixnumBody(buffer, 4, true);
+      case CFASL_P_FLOAT:
+        return readFloatBody(buffer, false);
+      case CFASL_N_FLOAT:
+        return readFloatBody(buffer, true);
+      case CFASL_P_BIGNUM:
+        return readBignumBody(buffer, false);
+      case CFASL_N_BIGNUM:
+        return readBignumBody(buffer, true);
+      case CFASL_KEYWORD:
+        return readKeyword(buffer);
+      case CFASL_SYMBOL:
+        return readSymbol(buffer);
+      case CFASL_NIL:
+        return CycObjectFactory.nil;
+      case CFASL_LIST:
+        return readCycList(buffer);
+      case CFASL_DOTTED:
+        return readCons(buffer);
+      case CFASL_STRING:
+      case CFASL_UNICODE_STRING:
+        return readStringBody(buffer);
+      case CFASL_CHARACTER:
+        return (char) (buffer.get() & 0xFF);
+      case CFASL_UNICODE_CHAR:
+        return (int) readStringBody(buffer).charAt(0);
+      case CFASL_LEGACY_GUID:
+        return CycObjectFactory.makeGuid((String) readObjectInternal(buffer));
+      case CFASL_GUID:
+        return readGuid(buffer);
+      case CFASL_BYTE_VECTOR:
+        return readByteArray(buffer);
+      case CFASL_NART:
+        return readNart(buffer);
+      case CFASL_COMPLETE_CONSTANT:
+        return readCompleteConstant(buffer);
+      case CFASL_ASSERTION:
+        return readAssertion(buffer);
+      case CFASL_COMPLETE_VARIABLE:
+        return readCompleteVariable(buffer);
+      default:
+        return reportUnhandledCfaslOpcode(cfaslOpcode);
+    }
+  }
+
+  private int peekOpcode(ByteBuffer buffer) {
+    if (!buffer.hasRemaining()) {
+      throw new BufferUnderflowException();
+    }
+    final int pos = buffer.position();
+    final int opcode = buffer.get(pos) & 0xFF;
+    if (opcode == CFASL_EXTERNALIZATION) {
+      if (buffer.remaining() < 2) {
+        throw new BufferUnderflowException();
+      }
+      return buffer.get(pos + 1) & 0xFF;
+    }
+    return opcode;
+  }
+
+  private int readOpcode(ByteBuffer buffer) {
+    int cfaslOpcode = buffer.get() & 0xFF;
+    if (cfaslOpcode == CFASL_EXTERNALIZATION) {
+      cfaslOpcode = buffer.get() & 0xFF;
+    }
+    return cfaslOpcode;
+  }
+
+  /**
+   * Reports the unhandled cfasl opcode or throws an exception.
+   *
+   * @see CfaslInputStream#reportUnhandledCfaslOpcode(int)
+   */
+  private Object reportUnhandledCfaslOpcode(int cfaslOpcode) {
+    final String errorMessage = "Unknown cfasl opcode: " + cfaslOpcode;
+    LOGGER.error(errorMessage);
+    if (reportCfaslErrors) {
+      return Integer.toString(cfaslOpcode);
+    }
+    throw new BaseClientRuntimeException(errorMessage);
+  }
+
+  private int readInt(ByteBuffer buffer) {
+    final int cfaslOpcode = readOpcode(buffer);
+    if (cfaslOpcode >= CFASL_IMMEDIATE_FIXNUM_OFFSET) {
+      return cfaslOpcode - CFASL_IMMEDIATE_FIXNUM_OFFSET;
+    }
+    switch (cfaslOpcode) {
+      case CFASL_P_8BIT_INT:
+        return readFixnumBody(buffer, 1, false);
+      case CFASL_N_8BIT_INT:
+        return readFixnumBody(buffer, 1, true);
+      case CFASL_P_16BIT_INT:
+        return readFixnumBody(buffer, 2, false);
+      case CFASL_N_16BIT_INT:
+        return readFixnumBody(buffer, 2, true);
+      case CFASL_P_24BIT_INT:
+        return readFixnumBody(buffer, 3, false);
+      case CFASL_N_24BIT_INT:
+        return readFixnumBody(buffer, 3, true);
+      case CFASL_P_32BIT_INT:
+        return readFixnumBody(buffer, 4, false);
+      case CFASL_N_32BIT_INT:
+        return readFixnumBody(buffer, 4, true);
+      default:
+        throw new BaseClientRuntimeException("Expected an int but received OpCode=" + cfaslOpcode);
+    }
+  }
+
+  /**
+   * Reads the little-endian body of a CFASL Fixnum, independently of the buffer's byte order.
+   *
+   * @see CfaslInputStream#readFixnumBody(int, boolean)
+   */
+  private int readFixnumBody(ByteBuffer buffer, int nBytes, boolean shouldBeNegative) {
+    if (buffer.remaining() < nBytes) {
+      throw new BufferUnderflowException();
+    }
+    final int pos = buffer.position();
+    int num = 0;
+    for (int i = 0; i < nBytes; i++) {
+      num |= (buffer.get(pos + i) & 0xFF) << (8 * i);
+    }
+    buffer.position(pos + nBytes);
+    // num should always be positive here.  Negatives indicate overflows.
+    if (num < 0) {
+      throw new ArithmeticException(
+              "Overflow: " + ((long) num & 0xFFFFFFFFL) + " does not fit into an int");
+    }
+    return shouldBeNegative ? -num : num;
+  }
+
+  private BigInteger readBignumBody(ByteBuffer buffer, boolean shouldBeNegative) {
+    final int length = readInt(buffer);
+    final byte[] b = new byte[length];
+    for (int i = length - 1; i >= 0; i--) {
+      b[i] = (byte) readInt(buffer);
+    }
+    return new BigInteger(shouldBeNegative ? -1 : 1, b);
+  }
+
+  private double readFloatBody(ByteBuffer buffer, boolean shouldBeNegative) {
+    final long signif;
+    if (isFixnumNext(buffer)) {
+      signif = readInt(buffer);
+    } else {
+      final Object obj = readObjectInternal(buffer);
+      if (obj instanceof BigInteger) {
+        final BigInteger bi = (BigInteger) obj;
+        if (bi.bitCount() < 64) {
+          signif = bi.longValue();
+        } else {
+          throw new ArithmeticException("Overflow reading significand of float");
+        }
+      } else {
+        signif = ((Number) obj).longValue();
+      }
+    }
+    final long exp = readInt(buffer);
+    final double absoluteValue = (double) signif * Math.pow(2.0, exp);
+    return shouldBeNegative ? -absoluteValue : absoluteValue;
+  }
+
+  private ByteBuffer sliceBody(ByteBuffer buffer, int len) {
+    if (buffer.remaining() < len) {
+      throw new BufferUnderflowException();
+    }
+    final ByteBuffer body = buffer.duplicate();
+    body.limit(body.position() + len);
+    buffer.position(buffer.position() + len);
+    return body.slice();
+  }
+
+  /**
+   * Reads the length-prefixed UTF-8 body of a string. Heap buffers are decoded in place; other
+   * buffers are first copied into the reusable scratch array.
+   */
+  private String readStringBody(ByteBuffer buffer) {
+    final int len = readInt(buffer);
+    if (buffer.remaining() < len) {
+      throw new BufferUnderflowException();
+    }
+    final String result;
+    if (buffer.hasArray()) {
+      result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), len, UTF_8);
+      buffer.position(buffer.position() + len);
+    } else {
+      final byte[] bytes = getScratch(len);
+      buffer.get(bytes, 0, len);
+      result = new String(bytes, 0, len, UTF_8);
+    }
+    return result;
+  }
+
+  private byte[] getScratch(int minSize) {
+    if (scratch.length < minSize) {
+      scratch = new byte[Math.max(minSize, scratch.length * 2)];
+    }
+    return scratch;
+  }
+
+  private CycSymbolImpl readKeyword(ByteBuffer buffer) {
+    String keywordString = (String) readObjectInternal(buffer);
+    if (!(keywordString.startsWith(":"))) {
+      keywordString = ":" + keywordString;
+    }
+    return CycObjectFactory.makeCycSymbol(keywordString);
+  }
+
+  private Object readSymbol(ByteBuffer buffer) {
+    final Object response = readObjectInternal(buffer);
+    if (!(response instanceof String)) {
+      throw new CycApiException(
+              "Expecting  a String, got: " + response.getClass() + " for object: " + response);
+    }
+    final String name = (String) response;
+    if (name.startsWith("?")) {
+      return CycObjectFactory.makeCycVariable(name);
+    } else {
+      return CycObjectFactory.makeCycSymbol(name);
+    }
+  }
+
+  /**
+   * Reads the 16 bytes of a GUID as two longs, so no intermediate byte array is needed, and looks
+   * them up among the GUIDs read recently, so that a UUID and a string are only built for a GUID
+   * which is not among them.
+   */
+  private GuidImpl readGuid(ByteBuffer buffer) {
+    if (buffer.remaining() < 16) {
+      throw new BufferUnderflowException();
+    }
+    final int pos = buffer.position();
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < 8; i++) {
+      msb = (msb << 8) | (buffer.get(pos + i) & 0xFF);
+      lsb = (lsb << 8) | (buffer.get(pos + 8 + i) & 0xFF);
+    }
+    buffer.position(pos + 16);
+    final long mixed = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+    final int slot = (int) (mixed >>> (64 - GUID_CACHE_BITS));
+    GuidImpl guid = recentGuids[slot];
+    if (guid == null || recentGuidMsbs[slot] != msb || recentGuidLsbs[slot] != lsb) {
+      guid = CycObjectFactory.makeGuid(new UUID(msb, lsb).toString());
+      recentGuids[slot] = guid;
+      recentGuidMsbs[slot] = msb;
+      recentGuidLsbs[slot] = lsb;
+    }
+    return guid;
+  }
+
+  private ByteArray readByteArray(ByteBuffer buffer) {
+    final int len = readInt(buffer);
+    if (buffer.remaining() < len) {
+      throw new BufferUnderflowException();
+    }
+    final byte[] bytes = new byte[len];
+    buffer.get(bytes);
+    return new ByteArray(bytes);
+  }
+
+  private CycArrayList readCycList(ByteBuffer buffer) {
+    final int size = readInt(buffer);
+    final CycArrayList cycList = new CycArrayList(size);
+    for (int i = 0; i < size; i++) {
+      cycList.add(readElement(buffer));
+    }
+    return cycList;
+  }
+
+  private CycArrayList readCons(ByteBuffer buffer) {
+    final int size = readInt(buffer);
+    final CycArrayList cycList = new CycArrayList(size);
+    for (int i = 0; i < size; i++) {
+      cycList.add(readElement(buffer));
+    }
+    cycList.setDottedElement(readElement(buffer));
+    return cycList;
+  }
+
+  private Object readElement(ByteBuffer buffer) {
+    final Object element = readObjectInternal(buffer);
+    return CycTermInterner.isEnabled() ? CycTermInterner.intern(element) : element;
+  }
+
+  private CycConstant readCompleteConstant(ByteBuffer buffer) {
+    final Object idObject = readObjectInternal(buffer);
+    CycConstant cycConstant;
+    if (idObject instanceof GuidImpl) {
+      final GuidImpl guid = (GuidImpl) idObject;
+      final String name = (String) readObjectInternal(buffer);
+      cycConstant = CycObjectFactory.getCycConstantCacheByGuid(guid);
+      if (cycConstant == null) {
+        cycConstant = new CycConstantImpl(name, guid);
+        CycObjectFactory.addCycConstantCache(cycConstant);
+      }
+    } else if (FREE_SYMBOL.equals(idObject)) {
+      cycConstant = CycObjectFactory.FREE_CONSTANT;
+    } else {
+      // ignore the name, which is expected to be blank
+      readObjectInternal(buffer);
+      cycConstant = CycObjectFactory.INVALID_CONSTANT;
+      isInvalidObject = true;
+    }
+    return cycConstant;
+  }
+
+  private CycVariableImpl readCompleteVariable(ByteBuffer buffer) {
+    final int hlVariableId = readInt(buffer);
+    final String name = (String) readObjectInternal(buffer);
+    return new CycVariableImpl(name, hlVariableId);
+  }
+
+  private CycObject readNart(ByteBuffer buffer) {
+    final int cfaslOpcode = buffer.get() & 0xFF;
+    if (cfaslOpcode == CFASL_NIL) {
+      isInvalidObject = true;
+      return CycObjectFactory.INVALID_NART;
+    } else if (cfaslOpcode != CFASL_LIST) {
+      throw new BaseClientRuntimeException("reading nart, expected a list, found " + cfaslOpcode);
+    }
+    return new NartImpl(readCycList(buffer));
+  }
+
+  private CycAssertion readAssertion(ByteBuffer buffer) {
+    final Object formulaObject = readObjectInternal(buffer);
+    if (CycObjectFactory.nil.equals(formulaObject)) {
+      // bypass invalid assertion mt
+      readObjectInternal(buffer);
+      isInvalidObject = true;
+      return CycObjectFactory.INVALID_ASSERTION;
+    }
+    final CycObject mt = (CycObject) readObjectInternal(buffer);
+    return new CycAssertionImpl((CycArrayList) formulaObject, mt);
+  }
+
+}
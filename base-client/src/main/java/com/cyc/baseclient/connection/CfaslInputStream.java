@@ -34,6 +34,7 @@ import com.cyc.baseclient.cycobject.CycArrayList;
 import com.cyc.baseclient.cycobject.CycAssertionImpl;
 import com.cyc.baseclient.cycobject.CycConstantImpl;
 import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.cycobject.CycTermInterner;
 import com.cyc.baseclient.cycobject.CycVariableImpl;
 import com.cyc.baseclient.cycobject.GuidImpl;
 import com.cyc.baseclient.cycobject.NartImpl;
@@ -702,7 +703,7 @@ public class CfaslInputStream extends BufferedInputStream {
     LOGGER.trace("readCycList.size: {}", size);
     final CycArrayList cycList = new CycArrayList(size);
     for (int i = 0; i < size; i++) {
-      cycList.add(readObject(false));
+      cycList.add(readElement());
     }
     LOGGER.trace("readCycList.readObject: {}", cycList);
     return cycList;
@@ -722,7 +723,7 @@ public class CfaslInputStream extends BufferedInputStream {
     final CycArrayList cycList = new CycArrayList();
     //for (int i = 0; i < (size - 1); i++) {
     for (int i = 0; i < size; i++) {
-      final Object consObject = readObject(false);
+      final Object consObject = readElement();
       if (LOGGER.isTraceEnabled()) {
         if (consObject instanceof Fort) {
           LOGGER.trace("readCons.consObject: " + ((Fort) consObject).toString());
@@ -732,7 +733,7 @@ public class CfaslInputStream extends BufferedInputStream {
       }
       cycList.add(consObject);
     }
-    final Object cdrObject = readObject(false);
+    final Object cdrObject = readElement();
     if (LOGGER.isTraceEnabled()) {
       try {
         // If element understands the safeToString method, then use it.
@@ -794,6 +795,18 @@ public class CfaslInputStream extends BufferedInputStream {
     return cycVariable;
   }
 
+  /**
+   * Reads an element of a list, which is interned if {@link CycTermInterner#isEnabled()}.
+   *
+   * @return the element read
+   *
+   * @throws IOException if a communications error occurs
+   */
+  private Object readElement() throws IOException {
+    final Object element = readObject(false);
+    return CycTermInterner.isEnabled() ? CycTermInterner.intern(element) : element;
+  }
+
   /**
    * Reads a NART from a CfaslInputStream.
    * 
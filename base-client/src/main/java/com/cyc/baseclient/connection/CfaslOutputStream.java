@@ -76,6 +76,9 @@ public class CfaslOutputStream
   /** Parameter that, when true, causes a trace of the messages to and from the server. */
   public int trace = API_TRACE_NONE;
 
+  /** the direct buffers into which this stream encodes, or null for a buffered stream */
+  private final DirectBufferOutputStream directOut;
+
   /** Binary values for assembling CFASL messages. */
   protected static final int CFASL_IMMEDIATE_FIXNUM_CUTOFF = 128;
 
@@ -231,6 +234,7 @@ public class CfaslOutputStream
    */
   public CfaslOutputStream(OutputStream out) {
     super(out);
+    directOut = null;
 
     if (Log.current == null) {
       Log.makeLog("cfasl.log");
@@ -247,12 +251,67 @@ public class CfaslOutputStream
   public CfaslOutputStream(OutputStream out, 
                            int size) {
     super(out, size);
+    directOut = null;
+
+    if (Log.current == null) {
+      Log.makeLog("cfasl.log");
+    }
+  }
+
+  /**
+   * Creates a new CfaslOutputStream which encodes directly into the pooled direct buffers of
+   * <code>out</code>, bypassing this stream's own buffer. The encoded bytes are never copied into
+   * an intermediate array; once a message has been written and flushed, they may be sent with
+   * {@link DirectBufferOutputStream#writeTo(java.nio.channels.GatheringByteChannel)}.
+   * 
+   * @param out the direct buffer output stream.
+   */
+  public CfaslOutputStream(DirectBufferOutputStream out) {
+    // The superclass's buffer is never used in this mode, so keep it minimal:
+    super(out, 1);
+    directOut = out;
 
     if (Log.current == null) {
       Log.makeLog("cfasl.log");
     }
   }
 
+  /**
+   * Writes a byte, directly to the underlying direct buffers if this stream was created over a
+   * {@link DirectBufferOutputStream}.
+   * 
+   * @param b the byte to be written
+   * 
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void write(int b) throws IOException {
+    if (directOut != null) {
+      directOut.write(b);
+    } else {
+      super.write(b);
+    }
+  }
+
+  /**
+   * Writes bytes, directly to the underlying direct buffers if this stream was created over a
+   * {@link DirectBufferOutputStream}.
+   * 
+   * @param b the data
+   * @param off the start offset in the data
+   * @param len the number of bytes to write
+   * 
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (directOut != null) {
+      directOut.write(b, off, len);
+    } else {
+      super.write(b, off, len);
+    }
+  }
+
   /**
    * Writes a boolean onto this CFASL output stream. What is actually written is either the symbol
    * T or NIL.
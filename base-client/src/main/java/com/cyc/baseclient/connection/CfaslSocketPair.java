@@ -0,0 +1,171 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CfaslSocketPair.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An additional outbound/inbound pair of CFASL sockets owned by a {@link CycConnectionImpl}. Each
+ * pair identifies itself to the Cyc server with its own UUID, so task-processor responses to
+ * requests sent over the outbound socket arrive on the pair's own passive (inbound) socket, where
+ * they are read by a dedicated {@link TaskProcessorBinaryResponseHandler} and routed by request id
+ * through the connection's shared table of waiting workers.
+ *
+ * <p>Writes to the outbound socket are serialized per pair, so N pairs allow up to N concurrent
+ * writers per connection.
+ */
+class CfaslSocketPair {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CfaslSocketPair.class);
+
+  private final CycConnectionImpl cycConnection;
+  private final String hostName;
+  private final int cfaslPort;
+  private final UUID uuid = UUID.randomUUID();
+
+  /** the number of requests sent over this pair which have not yet terminated */
+  private final AtomicInteger inFlightCount = new AtomicInteger(0);
+
+  private Socket outboundSocket;
+  private CfaslOutputStream outboundStream;
+  private TaskProcessorBinaryResponseHandler responseHandler;
+  private volatile boolean isClosed = false;
+
+  CfaslSocketPair(final CycConnectionImpl cycConnection, final String hostName, final int cfaslPort) {
+    this.cycConnection = cycConnection;
+    this.hostName = hostName;
+    this.cfaslPort = cfaslPort;
+  }
+
+  /**
+   * Opens the outbound socket, then starts the response handler thread, which opens the inbound
+   * socket and registers it with the Cyc server under this pair's UUID.
+   *
+   * @return the started response handler
+   * @throws IOException when a communications error occurs
+   */
+  TaskProcessorBinaryResponseHandler open() throws IOException {
+    try {
+      outboundSocket = new Socket(hostName, cfaslPort);
+      int val = outboundSocket.getReceiveBufferSize();
+      outboundSocket.setReceiveBufferSize(val * 2);
+      outboundSocket.setTcpNoDelay(true);
+      outboundSocket.setKeepAlive(true);
+      outboundStream = new CfaslOutputStream(outboundSocket.getOutputStream());
+      outboundStream.trace = cycConnection.getTrace();
+    } catch (ConnectException ex) {
+      throw new IOException("Couldn't connect to " + hostName + ":" + cfaslPort, ex);
+    }
+    responseHandler = new TaskProcessorBinaryResponseHandler(
+            Thread.currentThread(), cycConnection, hostName, cfaslPort, uuid);
+    responseHandler.start();
+    responseHandler.waitOnSetupToComplete();
+    return responseHandler;
+  }
+
+  /**
+   * Writes a message to the outbound socket of this pair.
+   *
+   * @param message the CFASL-translatable message
+   * @throws IOException when a communications error occurs
+   */
+  synchronized void send(Object message) throws IOException {
+    outboundStream.writeObject(message);
+    outboundStream.flush();
+  }
+
+  /**
+   * Releases this pair's server-side resources and closes its outbound socket. The response
+   * handler is closed by the owning connection along with its other handlers.
+   */
+  synchronized void close() {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    if (outboundStream != null) {
+      final CycArrayList release = new CycArrayList();
+      release.add(CycObjectFactory.makeCycSymbol("RELEASE-RESOURCES-FOR-JAVA-API-CLIENT"));
+      release.add(uuid);
+      final CycArrayList quit = new CycArrayList();
+      quit.add(CycObjectFactory.makeCycSymbol("API-QUIT"));
+      try {
+        outboundStream.writeObject(release);
+        outboundStream.writeObject(quit);
+        outboundStream.flush();
+      } catch (Exception e) {
+        LOGGER.debug("Error releasing api resources for " + uuid + ": " + e.getMessage());
+      }
+    }
+    if (outboundSocket != null) {
+      try {
+        outboundSocket.close();
+      } catch (IOException e) {
+        LOGGER.debug("Error closing outbound socket for " + uuid + ": " + e.getMessage());
+      }
+    }
+  }
+
+  UUID getUuid() {
+    return uuid;
+  }
+
+  TaskProcessorBinaryResponseHandler getResponseHandler() {
+    return responseHandler;
+  }
+
+  int getInFlightCount() {
+    return inFlightCount.get();
+  }
+
+  void requestStarted() {
+    inFlightCount.incrementAndGet();
+  }
+
+  void requestTerminated() {
+    inFlightCount.decrementAndGet();
+  }
+
+  void setTrace(int trace) {
+    if (outboundStream != null) {
+      outboundStream.trace = trace;
+    }
+  }
+
+  boolean isConnected() {
+    return !isClosed && (outboundSocket != null) && outboundSocket.isConnected();
+  }
+
+  @Override
+  public String toString() {
+    return "CfaslSocketPair " + uuid + " (" + inFlightCount.get() + " in flight)";
+  }
+
+}
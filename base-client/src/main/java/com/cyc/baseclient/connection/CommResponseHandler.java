@@ -35,6 +35,7 @@ import java.net.Socket;
 import java.util.Date;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -275,13 +276,16 @@ class CommResponseHandler extends Thread {
       } catch (Exception e) {
       }
       ;
+    }
+    if (cycComm.apiPool instanceof ThreadPoolExecutor) {
+      final ThreadPoolExecutor apiThreadPool = (ThreadPoolExecutor) cycComm.apiPool;
       try {
-        cycComm.apiPool.setMaximumPoolSize(0);
+        apiThreadPool.setMaximumPoolSize(0);
       } catch (Exception e) {
       }
       ;
       try {
-        cycComm.apiPool.setKeepAliveTime(0, TimeUnit.MILLISECONDS);
+        apiThreadPool.setKeepAliveTime(0, TimeUnit.MILLISECONDS);
       } catch (Exception e) {
       }
       ;
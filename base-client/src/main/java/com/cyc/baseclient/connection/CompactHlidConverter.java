@@ -24,6 +24,8 @@ package com.cyc.baseclient.connection;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import com.cyc.baseclient.util.Base64;
@@ -57,6 +59,7 @@ public class CompactHlidConverter {
     byteStream = new ByteArrayOutputStream();
     cfaslStream = new CfaslOutputStream(byteStream);
     base64 = new Base64Url();
+    decoder = new CfaslByteBufferDecoder();
   }
 
   //// Public Area
@@ -203,9 +206,11 @@ public class CompactHlidConverter {
   public synchronized Object fromCompactHLId(String id) throws IOException {
     id = padWithEqualSigns(id);
     byte[] buf = base64.decode(id);
-    CfaslInputStream cfaslInStream = new CfaslInputStream(new ByteArrayInputStream(buf));
-    Object result = cfaslInStream.readObject();
-    return result;
+    try {
+      return decoder.readObject(ByteBuffer.wrap(buf));
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Incomplete compact HL ID: " + id, e);
+    }
   }
 
   /**
@@ -302,6 +307,7 @@ public class CompactHlidConverter {
   private final ByteArrayOutputStream byteStream;
   private final CfaslOutputStream cfaslStream;
   private final Base64 base64;
+  private final CfaslByteBufferDecoder decoder;
   private static CompactHlidConverter converter = new CompactHlidConverter();
   private static final List<Integer> numberOpCodes = Arrays.asList(
           CfaslInputStream.CFASL_N_BIGNUM,
@@ -0,0 +1,212 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CompletableSublWorker.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+//// Internal Imports
+import com.cyc.base.CycAccess;
+import com.cyc.base.connection.WorkerEvent;
+import com.cyc.base.connection.WorkerListener;
+import com.cyc.base.connection.WorkerStatus;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.exception.CycTimeOutException;
+import com.cyc.baseclient.DefaultSublWorker;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <P>CompletableSublWorker evaluates a SubL command without blocking the calling thread, and
+ * reports the result through a {@link CompletableFuture}. The future is completed by the thread
+ * which delivers the Cyc server's response, so dependent actions which do significant work should
+ * be attached with the <code>*Async</code> methods of the future rather than run in that thread.
+ *
+ * <P>Cancelling the future, or letting it time out, aborts the command on the Cyc server via
+ * {@link CycConnectionImpl#abortCommunication(com.cyc.base.connection.Worker)}. A timed out future
+ * completes with a {@link CycTimeOutException}.
+ *
+ * <P>Example usage: <code>
+ *  CompletableSublWorker worker = new CompletableSublWorker(command, access, 5000);
+ *  worker.submit().thenAccept(result -&gt; System.out.println("Got result: " + result));
+ * </code>
+ *
+ * @see com.cyc.baseclient.CycCommandTool#converseObjectAsync(java.lang.Object)
+ */
+public class CompletableSublWorker extends DefaultSublWorker implements WorkerListener {
+
+  //// Constructors
+
+  /**
+   * Creates a new instance of CompletableSublWorker.
+   *
+   * @param subLCommand  the SubL command that does the work as a CycList
+   * @param access       the Cyc server that should process the SubL command
+   * @param timeoutMsecs the max time to wait in msecs for the work to be completed before giving up
+   *                     (0 means to wait forever)
+   * @param priority     the priority at which the worker will be scheduled on the CYC server side
+   */
+  public CompletableSublWorker(CycList subLCommand,
+                               CycAccess access,
+                               long timeoutMsecs,
+                               Integer priority) {
+    super(subLCommand, access, false, timeoutMsecs, priority);
+    addListener(this);
+    future.whenComplete((result, ex) -> {
+      if (ex instanceof CancellationException || ex instanceof CycTimeOutException) {
+        abortQuietly();
+      }
+    });
+  }
+
+  /**
+   * Creates a new instance of CompletableSublWorker with the default priority.
+   *
+   * @param subLCommand  the SubL command that does the work as a CycList
+   * @param access       the Cyc server that should process the SubL command
+   * @param timeoutMsecs the max time to wait in msecs for the work to be completed before giving up
+   *                     (0 means to wait forever)
+   */
+  public CompletableSublWorker(CycList subLCommand, CycAccess access, long timeoutMsecs) {
+    this(subLCommand, access, timeoutMsecs, PRIORITY_DEFAULT);
+  }
+
+  /**
+   * Creates a new instance of CompletableSublWorker with the default priority and no timeout.
+   *
+   * @param subLCommand the SubL command that does the work as a CycList
+   * @param access      the Cyc server that should process the SubL command
+   */
+  public CompletableSublWorker(CycList subLCommand, CycAccess access) {
+    this(subLCommand, access, TIMEOUT_MSECS_DEFAULT);
+  }
+
+  //// Public Area
+
+  /**
+   * Starts communications with the Cyc server, and returns without waiting for the work to be
+   * performed. Errors in sending the command are reported through the future rather than thrown.
+   *
+   * @return a future which is completed with the work produced by this worker
+   */
+  public CompletableFuture<Object> submit() {
+    if (getTimeoutMsecs() > 0) {
+      final ScheduledFuture<?> timeout = TIMER.schedule(this::timeOut,
+              getTimeoutMsecs(), TimeUnit.MILLISECONDS);
+      future.whenComplete((result, ex) -> timeout.cancel(false));
+    }
+    try {
+      start();
+    } catch (RuntimeException | CycConnectionException ex) {
+      future.completeExceptionally(ex);
+    }
+    if (future.isCompletedExceptionally()) {
+      // cancelled or timed out before the command was registered with the connection
+      abortQuietly();
+    }
+    return future;
+  }
+
+  /**
+   * Returns the future which is completed with the work produced by this worker.
+   *
+   * @return the future for this worker
+   */
+  public CompletableFuture<Object> getFuture() {
+    return future;
+  }
+
+  /** Ignore.
+   * @param event the event object with details about this event
+   */
+  @Override
+  public void notifySublWorkerStarted(WorkerEvent event) {}
+
+  /** Saves any available work.
+   * @param event the event object with details about this event
+   */
+  @Override
+  public void notifySublWorkerDataAvailable(WorkerEvent event) {
+    work = event.getWork();
+  }
+
+  /** Completes the future according to the status with which the worker terminated.
+   * @param event the event object with details about this event
+   */
+  @Override
+  public void notifySublWorkerTerminated(WorkerEvent event) {
+    final WorkerStatus status = event.getStatus();
+    if (status == WorkerStatus.FINISHED_STATUS) {
+      future.complete(work);
+    } else if (event.getException() != null) {
+      future.completeExceptionally(event.getException());
+    } else {
+      future.completeExceptionally(new CycTaskInterruptedException(new InterruptedException(
+              "Communication " + status.getName() + " while trying to execute: \n"
+              + getSublCommand().toPrettyCyclifiedString(""))));
+    }
+  }
+
+  //// Private Area
+
+  private void timeOut() {
+    future.completeExceptionally(new CycTimeOutException(
+            "Communications took more than: " + getTimeoutMsecs()
+            + " msecs.\nWhile trying to execute: \n"
+            + getSublCommand().toPrettyCyclifiedString("")));
+  }
+
+  private void abortQuietly() {
+    if (getId() == null) {
+      // not yet registered with the connection, so there is nothing to abort
+      return;
+    }
+    try {
+      abort();
+    } catch (CycConnectionException | RuntimeException ex) {
+      LOGGER.warn("Could not abort " + this, ex);
+    }
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CompletableSublWorker.class);
+
+  private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1,
+          (runnable) -> {
+            final Thread thread = new Thread(runnable, "CompletableSublWorker timer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  static {
+    TIMER.setRemoveOnCancelPolicy(true);
+  }
+
+  private final CompletableFuture<Object> future = new CompletableFuture<>();
+  volatile private Object work = null;
+
+}
@@ -25,17 +25,22 @@ import com.cyc.base.exception.CycTimeOutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Provides a timer thread for cancelling the connection if it takes too long to establish. */
+/**
+ * Provides a timer thread for cancelling the connection if it takes too long to establish, and
+ * thereafter for aborting the requests which outlive their timeouts.
+ */
 class ConnectionTimer extends Thread {
   private final CycConnectionImpl cycConnection;
 
   /** Constucts a new ConnectionTimer instance. */
   ConnectionTimer(final CycConnectionImpl cycConnection) {
     this.cycConnection = cycConnection;
+    setDaemon(true);
   }
 
   /** Waits for either the CycConnection constructor thread to set the done indicator, or kills the
-   * connection after the timeout is exceeded. */
+   * connection after the timeout is exceeded. Then sweeps the timed out requests until the
+   * connection is closed. */
   public void run() {
     try {
       while (!isCycConnectionEstablished) {
@@ -63,6 +68,20 @@ class ConnectionTimer extends Thread {
       cycConnection.close();
       throw e;
     }
+    sweepTimedOutRequests();
+  }
+
+  /** Aborts the timed out requests every {@link #SWEEP_INTERVAL_MILLIS} until the connection is
+   * closed. */
+  private void sweepTimedOutRequests() {
+    try {
+      while (!cycConnection.isClosed()) {
+        Thread.sleep(SWEEP_INTERVAL_MILLIS);
+        cycConnection.abortTimedOutWorkers();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
   
   private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionTimer.class);
@@ -71,6 +90,8 @@ class ConnectionTimer extends Thread {
   final long TIMEOUT_MILLIS = 60000;
   /** the wait time increment */
   final long WAIT_TIME_INCREMENT = 1000;
+  /** the interval between sweeps for timed out requests */
+  final long SWEEP_INTERVAL_MILLIS = 1000;
   /** the wait time so far in milliseconds */
   long timerMillis = 0;
   /** set by the CycConnection constructor process to indicate that the connection to Cyc is established */
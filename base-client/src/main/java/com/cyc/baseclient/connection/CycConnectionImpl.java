@@ -46,19 +46,26 @@ import com.cyc.baseclient.exception.CycApiServerSideException;
 import com.cyc.baseclient.util.Log;
 import com.cyc.baseclient.util.TimerImpl;
 import com.cyc.session.ServerAddress;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +94,15 @@ public class CycConnectionImpl implements CycConnection {
   /** the logger */
   private static final Logger LOGGER = LoggerFactory.getLogger(CycConnectionImpl.class);
   
+  /**
+   * System property giving the number of outbound/inbound CFASL socket pairs which each new
+   * connection opens to the Cyc server. Defaults to a single pair.
+   */
+  public static final String SOCKET_PAIRS_PROPERTY = "com.cyc.baseclient.connection.socketPairs";
+  
+  /** The number of CFASL socket pairs opened by connections which do not specify one. */
+  public static final int DEFAULT_SOCKET_PAIRS = Math.max(1, Integer.getInteger(SOCKET_PAIRS_PROPERTY, 1));
+  
   /** Parameter that, when true, causes a trace of the messages to and from the server. */
   protected int trace = API_TRACE_NONE;
 //  protected int trace = API_TRACE_MESSAGES;
@@ -110,6 +126,18 @@ public class CycConnectionImpl implements CycConnection {
   /** The tcp socket assigned to the binary connection to the OpenCyc server. */
   protected Socket cfaslSocket;
   
+  /** The number of outbound/inbound socket pairs, including the primary pair, of this connection. */
+  protected int socketPairCount = 1;
+  
+  /**
+   * The socket pairs opened in addition to the primary {@link #cfaslSocket} and its response
+   * handler. Requests are spread across the primary pair and these by load.
+   */
+  private final List<CfaslSocketPair> socketPairs = new ArrayList<>();
+  
+  /** the number of requests sent over the primary socket pair which have not yet terminated */
+  private final AtomicInteger primaryInFlightCount = new AtomicInteger(0);
+  
   /** The timer which optionally monitors the duration of requests to the OpenCyc server. */
   protected static final Timer notimeout = new TimerImpl();
   
@@ -125,38 +153,44 @@ public class CycConnectionImpl implements CycConnection {
    */
   protected CycAccess cycAccess;
   protected Comm comm;
-  /** outbound request serial id */
-  static private int apiRequestId = 0;
+  /** outbound request serial id; ids are positive, as negative ids denote serial communications */
+  private static final AtomicInteger API_REQUEST_ID = new AtomicInteger(0);
   private volatile boolean isClosed = false;
   
   /** name of my api client */
   protected String myClientName = "api client";
   /**
-   * Implements an association: apiRequestId --> waiting thread info, where waiting thread info is
-   * an array of two objects: 
-   * 1. the latch waiting for the response from the Cyc server (number 1 is no longer valid; TODO: fix this description) 
-   * 2. the api-request in CycList form Used when submitting concurrent requests to the task-processor.
+   * Implements an association: apiRequestId --> {@link WaitingWorkerInfo} for every request which
+   * has been sent to the task-processor and has not yet terminated. The response handlers look
+   * requests up here concurrently with the workers which register and remove them, so the map is
+   * lock-free for reads and striped for writes.
    */
-  private final Map waitingReplyThreads = Collections.synchronizedMap(
-          new HashMap());
+  private final ConcurrentMap<Integer, WaitingWorkerInfo> waitingReplyThreads
+          = new ConcurrentHashMap<>(64);
 
   final ConnectionTimer connectionTimer = new ConnectionTimer(this);
           
-  public Map getWaitingReplyThreads() {
-    return waitingReplyThreads;
+  /**
+   * Returns a read-only view of the requests which have been sent to the task-processor and have
+   * not yet terminated, by api request id.
+   *
+   * @return the waiting requests
+   */
+  public Map<Integer, WaitingWorkerInfo> getWaitingReplyThreads() {
+    return Collections.unmodifiableMap(waitingReplyThreads);
   }
   
   /** handles responses from task-processor requests in binary communication mode. */
   protected Map<String, TaskProcessorBinaryResponseHandler> taskProcessorBinaryResponseHandlerMap =
-          new HashMap<>(32);
+          new ConcurrentHashMap<>(32);
   
   /** handles responses from task-processor requests in binary communication mode when dealing with comm objects. */
   protected Map<InputStream, TaskProcessorBinaryResponseHandler> taskProcessorBinaryResponseHandlerCommMap =
-          new HashMap<>(32);
+          new ConcurrentHashMap<>(32);
   
-  protected Map<String, LeaseManager> cycLeaseManagerMap = new HashMap<>(32);
+  protected Map<String, LeaseManager> cycLeaseManagerMap = new ConcurrentHashMap<>(32);
 
-  protected Map<InputStream, LeaseManager> cycLeaseManagerCommMap = new HashMap<>(32);
+  protected Map<InputStream, LeaseManager> cycLeaseManagerCommMap = new ConcurrentHashMap<>(32);
   
   
   /** Indicates to the taskProcessor response handlers that the server connection is closed. */
@@ -207,11 +241,33 @@ public class CycConnectionImpl implements CycConnection {
    * @throws CycApiException when a Cyc API error occurs
    */
   public CycConnectionImpl(String hostName, int basePort, CycAccess cycAccess) throws CycConnectionException, CycApiException {
+    this(hostName, basePort, cycAccess, DEFAULT_SOCKET_PAIRS);
+  }
+  
+  /**
+   * Constructs a new CycConnection object using a given host name, the given base port number, the
+   * given CycAccess object, and the given number of outbound/inbound socket pairs. Concurrent
+   * requests are spread across the socket pairs, each of which has its own writer and its own
+   * response handler thread.
+   *
+   * @param hostName the cyc server host name
+   * @param basePort the base tcp port on which the OpenCyc server is listening for connections.
+   * @param cycAccess the given CycAccess object which provides api services over this CycConnection object
+   * @param socketPairCount the number of socket pairs to open, at least one
+   *
+   * @throws CycConnectionException when a communications error occurs or the cyc server cannot be found
+   * @throws CycApiException when a Cyc API error occurs
+   */
+  public CycConnectionImpl(String hostName, int basePort, CycAccess cycAccess, int socketPairCount) throws CycConnectionException, CycApiException {
     if (Log.current == null) {
       Log.makeLog("cyc-api.log");
     }
+    if (socketPairCount < 1) {
+      throw new IllegalArgumentException("socketPairCount must be at least 1, got " + socketPairCount);
+    }
     this.hostName = hostName;
     this.basePort = basePort;
+    this.socketPairCount = socketPairCount;
     cfaslPort = basePort + CFASL_PORT_OFFSET;
     //final ConnectionTimer connectionTimer = new ConnectionTimer(this);
     connectionTimer.start();
@@ -354,6 +410,12 @@ public class CycConnectionImpl implements CycConnection {
     handler.start();
     handler.waitOnSetupToComplete();
     
+    for (int i = 1; i < socketPairCount; i++) {
+      final CfaslSocketPair socketPair = new CfaslSocketPair(this, hostName, cfaslPort);
+      socketPairs.add(socketPair);
+      taskProcessorBinaryResponseHandlerMap.put(key + "#" + i, socketPair.open());
+    }
+    
     CycLeaseManager lease = new CycLeaseManager(this);
     lease.start();
     cycLeaseManagerMap.put(key, lease);
@@ -448,6 +510,13 @@ public class CycConnectionImpl implements CycConnection {
           }
         }
       }
+      
+      for (CfaslSocketPair socketPair : socketPairs) {
+        if (trace > API_TRACE_NONE) {
+          Log.current.println("Closing " + socketPair);
+        }
+        socketPair.close();
+      }
       /*
       if (cfaslInputStream != null) {
         if (trace > API_TRACE_NONE) {
@@ -635,33 +704,99 @@ public class CycConnectionImpl implements CycConnection {
   public Object[] converse(Object message,
           Timer timeout)
           throws CycConnectionException, CycTimeOutException, CycApiException {
-    CycList messageCycList;
+    CycList messageCycList = toMessageCycList(message);
+    messageCycList = substituteForBackquote(messageCycList,
+            timeout);
+    return converseBinary(messageCycList, timeout);
+  }
+
+  /**
+   * Send a message to Cyc without waiting for the response. The returned future is completed with
+   * an array of two objects, as returned by {@link #converse(java.lang.Object)}: a Boolean response
+   * status, and either the response object or the CycApiServerSideException signaled by the
+   * command. Communication errors and timeouts complete the future exceptionally, and cancelling
+   * the future aborts the command on the Cyc server.
+   * <p>
+   * Backquotes are expanded as by {@link #converse(java.lang.Object)}, except that messages
+   * containing a nested backquote are not supported, because Cyc must be asked to read them in a
+   * round trip of its own.
+   *
+   * @param message the api command which must be a String or a CycArrayList
+   * @param timeoutMsecs the max time to wait in msecs for the response (0 means to wait forever)
+   *
+   * @return a future for the Boolean response status and the response object
+   *
+   * @see CompletableSublWorker
+   */
+  public CompletableFuture<Object[]> converseAsync(Object message, long timeoutMsecs) {
+    final CompletableFuture<Object[]> result = new CompletableFuture<>();
+    final CycList messageCycList;
+    try {
+      final CycList original = toMessageCycList(message);
+      messageCycList = expandBackquotes(original);
+      if (messageCycList == null) {
+        throw new CycApiException(
+                "Nested backquotes cannot be sent asynchronously: " + original.cyclify());
+      }
+    } catch (RuntimeException ex) {
+      result.completeExceptionally(ex);
+      return result;
+    }
+    final CompletableSublWorker worker
+            = new CompletableSublWorker(messageCycList, cycAccess, timeoutMsecs);
+    worker.submit().whenComplete((work, ex) -> {
+      if (ex == null) {
+        result.complete(new Object[]{Boolean.TRUE, work});
+      } else if (ex instanceof CycApiServerSideException) {
+        // NOTE: as for the legacy API of converseBinary()
+        result.complete(new Object[]{Boolean.FALSE, ex});
+      } else {
+        result.completeExceptionally(ex);
+      }
+    });
+    result.whenComplete((response, ex) -> {
+      if (ex instanceof CancellationException) {
+        worker.getFuture().cancel(false);
+      }
+    });
+    return result;
+  }
+
+  private CycList toMessageCycList(Object message) throws CycApiException {
     if (message instanceof CycArrayList) {
-      messageCycList = (CycArrayList) message;
+      return (CycArrayList) message;
     } else if (message instanceof String) {
       if (cycAccess == null) {
         throw new RuntimeException(
                 "CycAccess is required to process commands in string form");
       }
-      messageCycList = cycAccess.getObjectTool().makeCycList((String) message);
+      return cycAccess.getObjectTool().makeCycList((String) message);
     } else {
       throw new CycApiException("Invalid class for message " + message);
     }
-    messageCycList = substituteForBackquote(messageCycList,
-            timeout);
-    return converseBinary(messageCycList, timeout);
   }
 
   /**
-   * Substitute a READ-FROM-STRING expression for expressions directly containing a backquote
-   * symbol. This transformation is only required for the binary api, which does not parse the
-   * backquoted expression.
+   * Returns the message with its backquoted templates expanded, or null if it contains a nested
+   * backquote. Messages which cannot contain a backquote are recognized in constant time.
+   */
+  private CycList expandBackquotes(CycList messageCycList) throws CycApiException {
+    if (!BackquoteExpander.mayContainBackquote(messageCycList)) {
+      return messageCycList;
+    }
+    return BackquoteExpander.expand(messageCycList);
+  }
+
+  /**
+   * Expands the backquoted templates in a message, which is only required for the binary api,
+   * which does not parse the backquoted expression. The templates are expanded on the client
+   * (see {@link BackquoteExpander}), except in a message with a nested backquote, for which a
+   * READ-FROM-STRING expression is evaluated by Cyc instead.
    *
    * @param messageCycList the given expression
    * @param timeout a <tt>Timer</tt> object giving the time limit for the api call
    *
-   * @return the expression with a READ-FROM-STRING expression substituted for expressions directly
-   * containing a backquote symbol
+   * @return the expression with its backquoted templates expanded
    *
    * @throws IOException when a communication error occurs
    * @throws CycApiException when a Cyc api error occurs
@@ -669,24 +804,25 @@ public class CycConnectionImpl implements CycConnection {
   protected CycList substituteForBackquote(CycList messageCycList,
           Timer timeout)
           throws CycConnectionException, CycApiException {
-    if (messageCycList.treeContains(CycObjectFactory.backquote)) {
-      CycArrayList substituteCycList = new CycArrayList();
-      substituteCycList.add(CycObjectFactory.makeCycSymbol("read-from-string"));
-      String tempString = messageCycList.cyclify();
-      tempString = tempString.replaceAll("\\|\\,\\|", ",");
-      substituteCycList.add(tempString);
-      Object[] response = converseBinary(substituteCycList,
-              timeout);
-      if ((response[0].equals(Boolean.TRUE)) && (response[1] instanceof CycArrayList)) {
-        CycArrayList backquoteExpression = (CycArrayList) response[1];
-        return backquoteExpression.subst(CycObjectFactory.makeCycSymbol(
-                "api-bq-list"),
-                CycObjectFactory.makeCycSymbol("bq-list"));
-      }
-      throw new CycApiException("Invalid backquote substitution in " + messageCycList
-              + "\nstatus" + response[0] + "\nmessage " + response[1]);
+    final CycList expanded = expandBackquotes(messageCycList);
+    if (expanded != null) {
+      return expanded;
     }
-    return messageCycList;
+    CycArrayList substituteCycList = new CycArrayList();
+    substituteCycList.add(CycObjectFactory.makeCycSymbol("read-from-string"));
+    String tempString = messageCycList.cyclify();
+    tempString = tempString.replaceAll("\\|\\,\\|", ",");
+    substituteCycList.add(tempString);
+    Object[] response = converseBinary(substituteCycList,
+            timeout);
+    if ((response[0].equals(Boolean.TRUE)) && (response[1] instanceof CycArrayList)) {
+      CycArrayList backquoteExpression = (CycArrayList) response[1];
+      return backquoteExpression.subst(CycObjectFactory.makeCycSymbol(
+              "api-bq-list"),
+              CycObjectFactory.makeCycSymbol("bq-list"));
+    }
+    throw new CycApiException("Invalid backquote substitution in " + messageCycList
+            + "\nstatus" + response[0] + "\nmessage " + response[1]);
   }
 
   @Override
@@ -704,27 +840,210 @@ public class CycConnectionImpl implements CycConnection {
         return (comm == null);
     }
 
-  protected class WaitingWorkerInfo {
+  /** A request which has been sent to the task-processor and has not yet terminated. */
+  public final class WaitingWorkerInfo {
 
     final Worker worker;
     final boolean isReturnWholeTaskProcessorResponse;
     final CycList taskProcessorRequest;
+    /** the socket pair which carried the request, or null for the primary pair */
+    final CfaslSocketPair socketPair;
+    private final AtomicBoolean isAborted = new AtomicBoolean(false);
+    /** when the request was registered, per {@link System#nanoTime()} */
+    final long startNanos = System.nanoTime();
 
     WaitingWorkerInfo(final Worker worker,
             final CycList taskProcessorRequest,
             final boolean isReturnWholeTaskProcessorResponse) {
+      this(worker, taskProcessorRequest, isReturnWholeTaskProcessorResponse, null);
+    }
+
+    WaitingWorkerInfo(final Worker worker,
+            final CycList taskProcessorRequest,
+            final boolean isReturnWholeTaskProcessorResponse,
+            final CfaslSocketPair socketPair) {
       this.worker = worker;
       this.taskProcessorRequest = taskProcessorRequest;
       this.isReturnWholeTaskProcessorResponse = isReturnWholeTaskProcessorResponse;
+      this.socketPair = socketPair;
     }
 
     Worker getWorker() {
       return worker;
     }
+    
+    /**
+     * Returns how long the request has been waiting for its response.
+     * 
+     * @param nowNanos the current time, per {@link System#nanoTime()}
+     * @return the age of the request in msecs
+     */
+    long getAgeMsecs(long nowNanos) {
+      return TimeUnit.NANOSECONDS.toMillis(nowNanos - startNanos);
+    }
+    
+    /**
+     * Returns true iff the worker has a timeout, and the request has been waiting longer than it.
+     * 
+     * @param nowNanos the current time, per {@link System#nanoTime()}
+     * @return whether the request has timed out
+     */
+    boolean isTimedOut(long nowNanos) {
+      final long timeoutMsecs = worker.getTimeoutMsecs();
+      return (timeoutMsecs > 0) && (getAgeMsecs(nowNanos) > timeoutMsecs);
+    }
+
+    /**
+     * Returns true the first time it is called, so that a timed out request is aborted only once.
+     */
+    boolean markAborted() {
+      return isAborted.compareAndSet(false, true);
+    }
 
     CycObject getMessage() {
       return (CycObject) taskProcessorRequest.get(1);
     }
+    
+    String getUuidString() {
+      return (socketPair != null) ? socketPair.getUuid().toString() : uuid.toString();
+    }
+    
+    void requestStarted() {
+      if (socketPair != null) {
+        socketPair.requestStarted();
+      } else {
+        primaryInFlightCount.incrementAndGet();
+      }
+    }
+    
+    void requestTerminated() {
+      if (socketPair != null) {
+        socketPair.requestTerminated();
+      } else {
+        primaryInFlightCount.decrementAndGet();
+      }
+    }
+  }
+  
+  /**
+   * Removes the given request from the waiting reply threads, releasing its slot on the socket
+   * pair which carried it.
+   *
+   * @param id the api request id
+   * @return the removed waiting worker info, or null if the request was not waiting
+   */
+  WaitingWorkerInfo removeWaitingReplyThread(Integer id) {
+    final WaitingWorkerInfo waitingWorkerInfo = waitingReplyThreads.remove(id);
+    if (waitingWorkerInfo != null) {
+      waitingWorkerInfo.requestTerminated();
+    }
+    return waitingWorkerInfo;
+  }
+  
+  /**
+   * Returns the workers whose requests have been waiting for a response for longer than their
+   * timeouts, so that they may be cancelled or aborted. The in-flight requests are scanned without
+   * locking, so requests which are registered or removed during the scan may or may not be seen.
+   * 
+   * @return the workers whose requests have timed out
+   */
+  public List<Worker> getTimedOutWorkers() {
+    final long nowNanos = System.nanoTime();
+    final List<Worker> workers = new ArrayList<>();
+    for (WaitingWorkerInfo waitingWorkerInfo : waitingReplyThreads.values()) {
+      if (waitingWorkerInfo.isTimedOut(nowNanos)) {
+        workers.add(waitingWorkerInfo.getWorker());
+      }
+    }
+    return workers;
+  }
+  
+  /**
+   * Returns the number of requests which have been sent and have not yet terminated.
+   * 
+   * @return the number of requests in flight
+   */
+  public int getWaitingRequestCount() {
+    return waitingReplyThreads.size();
+  }
+
+  /**
+   * Aborts the requests which have timed out, each once. Synchronous workers abort their own
+   * requests when they time out, but asynchronous ones do not, so the {@link ConnectionTimer}
+   * calls this periodically once the connection is established.
+   *
+   * @return the number of requests which were aborted
+   */
+  int abortTimedOutWorkers() {
+    final long nowNanos = System.nanoTime();
+    int abortedCount = 0;
+    for (WaitingWorkerInfo waitingWorkerInfo : waitingReplyThreads.values()) {
+      if (waitingWorkerInfo.isTimedOut(nowNanos) && waitingWorkerInfo.markAborted()) {
+        final Worker worker = waitingWorkerInfo.getWorker();
+        LOGGER.debug("Aborting timed out request of {}", worker);
+        try {
+          worker.abort();
+          abortedCount++;
+        } catch (CycConnectionException | RuntimeException ex) {
+          LOGGER.warn("Could not abort timed out request of " + worker, ex);
+        }
+      }
+    }
+    return abortedCount;
+  }
+  
+  /**
+   * Returns the socket pair with the fewest requests in flight, or null when that is the primary
+   * pair.
+   *
+   * @return the least loaded additional socket pair, or null for the primary pair
+   */
+  private CfaslSocketPair selectSocketPair() {
+    return selectSocketPair(primaryInFlightCount.get(), socketPairs);
+  }
+  
+  /**
+   * Returns the connected socket pair with fewer requests in flight than the primary pair and every
+   * other pair, or null when no pair has fewer than the primary pair. Ties go to the primary pair,
+   * and then to the earlier pair.
+   *
+   * @param primaryLoad the number of requests in flight on the primary pair
+   * @param socketPairs the additional socket pairs
+   * @return the least loaded additional socket pair, or null for the primary pair
+   */
+  static CfaslSocketPair selectSocketPair(int primaryLoad, List<CfaslSocketPair> socketPairs) {
+    CfaslSocketPair selected = null;
+    int selectedLoad = primaryLoad;
+    for (CfaslSocketPair socketPair : socketPairs) {
+      final int load = socketPair.getInFlightCount();
+      if ((load < selectedLoad) && socketPair.isConnected()) {
+        selected = socketPair;
+        selectedLoad = load;
+      }
+    }
+    return selected;
+  }
+  
+  /**
+   * Returns the UUID under which the server knows the given request, which depends on the socket
+   * pair that carried it.
+   *
+   * @param id the api request id
+   * @return the identifying UUID string for the request
+   */
+  private String uuidStringForRequest(Object id) {
+    final WaitingWorkerInfo waitingWorkerInfo = waitingReplyThreads.get(id);
+    return (waitingWorkerInfo != null) ? waitingWorkerInfo.getUuidString() : uuid.toString();
+  }
+  
+  /**
+   * Returns the number of outbound/inbound socket pairs, including the primary pair, of this
+   * connection.
+   *
+   * @return the number of socket pairs
+   */
+  public int getSocketPairCount() {
+    return socketPairCount;
   }
 
   /**
@@ -780,7 +1099,7 @@ public class CycConnectionImpl implements CycConnection {
       // NOTE: serial communications cannot be canceled right now
       return;
     }
-    String command = "(fif (" + "terminate-active-task-process" + " " + worker.getId() + " \"" + uuid + "\" " + ":cancel"
+    String command = "(fif (" + "terminate-active-task-process" + " " + worker.getId() + " \"" + uuidStringForRequest(id) + "\" " + ":cancel"
             + ") '(ignore) '(ignore))";
     sendBinary(cycAccess.getObjectTool().makeCycList(command));
     // the SubL implementation of CANCEL will send a CANCEL event back,
@@ -795,7 +1114,7 @@ public class CycConnectionImpl implements CycConnection {
       return;
     }
     try {
-      String command = "(fif (" + "terminate-active-task-process" + " " + worker.getId() + " \"" + uuid + "\" " + ":abort"
+      String command = "(fif (" + "terminate-active-task-process" + " " + worker.getId() + " \"" + uuidStringForRequest(id) + "\" " + ":abort"
               + ") '(ignore) '(ignore))";
       sendBinary(cycAccess.getObjectTool().makeCycList(command));
     } finally {
@@ -803,7 +1122,7 @@ public class CycConnectionImpl implements CycConnection {
       // so we do need to perform event signaling and cleanup
       worker.fireSublWorkerTerminatedEvent(new SublWorkerEvent(worker,
               ABORTED_STATUS, null));
-      waitingReplyThreads.remove(id);
+      removeWaitingReplyThread(id);
     }
   }
 
@@ -851,6 +1170,8 @@ public class CycConnectionImpl implements CycConnection {
     boolean isReturnWholeTaskProcessorResponse = false;
     CycList subLCommand = worker.getSublCommand();
     final Integer priority = worker.getPriority();
+    final CfaslSocketPair socketPair = selectSocketPair();
+    final String requestUuid = (socketPair != null) ? socketPair.getUuid().toString() : uuid.toString();
     if (subLCommand.first().equals(CycObjectFactory.makeCycSymbol(
             "return-whole-task-processor-response"))) {
       isReturnWholeTaskProcessorResponse = true;
@@ -860,7 +1181,7 @@ public class CycConnectionImpl implements CycConnection {
       // client has supplied the task-processor-request form
       taskProcessorRequest = subLCommand;
       id = (Integer) subLCommand.third();
-      taskProcessorRequest.set(6, uuid.toString());  // override the uuid to identify this client
+      taskProcessorRequest.set(6, requestUuid);  // override the uuid to identify this client
     } else {
       id = nextApiRequestId();
       taskProcessorRequest = new CycArrayList();
@@ -870,7 +1191,7 @@ public class CycConnectionImpl implements CycConnection {
       taskProcessorRequest.add(clampPriority(priority)); // priority
       taskProcessorRequest.add(myClientName); // requestor
       taskProcessorRequest.add(CycObjectFactory.nil); // client-bindings
-      taskProcessorRequest.add(uuid.toString()); // uuid to identify this client
+      taskProcessorRequest.add(requestUuid); // uuid to identify this client
     }
     final CycArrayList actualRequest = (CycArrayList) taskProcessorRequest.get(1);
     if (actualRequest.toString().startsWith(
@@ -878,17 +1199,28 @@ public class CycConnectionImpl implements CycConnection {
       // override the uuid used to identify this client
       // (fif (terminate-active-task-process id uuid :cancel) (quote (ignore)) (quote (ignore)))
       final CycArrayList temp = (CycArrayList) actualRequest.second();
-      temp.set(2, uuid.toString());
+      temp.set(2, uuidStringForRequest(temp.get(1)));
     }
     LOGGER.trace("taskProcessorRequest: {}", taskProcessorRequest.toPrettyCyclifiedString(""));
     WaitingWorkerInfo waitingWorkerInfo = new WaitingWorkerInfo(worker,
-            taskProcessorRequest, isReturnWholeTaskProcessorResponse);
+            taskProcessorRequest, isReturnWholeTaskProcessorResponse, socketPair);
     // tell everyone this is getting started
+    waitingWorkerInfo.requestStarted();
     waitingReplyThreads.put(id, waitingWorkerInfo);
     SublWorkerEvent event = new SublWorkerEvent(worker, id);
     worker.fireSublWorkerStartedEvent(event);
     //start communication
-    sendBinary(taskProcessorRequest);
+    try {
+      if (socketPair != null) {
+        sendBinary(taskProcessorRequest, socketPair);
+      } else {
+        sendBinary(taskProcessorRequest);
+      }
+    } catch (CycConnectionException | RuntimeException ex) {
+      // the request never reached the server, so it no longer counts against its socket pair
+      removeWaitingReplyThread(id);
+      throw ex;
+    }
   }
 
   static public Integer clampPriority(Integer priority) {
@@ -905,12 +1237,17 @@ public class CycConnectionImpl implements CycConnection {
   }
 
   /**
-   * Returns the next apiRequestId.
+   * Returns the next apiRequestId. Ids are allocated without locking, and wrap around to 1 rather
+   * than becoming negative.
    *
    * @return the next apiRequestId
    */
-  static public synchronized Integer nextApiRequestId() {
-    return new Integer(++apiRequestId);
+  static public int nextApiRequestId() {
+    return API_REQUEST_ID.updateAndGet(CycConnectionImpl::nextApiRequestId);
+  }
+  
+  static int nextApiRequestId(int previous) {
+    return (previous == Integer.MAX_VALUE) ? 1 : previous + 1;
   }
 
   /**
@@ -941,14 +1278,8 @@ public class CycConnectionImpl implements CycConnection {
       }
     } else {
       try {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(2048);
-        CfaslOutputStream cfo = new CfaslOutputStream(baos);
-        cfo.writeObject(message);
-        cfo.flush();
-        
         // Catching CommException and throwing a CycConnectionException to avoid adding CommException in all upper level methods
-        InputStream cisLocal = comm.sendRequest(baos.toByteArray(),
-                comm.makeRequestSummary(message.toString()), Comm.RequestType.NORMAL);
+        sendCommRequest(message);
       } catch (IOException ioe) {
         throw new CycConnectionException(ioe);
       } catch (CommException e) {
@@ -957,6 +1288,31 @@ public class CycConnectionImpl implements CycConnection {
     }
   }
 
+  /**
+   * Sends an object to the CYC server over one of the additional socket pairs of this connection.
+   * Writes to different socket pairs proceed concurrently.
+   *
+   * @param message the api command
+   * @param socketPair the socket pair over which to send the message
+   *
+   * @throws CycConnectionException when a communication error occurs
+   */
+  private void sendBinary(Object message, CfaslSocketPair socketPair)
+          throws CycConnectionException {
+    if (trace >= API_TRACE_MESSAGES) {
+      Log.current.println(
+              df.format(new Date()) + "\n    Sending request: " + message + " to connection: " + socketPair);
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("sendBinary: {}", DefaultCycObjectImpl.stringApiValue(message));
+    }
+    try {
+      socketPair.send(message);
+    } catch (IOException ioe) {
+      throw new CycConnectionException(ioe);
+    }
+  }
+
   /**
    * Receives an object from the CYC server.
    *
@@ -1028,20 +1384,40 @@ public class CycConnectionImpl implements CycConnection {
       cfaslOutputStream.writeObject(apiResponse);
       cfaslOutputStream.flush();
     } else {
-      ByteArrayOutputStream baos = new ByteArrayOutputStream(2048);
-      CfaslOutputStream cfo = new CfaslOutputStream(baos);
-      cfo.writeObject(message);
-      cfo.flush();
-
       try {
-        InputStream cisLocal = comm.sendRequest(baos.toByteArray(), 
-            comm.makeRequestSummary(message.toString()), Comm.RequestType.NORMAL);
+        sendCommRequest(message);
+      } catch (IOException e) {
+        throw e;
       } catch (Exception e) {
         throw new IOException(e);
       }
     }
   }
 
+  /**
+   * Encodes <code>message</code> into pooled direct buffers, and sends them via the comm object
+   * without copying them into an intermediate byte array.
+   *
+   * @param message the CFASL-translatable message
+   *
+   * @throws IOException when the message cannot be encoded
+   * @throws CommException when the comm object cannot send the request
+   * @throws CycConnectionException when a communication error occurs
+   */
+  private void sendCommRequest(Object message)
+          throws IOException, CommException, CycConnectionException {
+    final DirectBufferOutputStream buffers = new DirectBufferOutputStream();
+    try {
+      final CfaslOutputStream cfo = new CfaslOutputStream(buffers);
+      cfo.writeObject(message);
+      cfo.flush();
+      comm.sendRequest(buffers.getBuffers(),
+              comm.makeRequestSummary(message.toString()), Comm.RequestType.NORMAL);
+    } finally {
+      buffers.release();
+    }
+  }
+
   /**
    * Turns on the diagnostic trace of socket messages.
    */
@@ -1051,6 +1427,9 @@ public class CycConnectionImpl implements CycConnection {
     if (this.comm == null) {
       cfaslOutputStream.trace = trace;
     }
+    for (CfaslSocketPair socketPair : socketPairs) {
+      socketPair.setTrace(trace);
+    }
   }
 
   /**
@@ -1087,6 +1466,9 @@ public class CycConnectionImpl implements CycConnection {
     if (this.comm == null) {
       cfaslOutputStream.trace = trace;
     }
+    for (CfaslSocketPair socketPair : socketPairs) {
+      socketPair.setTrace(trace);
+    }
     for (Map.Entry<String, TaskProcessorBinaryResponseHandler> kv : taskProcessorBinaryResponseHandlerMap.entrySet()) {
       if (kv.getValue() != null) {
         kv.getValue().inboundStream.trace = trace;
@@ -1128,6 +1510,16 @@ public class CycConnectionImpl implements CycConnection {
       return false;
     }
     
+    for (CfaslSocketPair socketPair : socketPairs) {
+      if (!socketPair.isConnected()) {
+        if (!isQuiet) {
+          Log.current.println(
+                  "Invalid binary connection because " + socketPair + " is not connected");
+        }
+        return false;
+      }
+    }
+    
     for (Map.Entry<String, TaskProcessorBinaryResponseHandler> kv : taskProcessorBinaryResponseHandlerMap.entrySet()) {
 
       if ((kv.getValue() == null)
@@ -1155,6 +1547,9 @@ public class CycConnectionImpl implements CycConnection {
    * @return connection information, suitable for diagnostics
    */
   public String connectionInfo() {
+    if (socketPairCount > 1) {
+      return "host " + hostName + ", cfaslPort " + cfaslPort + ", socketPairs " + socketPairCount;
+    }
     return "host " + hostName + ", cfaslPort " + cfaslPort;
   }
 
@@ -1191,22 +1586,17 @@ public class CycConnectionImpl implements CycConnection {
    * thread will detect the error condition and throw an IOExecption.
    */
   protected void interruptAllWaitingReplyThreads() {
-    Iterator iter = waitingReplyThreads.values().iterator();
-
-    synchronized (waitingReplyThreads) {
-      while (iter.hasNext()) {
-        WaitingWorkerInfo waitingWorkerInfo = (WaitingWorkerInfo) iter.next();
+    for (WaitingWorkerInfo waitingWorkerInfo : waitingReplyThreads.values()) {
+      if (trace > API_TRACE_NONE) {
+        Log.current.println(
+                "Interrupting reply worker " + waitingWorkerInfo.getWorker());
+      }
+      try {
+        waitingWorkerInfo.worker.cancel();
+      } catch (CycConnectionException xcpt) {
         if (trace > API_TRACE_NONE) {
           Log.current.println(
-                  "Interrupting reply worker " + waitingWorkerInfo.getWorker());
-        }
-        try {
-          waitingWorkerInfo.worker.cancel();
-        } catch (CycConnectionException xcpt) {
-          if (trace > API_TRACE_NONE) {
-            Log.current.println(
-                    "Could not interrupt reply worker " + waitingWorkerInfo.getWorker() + ": exception: " + xcpt);
-          }
+                  "Could not interrupt reply worker " + waitingWorkerInfo.getWorker() + ": exception: " + xcpt);
         }
       }
     }
@@ -1217,24 +1607,25 @@ public class CycConnectionImpl implements CycConnection {
    * thread will detect the error condition and throw an IOExecption.
    */
   protected synchronized void forciblyUnblockAllWaitingWorkers(Exception e) {
-    Iterator iter = waitingReplyThreads.values().iterator();
     if (e == null) {
       e = new CfaslInputStreamClosedException(
               "Communications terminated with Cyc.");
     }
-    synchronized (waitingReplyThreads) {
-      while (iter.hasNext()) {
-        WaitingWorkerInfo waitingWorkerInfo = (WaitingWorkerInfo) iter.next();
-        if (trace > API_TRACE_NONE) {
-          Log.current.println(
-                  "Interrupting reply worker " + waitingWorkerInfo.getWorker());
-        }
-        SublWorkerEvent event = new SublWorkerEvent(
-                waitingWorkerInfo.getWorker(),
-                WorkerStatus.EXCEPTION_STATUS, e);
-        waitingWorkerInfo.worker.fireSublWorkerTerminatedEvent(event);
-        iter.remove();
+    for (Map.Entry<Integer, WaitingWorkerInfo> entry : waitingReplyThreads.entrySet()) {
+      final WaitingWorkerInfo waitingWorkerInfo = entry.getValue();
+      // Only the thread which removes the request terminates it, in case its response arrives now:
+      if (!waitingReplyThreads.remove(entry.getKey(), waitingWorkerInfo)) {
+        continue;
+      }
+      if (trace > API_TRACE_NONE) {
+        Log.current.println(
+                "Interrupting reply worker " + waitingWorkerInfo.getWorker());
       }
+      SublWorkerEvent event = new SublWorkerEvent(
+              waitingWorkerInfo.getWorker(),
+              WorkerStatus.EXCEPTION_STATUS, e);
+      waitingWorkerInfo.worker.fireSublWorkerTerminatedEvent(event);
+      waitingWorkerInfo.requestTerminated();
     }
   }
 
@@ -1273,5 +1664,5 @@ public class CycConnectionImpl implements CycConnection {
     cycAccess.converse().converseCycObject(command);
   }
   public static final DateFormat df = DateFormat.getDateTimeInstance();
-  public ApiThreadPool apiPool = new ApiThreadPool();
+  public ExecutorService apiPool = ApiThreadPool.newApiExecutor();
 }
@@ -0,0 +1,221 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: DirectBufferOutputStream.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An OutputStream which writes into a growable sequence of direct ByteBuffer chunks, taken from a
+ * pool which is shared by all instances. The stream grows by adding chunks, so bytes which have
+ * been written are never copied again; the chunks are handed to a channel as-is by
+ * {@link #writeTo(GatheringByteChannel)}, or exposed by {@link #getBuffers()}.
+ *
+ * <p>Call {@link #release()} once the contents have been sent, to return the chunks to the pool.
+ * The stream may then be reused. Instances are not thread-safe.
+ *
+ * @see CfaslOutputStream#CfaslOutputStream(DirectBufferOutputStream)
+ */
+public class DirectBufferOutputStream extends OutputStream {
+
+  /** The size in bytes of each pooled chunk. */
+  public static final int CHUNK_SIZE = 16 * 1024;
+
+  /**
+   * The system property which sets the maximum number of idle chunks kept in the pool; chunks
+   * released beyond that are left to the garbage collector.
+   */
+  public static final String MAX_POOLED_CHUNKS_PROPERTY
+          = "com.cyc.baseclient.connection.maxPooledDirectBuffers";
+
+  public static final int DEFAULT_MAX_POOLED_CHUNKS = 256;
+
+  //// Constructors
+
+  /** Creates a new, empty DirectBufferOutputStream. */
+  public DirectBufferOutputStream() {
+  }
+
+  //// Public Area
+
+  @Override
+  public void write(int b) {
+    currentChunk(1).put((byte) b);
+    size++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    if ((off < 0) || (len < 0) || (off + len > b.length)) {
+      throw new IndexOutOfBoundsException();
+    }
+    while (len > 0) {
+      final ByteBuffer chunk = currentChunk(1);
+      final int n = Math.min(len, chunk.remaining());
+      chunk.put(b, off, n);
+      off += n;
+      len -= n;
+      size += n;
+    }
+  }
+
+  /**
+   * Returns the number of bytes written since this stream was created or last released.
+   *
+   * @return the number of bytes written
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns read-only views of the bytes written so far, one per chunk, ready to be written to a
+   * channel. The views share their contents with this stream, so they are only valid until it is
+   * released.
+   *
+   * @return the contents of this stream
+   */
+  public ByteBuffer[] getBuffers() {
+    final ByteBuffer[] buffers = new ByteBuffer[chunks.size()];
+    for (int i = 0; i < buffers.length; i++) {
+      final ByteBuffer view = chunks.get(i).duplicate();
+      view.flip();
+      buffers[i] = view.asReadOnlyBuffer();
+    }
+    return buffers;
+  }
+
+  /**
+   * Writes the contents of this stream to <code>channel</code> with gathering writes.
+   *
+   * @param channel the channel, which must be in blocking mode
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public void writeTo(GatheringByteChannel channel) throws IOException {
+    writeFully(channel, getBuffers());
+  }
+
+  /**
+   * Writes all of the remaining bytes of <code>buffers</code> to <code>channel</code> with
+   * gathering writes.
+   *
+   * @param channel the channel, which must be in blocking mode
+   * @param buffers the buffers to be written
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public static void writeFully(GatheringByteChannel channel, ByteBuffer[] buffers)
+          throws IOException {
+    int first = 0;
+    while (first < buffers.length) {
+      channel.write(buffers, first, buffers.length - first);
+      while ((first < buffers.length) && !buffers[first].hasRemaining()) {
+        first++;
+      }
+    }
+  }
+
+  /**
+   * Copies the remaining bytes of <code>buffers</code> into a new array, for callers which can only
+   * accept a byte array.
+   *
+   * @param buffers the buffers to be copied
+   *
+   * @return the remaining bytes of the buffers
+   */
+  public static byte[] toByteArray(ByteBuffer[] buffers) {
+    int length = 0;
+    for (ByteBuffer buffer : buffers) {
+      length += buffer.remaining();
+    }
+    final byte[] bytes = new byte[length];
+    int off = 0;
+    for (ByteBuffer buffer : buffers) {
+      final int n = buffer.remaining();
+      buffer.duplicate().get(bytes, off, n);
+      off += n;
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns this stream's chunks to the pool and empties the stream, which may then be reused.
+   */
+  public void release() {
+    for (ByteBuffer chunk : chunks) {
+      if (POOLED_CHUNK_COUNT.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+        chunk.clear();
+        POOL.offer(chunk);
+      } else {
+        POOLED_CHUNK_COUNT.decrementAndGet();
+      }
+    }
+    chunks.clear();
+    size = 0;
+  }
+
+  @Override
+  public void close() {
+    release();
+  }
+
+  //// Private Area
+
+  private ByteBuffer currentChunk(int minRemaining) {
+    if (!chunks.isEmpty()) {
+      final ByteBuffer last = chunks.get(chunks.size() - 1);
+      if (last.remaining() >= minRemaining) {
+        return last;
+      }
+    }
+    ByteBuffer chunk = POOL.poll();
+    if (chunk != null) {
+      POOLED_CHUNK_COUNT.decrementAndGet();
+    } else {
+      chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
+    chunks.add(chunk);
+    return chunk;
+  }
+
+  //// Internal Rep
+
+  private static final int MAX_POOLED_CHUNKS
+          = Integer.getInteger(MAX_POOLED_CHUNKS_PROPERTY, DEFAULT_MAX_POOLED_CHUNKS);
+
+  private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+  private static final AtomicInteger POOLED_CHUNK_COUNT = new AtomicInteger(0);
+
+  private final List<ByteBuffer> chunks = new ArrayList<>();
+
+  private int size = 0;
+
+}
@@ -87,7 +87,7 @@ class NotificationTaskImpl implements NotificationTask {
         }
       }
       if (worker.isDone()) {
-        cycComm.getWaitingReplyThreads().remove(id);
+        cycComm.removeWaitingReplyThread(id);
       }
     } finally {
       try {
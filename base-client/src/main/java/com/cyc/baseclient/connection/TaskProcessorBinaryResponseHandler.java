@@ -34,8 +34,10 @@ import java.io.InputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Date;
+import java.util.UUID;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +104,10 @@ class TaskProcessorBinaryResponseHandler extends Thread {
 
   private String hostName;
   private int port;
+  /**
+   * the UUID under which the inbound socket is registered with the Cyc server
+   */
+  private final UUID uuid;
   /**
    * Constructs a TaskProcessorBinaryResponseHandler object.
    *
@@ -115,6 +121,20 @@ class TaskProcessorBinaryResponseHandler extends Thread {
    * @param cycConnection the parent CycConnection
    */
   public TaskProcessorBinaryResponseHandler(Thread parentThread, final CycConnectionImpl cycConnection, String hostName, int port) {
+    this(parentThread, cycConnection, hostName, port, cycConnection.uuid);
+  }
+  
+  /**
+   * Constructs a TaskProcessorBinaryResponseHandler object for one of the additional socket pairs
+   * of a pooled connection, whose inbound socket is registered under its own UUID.
+   *
+   * @param parentThread the parent thread of this thread
+   * @param cycConnection the parent CycConnection
+   * @param hostName the Cyc server host name
+   * @param port the Cyc server CFASL port
+   * @param uuid the UUID identifying the socket pair to the Cyc server
+   */
+  public TaskProcessorBinaryResponseHandler(Thread parentThread, final CycConnectionImpl cycConnection, String hostName, int port, UUID uuid) {
     this.cycConnection = cycConnection;
     this.parentThread = parentThread;
     ignoreMessage = new CycArrayList();
@@ -122,6 +142,7 @@ class TaskProcessorBinaryResponseHandler extends Thread {
     
     this.hostName = hostName;
     this.port = port;
+    this.uuid = uuid;
     initializeSynchronization();
   }
   
@@ -133,6 +154,7 @@ class TaskProcessorBinaryResponseHandler extends Thread {
     
     this.hostName = hostName;
     this.port = port;
+    this.uuid = cycConnection.uuid;
     initializeSynchronization();
     inboundStream = new CfaslInputStream(is);
     inboundStream.trace = cycConnection.getTrace();
@@ -152,9 +174,9 @@ class TaskProcessorBinaryResponseHandler extends Thread {
           if (cycConnection.comm == null) {
             CycArrayList request = new CycArrayList();
             request.add(new CycSymbolImpl("INITIALIZE-JAVA-API-PASSIVE-SOCKET"));
-            request.add(cycConnection.uuid.toString());
+            request.add(uuid.toString());
             // Open a second api socket connection and use it for asychronous api responses.
-            inboundSocket = new Socket(cycConnection.hostName, cycConnection.cfaslPort);
+            inboundSocket = new Socket(hostName, port);
             int val = inboundSocket.getReceiveBufferSize();
             inboundSocket.setReceiveBufferSize(val * 2);
             inboundSocket.setTcpNoDelay(true);
@@ -309,13 +331,16 @@ class TaskProcessorBinaryResponseHandler extends Thread {
       } catch (Exception e) {
       }
       ;
+    }
+    if (cycConnection.apiPool instanceof ThreadPoolExecutor) {
+      final ThreadPoolExecutor apiThreadPool = (ThreadPoolExecutor) cycConnection.apiPool;
       try {
-        cycConnection.apiPool.setMaximumPoolSize(0);
+        apiThreadPool.setMaximumPoolSize(0);
       } catch (Exception e) {
       }
       ;
       try {
-        cycConnection.apiPool.setKeepAliveTime(0, TimeUnit.MILLISECONDS);
+        apiThreadPool.setKeepAliveTime(0, TimeUnit.MILLISECONDS);
       } catch (Exception e) {
       }
       ;
@@ -343,7 +368,7 @@ class TaskProcessorBinaryResponseHandler extends Thread {
       }
     }
     if (cycConnection.trace > CycConnectionImpl.API_TRACE_NONE) {
-      Log.current.println("closed inbound socket associated with " + cycConnection.uuid);
+      Log.current.println("closed inbound socket associated with " + uuid);
     }
   }
 
@@ -43,6 +43,7 @@ import com.cyc.baseclient.xml.XmlWriter;
 import com.cyc.kb.ArgPosition;
 import com.cyc.kb.KbObject;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -349,9 +350,22 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
   public static int indentLength = 2;
   private boolean isProperList = true;
   private E dottedElement;
+  /** Whether this list contains a backquote; UNKNOWN only once deserialized. */
+  private transient byte backquoteState = BACKQUOTE_ABSENT;
+  /**
+   * The lists to which this one has been added while it had no backquote, so that they can be
+   * told when it gets one: null, a WeakReference, or a List of WeakReferences.
+   */
+  private transient Object backquoteParents = null;
   public static final CycArrayList EMPTY_CYC_LIST = new UnmodifiableCycList<Object>();
   
   final static private CycSymbolImpl LIST_NIL = new CycSymbolImpl("NIL");
+
+  final static private String BACKQUOTE_NAME = "`";
+
+  final static private byte BACKQUOTE_UNKNOWN = 0;
+  final static private byte BACKQUOTE_ABSENT = 1;
+  final static private byte BACKQUOTE_PRESENT = 2;
   
   //====|    Construction    |====================================================================//
   
@@ -387,6 +401,7 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
    */
   public CycArrayList(final Collection<? extends E> c) {
     super(c);
+    noteElements(c);
   }
 
   /**
@@ -470,6 +485,7 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
 
   @Override
   public CycArrayList<E> setDottedElement(final E dottedElement) {
+    noteElement(dottedElement);
     this.dottedElement = dottedElement;
     this.isProperList = (dottedElement == null) || (CycObjectFactory.nil.equals(dottedElement));
     return this;
@@ -647,9 +663,16 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
   
   @Override
   public boolean add(E e) {
+    noteElement(e);
     return super.add(e);
   }
 
+  @Override
+  public void add(int index, E element) {
+    noteElement(element);
+    super.add(index, element);
+  }
+
   /* *
    * Adds the given integer to this list by wrapping it with an Integer object.
    *
@@ -714,6 +737,7 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
 
   @Override
   public boolean addAll(Collection<? extends E> col) {
+    noteElements(col);
     boolean result = super.addAll(col);
     if (col instanceof CycList) {
       final CycList cycList = (CycList) col;
@@ -730,6 +754,43 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
     return result;
   }
   
+  @Override
+  public boolean addAll(int index, Collection<? extends E> col) {
+    noteElements(col);
+    return super.addAll(index, col);
+  }
+
+  @Override
+  public void replaceAll(UnaryOperator<E> operator) {
+    super.replaceAll(operator);
+    for (int i = 0; i < super.size() && backquoteState != BACKQUOTE_PRESENT; i++) {
+      noteElement(super.get(i));
+    }
+  }
+
+  /**
+   * Returns true if this list may contain the backquote symbol, at any depth, in constant time.
+   * The answer is kept up to date as elements are added, including to the lists nested within this
+   * one, which tell the lists they were added to when they get a backquote. It can report true for
+   * a list from which the backquote has since been removed, but not false for one which contains a
+   * backquote.
+   *
+   * @return false if this list does not contain a backquote
+   */
+  public boolean mayContainBackquote() {
+    if (backquoteState == BACKQUOTE_UNKNOWN) {
+      backquoteState = BACKQUOTE_ABSENT;
+      for (int i = 0; i < super.size(); i++) {
+        noteElement(super.get(i));
+      }
+      if (!isProperList) {
+        noteElement(dottedElement);
+      }
+    }
+    return backquoteState == BACKQUOTE_PRESENT;
+  }
+
+
   @Override
   public boolean contains(Object obj) {
     if (!isProperList()) {
@@ -1621,6 +1682,85 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
     return constants;
   }
 
+  /**
+   * Notes an element added to this list. A nested list without a backquote remembers this list, so
+   * that it can pass a backquote on to it later; unmodifiable lists never get one.
+   */
+  private void noteElement(Object element) {
+    if (backquoteState == BACKQUOTE_PRESENT) {
+      return;
+    }
+    if (element instanceof CycArrayList) {
+      final CycArrayList nested = (CycArrayList) element;
+      if (nested.mayContainBackquote()) {
+        noteBackquote();
+      } else if (!(nested instanceof UnmodifiableCycList)) {
+        nested.addBackquoteParent(this);
+      }
+    } else if (isBackquote(element)) {
+      noteBackquote();
+    }
+  }
+
+  private void noteElements(Collection<?> elements) {
+    if (backquoteState == BACKQUOTE_PRESENT) {
+      return;
+    }
+    for (final Object element : elements) {
+      noteElement(element);
+    }
+  }
+
+  /** Records that this list has a backquote, as do the lists which it was added to. */
+  private void noteBackquote() {
+    if (backquoteState == BACKQUOTE_PRESENT) {
+      return;
+    }
+    backquoteState = BACKQUOTE_PRESENT;
+    final Object parents = backquoteParents;
+    backquoteParents = null;
+    if (parents instanceof WeakReference) {
+      noteBackquote((WeakReference<CycArrayList>) parents);
+    } else if (parents != null) {
+      for (WeakReference<CycArrayList> parent : (List<WeakReference<CycArrayList>>) parents) {
+        noteBackquote(parent);
+      }
+    }
+  }
+
+  private static void noteBackquote(WeakReference<CycArrayList> parent) {
+    final CycArrayList list = parent.get();
+    if (list != null) {
+      list.noteBackquote();
+    }
+  }
+
+  private void addBackquoteParent(CycArrayList parent) {
+    if (backquoteParents == null) {
+      backquoteParents = new WeakReference<>(parent);
+    } else if (backquoteParents instanceof WeakReference) {
+      final WeakReference<CycArrayList> only = (WeakReference<CycArrayList>) backquoteParents;
+      if (only.get() != parent) {
+        final List<WeakReference<CycArrayList>> parents = new ArrayList<>(2);
+        parents.add(only);
+        parents.add(new WeakReference<>(parent));
+        backquoteParents = parents;
+      }
+    } else {
+      final List<WeakReference<CycArrayList>> parents
+              = (List<WeakReference<CycArrayList>>) backquoteParents;
+      if (parents.get(parents.size() - 1).get() != parent) {
+        parents.removeIf(reference -> reference.get() == null);
+        parents.add(new WeakReference<>(parent));
+      }
+    }
+  }
+
+  private static boolean isBackquote(Object element) {
+    return (element instanceof CycSymbolImpl)
+           && BACKQUOTE_NAME.equals(((CycSymbolImpl) element).getSymbolName());
+  }
+
   private void pushTreeConstantElements(List list, Stack stack) {
     final Iterator iter = list.iterator();
     while (iter.hasNext()) {
@@ -1639,6 +1779,7 @@ public class CycArrayList<E> extends ArrayList<E> implements CycList<E>, CycObje
   
   @Override
   public E set(int index, E element) {
+    noteElement(element);
     if ((index == (size() - 1)) && (!isProperList())) {
       final E oldValue = getDottedElement();
       setDottedElement(element);
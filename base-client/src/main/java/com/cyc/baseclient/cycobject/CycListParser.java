@@ -244,9 +244,9 @@ public class CycListParser {
           } else if (USE_NEW_REDUCE_DOTTED_PAIRS) {
             final CycArrayList cycList = (CycArrayList) object;
             reduceDottedPairs(cycList);
-            return cycList;
+            return maybeInternElements(cycList);
           } else {
-            return (CycArrayList) reduceDottedPairsOld((CycArrayList) object);
+            return maybeInternElements((CycArrayList) reduceDottedPairsOld((CycArrayList) object));
           }
         }
       }
@@ -576,6 +576,17 @@ public class CycListParser {
     }
   }
 
+  /**
+   * Interns the terms within a parsed list, if {@link CycTermInterner#isEnabled()}. The dotted
+   * pairs must already have been reduced, as interned lists cannot be modified.
+   */
+  private CycArrayList maybeInternElements(CycArrayList cycList) {
+    if (CycTermInterner.isEnabled()) {
+      CycTermInterner.internElements(cycList);
+    }
+    return cycList;
+  }
+
   /**
    * Performs a lexical analysis of the list, removing dot objects and
    * canonicalizing dotted representation.
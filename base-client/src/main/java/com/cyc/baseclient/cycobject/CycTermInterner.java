@@ -0,0 +1,453 @@
+package com.cyc.baseclient.cycobject;
+
+/*
+ * #%L
+ * File: CycTermInterner.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+//// External Imports
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.Fort;
+import com.cyc.base.cycobject.Nart;
+import com.cyc.base.cycobject.Naut;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-conses CycL terms: replaces lists and NARTs with canonical, immutable instances, so that
+ * identical subterms are shared, and each term's hash code is computed once. Two interned terms
+ * are equal iff they are the same instance, so comparing them takes constant time. Comparing an
+ * interned term with one that is not interned is as before.
+ *
+ * <p>Result sets which repeat the same NARTs and subformulas many times take correspondingly less
+ * heap when interned, and are much cheaper to use as keys in hash maps. When interning is
+ * enabled, by setting the system property {@value #ENABLED_PROPERTY} to <code>true</code> or by
+ * calling {@link #setEnabled(boolean)}, the CFASL decoders and {@link CycListParser} intern the
+ * terms nested within each object they read. The outermost list is left modifiable, but the
+ * terms within it are not: callers which need to modify one should modify a
+ * {@link CycArrayList#deepCopy()}. A list which contains a formula, such as a NAUT or a sentence,
+ * or another term which cannot be interned, is not interned itself, since the formula could be
+ * modified; only its elements are.
+ *
+ * <p>Canonical instances are held weakly, and are discarded once nothing else refers to them.
+ * This class is thread-safe: the canonical instances are spread over {@value #STRIPES} tables by
+ * hash code, each with its own lock, so that threads decoding different terms rarely contend.
+ */
+public final class CycTermInterner {
+
+  /**
+   * System property which enables interning by the CFASL decoders and {@link CycListParser}.
+   */
+  public static final String ENABLED_PROPERTY = "com.cyc.baseclient.cycobject.internTerms";
+
+  //// Constructors
+
+  private CycTermInterner() {
+  }
+
+  //// Public Area
+
+  /**
+   * Returns true iff the CFASL decoders and {@link CycListParser} intern the terms they read.
+   *
+   * @return whether interning is enabled
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets whether the CFASL decoders and {@link CycListParser} intern the terms they read. Terms
+   * which have already been interned remain so.
+   *
+   * @param enabled whether interning is enabled
+   */
+  public static void setEnabled(boolean enabled) {
+    CycTermInterner.enabled = enabled;
+  }
+
+  /**
+   * Returns the canonical instance of a term. A {@link CycArrayList} is returned as an
+   * {@link InternedCycList}, and a {@link NartImpl} as an {@link InternedNart}, in each case with
+   * its subterms interned. Any other object is returned as is.
+   *
+   * @param <T>  the type of the term
+   * @param term the term
+   *
+   * @return the canonical instance equal to <code>term</code>
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T intern(T term) {
+    if (term == null) {
+      return null;
+    }
+    final Class<?> cls = term.getClass();
+    if (cls == CycArrayList.class) {
+      return (T) internList((CycArrayList<?>) term);
+    } else if (cls == NartImpl.class) {
+      return (T) internNart((NartImpl) term);
+    }
+    return term;
+  }
+
+  /**
+   * Replaces each element of a list, including its dotted element, with its canonical instance.
+   * The list itself is modified, rather than interned.
+   *
+   * @param list the list
+   */
+  @SuppressWarnings("unchecked")
+  public static void internElements(CycArrayList<?> list) {
+    final CycArrayList<Object> elements = (CycArrayList<Object>) list;
+    for (int i = 0; i < elements.getProperListSize(); i++) {
+      elements.set(i, intern(elements.get(i)));
+    }
+    if (!elements.isProperList()) {
+      elements.setDottedElement(intern(elements.getDottedElement()));
+    }
+  }
+
+  /**
+   * Returns the number of canonical instances currently held.
+   *
+   * @return the number of interned terms
+   */
+  public static int size() {
+    int size = 0;
+    for (Map<Object, WeakReference<Object>> table : TABLES) {
+      synchronized (table) {
+        size += table.size();
+      }
+    }
+    return size;
+  }
+
+  //// Private Area
+
+  /**
+   * Returns the canonical instance equal to <code>list</code>. Its elements are interned into an
+   * array, which is only allocated if one of them is not already canonical, and the table is
+   * searched with a {@link ListProbe} over them, so that nothing else is allocated unless the list
+   * is new. A list containing a term which {@link #isMutable(Object) may change} is not interned:
+   * it is returned as is if its elements were already canonical, and otherwise as a plain copy
+   * with canonical elements.
+   */
+  @SuppressWarnings("unchecked")
+  private static CycArrayList<Object> internList(CycArrayList<?> list) {
+    final int size = list.getProperListSize();
+    Object[] elements = null;
+    boolean mutable = false;
+    for (int i = 0; i < size; i++) {
+      final Object element = list.get(i);
+      final Object interned = intern(element);
+      if (interned != element && elements == null) {
+        elements = new Object[size];
+        for (int j = 0; j < i; j++) {
+          elements[j] = list.get(j);
+        }
+      }
+      if (elements != null) {
+        elements[i] = interned;
+      }
+      mutable |= isMutable(interned);
+    }
+    final boolean proper = list.isProperList();
+    final Object dottedElement = proper ? null : list.getDottedElement();
+    final Object dotted = proper ? null : intern(dottedElement);
+    mutable |= isMutable(dotted);
+    final boolean changed = (elements != null) || (dotted != dottedElement);
+    if (mutable && !changed) {
+      return (CycArrayList<Object>) list;
+    }
+    final ListProbe probe = new ListProbe(list, elements, proper, dotted);
+    if (mutable) {
+      return probe.toList();
+    }
+    final Map<Object, WeakReference<Object>> table = tableFor(probe.hashCode());
+    synchronized (table) {
+      final Object existing = lookup(table, probe);
+      if (existing != null) {
+        return (CycArrayList<Object>) existing;
+      }
+      return canonicalize(table, new InternedCycList<>(changed ? probe.toList() : list));
+    }
+  }
+
+  /**
+   * Returns whether a term may change after it has been put in a list, which would invalidate the
+   * list's cached hash code: a formula, a NART which is not canonical, or a list which is not
+   * canonical.
+   */
+  private static boolean isMutable(Object term) {
+    if (term instanceof List) {
+      return !(term instanceof InternedCycList);
+    } else if (term instanceof NartImpl) {
+      return !(term instanceof InternedNart);
+    }
+    return term instanceof FormulaImpl;
+  }
+
+  /**
+   * Returns the canonical instance equal to <code>nart</code>, which is built around a copy of its
+   * formula, so that <code>nart</code> itself is never modified. A NART without a formula, such as
+   * {@link com.cyc.baseclient.CycObjectFactory#INVALID_NART}, is returned as is.
+   */
+  private static Nart internNart(NartImpl nart) {
+    final Naut formula = nart.getFormula();
+    if (!(formula instanceof NautImpl)) {
+      return nart;
+    }
+    final NautImpl copy = ((NautImpl) formula).deepCopy();
+    // Share the NARTs and other canonical terms within the formula:
+    final CycArrayList<Object> args = copy.getArgs();
+    for (int i = 0; i < args.size(); i++) {
+      args.set(i, intern(args.get(i)));
+    }
+    final NartImpl probe = new NartImpl(copy);
+    final Map<Object, WeakReference<Object>> table = tableFor(probe.hashCode());
+    synchronized (table) {
+      final Object existing = lookup(table, probe);
+      if (existing != null) {
+        return (Nart) existing;
+      }
+      return canonicalize(table, new InternedNart(copy));
+    }
+  }
+
+  /**
+   * Returns the canonical instance equal to <code>term</code>, or null. The table is searched with
+   * <code>term</code>'s own equals method, which is shallow once its subterms have been interned.
+   */
+  private static Object lookup(Map<Object, WeakReference<Object>> table, Object term) {
+    final WeakReference<Object> ref = table.get(term);
+    return (ref != null) ? ref.get() : null;
+  }
+
+  private static <T> T canonicalize(Map<Object, WeakReference<Object>> table, T term) {
+    table.put(term, new WeakReference<>(term));
+    return term;
+  }
+
+  /** Returns the table which holds the canonical instances with the given hash code. */
+  private static Map<Object, WeakReference<Object>> tableFor(int hash) {
+    return TABLES[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  //// Internal Rep
+
+  /** The number of tables over which the canonical instances are spread. A power of two. */
+  private static final int STRIPES = 64;
+
+  /**
+   * Map each canonical instance to itself. Since an entry lasts as long as its key, and equal
+   * terms always fall in the same table, two live canonical instances are never equal, which is
+   * what makes identity comparison sound.
+   */
+  @SuppressWarnings("unchecked")
+  private static final Map<Object, WeakReference<Object>>[] TABLES = new Map[STRIPES];
+
+  static {
+    for (int i = 0; i < STRIPES; i++) {
+      TABLES[i] = new WeakHashMap<>();
+    }
+  }
+
+  private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+  //====|    ListProbe    |=======================================================================//
+
+  /**
+   * Stands for a list whose elements have been interned, when looking it up in a table. It is
+   * equal to an {@link InternedCycList} with the same elements, and has the same hash code, but
+   * does not copy the elements into a new list.
+   */
+  private static final class ListProbe {
+
+    private ListProbe(CycArrayList<?> list, Object[] elements, boolean proper, Object dotted) {
+      this.list = list;
+      this.elements = elements;
+      this.proper = proper;
+      this.dotted = dotted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof InternedCycList)) {
+        return false;
+      }
+      final InternedCycList<?> them = (InternedCycList<?>) o;
+      if (them.getProperListSize() != size() || them.isProperList() != proper) {
+        return false;
+      }
+      for (int i = 0; i < size(); i++) {
+        final Object mine = get(i);
+        final Object theirs = them.get(i);
+        if (mine != theirs && (mine == null || !mine.equals(theirs))) {
+          return false;
+        }
+      }
+      return proper || Objects.equals(dotted, them.getDottedElement());
+    }
+
+    /** The same as {@link CycArrayList#hashCode()}, which ignores the dotted element. */
+    @Override
+    public int hashCode() {
+      if (!hashed) {
+        int code = 0;
+        for (int i = 0; i < size(); i++) {
+          code = code * 31 + Objects.hashCode(get(i));
+        }
+        hash = code;
+        hashed = true;
+      }
+      return hash;
+    }
+
+    private int size() {
+      return list.getProperListSize();
+    }
+
+    private Object get(int i) {
+      return (elements != null) ? elements[i] : list.get(i);
+    }
+
+    /** Returns a new, modifiable list of the interned elements. */
+    private CycArrayList<Object> toList() {
+      final CycArrayList<Object> result = new CycArrayList<>(size());
+      for (int i = 0; i < size(); i++) {
+        result.add(get(i));
+      }
+      if (!proper) {
+        result.setDottedElement(dotted);
+      }
+      return result;
+    }
+
+    private final CycArrayList<?> list;
+    private final Object[] elements;
+    private final boolean proper;
+    private final Object dotted;
+    private int hash;
+    private boolean hashed = false;
+
+  }
+
+  //====|    InternedCycList    |=================================================================//
+
+  /**
+   * The canonical, immutable instance of a list, whose elements are themselves canonical. Its hash
+   * code is computed once, when it is interned.
+   *
+   * @param <E> the type of the elements
+   */
+  public static final class InternedCycList<E> extends CycArrayList.UnmodifiableCycList<E> {
+
+    private InternedCycList(CycList<? extends E> elements) {
+      super(elements);
+      this.hash = super.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      return !(o instanceof InternedCycList) && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** Interning survives serialization. */
+    private Object readResolve() {
+      return intern(new CycArrayList<>(this));
+    }
+
+    private final int hash;
+
+  }
+
+  //====|    InternedNart    |====================================================================//
+
+  /**
+   * The canonical, immutable instance of a NART, whose arguments are canonical where they can be.
+   * Its hash code is computed once, when it is interned. Its formula is a private copy, which must
+   * not be modified.
+   */
+  public static final class InternedNart extends NartImpl {
+
+    private InternedNart(Naut formula) {
+      super(formula);
+      this.hash = super.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (object == this) {
+        return true;
+      }
+      return !(object instanceof InternedNart) && super.equals(object);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public void setFunctor(Fort functor) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setArguments(CycList arguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setArgument(int argNum, Object argument) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** Interning survives serialization. */
+    private Object readResolve() {
+      return internNart(new NartImpl(getFormula()));
+    }
+
+    private final int hash;
+
+  }
+
+}
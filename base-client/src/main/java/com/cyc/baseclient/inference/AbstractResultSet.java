@@ -52,9 +52,7 @@ import java.sql.SQLXML;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -204,7 +202,6 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   public void beforeFirst() {
     ensureOpen("beforeFirst");
     cursor = -1;
-    curRow = null;
   }
 
   /**
@@ -222,7 +219,6 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
     ensureOpen("afterLast");
     waitTillProcessingDone();
     cursor = getCurrentRowCount();
-    curRow = null;
   }
 
   /**
@@ -274,23 +270,20 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   @Override
   public boolean absolute(int row) {
     ensureOpen("absolute");
-    if ((row < 1) || (row > rs.size())) {
+    if ((row < 1) || (row > columns.getRowCount())) {
       waitTillProcessingDone();
       if (row < 0) {
-        row = rs.size() + row + 1;
+        row = columns.getRowCount() + row + 1;
       }
     }
     if (row <= 0) {
       cursor = -1;
-      curRow = null;
       return false;
-    } else if (row > rs.size()) {
-      cursor = rs.size();
-      curRow = null;
+    } else if (row > columns.getRowCount()) {
+      cursor = columns.getRowCount();
       return false;
     }
     cursor = row - 1;
-    curRow = rs.get(cursor);
     return true;
   }
 
@@ -434,12 +427,8 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   public Object getObject(int colIndex)
           throws IllegalArgumentException, ArrayIndexOutOfBoundsException {
     ensureOpen("getObject");
-    if ((colIndex <= 0) || (colIndex > getMaxColumns())) {
-      throw new IllegalArgumentException("Invalid column index: " + colIndex);
-    } else if (curRow == null) {
-      throw new ArrayIndexOutOfBoundsException(getRow() + " is not a valid row");
-    }
-    return curRow.get(colIndex - 1);
+    checkCell(colIndex);
+    return columns.get(cursor, colIndex - 1);
   }
 
   /**
@@ -581,7 +570,8 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   public long getLong(int colIndex)
           throws IllegalArgumentException, ArrayIndexOutOfBoundsException, ClassCastException {
     ensureOpen("getLong");
-    return ((Number) getObject(colIndex)).longValue();
+    checkCell(colIndex);
+    return columns.getLong(cursor, colIndex - 1);
   }
 
   /**
@@ -628,7 +618,8 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   public int getInt(int colIndex)
           throws IllegalArgumentException, ArrayIndexOutOfBoundsException, ClassCastException {
     ensureOpen("getInt");
-    return ((Number) getObject(colIndex)).intValue();
+    checkCell(colIndex);
+    return columns.getInt(cursor, colIndex - 1);
   }
 
   /**
@@ -675,7 +666,8 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   public double getDouble(int colIndex)
           throws IllegalArgumentException, ArrayIndexOutOfBoundsException, ClassCastException {
     ensureOpen("getDouble");
-    return ((Number) getObject(colIndex)).doubleValue();
+    checkCell(colIndex);
+    return columns.getDouble(cursor, colIndex - 1);
   }
 
   /**
@@ -1130,7 +1122,7 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   @Override
   public int findColumn(String col) throws IllegalArgumentException {
     ensureOpen("findColumn");
-    int colIndex = columnNames.indexOf(col);
+    int colIndex = columns.indexOf(col);
     if (colIndex < 0) {
       throw new IllegalArgumentException("Unable to find column: " + col);
     }
@@ -1145,7 +1137,7 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   @Override
   public int getMaxColumns() {
     waitTillProcessingDone();
-    return columnNames.size();
+    return columns.getColumnCount();
   }
 
   /**
@@ -1155,7 +1147,7 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
    */
   @Override
   public List<String> getColumnNames() {
-    return Collections.unmodifiableList(columnNames);
+    return columns.getColumnNames();
   }
 
   /**
@@ -1165,7 +1157,7 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
    */
   @Override
   public int getCurrentRowCount() {
-    return rs.size();
+    return columns.getRowCount();
   }
 
   /**
@@ -1180,32 +1172,31 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
     }
     StringBuffer buf = new StringBuffer("(");
     int count = 0;
-    if (rs != null) {
-      for (List<Object> row : rs) {
-        if (count++ > 15) {
+    for (int rowIndex = 0; rowIndex < columns.getRowCount(); rowIndex++) {
+      final List<Object> row = columns.getRow(rowIndex);
+      if (count++ > 15) {
+        buf.append("...");
+        break;
+      }
+      if (count > 1) {
+        buf.append(", ");
+      }
+      buf.append("[row:" + (count - 1) + " ");
+      int col = 0;
+      for (Object val : row) {
+        if (col > 15) {
           buf.append("...");
           break;
         }
-        if (count > 1) {
+        if (col > 0) {
           buf.append(", ");
         }
-        buf.append("[row:" + (count - 1) + " ");
-        int col = 0;
-        for (Object val : row) {
-          if (col > 15) {
-            buf.append("...");
-            break;
-          }
-          if (col > 0) {
-            buf.append(", ");
-          }
-          buf.append("{");
-          buf.append(columnNames.get(col++));
-          buf.append("->").append(val);
-          buf.append("}");
-        }
-        buf.append("]");
+        buf.append("{");
+        buf.append(columns.getColumnName(col++));
+        buf.append("->").append(val);
+        buf.append("}");
       }
+      buf.append("]");
     }
     buf.append(")");
     return buf.toString();
@@ -2042,7 +2033,7 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
     if (col == null) {
       throw new IllegalArgumentException("Got null column name.");
     }
-    int val = columnNames.indexOf(col);
+    int val = columns.indexOf(col);
     if (val < 0) {
       throw new IllegalArgumentException("Invalid column: " + col);
     }
@@ -2050,20 +2041,38 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
   }
 
   /**
-   * Creates a new row.
+   * Creates a new row, in which every value is null.
    *
-   * @return Returns the new empty row.
+   * @return the zero-based index of the new row
    */
-  protected List<Object> addEmptyRow() {
-    List<Object> row = new ArrayList<Object>();
-    rs.add(row);
-    for (int i = 0, size = columnNames.size(); i < size; i++) {
-      row.add(null);
-    }
-    return row;
+  protected int addEmptyRow() {
+    return columns.addRow();
+  }
+
+  /**
+   * Sets a value of a row created by {@link #addEmptyRow()}.
+   *
+   * @param row the zero-based row index
+   * @param colIndex the zero-based column index
+   * @param value the value, which may be null
+   */
+  protected void setValue(int row, int colIndex, Object value) {
+    columns.set(row, colIndex, value);
   }
 
   //// Private Area
+  /**
+   * Throws an error unless <code>colIndex</code> is a valid column and the
+   * cursor is on a valid row.
+   */
+  private void checkCell(int colIndex) {
+    if ((colIndex <= 0) || (colIndex > getMaxColumns())) {
+      throw new IllegalArgumentException("Invalid column index: " + colIndex);
+    } else if ((cursor < 0) || (cursor >= columns.getRowCount())) {
+      throw new ArrayIndexOutOfBoundsException(getRow() + " is not a valid row");
+    }
+  }
+
   /**
    * Throws an error if this <code>AbstractResultSet</code> object is not open.
    *
@@ -2083,22 +2092,20 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
     isClosed = newVal;
   }
 
-  protected List<List<Object>> getRS() {
-    return rs;
-  }
 
   protected void setTruthValue(Boolean newVal) {
     truthValue = newVal;
   }
 
   /**
-   * Get the actual list of column names. Changes to returned list therefore
-   * destructively modify the list of column names of this result set.
+   * Returns the zero-based index of the column named <code>col</code>, adding
+   * a column of nulls if there is none yet.
    *
-   * @return list of column names.
+   * @param col the column name
+   * @return the zero-based index of the column
    */
-  protected List<String> getColumnNamesUnsafe() {
-    return columnNames;
+  protected int addColumnIfAbsent(String col) {
+    return columns.addColumnIfAbsent(col);
   }
   //// Internal Rep
   /**
@@ -2106,25 +2113,16 @@ public abstract class AbstractResultSet implements ResultSet, InferenceResultSet
    */
   private static final long MSECS_TO_WAIT_FOR_CLOSE = 10000;
   /**
-   * The rows accumulated so far in this result set. For synchronous queries
-   * this will always be set to all the results.
-   */
-  private final List<List<Object>> rs = new ArrayList<List<Object>>(128);
-  /**
-   * The possible column names for this query. It is currently based on results
-   * retreived so far.
+   * The rows accumulated so far in this result set, stored by column, and the
+   * possible column names for this query. For synchronous queries this will
+   * always be set to all the results.
    */
-  private final List<String> columnNames = new ArrayList<String>(8);
+  private final ResultSetColumns columns = new ResultSetColumns();
   /**
    * The current cursor location (zero-based). If the cursor is at 0, the
    * current row is row 1, etc.
    */
   private int cursor = -1;
-  /**
-   * The current row. Null if cursor is before the beginning or after the end of
-   * the result set.
-   */
-  private List<Object> curRow = null;
   /**
    * Indicates whether this result set is closed.
    */
@@ -29,6 +29,7 @@ import com.cyc.base.cycobject.CycList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,6 +42,7 @@ import com.cyc.base.cycobject.CycVariable;
 import com.cyc.base.cycobject.InformationSource;
 import com.cyc.base.inference.InferenceAnswer;
 import com.cyc.query.InferenceAnswerIdentifier;
+import com.cyc.query.InferenceIdentifier;
 
 /**
  * A class for representing one answer to an inference.
@@ -52,31 +54,58 @@ import com.cyc.query.InferenceAnswerIdentifier;
 public class CycBackedInferenceAnswer implements InferenceAnswer {
 
   public CycBackedInferenceAnswer(InferenceAnswerIdentifier id) {
+    this(id, null);
+  }
+
+  /**
+   * Creates an answer whose bindings, and perhaps sources, have already been fetched.
+   *
+   * @see InferenceAnswerPager
+   */
+  CycBackedInferenceAnswer(InferenceAnswerIdentifier id, InferenceAnswerCache.AnswerData data) {
     this.id = id;
+    this.data = data;
   }
 
   /**
-   * Returns the value to which var is bound in this answer
+   * Returns the value to which var is bound in this answer. The value is served from the cached
+   * bindings of this answer if possible.
    *
    * @param var a variable for which this answer provides a binding.
    * @return the value to which var is bound.
    */
   @Override
   public Object getBinding(CycVariable var) throws CycConnectionException {
+    final Map<CycVariable, Object> answerBindings = getBindings();
+    if (answerBindings.containsKey(var)) {
+      return answerBindings.get(var);
+    }
     final String command = SublApiHelper.makeSublStmt(
             "open-cyc-get-binding-for-variable", var, getId().cycListApiValue());
-      return getCycAccess().converse().converseObject(command);
-    }
+    return getCycAccess().converse().converseObject(command);
+  }
 
+  /**
+   * Returns the bindings of this answer. When this answer belongs to a DefaultInferenceIdentifier,
+   * they are fetched along with those of the following answers in a single call, and shared with
+   * the other answers to the same inference.
+   *
+   * @return the bindings of this answer.
+   */
   @Override
   public synchronized Map<CycVariable, Object> getBindings() throws CycConnectionException {
     if (bindings == null) {
-      bindings = new Bindings();
-      final String command = SublApiHelper.makeSublStmt(
-              "open-cyc-get-answer-bindings", (CycList)(getId().cycListApiValue()));
-      final CycObject result = getCycAccess().converse().converseCycObject(command);
-      if (result instanceof CycArrayList) {
-        bindings.populateFromCycList((CycArrayList) result);
+      final InferenceAnswerCache.AnswerData cachedData = getCachedData();
+      if (cachedData != null) {
+        bindings = cachedData.getBindings();
+      } else {
+        bindings = new Bindings();
+        final String command = SublApiHelper.makeSublStmt(
+                "open-cyc-get-answer-bindings", (CycList) (getId().cycListApiValue()));
+        final CycObject result = getCycAccess().converse().converseCycObject(command);
+        if (result instanceof CycArrayList) {
+          bindings.populateFromCycList((CycArrayList) result);
+        }
       }
     }
     return Collections.unmodifiableMap(bindings);
@@ -110,11 +139,18 @@ public class CycBackedInferenceAnswer implements InferenceAnswer {
   @Override
   public Collection<InformationSource> getSources(
           InformationSource.CitationGenerator citationGenerator) throws CycConnectionException {
-    final String command = SublApiHelper.makeSublStmt(
-            "inference-answer-sources-from-signature", getId().cycListApiValue());
+    final List<Object> cachedSources = getCachedSources();
     final Set<InformationSource> sources = new HashSet<InformationSource>();
     final CycAccess cycAccess = getCycAccess();
-    for (final Object sourceObj : cycAccess.converse().converseList(command)) {
+    final List<Object> sourceObjs;
+    if (cachedSources != null) {
+      sourceObjs = cachedSources;
+    } else {
+      final String command = SublApiHelper.makeSublStmt(
+              "inference-answer-sources-from-signature", getId().cycListApiValue());
+      sourceObjs = cycAccess.converse().converseList(command);
+    }
+    for (final Object sourceObj : sourceObjs) {
       if (sourceObj instanceof DenotationalTerm) {
         sources.add(new InformationSourceImpl((DenotationalTerm) sourceObj,
                 citationGenerator, cycAccess));
@@ -123,9 +159,46 @@ public class CycBackedInferenceAnswer implements InferenceAnswer {
     return sources;
   }
 
+  /**
+   * Returns the cached bindings, and perhaps sources, of this answer, or null if they cannot be
+   * cached.
+   */
+  private InferenceAnswerCache.AnswerData getCachedData() throws CycConnectionException {
+    return (data != null) ? data : getSharedData();
+  }
+
+  /**
+   * Returns the cached sources of this answer, or null if they cannot be cached. The pages of an
+   * {@link InferenceAnswerPager} hold only bindings, so the sources of their answers are taken
+   * from the inference's answer cache, which fetches them for a batch of answers at a time.
+   */
+  private List<Object> getCachedSources() throws CycConnectionException {
+    if (data != null && data.getSources() != null) {
+      return data.getSources();
+    }
+    final InferenceAnswerCache.AnswerData sharedData = getSharedData();
+    return (sharedData != null) ? sharedData.getSources() : null;
+  }
+
+  /**
+   * Returns this answer's data from the answer cache of its inference, or null if it cannot be
+   * cached.
+   */
+  private InferenceAnswerCache.AnswerData getSharedData() throws CycConnectionException {
+    final InferenceIdentifier inference = getId().getInferenceIdentifier();
+    if (inference instanceof DefaultInferenceIdentifier) {
+      final InferenceAnswerCache cache = ((DefaultInferenceIdentifier) inference).getAnswerCache();
+      if (cache != null) {
+        return cache.get(getAnswerID());
+      }
+    }
+    return null;
+  }
+
   private CycAccess getCycAccess() {
     return ((CycAccessSession)(getId().getInferenceIdentifier().getSession())).getAccess();
   }
   private final InferenceAnswerIdentifier id;
+  private final InferenceAnswerCache.AnswerData data;
   private Bindings bindings = null;
-  }
+}
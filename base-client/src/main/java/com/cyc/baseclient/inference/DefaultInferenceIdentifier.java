@@ -129,6 +129,9 @@ public class DefaultInferenceIdentifier implements InferenceIdentifier {
   }
 
   public void close() {
+    if (session instanceof CycAccessSession) {
+      InferenceAnswerCache.forget(this, ((CycAccessSession) session).getAccess());
+    }
     try {
       ((CycAccessSession)session).getAccess().converse().converseVoid(
               "(destroy-inference-and-problem-store " + stringApiValue() + ")");
@@ -170,4 +173,17 @@ public class DefaultInferenceIdentifier implements InferenceIdentifier {
   public CycSession getSession() {
     return session;
   }
+
+  /**
+   * Returns the cache of this inference's answer bindings and sources, which is shared by all of
+   * its CycBackedInferenceAnswers and by every identifier for the same inference.
+   *
+   * @return the cache, or null if this identifier has no session through which to fill it
+   */
+  InferenceAnswerCache getAnswerCache() {
+    if (session instanceof CycAccessSession) {
+      return InferenceAnswerCache.forInference(this, ((CycAccessSession) session).getAccess());
+    }
+    return null;
+  }
 }
@@ -539,6 +539,32 @@ public class DefaultInferenceWorker extends DefaultSublWorker implements Inferen
     return nlBuff.toString();
   }
 
+  /**
+   * Sets whether answers are accumulated by this worker as they arrive. When they are not, they are
+   * only passed to the InferenceWorkerListeners, and getAnswers() and related methods see no
+   * answers; this keeps the memory used by open-ended queries constant.
+   *
+   * @param retainsAnswers whether to accumulate answers; true by default
+   *
+   * @see InferenceAnswerStream
+   */
+  public void setRetainsAnswers(boolean retainsAnswers) {
+    this.retainsAnswers = retainsAnswers;
+  }
+
+  /**
+   * Returns a pager which fetches this worker's answers from Cyc a page at a time, rather than
+   * slicing the answers accumulated by this worker. The inference must be retained by Cyc, e.g.
+   * by running it with <code>:BROWSABLE? t</code>; combined with
+   * {@link #setRetainsAnswers(boolean) setRetainsAnswers(false)}, this lets a client browse
+   * inferences with very many answers while holding only a few pages of them.
+   *
+   * @return a new pager over this worker's inference
+   */
+  public InferenceAnswerPager getAnswerPager() {
+    return new InferenceAnswerPager(getInferenceIdentifier(), getCycAccess());
+  }
+
   /**
    *
    * @return the reason this worker was suspended.
@@ -680,7 +706,9 @@ public class DefaultInferenceWorker extends DefaultSublWorker implements Inferen
     if ((newAnswers == null) || (!(newAnswers instanceof CycList))) {
       throw new BaseClientRuntimeException("Got bad inference answers list: " + newAnswers);
     }
-    answers.addAll((List) newAnswers);
+    if (retainsAnswers) {
+      answers.addAll((List) newAnswers);
+    }
     Object[] curListeners = getInferenceListeners();
     List<Exception> errors = new ArrayList<Exception>();
     for (int i = curListeners.length - 1; i >= 0; i -= 1) {
@@ -797,6 +825,7 @@ public class DefaultInferenceWorker extends DefaultSublWorker implements Inferen
   private volatile int inferenceId;
   private volatile InferenceStatus status = InferenceStatus.NOT_STARTED;
   private List answers = Collections.synchronizedList(new ArrayList());
+  private volatile boolean retainsAnswers = true;
   /** This holds the list of registered WorkerListener listeners. */
   final private EventListenerList inferenceListeners = new EventListenerList();
   private static Class inferenceListenerClass = InferenceWorkerListener.class;
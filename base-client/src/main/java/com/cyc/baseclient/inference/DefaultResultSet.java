@@ -625,13 +625,12 @@ public final class DefaultResultSet extends AbstractResultSet {
       }
     }
     for (List<CycList> bindingSet : (List<List>)results) {
-      List<Object> row = addEmptyRow();
+      final int row = addEmptyRow();
       for (CycList binding : bindingSet) {
         CycVariable colVar = (CycVariable)binding.get(0);
         int colIndex = possiblyAddColVar(colVar);
-        String col = colVar.toString();
         Object val = binding.rest();
-        row.set(colIndex, val);
+        setValue(row, colIndex, val);
       }
     }
   }
@@ -645,17 +644,7 @@ public final class DefaultResultSet extends AbstractResultSet {
    * @param colVar the CycVariableImpl which represents the column to add
    */
   protected int possiblyAddColVar(CycVariable colVar) {
-    String col = colVar.toString();
-    int colIndex = -1;
-    List<String> columnNames = getColumnNamesUnsafe();
-    if ((colIndex = columnNames.indexOf(col)) < 0) {
-      columnNames.add(col);
-      for (List<Object> row : getRS()) {
-        row.add(null);
-      }
-      return columnNames.size() - 1;
-    }
-    return colIndex;
+    return addColumnIfAbsent(colVar.toString());
   }
 
   /**
@@ -0,0 +1,348 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerCache.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.subl.SublCommandTemplate;
+import com.cyc.baseclient.util.LruCache;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the bindings and sources of the answers to one inference. They are fetched from Cyc for a
+ * whole range of answers in a single call, so that iterating over many answers does not require a
+ * round trip per answer.
+ * <p>
+ * There is one cache per inference, shared by every {@link DefaultInferenceIdentifier} for it, so
+ * that answers do not lose their cache when an identifier is recreated for the same inference.
+ *
+ * @see CycBackedInferenceAnswer
+ */
+class InferenceAnswerCache {
+
+  /**
+   * System property giving the number of answers whose bindings and sources are fetched at once.
+   * Defaults to 100.
+   */
+  public static final String BATCH_SIZE_PROPERTY = "com.cyc.baseclient.inference.answerBatchSize";
+
+  /** The number of answers which are fetched at once. */
+  public static final int DEFAULT_BATCH_SIZE = Math.max(1, Integer.getInteger(BATCH_SIZE_PROPERTY, 100));
+
+  /**
+   * The number of inferences whose answer caches are kept before the least recently used one is
+   * dropped.
+   */
+  public static final int MAX_CACHED_INFERENCES = 64;
+
+  //// Constructors
+
+  InferenceAnswerCache(DefaultInferenceIdentifier inference, CycAccess access) {
+    this.inference = inference;
+    this.access = access;
+  }
+
+  //// Public Area
+
+  /**
+   * Returns the bindings and sources of an answer, fetching them along with those of the next
+   * {@link #DEFAULT_BATCH_SIZE} answers if they are not yet cached. An answer below the answer
+   * count which the inference had when it was fetched, but which had no data, is remembered as
+   * missing, as is an answer whose data could not be computed; callers fall back to querying such
+   * an answer alone. An answer at or beyond that count is not remembered, so that it is fetched
+   * again once a running inference has found it.
+   *
+   * @param answerId the answer's ID
+   *
+   * @return the answer's data, or null if the inference had no such answer or its data could not be
+   *         computed
+   *
+   * @throws CycConnectionException if the answers cannot be fetched
+   */
+  synchronized AnswerData get(int answerId) throws CycConnectionException {
+    AnswerData data = answers.get(answerId);
+    if (data == null) {
+      fetch(answerId, DEFAULT_BATCH_SIZE);
+      data = answers.get(answerId);
+    }
+    return (data == MISSING || data == FAILED) ? null : data;
+  }
+
+  /**
+   * Fetches the bindings and sources of the answers with IDs <code>firstAnswerId</code> through
+   * <code>firstAnswerId + count - 1</code>, along with the inference's answer count, in a single
+   * call.
+   *
+   * @param firstAnswerId the ID of the first answer to fetch
+   * @param count         the number of answers to fetch
+   *
+   * @throws CycConnectionException if the answers cannot be fetched
+   */
+  synchronized void fetch(int firstAnswerId, int count) throws CycConnectionException {
+    final CycList<Object> command = CycArrayList.makeCycList(LIST,
+            ANSWER_COUNT.bind(inference.getProblemStoreId(), inference.getInferenceId()),
+            makeFetchCommand(inference, firstAnswerId, count, true));
+    final List<?> response = access.converse().converseList(command);
+    addAll(firstAnswerId, (List<?>) response.get(1), ((Number) response.get(0)).intValue());
+  }
+
+  /** Forgets all cached answers. */
+  synchronized void clear() {
+    answers.clear();
+  }
+
+  //// Protected Area
+
+  /**
+   * Returns the answer cache of an inference, creating it if this is the first time it is asked
+   * for.
+   *
+   * @param inference the inference
+   * @param access    the CycAccess through which the inference's answers are fetched
+   *
+   * @return the cache
+   */
+  static InferenceAnswerCache forInference(DefaultInferenceIdentifier inference, CycAccess access) {
+    final CacheKey key = new CacheKey(inference, access);
+    synchronized (CACHES) {
+      InferenceAnswerCache cache = CACHES.get(key);
+      if (cache == null) {
+        cache = new InferenceAnswerCache(inference, access);
+        CACHES.put(key, cache);
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * Drops the answer cache of an inference, if there is one.
+   *
+   * @param inference the inference
+   * @param access    the CycAccess through which the inference's answers were fetched
+   */
+  static void forget(DefaultInferenceIdentifier inference, CycAccess access) {
+    final InferenceAnswerCache cache;
+    synchronized (CACHES) {
+      cache = CACHES.remove(new CacheKey(inference, access));
+    }
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Caches the answers in <code>response</code>, each of which is NIL (for a missing answer),
+   * <code>:error</code> (for an answer whose data could not be computed) or a list of the answer's
+   * bindings and sources. A missing answer is only remembered if its ID is below
+   * <code>answerCount</code>.
+   *
+   * @param firstAnswerId the ID of the first answer in <code>response</code>
+   * @param response      the answers
+   * @param answerCount   the inference's answer count when the answers were fetched
+   */
+  synchronized void addAll(int firstAnswerId, List<?> response, int answerCount) {
+    int answerId = firstAnswerId;
+    for (Object answer : response) {
+      final AnswerData data = toAnswerData(answer);
+      if (data != null) {
+        answers.put(answerId, data);
+      } else if (isError(answer)) {
+        answers.put(answerId, FAILED);
+      } else if (answerId < answerCount) {
+        answers.put(answerId, MISSING);
+      }
+      answerId++;
+    }
+  }
+
+  /** Returns whether anything, including a missing or failed marker, is cached for an answer. */
+  synchronized boolean isCached(int answerId) {
+    return answers.containsKey(answerId);
+  }
+
+  /**
+   * Makes the command which returns the bindings, and optionally the sources, of the answers with
+   * IDs <code>firstAnswerId</code> through <code>firstAnswerId + count - 1</code>. Its response is
+   * a list with one element per answer, which can be parsed by {@link #toAnswerData(Object)}. An
+   * answer whose data cannot be computed is returned as <code>:error</code>, so that it does not
+   * fail the others.
+   *
+   * @param withSources whether to fetch the answers' sources, which costs a call to
+   *                    <code>inference-answer-sources-from-signature</code> per answer
+   */
+  static CycList<Object> makeFetchCommand(DefaultInferenceIdentifier inference,
+                                          int firstAnswerId, int count, boolean withSources) {
+    final SublCommandTemplate template = withSources ? ANSWER_DATA : ANSWER_BINDINGS;
+    final CycList<Object> command = new CycArrayList<>(count + 1);
+    command.add(LIST);
+    for (int answerId = firstAnswerId; answerId < firstAnswerId + count; answerId++) {
+      final int problemStoreId = inference.getProblemStoreId();
+      final int inferenceId = inference.getInferenceId();
+      command.add(template.bind(problemStoreId, inferenceId, answerId,
+              CycArrayList.makeCycList(problemStoreId, inferenceId, answerId)));
+    }
+    return command;
+  }
+
+  /**
+   * Parses one element of the response to a {@link #makeFetchCommand fetch command}.
+   *
+   * @return the answer's data, or null if the inference has no such answer or its data could not
+   *         be computed
+   */
+  static AnswerData toAnswerData(Object answer) {
+    if (answer instanceof List && ((List) answer).size() == 2) {
+      final List<?> data = (List<?>) answer;
+      return new AnswerData(toBindings(data.get(0)), toList(data.get(1)));
+    } else if (answer instanceof List && ((List) answer).size() == 1) {
+      return new AnswerData(toBindings(((List<?>) answer).get(0)), null);
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether one element of the response to a {@link #makeFetchCommand fetch command} marks
+   * an answer whose data could not be computed.
+   */
+  static boolean isError(Object answer) {
+    return ERROR_KEYWORD.equals(answer);
+  }
+
+  //// Private Area
+
+  private static Bindings toBindings(Object bindingList) {
+    final Bindings bindings = new Bindings();
+    if (bindingList instanceof CycArrayList) {
+      bindings.populateFromCycList((CycArrayList) bindingList);
+    }
+    return bindings;
+  }
+
+  private static List<Object> toList(Object obj) {
+    return (obj instanceof List)
+                   ? Collections.unmodifiableList((List<Object>) obj)
+                   : Collections.emptyList();
+  }
+
+  /** The cached bindings and raw sources of one answer. */
+  static final class AnswerData {
+
+    AnswerData(Bindings bindings, List<Object> sources) {
+      this.bindings = bindings;
+      this.sources = sources;
+    }
+
+    Bindings getBindings() {
+      return bindings;
+    }
+
+    /** Returns the CycL terms for the answer's sources, or null if they were not fetched. */
+    List<Object> getSources() {
+      return sources;
+    }
+
+    private final Bindings bindings;
+    private final List<Object> sources;
+  }
+
+  /**
+   * Identifies an inference by its problem store and inference IDs, and by the CycAccess to whose
+   * server they belong.
+   */
+  private static final class CacheKey {
+
+    CacheKey(DefaultInferenceIdentifier inference, CycAccess access) {
+      this.problemStoreId = inference.getProblemStoreId();
+      this.inferenceId = inference.getInferenceId();
+      this.access = access;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) obj;
+      return problemStoreId == other.problemStoreId
+                     && inferenceId == other.inferenceId
+                     && access == other.access;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * problemStoreId + inferenceId) + System.identityHashCode(access);
+    }
+
+    private final int problemStoreId;
+    private final int inferenceId;
+    private final CycAccess access;
+  }
+
+  //// Internal Rep
+
+  private static final Object LIST = CycObjectFactory.makeCycSymbol("list");
+
+  private static final Object ERROR_KEYWORD = CycObjectFactory.makeCycSymbol(":error");
+
+  private static final SublCommandTemplate ANSWER_COUNT = new SublCommandTemplate(
+          "(fif (find-inference-by-ids ?1 ?2)"
+          + " (inference-answer-count (find-inference-by-ids ?1 ?2))"
+          + " 0)");
+
+  private static final SublCommandTemplate ANSWER_BINDINGS = new SublCommandTemplate(
+          "(clet (answer-data answer-error)"
+          + " (catch-error-message (answer-error)"
+          + " (csetq answer-data"
+          + " (fif (find-inference-answer-by-ids ?1 ?2 ?3)"
+          + " (list (open-cyc-get-answer-bindings ?4))"
+          + " nil)))"
+          + " (fif answer-error :error answer-data))");
+
+  private static final SublCommandTemplate ANSWER_DATA = new SublCommandTemplate(
+          "(clet (answer-data answer-error)"
+          + " (catch-error-message (answer-error)"
+          + " (csetq answer-data"
+          + " (fif (find-inference-answer-by-ids ?1 ?2 ?3)"
+          + " (list (open-cyc-get-answer-bindings ?4) (inference-answer-sources-from-signature ?4))"
+          + " nil)))"
+          + " (fif answer-error :error answer-data))");
+
+  /** Cached for an answer below the answer count which had no data when it was fetched. */
+  private static final AnswerData MISSING = new AnswerData(null, null);
+
+  /** Cached for an answer whose data could not be computed. */
+  private static final AnswerData FAILED = new AnswerData(null, null);
+
+  private static final Map<CacheKey, InferenceAnswerCache> CACHES
+          = new LruCache<>(16, MAX_CACHED_INFERENCES, false);
+
+  private final DefaultInferenceIdentifier inference;
+  private final CycAccess access;
+  private final Map<Integer, AnswerData> answers = new HashMap<>();
+
+}
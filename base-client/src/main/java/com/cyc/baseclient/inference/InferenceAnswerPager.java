@@ -0,0 +1,393 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerPager.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CommandTool;
+import com.cyc.base.CycAccess;
+import com.cyc.base.exception.BaseClientRuntimeException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.inference.InferenceAnswer;
+import com.cyc.baseclient.CycCommandTool;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import com.cyc.baseclient.subl.SublCommandTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Pages through the answers to an inference which is retained by Cyc, fetching each page of
+ * answers from Cyc on demand. Only a few pages are held on the client at a time, so a client can
+ * browse an inference with very many answers without holding them all, unlike
+ * {@link DefaultInferenceWorker#getAnswers(int, int)}, which slices the answers which the worker
+ * has accumulated.
+ *
+ * <p>Page <i>n</i> holds the answers with IDs <i>n * pageSize</i> through
+ * <i>(n + 1) * pageSize - 1</i>. The most recently used pages are cached. When pages are read in
+ * sequence, the next page is fetched in the background while the current one is being consumed.
+ * Each page is a snapshot: if the inference is still running, a short last page is not extended
+ * by answers which arrive later, until it is evicted and fetched again.
+ *
+ * <p>The inference must remain available on the Cyc server, e.g. by running it with
+ * <code>:BROWSABLE? t</code>, until the pager is no longer used. Instances are thread-safe.
+ *
+ * <P>Example usage: <code>
+ *  InferenceAnswerPager pager = new InferenceAnswerPager(worker.getInferenceIdentifier(), access);
+ *  List&lt;InferenceAnswer&gt; rows = pager.getAnswers(1000, 1050);
+ * </code>
+ *
+ * @see DefaultInferenceWorker#getAnswerPager()
+ */
+public class InferenceAnswerPager implements Iterable<InferenceAnswer> {
+
+  /**
+   * System property giving the number of answers per page. Defaults to 50.
+   */
+  public static final String PAGE_SIZE_PROPERTY = "com.cyc.baseclient.inference.answerPageSize";
+
+  /** The number of answers per page. */
+  public static final int DEFAULT_PAGE_SIZE
+          = Math.max(1, Integer.getInteger(PAGE_SIZE_PROPERTY, 50));
+
+  /**
+   * System property giving the number of pages which are cached, including a page which is being
+   * prefetched. Defaults to 3.
+   */
+  public static final String CACHED_PAGES_PROPERTY
+          = "com.cyc.baseclient.inference.answerPagesCached";
+
+  /** The number of pages which are cached. */
+  public static final int DEFAULT_CACHED_PAGES
+          = Math.max(2, Integer.getInteger(CACHED_PAGES_PROPERTY, 3));
+
+  //// Constructors
+
+  /**
+   * Creates a pager with {@link #DEFAULT_PAGE_SIZE} answers per page, which caches
+   * {@link #DEFAULT_CACHED_PAGES} pages.
+   *
+   * @param inference the inference whose answers are paged
+   * @param access    the Cyc which retains the inference
+   */
+  public InferenceAnswerPager(DefaultInferenceIdentifier inference, CycAccess access) {
+    this(inference, access, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+  }
+
+  /**
+   * Creates a pager.
+   *
+   * @param inference   the inference whose answers are paged
+   * @param access      the Cyc which retains the inference
+   * @param pageSize    the number of answers per page
+   * @param cachedPages the number of pages to cache; at least 2, so that the next page can be
+   *                    prefetched while the current one is in use
+   */
+  public InferenceAnswerPager(DefaultInferenceIdentifier inference, CycAccess access,
+          int pageSize, int cachedPages) {
+    this(inference, newPageSource(inference, access), pageSize, cachedPages);
+  }
+
+  InferenceAnswerPager(DefaultInferenceIdentifier inference, PageSource source,
+          int pageSize, int cachedPages) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    if (cachedPages < 2) {
+      throw new IllegalArgumentException("At least two pages must be cached: " + cachedPages);
+    }
+    this.inference = inference;
+    this.source = source;
+    this.pageSize = pageSize;
+    this.cachedPages = cachedPages;
+  }
+
+  //// Public Area
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Asks Cyc for the number of answers which the inference currently has.
+   *
+   * @return the number of answers, or 0 if Cyc no longer has the inference
+   *
+   * @throws CycConnectionException if Cyc cannot be reached
+   */
+  public int getAnswerCount() throws CycConnectionException {
+    return source.countAnswers();
+  }
+
+  /**
+   * Returns the answers with IDs <code>startIndex</code> (inclusive) to <code>endIndex</code>
+   * (exclusive), fetching the pages which hold them if they are not cached. Fewer answers are
+   * returned if the inference does not have that many.
+   *
+   * @param startIndex the ID of the first answer
+   * @param endIndex   one more than the ID of the last answer
+   *
+   * @return the answers, in ID order
+   *
+   * @throws CycConnectionException if the answers cannot be fetched
+   */
+  public List<InferenceAnswer> getAnswers(int startIndex, int endIndex)
+          throws CycConnectionException {
+    if (startIndex < 0 || endIndex < startIndex) {
+      throw new IndexOutOfBoundsException(
+              "Invalid answer range [" + startIndex + ", " + endIndex + ")");
+    }
+    final List<InferenceAnswer> answers = new ArrayList<>(endIndex - startIndex);
+    for (int pageIndex = startIndex / pageSize; pageIndex * pageSize < endIndex; pageIndex++) {
+      final List<InferenceAnswer> page = getPage(pageIndex);
+      for (InferenceAnswer answer : page) {
+        if (answer.getAnswerID() >= startIndex && answer.getAnswerID() < endIndex) {
+          answers.add(answer);
+        }
+      }
+      if (page.size() < pageSize) {
+        break;
+      }
+    }
+    return answers;
+  }
+
+  /**
+   * Returns a page of answers, fetching it if it is not cached. If the previous page was the last
+   * one requested, the following page is prefetched.
+   *
+   * @param pageIndex the index of the page
+   *
+   * @return the answers on the page, which number fewer than {@link #getPageSize()} only if it is
+   *         the last page
+   *
+   * @throws CycConnectionException if the page cannot be fetched
+   */
+  public List<InferenceAnswer> getPage(int pageIndex) throws CycConnectionException {
+    final CompletableFuture<List<InferenceAnswer>> page;
+    final boolean sequential;
+    synchronized (this) {
+      page = requestPage(pageIndex);
+      sequential = (pageIndex == lastPageIndex + 1);
+      lastPageIndex = pageIndex;
+    }
+    final List<InferenceAnswer> answers = await(pageIndex, page);
+    if (sequential && answers.size() == pageSize) {
+      synchronized (this) {
+        requestPage(pageIndex + 1);
+        // keep the requested page ahead of the prefetched one in the eviction order:
+        markRecentlyUsed(pageIndex);
+      }
+    }
+    return answers;
+  }
+
+  /**
+   * Iterates over all of the inference's answers, in ID order, a page at a time with the next page
+   * prefetched. The iteration ends at the first page which is not full. Errors in fetching a page
+   * are thrown as BaseClientRuntimeExceptions.
+   *
+   * @return an iterator over the answers
+   */
+  @Override
+  public Iterator<InferenceAnswer> iterator() {
+    return new Iterator<InferenceAnswer>() {
+
+      @Override
+      public boolean hasNext() {
+        if (position < current.size()) {
+          return true;
+        }
+        if (current.size() < pageSize && pageIndex >= 0) {
+          return false;
+        }
+        pageIndex++;
+        try {
+          current = getPage(pageIndex);
+        } catch (CycConnectionException ex) {
+          throw new BaseClientRuntimeException(ex);
+        }
+        position = 0;
+        return !current.isEmpty();
+      }
+
+      @Override
+      public InferenceAnswer next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return current.get(position++);
+      }
+
+      private int pageIndex = -1;
+      private List<InferenceAnswer> current = Collections.emptyList();
+      private int position = 0;
+    };
+  }
+
+  /** Forgets all cached pages. */
+  public synchronized void clear() {
+    pages.clear();
+    lastPageIndex = -1;
+  }
+
+  //// Protected Area
+
+  /** Where the pages of answers come from: Cyc, except in tests. */
+  interface PageSource {
+
+    /**
+     * Fetches the answers with IDs <code>firstAnswerId</code> through
+     * <code>firstAnswerId + count - 1</code>, as the response to
+     * {@link InferenceAnswerCache#makeFetchCommand}, with or without sources.
+     */
+    CompletableFuture<? extends List<?>> fetch(int firstAnswerId, int count);
+
+    /** Returns the number of answers which the inference currently has. */
+    int countAnswers() throws CycConnectionException;
+
+  }
+
+  synchronized int getCachedPageCount() {
+    return pages.size();
+  }
+
+  synchronized boolean isCached(int pageIndex) {
+    return pages.containsKey(pageIndex);
+  }
+
+  //// Private Area
+
+  private static PageSource newPageSource(DefaultInferenceIdentifier inference, CycAccess access) {
+    return new PageSource() {
+
+      @Override
+      public CompletableFuture<? extends List<?>> fetch(int firstAnswerId, int count) {
+        final Object command
+                = InferenceAnswerCache.makeFetchCommand(inference, firstAnswerId, count, false);
+        final CommandTool converse = access.converse();
+        if (converse instanceof CycCommandTool) {
+          return ((CycCommandTool) converse).converseListAsync(command)
+                  .<List<?>>thenApply(response -> response);
+        }
+        final CompletableFuture<List<?>> response = new CompletableFuture<>();
+        try {
+          response.complete(converse.converseList(command));
+        } catch (CycConnectionException | RuntimeException ex) {
+          response.completeExceptionally(ex);
+        }
+        return response;
+      }
+
+      @Override
+      public int countAnswers() throws CycConnectionException {
+        return access.converse().converseInt(ANSWER_COUNT.bind(
+                inference.getProblemStoreId(), inference.getInferenceId()));
+      }
+    };
+  }
+
+  /** Returns the cached or pending page, or starts fetching it if it is absent or failed. */
+  private CompletableFuture<List<InferenceAnswer>> requestPage(int pageIndex) {
+    CompletableFuture<List<InferenceAnswer>> page = pages.get(pageIndex);
+    if (page == null || page.isCompletedExceptionally()) {
+      final int firstAnswerId = pageIndex * pageSize;
+      page = source.fetch(firstAnswerId, pageSize)
+              .thenApply(response -> toAnswers(firstAnswerId, response));
+      pages.put(pageIndex, page);
+    }
+    return page;
+  }
+
+  /** Moves a cached page to the most recently used end of the eviction order. */
+  private void markRecentlyUsed(int pageIndex) {
+    pages.get(pageIndex);
+  }
+
+  private List<InferenceAnswer> toAnswers(int firstAnswerId, List<?> response) {
+    final List<InferenceAnswer> answers = new ArrayList<>(response.size());
+    int answerId = firstAnswerId;
+    for (Object answer : response) {
+      final InferenceAnswerCache.AnswerData data = InferenceAnswerCache.toAnswerData(answer);
+      if (data != null) {
+        answers.add(new CycBackedInferenceAnswer(
+                new SpecifiedInferenceAnswerIdentifier(inference, answerId), data));
+      } else if (InferenceAnswerCache.isError(answer)) {
+        // Its data is queried on its own when asked for, which reports the error:
+        answers.add(new CycBackedInferenceAnswer(
+                new SpecifiedInferenceAnswerIdentifier(inference, answerId)));
+      }
+      answerId++;
+    }
+    return Collections.unmodifiableList(answers);
+  }
+
+  private List<InferenceAnswer> await(int pageIndex, CompletableFuture<List<InferenceAnswer>> page)
+          throws CycConnectionException {
+    try {
+      return page.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CycTaskInterruptedException(ex);
+    } catch (ExecutionException ex) {
+      synchronized (this) {
+        // don't cache the failure, so that the page is fetched again next time
+        pages.remove(pageIndex, page);
+      }
+      final Throwable cause = ex.getCause();
+      if (cause instanceof CycConnectionException) {
+        throw (CycConnectionException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new BaseClientRuntimeException(cause);
+    }
+  }
+
+  //// Internal Rep
+
+  private static final SublCommandTemplate ANSWER_COUNT = new SublCommandTemplate(
+          "(fif (find-inference-by-ids ?1 ?2)"
+          + " (inference-answer-count (find-inference-by-ids ?1 ?2))"
+          + " 0)");
+
+  private final DefaultInferenceIdentifier inference;
+  private final PageSource source;
+  private final int pageSize;
+  private final int cachedPages;
+  private int lastPageIndex = -1;
+
+  /** The cached pages, in access order, with the least recently used first. */
+  private final Map<Integer, CompletableFuture<List<InferenceAnswer>>> pages
+          = new LinkedHashMap<Integer, CompletableFuture<List<InferenceAnswer>>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(
+            Map.Entry<Integer, CompletableFuture<List<InferenceAnswer>>> eldest) {
+      return size() > cachedPages;
+    }
+  };
+
+}
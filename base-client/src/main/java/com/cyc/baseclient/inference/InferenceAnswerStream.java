@@ -0,0 +1,406 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerStream.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.ElMt;
+import com.cyc.base.cycobject.FormulaSentence;
+import com.cyc.base.exception.BaseClientRuntimeException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.inference.InferenceWorker;
+import com.cyc.base.inference.InferenceWorkerListener;
+import com.cyc.baseclient.inference.params.DefaultInferenceParameters;
+import com.cyc.query.InferenceStatus;
+import com.cyc.query.InferenceSuspendReason;
+import com.cyc.query.parameters.InferenceParameters;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over the answers to an inference as they arrive, holding at most a fixed number of them
+ * on the client. Unlike DefaultInferenceWorker, which accumulates every answer, this allows
+ * open-ended queries with very many answers to be consumed in constant memory.
+ *
+ * <p>The inference is run with its <code>:MAX-NUMBER</code> set to the capacity of the buffer, so
+ * that Cyc suspends it once the buffer would be full. Once the consumer has drained the buffer to
+ * half its capacity, the inference is continued for as many answers as there is room for. Any
+ * <code>:MAX-NUMBER</code> in the query properties still limits the total number of answers.
+ *
+ * <p>Instances are not thread-safe: one thread should consume the answers. Closing the stream
+ * releases the inference's problem store.
+ *
+ * <P>Example usage: <code>
+ *  try (InferenceAnswerStream answers = InferenceAnswerStream.start(
+ *          query, mt, queryProperties, access, 0, 1000)) {
+ *    while (answers.hasNext()) {
+ *      process(answers.next());
+ *    }
+ *  }
+ * </code>
+ */
+public abstract class InferenceAnswerStream implements Iterator<Object>, Closeable {
+
+  /** The number of answers held by streams which do not specify a capacity. */
+  public static final int DEFAULT_CAPACITY = 1000;
+
+  /** How long {@link #close()} waits for the problem store to be released. */
+  public static final long RELEASE_TIMEOUT_MSECS = 10000;
+
+  //// Constructors
+
+  /**
+   * Creates a stream whose answers are requested from Cyc by {@link #requestMoreAnswers(int)}, which
+   * subclasses implement, together with {@link #releaseInference()}.
+   *
+   * @param capacity       the maximum number of answers to hold
+   * @param maxAnswerCount the total number of answers wanted, or null for all of them
+   */
+  InferenceAnswerStream(int capacity, Integer maxAnswerCount) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.maxAnswerCount = maxAnswerCount;
+  }
+
+  //// Public Area
+
+  /**
+   * Starts an inference whose answers are streamed, with a buffer of {@link #DEFAULT_CAPACITY}.
+   *
+   * @param query           the query sentence
+   * @param mt              the query mt
+   * @param queryProperties the inference parameters, or null for the defaults
+   * @param access          the Cyc to query
+   * @param timeoutMsecs    the timeout for each run of the inference, or 0 for none
+   *
+   * @return the stream of answers
+   *
+   * @throws CycConnectionException if the inference cannot be started
+   */
+  public static InferenceAnswerStream start(FormulaSentence query, ElMt mt,
+          InferenceParameters queryProperties, CycAccess access, long timeoutMsecs)
+          throws CycConnectionException {
+    return start(query, mt, queryProperties, access, timeoutMsecs, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Starts an inference whose answers are streamed.
+   *
+   * @param query           the query sentence
+   * @param mt              the query mt
+   * @param queryProperties the inference parameters, or null for the defaults
+   * @param access          the Cyc to query
+   * @param timeoutMsecs    the timeout for each run of the inference, or 0 for none
+   * @param capacity        the maximum number of answers to hold on the client
+   *
+   * @return the stream of answers
+   *
+   * @throws CycConnectionException if the inference cannot be started
+   */
+  public static InferenceAnswerStream start(FormulaSentence query, ElMt mt,
+          InferenceParameters queryProperties, CycAccess access, long timeoutMsecs, int capacity)
+          throws CycConnectionException {
+    final DefaultInferenceParameters params = (queryProperties == null)
+            ? new DefaultInferenceParameters(access)
+            : queryProperties.toDefaultInferenceParameters(access).clone();
+    final Integer maxAnswerCount = params.getMaxAnswerCount();
+    final WorkerStream stream = new WorkerStream(capacity, maxAnswerCount, access, timeoutMsecs);
+    params.setMaxAnswerCount(stream.getRunSize(0));
+    final DefaultInferenceWorker worker
+            = new DefaultInferenceWorker(query, mt, params, access, timeoutMsecs);
+    worker.setRetainsAnswers(false);
+    stream.setWorker(worker);
+    worker.addInferenceListener(stream.getListener());
+    stream.runStarted();
+    worker.start();
+    return stream;
+  }
+
+  /**
+   * Returns true if there is another answer, waiting for it to arrive if necessary.
+   *
+   * @return true if there is another answer
+   *
+   * @throws BaseClientRuntimeException if the inference failed, or the wait was interrupted
+   */
+  @Override
+  public boolean hasNext() {
+    boolean shouldContinue = false;
+    synchronized (lock) {
+      while (buffer.isEmpty() && !isComplete()) {
+        if (canContinue()) {
+          shouldContinue = true;
+          break;
+        }
+        try {
+          lock.wait();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new BaseClientRuntimeException("Interrupted while waiting for answers", ex);
+        }
+      }
+      if (!shouldContinue) {
+        if (buffer.isEmpty() && failure != null) {
+          throw new BaseClientRuntimeException("Inference failed", failure);
+        }
+        return !buffer.isEmpty();
+      }
+    }
+    continueIfDrained();
+    return hasNext();
+  }
+
+  @Override
+  public Object next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Object answer;
+    synchronized (lock) {
+      answer = buffer.removeFirst();
+    }
+    continueIfDrained();
+    return answer;
+  }
+
+  /** Returns the number of answers which have been received from Cyc so far. */
+  public int getReceivedAnswerCount() {
+    synchronized (lock) {
+      return receivedCount;
+    }
+  }
+
+  /** Returns the number of answers which have arrived but have not yet been consumed. */
+  public int getBufferedAnswerCount() {
+    synchronized (lock) {
+      return buffer.size();
+    }
+  }
+
+  /** Stops streaming, discards any buffered answers, and releases the inference. */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (isClosed) {
+        return;
+      }
+      isClosed = true;
+      buffer.clear();
+      lock.notifyAll();
+    }
+    releaseInference();
+  }
+
+  //// Protected Area
+
+  /**
+   * Asks Cyc to continue the suspended inference for up to <code>count</code> more answers.
+   *
+   * @param count the number of answers to request
+   */
+  abstract void requestMoreAnswers(int count);
+
+  /** Releases the inference's resources on the Cyc server. */
+  abstract void releaseInference();
+
+  /** Records that a run of the inference has been started. */
+  void runStarted() {
+    synchronized (lock) {
+      isRunActive = true;
+      isPaused = false;
+    }
+  }
+
+  /** Buffers newly arrived answers. */
+  void answersArrived(List<?> answers) {
+    synchronized (lock) {
+      receivedCount += answers.size();
+      if (!isClosed) {
+        buffer.addAll(answers);
+      }
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Records a change of the inference's status. An inference which is suspended because it has
+   * produced as many answers as were requested can be continued; any other suspension ends it.
+   */
+  void statusChanged(InferenceStatus newStatus, InferenceSuspendReason suspendReason) {
+    if (newStatus != InferenceStatus.SUSPENDED) {
+      return;
+    }
+    synchronized (lock) {
+      if (DefaultInferenceSuspendReason.MAX_NUMBER.equals(suspendReason)
+              && (maxAnswerCount == null || receivedCount < maxAnswerCount)) {
+        isPaused = true;
+      } else {
+        isExhausted = true;
+      }
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Records the end of a run of the inference. A run which did not end in a continuable suspension
+   * ends the stream.
+   */
+  void runTerminated(Exception ex) {
+    synchronized (lock) {
+      isRunActive = false;
+      if (ex != null) {
+        failure = ex;
+      }
+      if (!isPaused) {
+        isExhausted = true;
+      }
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Returns the number of answers to request when <code>buffered</code> answers are held.
+   */
+  int getRunSize(int buffered) {
+    int runSize = capacity - buffered;
+    if (maxAnswerCount != null) {
+      runSize = Math.min(runSize, maxAnswerCount - receivedCount);
+    }
+    return Math.max(runSize, 0);
+  }
+
+  //// Private Area
+
+  private boolean isComplete() {
+    return isClosed || isExhausted || failure != null;
+  }
+
+  private boolean canContinue() {
+    return isPaused && !isRunActive && !isComplete() && buffer.size() <= capacity / 2
+            && getRunSize(buffer.size()) > 0;
+  }
+
+  /** Continues the inference if it is suspended and the buffer has been drained enough. */
+  private void continueIfDrained() {
+    final int runSize;
+    synchronized (lock) {
+      if (!canContinue()) {
+        return;
+      }
+      runSize = getRunSize(buffer.size());
+      isRunActive = true;
+      isPaused = false;
+    }
+    try {
+      requestMoreAnswers(runSize);
+    } catch (RuntimeException ex) {
+      runTerminated(ex);
+      throw ex;
+    }
+  }
+
+  /** A stream fed by a DefaultInferenceWorker. */
+  private static final class WorkerStream extends InferenceAnswerStream {
+
+    WorkerStream(int capacity, Integer maxAnswerCount, CycAccess access, long timeoutMsecs) {
+      super(capacity, maxAnswerCount);
+      this.access = access;
+      this.timeoutMsecs = timeoutMsecs;
+    }
+
+    void setWorker(DefaultInferenceWorker worker) {
+      this.worker = worker;
+    }
+
+    InferenceWorkerListener getListener() {
+      return new InferenceWorkerListener() {
+        @Override
+        public void notifyInferenceCreated(InferenceWorker inferenceWorker) {
+        }
+
+        @Override
+        public void notifyInferenceStatusChanged(InferenceStatus oldStatus,
+                InferenceStatus newStatus, InferenceSuspendReason suspendReason,
+                InferenceWorker inferenceWorker) {
+          statusChanged(newStatus, suspendReason);
+        }
+
+        @Override
+        public void notifyInferenceAnswersAvailable(InferenceWorker inferenceWorker,
+                List newAnswers) {
+          answersArrived(newAnswers);
+        }
+
+        @Override
+        public void notifyInferenceTerminated(InferenceWorker inferenceWorker, Exception e) {
+          runTerminated(e);
+        }
+      };
+    }
+
+    @Override
+    void requestMoreAnswers(int count) {
+      final DefaultInferenceParameters params = new DefaultInferenceParameters(access);
+      params.setMaxAnswerCount(count);
+      worker.continueInference(params);
+    }
+
+    @Override
+    void releaseInference() {
+      try {
+        worker.removeAllInferenceListeners();
+        worker.releaseInferenceResources(
+                (timeoutMsecs > 0) ? Math.min(timeoutMsecs, RELEASE_TIMEOUT_MSECS)
+                : RELEASE_TIMEOUT_MSECS);
+      } catch (CycConnectionException | RuntimeException ex) {
+        LOGGER.warn("Could not release inference for {}", worker, ex);
+      }
+    }
+
+    private final CycAccess access;
+    private final long timeoutMsecs;
+    private DefaultInferenceWorker worker;
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InferenceAnswerStream.class);
+
+  private final Object lock = new Object();
+  private final Deque<Object> buffer = new ArrayDeque<>();
+  private final int capacity;
+  private final Integer maxAnswerCount;
+  private int receivedCount = 0;
+  private boolean isRunActive = false;
+  private boolean isPaused = false;
+  private boolean isExhausted = false;
+  private boolean isClosed = false;
+  private Exception failure = null;
+
+}
@@ -0,0 +1,433 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: ResultSetColumns.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented storage for the values of a result set, with an O(1) index from column names to
+ * column numbers.
+ *
+ * <p>Each column holds its values in a single array instead of one list per row. A column whose
+ * non-null values are all Integers, Longs or Doubles is stored as an array of primitives, which
+ * {@link #getInt(int, int)}, {@link #getLong(int, int)} and {@link #getDouble(int, int)} read
+ * without boxing; the first value of any other type converts the column to an array of objects.
+ * Values are boxed again only when they are retrieved as objects, so {@link #get(int, int)} always
+ * returns a value of the same class as was stored.
+ *
+ * <p>Rows and columns are zero-based. This class is not thread-safe.
+ *
+ * @see AbstractResultSet
+ */
+class ResultSetColumns {
+
+  //// Constructors
+
+  ResultSetColumns() {
+  }
+
+  //// Public Area
+
+  /** Returns the number of rows. */
+  int getRowCount() {
+    return rowCount;
+  }
+
+  /** Returns the number of columns. */
+  int getColumnCount() {
+    return columnNames.size();
+  }
+
+  /** Returns an unmodifiable view of the column names, in column order. */
+  List<String> getColumnNames() {
+    return columnNamesView;
+  }
+
+  /** Returns the name of <code>col</code>. */
+  String getColumnName(int col) {
+    return columnNames.get(col);
+  }
+
+  /**
+   * Returns the index of the column named <code>name</code>, or -1 if there is no such column.
+   */
+  int indexOf(String name) {
+    final Integer col = columnIndex.get(name);
+    return (col == null) ? -1 : col;
+  }
+
+  /**
+   * Returns the index of the column named <code>name</code>, adding an empty column if there is no
+   * such column.
+   */
+  int addColumnIfAbsent(String name) {
+    final Integer col = columnIndex.get(name);
+    if (col != null) {
+      return col;
+    }
+    columnNames.add(name);
+    columns.add(EMPTY_COLUMN);
+    columnIndex.put(name, columnNames.size() - 1);
+    return columnNames.size() - 1;
+  }
+
+  /** Adds a row in which every value is null, and returns its index. */
+  int addRow() {
+    return rowCount++;
+  }
+
+  /** Sets the value of <code>col</code> in <code>row</code>, which must already exist. */
+  void set(int row, int col, Object value) {
+    checkRow(row);
+    columns.set(col, columns.get(col).set(row, value));
+  }
+
+  /** Returns the value of <code>col</code> in <code>row</code>, which may be null. */
+  Object get(int row, int col) {
+    checkRow(row);
+    return columns.get(col).get(row);
+  }
+
+  /**
+   * Returns the value of <code>col</code> in <code>row</code> as an int.
+   *
+   * @throws NullPointerException if the value is null
+   * @throws ClassCastException if the value is not a Number
+   */
+  int getInt(int row, int col) {
+    checkRow(row);
+    return columns.get(col).getInt(row);
+  }
+
+  /**
+   * Returns the value of <code>col</code> in <code>row</code> as a long.
+   *
+   * @throws NullPointerException if the value is null
+   * @throws ClassCastException if the value is not a Number
+   */
+  long getLong(int row, int col) {
+    checkRow(row);
+    return columns.get(col).getLong(row);
+  }
+
+  /**
+   * Returns the value of <code>col</code> in <code>row</code> as a double.
+   *
+   * @throws NullPointerException if the value is null
+   * @throws ClassCastException if the value is not a Number
+   */
+  double getDouble(int row, int col) {
+    checkRow(row);
+    return columns.get(col).getDouble(row);
+  }
+
+  /**
+   * Returns an unmodifiable view of <code>row</code>, which reflects later changes to its values.
+   */
+  List<Object> getRow(int row) {
+    checkRow(row);
+    return new AbstractList<Object>() {
+      @Override
+      public Object get(int col) {
+        return ResultSetColumns.this.get(row, col);
+      }
+
+      @Override
+      public int size() {
+        return getColumnCount();
+      }
+    };
+  }
+
+  //// Private Area
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+    }
+  }
+
+  private static int grownCapacity(int capacity, int row) {
+    return Math.max(row + 1, Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1)));
+  }
+
+  /**
+   * The values of one column. Columns are replaced by more general ones as values which they
+   * cannot hold are set.
+   */
+  private abstract static class Column {
+
+    abstract Object get(int row);
+
+    /** Sets a value, returning this column or the more general column which now holds it. */
+    abstract Column set(int row, Object value);
+
+    int getInt(int row) {
+      return ((Number) get(row)).intValue();
+    }
+
+    long getLong(int row) {
+      return ((Number) get(row)).longValue();
+    }
+
+    double getDouble(int row) {
+      return ((Number) get(row)).doubleValue();
+    }
+  }
+
+  /** A column of nulls, which is shared until its first value is set. */
+  private static final class EmptyColumn extends Column {
+
+    @Override
+    Object get(int row) {
+      return null;
+    }
+
+    @Override
+    Column set(int row, Object value) {
+      if (value == null) {
+        return this;
+      }
+      final Column column;
+      if (value instanceof Integer) {
+        column = new IntColumn();
+      } else if (value instanceof Long) {
+        column = new LongColumn();
+      } else if (value instanceof Double) {
+        column = new DoubleColumn();
+      } else {
+        column = new ObjectColumn();
+      }
+      return column.set(row, value);
+    }
+  }
+
+  /** A column of arbitrary objects. */
+  private static final class ObjectColumn extends Column {
+
+    @Override
+    Object get(int row) {
+      return (row < values.length) ? values[row] : null;
+    }
+
+    @Override
+    Column set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grownCapacity(values.length, row));
+      }
+      values[row] = value;
+      return this;
+    }
+
+    private Object[] values = new Object[0];
+  }
+
+  /** A column of primitives, any of which may be null. */
+  private abstract static class PrimitiveColumn extends Column {
+
+    @Override
+    final Object get(int row) {
+      return present.get(row) ? box(row) : null;
+    }
+
+    @Override
+    final Column set(int row, Object value) {
+      if (value == null) {
+        present.clear(row);
+        return this;
+      } else if (!accepts(value)) {
+        final ObjectColumn column = new ObjectColumn();
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+          column.set(i, box(i));
+        }
+        return column.set(row, value);
+      }
+      ensureCapacity(row);
+      store(row, value);
+      present.set(row);
+      return this;
+    }
+
+    final boolean isPresent(int row) {
+      return present.get(row);
+    }
+
+    abstract boolean accepts(Object value);
+
+    abstract Object box(int row);
+
+    abstract void ensureCapacity(int row);
+
+    abstract void store(int row, Object value);
+
+    private final BitSet present = new BitSet();
+  }
+
+  /** A column of Integers. */
+  private static final class IntColumn extends PrimitiveColumn {
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof Integer;
+    }
+
+    @Override
+    Object box(int row) {
+      return values[row];
+    }
+
+    @Override
+    void ensureCapacity(int row) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grownCapacity(values.length, row));
+      }
+    }
+
+    @Override
+    void store(int row, Object value) {
+      values[row] = (Integer) value;
+    }
+
+    @Override
+    int getInt(int row) {
+      return isPresent(row) ? values[row] : super.getInt(row);
+    }
+
+    @Override
+    long getLong(int row) {
+      return isPresent(row) ? values[row] : super.getLong(row);
+    }
+
+    @Override
+    double getDouble(int row) {
+      return isPresent(row) ? values[row] : super.getDouble(row);
+    }
+
+    private int[] values = new int[0];
+  }
+
+  /** A column of Longs. */
+  private static final class LongColumn extends PrimitiveColumn {
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof Long;
+    }
+
+    @Override
+    Object box(int row) {
+      return values[row];
+    }
+
+    @Override
+    void ensureCapacity(int row) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grownCapacity(values.length, row));
+      }
+    }
+
+    @Override
+    void store(int row, Object value) {
+      values[row] = (Long) value;
+    }
+
+    @Override
+    int getInt(int row) {
+      return isPresent(row) ? (int) values[row] : super.getInt(row);
+    }
+
+    @Override
+    long getLong(int row) {
+      return isPresent(row) ? values[row] : super.getLong(row);
+    }
+
+    @Override
+    double getDouble(int row) {
+      return isPresent(row) ? values[row] : super.getDouble(row);
+    }
+
+    private long[] values = new long[0];
+  }
+
+  /** A column of Doubles. */
+  private static final class DoubleColumn extends PrimitiveColumn {
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof Double;
+    }
+
+    @Override
+    Object box(int row) {
+      return values[row];
+    }
+
+    @Override
+    void ensureCapacity(int row) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grownCapacity(values.length, row));
+      }
+    }
+
+    @Override
+    void store(int row, Object value) {
+      values[row] = (Double) value;
+    }
+
+    @Override
+    int getInt(int row) {
+      return isPresent(row) ? (int) values[row] : super.getInt(row);
+    }
+
+    @Override
+    long getLong(int row) {
+      return isPresent(row) ? (long) values[row] : super.getLong(row);
+    }
+
+    @Override
+    double getDouble(int row) {
+      return isPresent(row) ? values[row] : super.getDouble(row);
+    }
+
+    private double[] values = new double[0];
+  }
+
+  //// Internal Rep
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final Column EMPTY_COLUMN = new EmptyColumn();
+
+  private final List<String> columnNames = new ArrayList<>(8);
+  private final List<String> columnNamesView = Collections.unmodifiableList(columnNames);
+  private final Map<String, Integer> columnIndex = new HashMap<>();
+  private final List<Column> columns = new ArrayList<>(8);
+  private int rowCount = 0;
+
+}
@@ -42,6 +42,7 @@ import com.cyc.baseclient.cycobject.ElMtConstantImpl;
 import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -271,6 +272,7 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
       }
       throw new CycApiException(message);
     }
+    noteTaxonomyChange(sentence);
     final Object result = (results.size() > 2) ? results.get(2) : results.get(1);
     if (result instanceof CycList) {
       return (CycList) result;
@@ -282,6 +284,45 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
             + (result != null ? result.getClass() + ": " + result : null));
   }
   
+  /**
+   * Asserts many sentences, sending them to Cyc in chunks of
+   * {@link BulkAssertLoader#DEFAULT_CHUNK_SIZE} rather than one request per sentence. A sentence
+   * which cannot be asserted is reported in its result, rather than thrown. For streaming sources,
+   * parallelism over several connections and other options, use a {@link BulkAssertLoader}.
+   * <p>
+   * Bulk assertion is not supported within a {@link com.cyc.baseclient.KbTransaction}, which
+   * cannot record the strengths and directions of the sentences; assert them one at a time with
+   * {@link #assertSentence} instead.
+   *
+   * @param records     the sentences to assert, with their mts, strengths and directions
+   * @param bookkeeping whether to record bookkeeping info for the assertions
+   * @param transcript  whether to place the assertions on the transcript queue
+   *
+   * @return one result per record, in the order of the records
+   *
+   * @throws CycConnectionException if cyc server host not found on the network or a data communication error occurs
+   * @throws CycApiException if called within a transaction
+   */
+  public List<BulkAssertResult> assertSentences(Collection<? extends BulkAssertRecord> records,
+                                                boolean bookkeeping,
+                                                boolean transcript)
+          throws CycConnectionException, CycApiException {
+    if (getCurrentTransaction() != null) {
+      throw new CycApiException("Bulk assertion is not supported in a transaction; assert the "
+              + records.size() + " sentences one at a time instead.");
+    }
+    try {
+      return new BulkAssertLoader(getCyc())
+              .setBookkeeping(bookkeeping)
+              .setTranscript(transcript)
+              .load(records);
+    } finally {
+      for (BulkAssertRecord record : records) {
+        noteTaxonomyChange(record.getSentence());
+      }
+    }
+  }
+  
   @Override
   public void assertTermDependsOn(final Fort dependentTerm,
           final Fort independentTerm, final Fort mt) throws CycConnectionException, CycApiException {
@@ -651,6 +692,7 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
     sentence.add(arg1);
     sentence.add(arg2);
     assertWithTranscriptAndBookkeeping(sentence, mt);
+    noteTaxonomyChange(sentence);
   }
   
   @Override
@@ -740,12 +782,14 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
           CycObject mt)
           throws CycConnectionException, CycApiException {
     assertWithTranscriptAndBookkeeping(gaf, mt);
+    noteTaxonomyChange(gaf);
   }
   
   @Override
   public void assertGaf(FormulaSentence gaf, CycObject mt)
           throws CycConnectionException, CycApiException {
     assertWithTranscriptAndBookkeepingInternal(gaf, mt);
+    noteTaxonomyChange(gaf);
   }
   
   @Override
@@ -769,6 +813,8 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
       throw new CycApiException("Edit failure of " + unassertSentence + " to " + assertSentence + " in mt: " + mt.cyclify()
               + "\nbecause: \n" + results.get(1));
     }
+    noteTaxonomyChange(unassertSentence);
+    noteTaxonomyChange(assertSentence);
   }
   
   @Override
@@ -1366,6 +1412,7 @@ public class AssertToolImpl extends AbstractKbTool implements AssertTool {
             = "(ke-merge-now " + killFort.stringApiValue() + " " + keepFort.stringApiValue() + ")";
     final Object[] response = converse_inner(command);
     if (response[0].equals(Boolean.TRUE)) {
+      clearTaxonomyCache();
       return !response[1].equals(CycObjectFactory.nil);
     } else {
       throw new CycApiException("Failed to evaluate " + command + "\n  " + Arrays.asList(response));
@@ -0,0 +1,459 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: BulkAssertLoader.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycAssertion;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.Fort;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.exception.CycTimeOutException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.DefaultSublWorker;
+import com.cyc.baseclient.connection.BatchSublWorkerSynch;
+import com.cyc.baseclient.connection.BatchSublWorkerSynch.CommandResult;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asserts large numbers of sentences by sending them to Cyc in chunks, each of which is evaluated
+ * in a single request.
+ * <p>
+ * Every sentence is asserted within its own error handler on the Cyc server (see
+ * {@link BatchSublWorkerSynch}), so one sentence which cannot be asserted does not prevent the rest
+ * of its chunk from being asserted, and a {@link BulkAssertResult} is reported for every record.
+ * Up to {@link #getParallelism()} chunks are in flight at once, and consecutive chunks are spread
+ * over the given connections. Records are read from their source only as chunks are sent, and
+ * results are passed to the result handler on the calling thread, in the order of the records.
+ * <p>
+ * Unlike {@link AssertToolImpl#assertSentence(java.lang.String, com.cyc.base.cycobject.ElMt,
+ * java.lang.String, java.lang.String, boolean, boolean, boolean, java.util.List)}, the sentences
+ * are built into CycLists once, on the client, and are never rendered to strings.
+ * <p>
+ * Example usage: <code>
+ *  BulkAssertLoader loader = new BulkAssertLoader(access).setChunkSize(1000);
+ *  long asserted = loader.load(records.iterator(), (result) -&gt; {
+ *    if (!result.isSuccessful()) {
+ *      System.err.println(result);
+ *    }
+ *  });
+ * </code>
+ *
+ * @see AssertToolImpl#assertSentences(java.util.Collection, boolean, boolean)
+ */
+public class BulkAssertLoader {
+
+  //====|    Fields    |==========================================================================//
+
+  /**
+   * System property for the default number of sentences sent per request.
+   */
+  public static final String CHUNK_SIZE_PROPERTY = "com.cyc.baseclient.kbtool.bulkAssertChunkSize";
+
+  public static final int DEFAULT_CHUNK_SIZE
+          = Math.max(1, Integer.getInteger(CHUNK_SIZE_PROPERTY, 500));
+
+  /**
+   * System property for the default number of chunks in flight at once.
+   */
+  public static final String PARALLELISM_PROPERTY
+          = "com.cyc.baseclient.kbtool.bulkAssertParallelism";
+
+  public static final int DEFAULT_PARALLELISM
+          = Math.max(1, Integer.getInteger(PARALLELISM_PROPERTY, 4));
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkAssertLoader.class);
+
+  private static final CycSymbolImpl MULTIPLE_VALUE_LIST
+          = CycObjectFactory.makeCycSymbol("multiple-value-list");
+  private static final CycSymbolImpl CYC_ASSERT = CycObjectFactory.makeCycSymbol("cyc-assert");
+  private static final CycSymbolImpl KE_ASSERT_NOW
+          = CycObjectFactory.makeCycSymbol("ke-assert-now");
+  private static final CycSymbolImpl CLET = CycObjectFactory.makeCycSymbol("clet");
+  private static final CycSymbolImpl WITH_BOOKKEEPING_INFO
+          = CycObjectFactory.makeCycSymbol("with-bookkeeping-info");
+  private static final CycSymbolImpl NEW_BOOKKEEPING_INFO
+          = CycObjectFactory.makeCycSymbol("new-bookkeeping-info");
+  private static final CycSymbolImpl THE_DATE = CycObjectFactory.makeCycSymbol("the-date");
+  private static final CycSymbolImpl THE_SECOND = CycObjectFactory.makeCycSymbol("the-second");
+  private static final CycSymbolImpl THE_CYCLIST = CycObjectFactory.makeCycSymbol("*the-cyclist*");
+  private static final CycSymbolImpl KE_PURPOSE = CycObjectFactory.makeCycSymbol("*ke-purpose*");
+  private static final CycSymbolImpl WITH_STRICT_WFF
+          = CycObjectFactory.makeCycSymbol("with-strict-wff");
+  private static final CycSymbolImpl ASSUME_FORWARD_DEDUCTION_IS_WF
+          = CycObjectFactory.makeCycSymbol("*assume-forward-deduction-is-wf?*");
+  private static final CycSymbolImpl ASSUME_ASSERT_SENTENCE_IS_WF
+          = CycObjectFactory.makeCycSymbol("*assume-assert-sentence-is-wf?*");
+  private static final CycSymbolImpl STRENGTH = CycObjectFactory.makeCycSymbol(":strength");
+  private static final CycSymbolImpl DIRECTION = CycObjectFactory.makeCycSymbol(":direction");
+
+  private final List<CycAccess> connections;
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+  private int parallelism = DEFAULT_PARALLELISM;
+  private boolean bookkeeping = true;
+  private boolean transcript = false;
+  private boolean wffCheckingDisabled = false;
+  private long timeoutMsecs = DefaultSublWorker.TIMEOUT_MSECS_DEFAULT;
+
+  //====|    Construction    |====================================================================//
+
+  /**
+   * Creates a loader which sends chunks over the given connections, in turn. The cyclist and KE
+   * purpose for bookkeeping are taken from the first connection.
+   *
+   * @param connections the connections to the Cyc server
+   */
+  public BulkAssertLoader(Collection<? extends CycAccess> connections) {
+    if (connections == null || connections.isEmpty()) {
+      throw new IllegalArgumentException("At least one connection is required");
+    }
+    this.connections = Collections.unmodifiableList(new ArrayList<>(connections));
+  }
+
+  public BulkAssertLoader(CycAccess... connections) {
+    this(Arrays.asList(connections));
+  }
+
+  //====|    Configuration    |===================================================================//
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public BulkAssertLoader setChunkSize(int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException("chunkSize must be at least 1, got " + value);
+    }
+    this.chunkSize = value;
+    return this;
+  }
+
+  /**
+   * Returns the maximum number of chunks which are being asserted at once.
+   *
+   * @return the maximum number of chunks in flight
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public BulkAssertLoader setParallelism(int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1, got " + value);
+    }
+    this.parallelism = value;
+    return this;
+  }
+
+  public boolean isBookkeeping() {
+    return bookkeeping;
+  }
+
+  public BulkAssertLoader setBookkeeping(boolean value) {
+    this.bookkeeping = value;
+    return this;
+  }
+
+  /**
+   * Returns whether sentences are asserted via <code>ke-assert-now</code>, which places them on the
+   * transcript queue, rather than via <code>cyc-assert</code>.
+   *
+   * @return whether sentences are transcripted
+   */
+  public boolean isTranscript() {
+    return transcript;
+  }
+
+  public BulkAssertLoader setTranscript(boolean value) {
+    this.transcript = value;
+    return this;
+  }
+
+  public boolean isWffCheckingDisabled() {
+    return wffCheckingDisabled;
+  }
+
+  public BulkAssertLoader setWffCheckingDisabled(boolean value) {
+    this.wffCheckingDisabled = value;
+    return this;
+  }
+
+  /**
+   * Returns the max time to wait in msecs for a single chunk to be asserted (0 means to wait
+   * forever). The records of a chunk which times out are reported as failures.
+   *
+   * @return the timeout per chunk in msecs
+   */
+  public long getTimeoutMsecs() {
+    return timeoutMsecs;
+  }
+
+  public BulkAssertLoader setTimeoutMsecs(long value) {
+    this.timeoutMsecs = value;
+    return this;
+  }
+
+  //====|    Public methods    |==================================================================//
+
+  /**
+   * Asserts every record, passing one result per record to <code>resultHandler</code>, in the order
+   * of the records.
+   *
+   * @param records       the records to assert
+   * @param resultHandler receives the result of each record
+   *
+   * @return the number of records which were asserted
+   *
+   * @throws CycConnectionException if cyc server host not found on the network or a data
+   *                                communication error occurs; records which had not been reported
+   *                                by then may or may not have been asserted
+   */
+  public long load(Iterator<? extends BulkAssertRecord> records,
+                   Consumer<? super BulkAssertResult> resultHandler)
+          throws CycConnectionException {
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(parallelism, (runnable) -> {
+      final Thread thread = new Thread(runnable, "bulk-assert-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    final Deque<Future<List<BulkAssertResult>>> pending = new ArrayDeque<>();
+    final Fort cyclist = connections.get(0).getOptions().getCyclist();
+    final Fort kePurpose = connections.get(0).getOptions().getKePurpose();
+    long asserted = 0;
+    int chunkCount = 0;
+    try {
+      while (records.hasNext() || !pending.isEmpty()) {
+        while (records.hasNext() && pending.size() < parallelism) {
+          final List<BulkAssertRecord> chunk = nextChunk(records);
+          final CycAccess access = connections.get(chunkCount++ % connections.size());
+          pending.addLast(executor.submit(() -> {
+            return assertChunk(access, chunk, cyclist, kePurpose);
+          }));
+        }
+        for (BulkAssertResult result : await(pending.removeFirst())) {
+          if (result.isSuccessful()) {
+            asserted++;
+          }
+          resultHandler.accept(result);
+        }
+      }
+      LOG.debug("Asserted {} records in {} chunks", asserted, chunkCount);
+      return asserted;
+    } finally {
+      pending.forEach((future) -> { future.cancel(false); });
+      executor.shutdown();
+    }
+  }
+
+  public long load(Stream<? extends BulkAssertRecord> records,
+                   Consumer<? super BulkAssertResult> resultHandler)
+          throws CycConnectionException {
+    return load(records.iterator(), resultHandler);
+  }
+
+  /**
+   * Asserts every record, and returns one result per record, in the order of the records.
+   *
+   * @param records the records to assert
+   *
+   * @return the results of the records
+   *
+   * @throws CycConnectionException if cyc server host not found on the network or a data
+   *                                communication error occurs
+   */
+  public List<BulkAssertResult> load(Collection<? extends BulkAssertRecord> records)
+          throws CycConnectionException {
+    final List<BulkAssertResult> results = new ArrayList<>(records.size());
+    load(records.iterator(), results::add);
+    return results;
+  }
+
+  //====|    Package methods    |=================================================================//
+
+  /**
+   * Asserts one chunk of records in a single request, and returns their results. The records of a
+   * chunk which cannot be evaluated as a whole are all reported as failures.
+   */
+  List<BulkAssertResult> assertChunk(CycAccess access,
+                                     List<BulkAssertRecord> chunk,
+                                     Fort cyclist,
+                                     Fort kePurpose) throws CycConnectionException {
+    final List<CycList> commands = new ArrayList<>(chunk.size());
+    for (BulkAssertRecord record : chunk) {
+      commands.add(makeCommand(record, cyclist, kePurpose));
+    }
+    final List<BulkAssertResult> results = new ArrayList<>(chunk.size());
+    try {
+      final List<CommandResult> responses
+              = new BatchSublWorkerSynch(commands, access, timeoutMsecs).getResults();
+      for (int i = 0; i < chunk.size(); i++) {
+        final CommandResult response = responses.get(i);
+        results.add(response.isSuccessful()
+                    ? parseResponse(chunk.get(i), response.getValue())
+                    : BulkAssertResult.failure(chunk.get(i), response.getErrorMessage()));
+      }
+    } catch (CycApiException | CycTimeOutException ex) {
+      LOG.warn("Could not assert a chunk of {} records: {}", chunk.size(), ex.getMessage());
+      for (BulkAssertRecord record : chunk) {
+        results.add(BulkAssertResult.failure(record, String.valueOf(ex.getMessage())));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Builds the command which asserts <code>record</code>, e.g. <code>(clet ((*the-cyclist*
+   * CYCLIST) (*ke-purpose* PURPOSE)) (multiple-value-list (cyc-assert 'SENTENCE 'MT '(:strength
+   * :default))))</code>, wrapped in the same manner as by {@link AssertToolImpl}.
+   */
+  CycList makeCommand(BulkAssertRecord record, Fort cyclist, Fort kePurpose) {
+    final CycList<Object> assertion = new CycArrayList<>();
+    final CycSymbolImpl strength = CycObjectFactory.makeCycSymbol(record.getStrength());
+    final CycSymbolImpl direction = (record.getDirection() != null)
+                                    ? CycObjectFactory.makeCycSymbol(record.getDirection())
+                                    : null;
+    if (transcript) {
+      assertion.add(KE_ASSERT_NOW);
+      assertion.add(quote(record.getSentence()));
+      assertion.add(quote(record.getMt()));
+      assertion.add(strength);
+      if (direction != null) {
+        assertion.add(direction);
+      }
+    } else {
+      final CycList<Object> properties = CycArrayList.<Object>makeCycList(STRENGTH, strength);
+      if (direction != null) {
+        properties.add(DIRECTION);
+        properties.add(direction);
+      }
+      assertion.add(CYC_ASSERT);
+      assertion.add(quote(record.getSentence()));
+      assertion.add(quote(record.getMt()));
+      assertion.add(quote(properties));
+    }
+    final Object cyclistValue = (cyclist != null) ? quote(cyclist) : CycObjectFactory.nil;
+    final Object kePurposeValue = (kePurpose != null) ? quote(kePurpose) : CycObjectFactory.nil;
+    CycList command = CycArrayList.<Object>makeCycList(MULTIPLE_VALUE_LIST, assertion);
+    command = bind(command,
+            CycArrayList.<Object>makeCycList(THE_CYCLIST, cyclistValue),
+            CycArrayList.<Object>makeCycList(KE_PURPOSE, kePurposeValue));
+    if (bookkeeping) {
+      command = CycArrayList.<Object>makeCycList(WITH_BOOKKEEPING_INFO,
+              CycArrayList.<Object>makeCycList(NEW_BOOKKEEPING_INFO,
+                      cyclistValue,
+                      CycArrayList.makeCycList(THE_DATE),
+                      kePurposeValue,
+                      CycArrayList.makeCycList(THE_SECOND)),
+              command);
+    }
+    if (wffCheckingDisabled) {
+      command = bind(command, CycArrayList.<Object>makeCycList(ASSUME_FORWARD_DEDUCTION_IS_WF,
+              CycObjectFactory.t));
+      command = bind(command, CycArrayList.<Object>makeCycList(ASSUME_ASSERT_SENTENCE_IS_WF,
+              CycObjectFactory.t));
+      command = CycArrayList.<Object>makeCycList(WITH_STRICT_WFF, command);
+    }
+    return command;
+  }
+
+  /**
+   * Interprets the <code>multiple-value-list</code> of an assert, in the same manner as
+   * {@link AssertToolImpl#assertSentence(java.lang.String, com.cyc.base.cycobject.ElMt,
+   * java.lang.String, java.lang.String, boolean, boolean, boolean, java.util.List)}.
+   */
+  static BulkAssertResult parseResponse(BulkAssertRecord record, Object response) {
+    if (!(response instanceof List) || ((List) response).isEmpty()) {
+      return BulkAssertResult.failure(record, "Invalid assert response: " + response);
+    }
+    final List<?> results = (List<?>) response;
+    if (CycObjectFactory.nil.equals(results.get(0))) {
+      return BulkAssertResult.failure(record, (results.size() > 1)
+                                              ? "Assertion failed because: " + results.get(1)
+                                              : "Assertion failed");
+    }
+    final Object result = (results.size() > 2) ? results.get(2)
+                          : (results.size() > 1) ? results.get(1) : null;
+    return BulkAssertResult.success(record,
+            (result instanceof CycList) ? (CycList<CycAssertion>) result : null);
+  }
+
+  //====|    Private methods    |=================================================================//
+
+  private List<BulkAssertRecord> nextChunk(Iterator<? extends BulkAssertRecord> records) {
+    final List<BulkAssertRecord> chunk = new ArrayList<>(chunkSize);
+    while (records.hasNext() && chunk.size() < chunkSize) {
+      chunk.add(records.next());
+    }
+    return chunk;
+  }
+
+  private List<BulkAssertResult> await(Future<List<BulkAssertResult>> future)
+          throws CycConnectionException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CycTaskInterruptedException(ex);
+    } catch (ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof CycConnectionException) {
+        throw (CycConnectionException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CycApiException("Error while asserting a chunk", cause);
+    }
+  }
+
+  private static CycList quote(Object value) {
+    return CycArrayList.<Object>makeCycList(CycObjectFactory.quote, value);
+  }
+
+  /**
+   * Returns <code>(clet (BINDINGS...) COMMAND)</code>.
+   */
+  private static CycList bind(CycList command, CycList... bindings) {
+    return CycArrayList.<Object>makeCycList(
+            CLET, CycArrayList.<Object>makeCycList((Object[]) bindings), command);
+  }
+
+}
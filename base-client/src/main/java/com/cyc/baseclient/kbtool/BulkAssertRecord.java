@@ -0,0 +1,109 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: BulkAssertRecord.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.ElMt;
+import com.cyc.base.cycobject.FormulaSentence;
+
+/**
+ * One sentence to be asserted by a {@link BulkAssertLoader}, together with the microtheory,
+ * strength and direction with which to assert it.
+ *
+ * @see BulkAssertLoader
+ */
+public class BulkAssertRecord {
+
+  //====|    Fields    |==========================================================================//
+
+  /**
+   * The strength with which sentences are asserted when none is given.
+   */
+  public static final String DEFAULT_STRENGTH = ":default";
+
+  private final CycList sentence;
+  private final ElMt mt;
+  private final String strength;
+  private final String direction;
+
+  //====|    Construction    |====================================================================//
+
+  /**
+   * Creates a record for asserting <code>sentence</code> in <code>mt</code>.
+   *
+   * @param sentence  the sentence to assert
+   * @param mt        the microtheory in which to assert it
+   * @param strength  the strength keyword, e.g. <code>:monotonic</code>; null for the default
+   * @param direction the direction keyword, e.g. <code>:forward</code>; null for the default
+   */
+  public BulkAssertRecord(CycList sentence, ElMt mt, String strength, String direction) {
+    if (sentence == null || mt == null) {
+      throw new IllegalArgumentException("A sentence and mt are required, got " + sentence + " in "
+              + mt);
+    }
+    this.sentence = sentence;
+    this.mt = mt;
+    this.strength = (strength != null) ? strength : DEFAULT_STRENGTH;
+    this.direction = direction;
+  }
+
+  public BulkAssertRecord(CycList sentence, ElMt mt) {
+    this(sentence, mt, null, null);
+  }
+
+  public BulkAssertRecord(FormulaSentence sentence, ElMt mt, String strength, String direction) {
+    this(sentence.toCycList(), mt, strength, direction);
+  }
+
+  public BulkAssertRecord(FormulaSentence sentence, ElMt mt) {
+    this(sentence, mt, null, null);
+  }
+
+  //====|    Methods    |=========================================================================//
+
+  public CycList getSentence() {
+    return sentence;
+  }
+
+  public ElMt getMt() {
+    return mt;
+  }
+
+  public String getStrength() {
+    return strength;
+  }
+
+  /**
+   * Returns the direction keyword, or null if the server's default direction is to be used.
+   *
+   * @return the direction keyword, or null
+   */
+  public String getDirection() {
+    return direction;
+  }
+
+  @Override
+  public String toString() {
+    return sentence.cyclify() + " in " + mt.cyclify();
+  }
+
+}
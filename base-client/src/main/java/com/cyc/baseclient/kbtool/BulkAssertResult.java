@@ -0,0 +1,96 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: BulkAssertResult.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycAssertion;
+import com.cyc.base.cycobject.CycList;
+
+/**
+ * The outcome of asserting one {@link BulkAssertRecord}: either the assertions which were made, or
+ * the reason for which the sentence could not be asserted.
+ *
+ * @see BulkAssertLoader
+ */
+public class BulkAssertResult {
+
+  //====|    Fields    |==========================================================================//
+
+  private final BulkAssertRecord record;
+  private final CycList<CycAssertion> assertions;
+  private final String errorMessage;
+
+  //====|    Construction    |====================================================================//
+
+  BulkAssertResult(BulkAssertRecord record, CycList<CycAssertion> assertions, String errorMessage) {
+    this.record = record;
+    this.assertions = assertions;
+    this.errorMessage = errorMessage;
+  }
+
+  static BulkAssertResult success(BulkAssertRecord record, CycList<CycAssertion> assertions) {
+    return new BulkAssertResult(record, assertions, null);
+  }
+
+  static BulkAssertResult failure(BulkAssertRecord record, String errorMessage) {
+    return new BulkAssertResult(record, null, errorMessage);
+  }
+
+  //====|    Methods    |=========================================================================//
+
+  public BulkAssertRecord getRecord() {
+    return record;
+  }
+
+  /**
+   * Returns true iff the sentence was asserted.
+   *
+   * @return true iff the sentence was asserted
+   */
+  public boolean isSuccessful() {
+    return errorMessage == null;
+  }
+
+  /**
+   * Returns the assertions which were made for the sentence, as reported by the Cyc server. This
+   * may be null, even when the sentence was asserted.
+   *
+   * @return the assertions, or null
+   */
+  public CycList<CycAssertion> getAssertions() {
+    return assertions;
+  }
+
+  /**
+   * Returns the reason for which the sentence could not be asserted, or null if it was asserted.
+   *
+   * @return the error message, or null
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccessful() ? record + " => " + assertions : record + " => error: " + errorMessage;
+  }
+
+}
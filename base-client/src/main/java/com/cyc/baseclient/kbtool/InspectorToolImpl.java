@@ -48,6 +48,7 @@ import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
 import com.cyc.baseclient.cycobject.NautImpl;
 import com.cyc.baseclient.datatype.Pair;
 import com.cyc.baseclient.inference.params.DefaultInferenceParameters;
+import com.cyc.baseclient.subl.SublCommandTemplate;
 import com.cyc.baseclient.util.LruCache;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -78,6 +79,22 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
   
   private static final CycSymbolImpl EL_WFF = makeCycSymbol("el-wff?");
 
+  private static final SublCommandTemplate ISA_IN_ANY_MT = new SublCommandTemplate(
+          "(fif (fboundp 'isa-in-any-mt-cached?) (isa-in-any-mt-cached? ?1 ?2) (isa-in-any-mt? ?1 ?2))");
+
+  private static final SublCommandTemplate ISA_IN_MT = new SublCommandTemplate("(isa? ?1 ?2 ?3)");
+
+  private static final SublCommandTemplate GENL_IN_ANY_MT
+          = new SublCommandTemplate("(genl-in-any-mt? ?1 ?2)");
+
+  private static final SublCommandTemplate GENL_IN_MT = new SublCommandTemplate("(genl? ?1 ?2 ?3)");
+
+  private static final SublCommandTemplate GENL_PREDICATE_IN_ANY_MT
+          = new SublCommandTemplate("(with-all-mts (genl-predicate? ?1 ?2))");
+
+  private static final SublCommandTemplate GENL_PREDICATE_IN_MT
+          = new SublCommandTemplate("(genl-predicate? ?1 ?2 ?3)");
+
   /**
    * Least Recently Used Cache of isCollection results.
    */
@@ -98,24 +115,9 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
   //a map from schema to the categories for that schema (via schemaIsa)
   private final Map<CycObject, CycObject> schemaIsaMap = new HashMap<>();
 
-  private static final String MICROTHEORY = CommonConstants.MICROTHEORY.cyclify();
-  
   // Commented out regarding BASEAPI-63 - nwinant, 2014-08-18
   //  private static final String PUBLIC_CONSTANT = CommonConstants.PUBLIC_CONSTANT.cyclify();
   
-  private static final String COLLECTION = CommonConstants.COLLECTION.cyclify();
-  
-  private static final String INDIVIDUAL = CommonConstants.INDIVIDUAL.cyclify();
-  
-  private static final String FUNCTION_DENOTATIONAL 
-          = CommonConstants.FUNCTION_DENOTATIONAL.cyclify();
-  
-  private static final String REIFIABLE_FUNCTION = CommonConstants.REIFIABLE_FUNCTION.cyclify();
-  
-  private static final String PREDICATE = CommonConstants.PREDICATE.cyclify();
-  
-  private static final String UNARY_PREDICATE = CommonConstants.UNARY_PREDICATE.cyclify();
-  
   // Construction
   
   public InspectorToolImpl(CycAccess client) {
@@ -180,9 +182,11 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
   public boolean isa(CycObject term,
           Fort collection)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(fif (fboundp 'isa-in-any-mt-cached?) (isa-in-any-mt-cached? " + term.stringApiValue() + " "
-            + collection.stringApiValue() + ") (isa-in-any-mt? " + term.stringApiValue() + " "
-            + collection.stringApiValue() + "))");
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && term instanceof Fort) {
+      return cache.isa(term, collection, null);
+    }
+    return getConverse().converseBoolean(ISA_IN_ANY_MT.bind(term, collection));
   }
   
   @Override
@@ -190,10 +194,11 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
           CycObject collection,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    final String command = "(isa? " + term.stringApiValue() + " "
-            + collection.stringApiValue() + " " + makeElMt_inner(mt).stringApiValue() + ")";
-
-    return getConverse().converseBoolean(command);
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && term instanceof Fort) {
+      return cache.isa(term, collection, makeElMt_inner(mt));
+    }
+    return getConverse().converseBoolean(ISA_IN_MT.bind(term, collection, makeElMt_inner(mt)));
   }
   
   private CycObject categorizeTermWRTApi_precheck(CycObject term) {
@@ -532,9 +537,7 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
   public boolean isMicrotheory(CycObject term)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
     return getConverse().converseBoolean(
-            "(fif (fboundp 'isa-in-any-mt-cached?) "
-            + "(isa-in-any-mt-cached? " + term.stringApiValue() + " " + MICROTHEORY + ")"
-            + "(isa-in-any-mt? " + term.stringApiValue() + " " + MICROTHEORY + "))");
+            ISA_IN_ANY_MT.bind(term, CommonConstants.MICROTHEORY));
   }
   
   @Override
@@ -546,9 +549,7 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
     }
     verifyPossibleDenotationalTerm(cycObject);
     return getConverse().converseBoolean(
-            "(fif (fboundp 'isa-in-any-mt-cached?) "
-            + "(isa-in-any-mt-cached? " + cycObject.stringApiValue() + " " + COLLECTION + ")"
-            + "(isa-in-any-mt? " + cycObject.stringApiValue() + " " + COLLECTION + "))");
+            ISA_IN_ANY_MT.bind(cycObject, CommonConstants.COLLECTION));
   }
   
   @Override
@@ -604,25 +605,21 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
     }
     verifyPossibleDenotationalTerm(cycObject);
     return getConverse().converseBoolean(
-            "(fif (fboundp 'isa-in-any-mt-cached?) "
-            + "(isa-in-any-mt-cached? " + cycObject.stringApiValue() + " " + INDIVIDUAL + ")"
-            + "(isa-in-any-mt? " + cycObject.stringApiValue() + " " + INDIVIDUAL + "))");
+            ISA_IN_ANY_MT.bind(cycObject, CommonConstants.INDIVIDUAL));
   }
   
   @Override
   public boolean isFunction(CycObject cycObj)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(fif (fboundp 'isa-in-any-mt-cached?)"
-            + "(isa-in-any-mt-cached? " + cycObj.stringApiValue() + " " + FUNCTION_DENOTATIONAL + ")"
-            + "(isa-in-any-mt? " + cycObj.stringApiValue() + " " + FUNCTION_DENOTATIONAL + "))");
+    return getConverse().converseBoolean(
+            ISA_IN_ANY_MT.bind(cycObj, CommonConstants.FUNCTION_DENOTATIONAL));
   }
   
   @Override
   public boolean isReifiableFunction(CycObject cycObj)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(fif (fboundp 'isa-in-any-mt-cached?)"
-            + "(isa-in-any-mt-cached? " + cycObj.stringApiValue() + " " + REIFIABLE_FUNCTION + ")"
-            + "(isa-in-any-mt? " + cycObj.stringApiValue() + " " + REIFIABLE_FUNCTION + "))");
+    return getConverse().converseBoolean(
+            ISA_IN_ANY_MT.bind(cycObj, CommonConstants.REIFIABLE_FUNCTION));
   }
   
   @Override
@@ -642,9 +639,7 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
     }
     verifyPossibleDenotationalTerm(cycObject);
     return getConverse().converseBoolean(
-            "(fif (fboundp 'isa-in-any-mt-cached?) "
-            + "(isa-in-any-mt-cached? " + cycObject.stringApiValue() + " " + PREDICATE + ")"
-            + "(isa-in-any-mt? " + cycObject.stringApiValue() + " " + PREDICATE + "))");
+            ISA_IN_ANY_MT.bind(cycObject, CommonConstants.PREDICATE));
   }
 
   @Override
@@ -668,9 +663,8 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
     }
     verifyPossibleDenotationalTerm(cycObject);
     // TODO: convert to simple call to isa-in-any-mt-cached? once that has propogated...
-    return getConverse().converseBoolean("(fif (fboundp 'isa-in-any-mt-cached?) "
-            + "(isa-in-any-mt-cached? " + cycObject.stringApiValue() + " " + UNARY_PREDICATE + ")"
-            + "(isa-in-any-mt? " + cycObject.stringApiValue() + " " + UNARY_PREDICATE + "))");
+    return getConverse().converseBoolean(
+            ISA_IN_ANY_MT.bind(cycObject, CommonConstants.UNARY_PREDICATE));
   }
   
   @Override
@@ -744,8 +738,11 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
   public boolean isGenlOf(CycObject genl,
           CycObject spec)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(genl-in-any-mt? " + spec.stringApiValue() + " "
-            + genl.stringApiValue() + ")");
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && spec instanceof Fort) {
+      return cache.isGenlOf(genl, spec, null);
+    }
+    return getConverse().converseBoolean(GENL_IN_ANY_MT.bind(spec, genl));
   }
   
   @Override
@@ -767,8 +764,11 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
           CycObject spec,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(genl? " + spec.stringApiValue() + " " + genl.stringApiValue() + " "
-            + makeElMt_inner(mt).stringApiValue() + ")");
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && spec instanceof Fort) {
+      return cache.isGenlOf(genl, spec, makeElMt_inner(mt));
+    }
+    return getConverse().converseBoolean(GENL_IN_MT.bind(spec, genl, makeElMt_inner(mt)));
   }
   
   @Override
@@ -776,16 +776,14 @@ public class InspectorToolImpl extends AbstractKbTool implements InspectorTool {
           Fort specPred,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(genl-predicate? " + specPred.stringApiValue() + " "
-            + genlPred.stringApiValue() + " " + makeElMt_inner(
-                    mt).stringApiValue() + ")");
+    return getConverse().converseBoolean(
+            GENL_PREDICATE_IN_MT.bind(specPred, genlPred, makeElMt_inner(mt)));
   }
   
   @Override
   public boolean isGenlPredOf(Fort genlPred, Fort specPred)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
-    return getConverse().converseBoolean("(with-all-mts (genl-predicate? " + specPred.stringApiValue() + " "
-            + genlPred.stringApiValue() + "))");
+    return getConverse().converseBoolean(GENL_PREDICATE_IN_ANY_MT.bind(specPred, genlPred));
   }
   
   @Override
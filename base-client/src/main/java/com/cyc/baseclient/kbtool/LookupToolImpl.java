@@ -54,18 +54,29 @@ import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
 import com.cyc.baseclient.cycobject.GuidImpl;
 import com.cyc.baseclient.cycobject.NartImpl;
 import com.cyc.baseclient.cycobject.NautImpl;
-import com.cyc.baseclient.datatype.CycStringUtils;
 import com.cyc.baseclient.inference.params.DefaultInferenceParameters;
 import com.cyc.session.exception.OpenCycUnsupportedFeatureException;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +94,22 @@ import static com.cyc.baseclient.connection.SublApiHelper.makeSublStmt;
  */
 public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   
+  /**
+   * The system property which sets the maximum number of constants resolved by one request from
+   * {@link #findConstantsByName(Collection)} and {@link #findConstantsByGuid(Collection)}.
+   */
+  public static final String CONSTANT_BATCH_SIZE_PROPERTY
+          = "com.cyc.baseclient.kbtool.constantBatchSize";
+  
+  public static final int DEFAULT_CONSTANT_BATCH_SIZE
+          = Math.max(1, Integer.getInteger(CONSTANT_BATCH_SIZE_PROPERTY, 5000));
+  
+  /**
+   * The system property which names a warm set file of constants to be resolved when a session is
+   * initialized. See {@link #warmConstantCache(java.io.Reader)} for the format.
+   */
+  public static final String WARM_SET_PROPERTY = "com.cyc.baseclient.kbtool.constantWarmSet";
+  
   public LookupToolImpl(CycAccess client) {
     super(client);
   }
@@ -159,20 +186,17 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     if ((constantNames == null) || (constantNames.size() <= 0)) {
       return null;
     }
-    StringBuffer command = new StringBuffer(
-            "(MAPCAR (QUOTE FIND-CONSTANT) (LIST");
-    for (Iterator iter = constantNames.iterator(); iter.hasNext();) {
-      command.append(" \"");
-      String curConstName = CycStringUtils.escapeDoubleQuotes("" + iter.next());
-      command.append(curConstName);
-      command.append("\"");
-    }
-    command.append("))");
-    final Object result = getConverse().converseCycObject("" + command);
-    if (!(result instanceof CycArrayList)) {
-      return null;
+    final List<String> names = new ArrayList<>(constantNames.size());
+    for (Object constantName : constantNames) {
+      names.add("" + constantName);
+    }
+    final Map<String, CycConstantImpl> constants = findConstantsByName(names);
+    final CycArrayList result = new CycArrayList(names.size());
+    for (String name : names) {
+      final CycConstantImpl constant = constants.get(name);
+      result.add((constant != null) ? constant : CycObjectFactory.nil);
     }
-    return (CycArrayList) result;
+    return result;
   }
 
   @Override
@@ -181,19 +205,134 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     if ((constantGuids == null) || (constantGuids.size() <= 0)) {
       return null;
     }
-    List result = new ArrayList();
-    // @ToDo this is very inefficient...we need to find a way to do this
-    // with a single round trip to Cyc. --Tony
-    for (Iterator iter = constantGuids.iterator(); iter.hasNext();) {
-      CycConstantImpl item = (CycConstantImpl) iter.next();
-      try {
-        result.add(getConstantByGuid(item.getGuid()));
-      } catch (Exception e) {
-        result.add(CycObjectFactory.nil);
+    final List<Guid> guids = new ArrayList<>(constantGuids.size());
+    for (Object item : constantGuids) {
+      guids.add(toGuid(item));
+    }
+    final Map<Guid, CycConstantImpl> constants = findConstantsByGuid(guids);
+    final List result = new ArrayList(guids.size());
+    for (Guid guid : guids) {
+      final CycConstantImpl constant = (guid != null) ? constants.get(guid) : null;
+      result.add((constant != null) ? constant : CycObjectFactory.nil);
+    }
+    return result;
+  }
+
+  /**
+   * Finds the constants with the given names. Names found in the constant cache are resolved
+   * locally, and the rest with one request per {@link #DEFAULT_CONSTANT_BATCH_SIZE} names. Every
+   * constant found is added to the constant caches.
+   *
+   * @param constantNames the constant names, with or without the "#$" prefix
+   *
+   * @return a map from each name which was found to its constant, in the order given
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public Map<String, CycConstantImpl> findConstantsByName(Collection<String> constantNames)
+          throws CycConnectionException, CycApiException {
+    final Map<String, CycConstantImpl> result = new LinkedHashMap<>();
+    final Set<String> misses = new LinkedHashSet<>();
+    for (String constantName : constantNames) {
+      if (constantName == null || result.containsKey(constantName)) {
+        continue;
+      }
+      final CycConstantImpl constant
+              = CycObjectFactory.getCycConstantCacheByName(stripPrefix(constantName));
+      if (constant != null) {
+        result.put(constantName, constant);
+      } else {
+        misses.add(constantName);
+      }
+    }
+    resolveConstants(new ArrayList<>(misses), "find-constant", LookupToolImpl::stripPrefix, result);
+    return result;
+  }
+
+  /**
+   * Finds the constants with the given GUIDs. GUIDs found in the constant cache are resolved
+   * locally, and the rest with one request per {@link #DEFAULT_CONSTANT_BATCH_SIZE} GUIDs. Every
+   * constant found is added to the constant caches.
+   *
+   * @param guids the constant GUIDs
+   *
+   * @return a map from each GUID which was found to its constant, in the order given
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public Map<Guid, CycConstantImpl> findConstantsByGuid(Collection<? extends Guid> guids)
+          throws CycConnectionException, CycApiException {
+    final Map<Guid, CycConstantImpl> result = new LinkedHashMap<>();
+    final Set<Guid> misses = new LinkedHashSet<>();
+    for (Guid guid : guids) {
+      if (guid == null || result.containsKey(guid)) {
+        continue;
+      }
+      final CycConstantImpl constant = CycObjectFactory.getCycConstantCacheByGuid(guid);
+      if (constant != null) {
+        result.put(guid, constant);
+      } else {
+        misses.add(guid);
       }
     }
+    resolveConstants(new ArrayList<>(misses), "find-constant-by-external-id", (guid) -> guid,
+            result);
     return result;
   }
+
+  /**
+   * Resolves the constants listed in a warm set file, so that they are in the constant caches
+   * before they are first needed. See {@link #warmConstantCache(java.io.Reader)} for the format.
+   *
+   * @param warmSet the warm set file, encoded in UTF-8
+   *
+   * @return the number of constants which were found
+   *
+   * @throws IOException if the file cannot be read
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   *
+   * @see #WARM_SET_PROPERTY
+   */
+  public int warmConstantCache(Path warmSet)
+          throws IOException, CycConnectionException, CycApiException {
+    try (Reader reader = Files.newBufferedReader(warmSet, StandardCharsets.UTF_8)) {
+      return warmConstantCache(reader);
+    }
+  }
+
+  /**
+   * Resolves the constants listed in a warm set, so that they are in the constant caches before
+   * they are first needed. A warm set lists one constant per line, by GUID or by name; blank lines
+   * and lines starting with ";" or "#" (but not "#$") are ignored.
+   *
+   * @param warmSet the warm set
+   *
+   * @return the number of constants which were found
+   *
+   * @throws IOException if the warm set cannot be read
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public int warmConstantCache(Reader warmSet)
+          throws IOException, CycConnectionException, CycApiException {
+    final List<Guid> guids = new ArrayList<>();
+    final List<String> names = new ArrayList<>();
+    readWarmSet(warmSet, guids, names);
+    final int found = findConstantsByGuid(guids).size() + findConstantsByName(names).size();
+    if (guids.size() + names.size() > found) {
+      LOGGER.warn("Found {} of {} constants in the warm set",
+              found, guids.size() + names.size());
+    }
+    if (found > CycObjectFactory.CONSTANT_CACHE_BY_GUID_SIZE) {
+      LOGGER.warn("The warm set has more constants than the constant cache can hold ({});"
+              + " consider raising {}", CycObjectFactory.CONSTANT_CACHE_BY_GUID_SIZE,
+              CycObjectFactory.CONSTANT_CACHE_SIZE_PROPERTY);
+    }
+    return found;
+  }
   
   @Override
   public CycConstantImpl getConstantByName(final String constantName)
@@ -521,6 +660,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
       throw new NullPointerException("cycObject must not be null");
     }
     verifyPossibleDenotationalTerm(cycObject);
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycObject instanceof Fort) {
+      return cache.getIsas(cycObject, null);
+    }
     return getConverse().converseList("(remove-duplicates (with-all-mts (isa " + cycObject.stringApiValue()
             + ")))");
   }
@@ -537,6 +680,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     if (mt == null) {
       throw new NullPointerException("mt must not be null");
     }
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycObject instanceof Fort) {
+      return cache.getIsas(cycObject, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(isa " + cycObject.stringApiValue()
             + " " +  makeElMt_inner(mt).stringApiValue()
             + ")");
@@ -550,6 +697,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
       throw new NullPointerException("cycObject must not be null");
     }
     verifyPossibleDenotationalTerm(cycObject);
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycObject instanceof Fort) {
+      return cache.getGenls(cycObject, null);
+    }
     return getConverse().converseList("(remove-duplicates (with-all-mts (genls " + cycObject.stringApiValue()
             + ")))");
   }
@@ -566,6 +717,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     if (mt == null) {
       throw new NullPointerException("mt must not be null");
     }
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycObject instanceof Fort) {
+      return cache.getGenls(cycObject, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(genls " + cycObject.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -573,6 +728,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   @Override
   public CycList getMinGenls(Fort cycFort)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getMinGenls(cycFort, null);
+    }
     return getConverse().converseList("(remove-duplicates (with-all-mts (min-genls "
             + cycFort.stringApiValue() + ")))");
   }
@@ -581,6 +740,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   public CycList getMinGenls(Fort cycFort,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getMinGenls(cycFort, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(min-genls " + cycFort.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -588,6 +751,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   @Override
   public CycList getSpecs(Fort cycFort)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getSpecs(cycFort, null);
+    }
     return getConverse().converseList("(remove-duplicates (with-all-mts (specs " + cycFort.stringApiValue()
             + ")))");
   }
@@ -596,6 +763,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   public CycList getSpecs(Fort cycFort,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getSpecs(cycFort, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(specs " + cycFort.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -662,6 +833,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   @Override
   public CycList getAllGenls(Fort cycFort)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getAllGenls(cycFort, null);
+    }
     return getConverse().converseList("(all-genls-in-any-mt " + cycFort.stringApiValue() + ")");
   }
   
@@ -677,6 +852,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     if (mt == null) {
       throw new NullPointerException("mt must not be null");
     }
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycObject instanceof Fort) {
+      return cache.getAllGenls(cycObject, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(all-genls " + cycObject.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -684,6 +863,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   @Override
   public CycList getAllSpecs(Fort cycFort)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getAllSpecs(cycFort, null);
+    }
     return getConverse().converseList("(remove-duplicates (with-all-mts (all-specs "
             + cycFort.stringApiValue() + ")))");
   }
@@ -692,6 +875,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   public CycList getAllSpecs(Fort cycFort,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null) {
+      return cache.getAllSpecs(cycFort, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(all-specs " + cycFort.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -937,6 +1124,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   @Override
   public CycList getAllIsa(CycObject cycFort)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycFort instanceof Fort) {
+      return cache.getAllIsa(cycFort, null);
+    }
     String command = "(all-isa-in-any-mt " + cycFort.stringApiValue() + ")";
     CycList result = getConverse().converseList(command);
     return result;
@@ -946,6 +1137,10 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   public CycList getAllIsa(CycObject cycFort,
           CycObject mt)
           throws CycConnectionException, com.cyc.base.exception.CycApiException {
+    final TaxonomyCache cache = getTaxonomyCache();
+    if (cache != null && cycFort instanceof Fort) {
+      return cache.getAllIsa(cycFort, makeElMt_inner(mt));
+    }
     return getConverse().converseList("(all-isa " + cycFort.stringApiValue() + " "
             + makeElMt_inner(mt).stringApiValue() + ")");
   }
@@ -2122,6 +2317,23 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
     return result;
   }
   
+  /**
+   * Opens a cursor over the extent of a predicate, which fetches the extent a page at a time
+   * rather than all at once, as {@link #getPredExtent(CycObject, CycObject)} does.
+   *
+   * @param pred the predicate
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the cursor, which should be closed if it is not exhausted
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public PredicateExtentCursor getPredExtentCursor(CycObject pred, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return PredicateExtentCursor.open(getCyc(), pred, mt);
+  }
+  
   // Private
   /*
   private String getGeneratedPhrase(CycObject cycObject, boolean precise,
@@ -2140,8 +2352,91 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   }
   */
   
+  /**
+   * Resolves constants in chunks of {@link #DEFAULT_CONSTANT_BATCH_SIZE}, each with a single
+   * request, and adds those which are found to the result and to the constant caches.
+   */
+  private <K> void resolveConstants(List<K> keys,
+                                    String function,
+                                    Function<K, Object> toArg,
+                                    Map<K, CycConstantImpl> result)
+          throws CycConnectionException, CycApiException {
+    for (int start = 0; start < keys.size(); start += DEFAULT_CONSTANT_BATCH_SIZE) {
+      final List<K> chunk
+              = keys.subList(start, Math.min(keys.size(), start + DEFAULT_CONSTANT_BATCH_SIZE));
+      final List<Object> args = new ArrayList<>(chunk.size());
+      for (K key : chunk) {
+        args.add(toArg.apply(key));
+      }
+      final CycList answers = getConverse().converseList(makeBulkLookupCommand(function, args));
+      if (answers.size() != chunk.size()) {
+        throw new CycApiException("Expected " + chunk.size() + " results from " + function
+                + " but got " + answers.size());
+      }
+      for (int i = 0; i < chunk.size(); i++) {
+        final Object answer = answers.get(i);
+        if (answer instanceof CycConstantImpl) {
+          CycObjectFactory.addCycConstantCache((CycConstantImpl) answer);
+          result.put(chunk.get(i), (CycConstantImpl) answer);
+        }
+      }
+    }
+  }
+  
+  private static String stripPrefix(String constantName) {
+    return constantName.startsWith(HD) ? constantName.substring(HD.length()) : constantName;
+  }
+  
+  private static Guid toGuid(Object item) {
+    try {
+      if (item instanceof CycConstant) {
+        return ((CycConstant) item).getGuid();
+      } else if (item instanceof Guid) {
+        return (Guid) item;
+      } else if (item != null) {
+        return CycObjectFactory.makeGuid(item.toString());
+      }
+    } catch (RuntimeException ex) {
+      LOGGER.debug("Not a constant GUID: {}", item, ex);
+    }
+    return null;
+  }
+  
   // Protected
   
+  /**
+   * Makes <code>(mapcar (quote function) (quote args))</code>, which the binary API sends as a
+   * single CFASL request.
+   */
+  static CycList makeBulkLookupCommand(String function, List<?> args) {
+    return CycArrayList.makeCycList(makeCycSymbol("mapcar"),
+            CycArrayList.makeCycList(CycObjectFactory.quote, makeCycSymbol(function)),
+            CycArrayList.makeCycList(CycObjectFactory.quote, new CycArrayList(args)));
+  }
+  
+  /**
+   * Reads a warm set, adding the GUIDs and names which it lists to the given lists.
+   */
+  static void readWarmSet(Reader warmSet, List<Guid> guids, List<String> names)
+          throws IOException {
+    final BufferedReader reader = (warmSet instanceof BufferedReader)
+                                  ? (BufferedReader) warmSet
+                                  : new BufferedReader(warmSet);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith(";")
+                  || (line.startsWith("#") && !line.startsWith(HD))) {
+        continue;
+      }
+      if (GUID_PATTERN.matcher(line).matches()) {
+        guids.add(CycObjectFactory.makeGuid(line));
+      } else {
+        names.add(line);
+      }
+    }
+  }
+  
   protected void verifyPossibleDenotationalTerm(CycObject cycObject) throws IllegalArgumentException {
     if (!(cycObject instanceof DenotationalTerm || cycObject instanceof CycList)) {
       throw new IllegalArgumentException(
@@ -2154,6 +2449,9 @@ public class LookupToolImpl extends AbstractKbTool implements LookupTool {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(LookupToolImpl.class);
   
+  private static final Pattern GUID_PATTERN = Pattern.compile(
+          "\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}");
+  
   private static final CycSymbolImpl SOME_PRED_VALUE_IN_ANY_MT = makeCycSymbol(
           "some-pred-value-in-any-mt");
   
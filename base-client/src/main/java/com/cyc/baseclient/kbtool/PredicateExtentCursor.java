@@ -0,0 +1,518 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: PredicateExtentCursor.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CommandTool;
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycAssertion;
+import com.cyc.base.cycobject.CycObject;
+import com.cyc.base.exception.BaseClientRuntimeException;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.CycCommandTool;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import com.cyc.baseclient.subl.SublCommandTemplate;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.cyc.baseclient.CycObjectFactory.makeCycSymbol;
+
+/**
+ * Iterates over the assertions in a predicate's extent, fetching them from Cyc a page at a time,
+ * unlike {@link LookupToolImpl#getPredExtent(CycObject, CycObject)}, which returns the whole
+ * extent at once. At most two pages are held on the client: the one being consumed, and the next
+ * one, which is fetched in the background.
+ *
+ * <p>The extent is gathered once, when the cursor is opened, and held by Cyc in a parameter
+ * reserved for the cursor, from which each page is taken. An extent which fits in the first page
+ * is returned when the cursor is opened, and nothing is held. The cursor should be closed if it
+ * is abandoned before it is exhausted, so that Cyc can release the rest of the extent; a cursor
+ * which has been exhausted, or whose page could not be fetched, need not be closed. The extent of
+ * a cursor which is garbage collected without being closed is released when the next cursor is
+ * opened.
+ *
+ * <p>Instances are not thread-safe.
+ *
+ * <P>Example usage: <code>
+ *  try (PredicateExtentCursor cursor = PredicateExtentCursor.open(access, pred, mt)) {
+ *    cursor.forEachRemaining(assertion -&gt; dump(assertion));
+ *  }
+ * </code>
+ *
+ * @see LookupToolImpl#getPredExtentCursor(CycObject, CycObject)
+ */
+public class PredicateExtentCursor implements Iterator<CycAssertion>, AutoCloseable {
+
+  /**
+   * System property giving the number of assertions per page. Defaults to 1000.
+   */
+  public static final String PAGE_SIZE_PROPERTY = "com.cyc.baseclient.kbtool.extentPageSize";
+
+  /** The number of assertions per page. */
+  public static final int DEFAULT_PAGE_SIZE
+          = Math.max(1, Integer.getInteger(PAGE_SIZE_PROPERTY, 1000));
+
+  /**
+   * Opens a cursor over the extent of a predicate, with {@link #DEFAULT_PAGE_SIZE} assertions per
+   * page.
+   *
+   * @param access the Cyc server
+   * @param pred   the predicate
+   * @param mt     the mt, or null for all mts
+   *
+   * @return the cursor, positioned before the first assertion
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public static PredicateExtentCursor open(CycAccess access, CycObject pred, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return open(access, pred, mt, DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Opens a cursor over the extent of a predicate.
+   *
+   * @param access   the Cyc server
+   * @param pred     the predicate
+   * @param mt       the mt, or null for all mts
+   * @param pageSize the number of assertions per page
+   *
+   * @return the cursor, positioned before the first assertion
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public static PredicateExtentCursor open(CycAccess access, CycObject pred, CycObject mt,
+          int pageSize) throws CycConnectionException, CycApiException {
+    return new PredicateExtentCursor(new CycExtentSource(access, pred, mt), pageSize);
+  }
+
+  //// Constructors
+
+  PredicateExtentCursor(ExtentSource source, int pageSize)
+          throws CycConnectionException, CycApiException {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    releaseAbandoned();
+    this.source = source;
+    this.pageSize = pageSize;
+    this.releaser = new Releaser(this, source);
+    final List<?> opened;
+    try {
+      opened = source.open(pageSize);
+    } catch (CycConnectionException | RuntimeException ex) {
+      // The extent may have been gathered before the open failed:
+      releaseQuietly(ex);
+      throw ex;
+    }
+    this.size = ((Number) opened.get(0)).intValue();
+    final List<?> firstPage = toPage(opened.get(1));
+    this.fetched = firstPage.size();
+    this.page = firstPage.iterator();
+    prefetch();
+  }
+
+  //// Public Area
+
+  /**
+   * Returns the number of assertions in the extent when the cursor was opened.
+   *
+   * @return the size of the extent
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws BaseClientRuntimeException if the next page cannot be fetched, in which case the rest
+   *                                    of the extent is released
+   */
+  @Override
+  public boolean hasNext() {
+    while (next == null) {
+      if (page.hasNext()) {
+        final Object item = page.next();
+        if (item instanceof CycAssertion) {
+          next = (CycAssertion) item;
+        }
+      } else if (pending != null) {
+        final List<?> nextPage;
+        try {
+          nextPage = await(pending);
+        } catch (RuntimeException ex) {
+          pending = null;
+          closed = true;
+          releaseQuietly(ex);
+          throw ex;
+        }
+        pending = null;
+        if (nextPage.isEmpty()) {
+          // The extent shrank while it was held:
+          fetched = size;
+        }
+        fetched += nextPage.size();
+        page = nextPage.iterator();
+        prefetch();
+      } else {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public CycAssertion next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final CycAssertion result = next;
+    next = null;
+    return result;
+  }
+
+  /**
+   * Returns a sequential stream of the remaining assertions, which closes this cursor when it is
+   * closed.
+   *
+   * @return the stream
+   */
+  public Stream<CycAssertion> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+              try {
+                close();
+              } catch (CycConnectionException ex) {
+                throw new BaseClientRuntimeException("Could not close " + this, ex);
+              }
+            });
+  }
+
+  /**
+   * Releases the rest of the extent held by Cyc, if the cursor has not been exhausted. Closing a
+   * closed cursor has no effect.
+   *
+   * @throws CycConnectionException if a communication error occurs
+   */
+  @Override
+  public void close() throws CycConnectionException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    page = Collections.emptyIterator();
+    next = null;
+    pending = null;
+    releaser.release(fetched < size);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + fetched + "/" + size + "]";
+  }
+
+  //// Protected Area
+
+  /**
+   * Takes pages from a predicate extent held by Cyc.
+   */
+  interface ExtentSource {
+
+    /**
+     * Gathers the extent, and takes its first page.
+     *
+     * @return a list of the size of the extent and its first page
+     */
+    List<?> open(int pageSize) throws CycConnectionException, CycApiException;
+
+    /** Takes the next page of the extent. */
+    CompletableFuture<? extends List<?>> next(int pageSize);
+
+    /** Releases the rest of the extent. */
+    void close() throws CycConnectionException, CycApiException;
+
+    /**
+     * Frees what the source holds on the client, once the extent has been exhausted or closed.
+     * Called exactly once per source.
+     */
+    void release();
+
+  }
+
+  /**
+   * Releases the extents of the cursors which have been garbage collected without being closed or
+   * exhausted. Called whenever a cursor is opened.
+   */
+  static void releaseAbandoned() {
+    Reference<? extends PredicateExtentCursor> abandoned;
+    while ((abandoned = ABANDONED.poll()) != null) {
+      try {
+        ((Releaser) abandoned).release(true);
+      } catch (CycConnectionException | RuntimeException ex) {
+        LOGGER.warn("Could not release an abandoned predicate extent", ex);
+      }
+    }
+  }
+
+  //// Private Area
+
+  private void prefetch() {
+    if (!closed && pending == null) {
+      if (fetched < size) {
+        pending = source.next(pageSize);
+        releaser.pending = pending;
+      } else {
+        // Cyc holds nothing once the last page has been taken:
+        releaseQuietly(null);
+      }
+    }
+  }
+
+  /**
+   * Releases the extent after the cursor has been exhausted, or has failed with
+   * <code>failure</code>, to which any error in releasing it is added.
+   */
+  private void releaseQuietly(Exception failure) {
+    try {
+      releaser.release(failure != null);
+    } catch (CycConnectionException | RuntimeException ex) {
+      if (failure != null) {
+        failure.addSuppressed(ex);
+      } else {
+        LOGGER.warn("Could not release the predicate extent of " + this, ex);
+      }
+    }
+  }
+
+  private static List<?> toPage(Object response) {
+    return (response instanceof List) ? (List<?>) response : Collections.emptyList();
+  }
+
+  private static List<?> await(CompletableFuture<? extends List<?>> page) {
+    try {
+      return toPage(page.get());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CycTaskInterruptedException(ex);
+    } catch (ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new BaseClientRuntimeException("Could not fetch the next page of the extent", cause);
+    }
+  }
+
+  /**
+   * Releases a cursor's extent when the cursor is closed, exhausted or failed, or once it has been
+   * garbage collected without any of these. It refers to the source, and not to the cursor, so
+   * that it can outlive the cursor. (This is what java.lang.ref.Cleaner does from Java 9 on.)
+   */
+  private static final class Releaser extends PhantomReference<PredicateExtentCursor> {
+
+    private Releaser(PredicateExtentCursor cursor, ExtentSource source) {
+      super(cursor, ABANDONED);
+      this.source = source;
+      LIVE.add(this);
+    }
+
+    /**
+     * Releases the extent, closing it first if Cyc may still hold it. Only the first call has any
+     * effect.
+     */
+    private void release(boolean held) throws CycConnectionException, CycApiException {
+      if (!LIVE.remove(this)) {
+        return;
+      }
+      try {
+        if (held) {
+          final CompletableFuture<?> inFlight = pending;
+          if (inFlight != null) {
+            // Let the page in flight finish taking from the extent, lest it re-create it:
+            inFlight.handle((result, ex) -> null).join();
+          }
+          source.close();
+        }
+      } finally {
+        source.release();
+      }
+    }
+
+    private final ExtentSource source;
+    private volatile CompletableFuture<?> pending = null;
+  }
+
+  private static class CycExtentSource implements ExtentSource {
+
+    private final CycAccess access;
+    private final CycObject pred;
+    private final CycObject mt;
+    private final CycSymbolImpl parameter = acquireParameter();
+
+    private CycExtentSource(CycAccess access, CycObject pred, CycObject mt) {
+      this.access = access;
+      this.pred = pred;
+      this.mt = mt;
+    }
+
+    @Override
+    public List<?> open(int pageSize) throws CycConnectionException, CycApiException {
+      return access.converse().converseList((mt != null)
+                                            ? OPEN_IN_MT.bind(pred, mt, pageSize, parameter)
+                                            : OPEN.bind(pred, pageSize, parameter));
+    }
+
+    @Override
+    public CompletableFuture<? extends List<?>> next(int pageSize) {
+      final Object command = NEXT.bind(parameter, pageSize);
+      final CommandTool converse = access.converse();
+      if (converse instanceof CycCommandTool) {
+        return ((CycCommandTool) converse).converseListAsync(command)
+                .<List<?>>thenApply(response -> response);
+      }
+      final CompletableFuture<List<?>> response = new CompletableFuture<>();
+      try {
+        response.complete(converse.converseList(command));
+      } catch (CycConnectionException | RuntimeException ex) {
+        response.completeExceptionally(ex);
+      }
+      return response;
+    }
+
+    @Override
+    public void close() throws CycConnectionException, CycApiException {
+      access.converse().converseVoid(CLOSE.bind(parameter));
+    }
+
+    @Override
+    public void release() {
+      releaseParameter(parameter);
+    }
+
+    /**
+     * Returns a parameter which no open cursor of this client uses. Parameters are reused, so
+     * that Cyc does not accumulate a symbol per cursor; their names are unique to this client, as
+     * other clients may hold extents on the same server.
+     */
+    private static CycSymbolImpl acquireParameter() {
+      synchronized (FREE_PARAMETERS) {
+        final CycSymbolImpl free = FREE_PARAMETERS.poll();
+        return (free != null)
+                       ? free
+                       : makeCycSymbol(PARAMETER_PREFIX + parameterCount++ + "*");
+      }
+    }
+
+    private static void releaseParameter(CycSymbolImpl parameter) {
+      synchronized (FREE_PARAMETERS) {
+        FREE_PARAMETERS.push(parameter);
+      }
+    }
+
+    private static final String PARAMETER_PREFIX
+            = "*api-predicate-extent-cursor-" + UUID.randomUUID() + "-";
+
+    private static final Deque<CycSymbolImpl> FREE_PARAMETERS = new ArrayDeque<>();
+
+    private static int parameterCount = 0;
+  }
+
+  //// Internal Rep
+
+  /**
+   * Takes up to <code>n</code> assertions from the list in <code>remaining</code> onto
+   * <code>page</code>, in reverse order, leaving the rest in <code>remaining</code>.
+   */
+  private static String takePage(String n) {
+    return "(cdotimes (i " + n + ")"
+            + " (pwhen remaining (cpush (car remaining) page) (csetq remaining (cdr remaining))))";
+  }
+
+  private static final SublCommandTemplate OPEN = new SublCommandTemplate(
+          "(clet ((remaining (gather-predicate-extent-index ?1)) (size (length remaining))"
+          + " (page nil))"
+          + " " + takePage("?2")
+          + " (pwhen remaining (fi-set-parameter ?3 remaining))"
+          + " (list size (nreverse page)))");
+
+  private static final SublCommandTemplate OPEN_IN_MT = new SublCommandTemplate(
+          "(clet ((remaining (gather-predicate-extent-index ?1 ?2)) (size (length remaining))"
+          + " (page nil))"
+          + " " + takePage("?3")
+          + " (pwhen remaining (fi-set-parameter ?4 remaining))"
+          + " (list size (nreverse page)))");
+
+  private static final SublCommandTemplate NEXT = new SublCommandTemplate(
+          "(clet ((remaining (symbol-value ?1)) (page nil))"
+          + " " + takePage("?2")
+          + " (fi-set-parameter ?1 remaining)"
+          + " (nreverse page))");
+
+  private static final SublCommandTemplate CLOSE = new SublCommandTemplate(
+          "(fi-set-parameter ?1 nil)");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PredicateExtentCursor.class);
+
+  /** Where the releasers of cursors which have been garbage collected are queued. */
+  private static final ReferenceQueue<PredicateExtentCursor> ABANDONED = new ReferenceQueue<>();
+
+  /** The releasers which have yet to release their extents, kept reachable until they do. */
+  private static final Set<Releaser> LIVE = ConcurrentHashMap.newKeySet();
+
+  private final ExtentSource source;
+  private final Releaser releaser;
+  private final int pageSize;
+  private final int size;
+  private int fetched;
+  private Iterator<?> page;
+  private CycAssertion next = null;
+  private CompletableFuture<? extends List<?>> pending = null;
+  private boolean closed = false;
+
+}
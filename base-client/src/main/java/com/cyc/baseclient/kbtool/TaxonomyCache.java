@@ -0,0 +1,575 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: TaxonomyCache.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.CycObject;
+import com.cyc.base.cycobject.FormulaSentence;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.CommonConstants;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.util.FreshLruCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.cyc.baseclient.CycObjectFactory.makeCycSymbol;
+
+/**
+ * An optional, read-through cache of the direct genls, specs and isa edges of terms, keyed by
+ * term and mt. Transitive closures (all-genls, all-specs, all-isa) and genl/isa membership tests
+ * are answered by walking the cached edges, fetching the edges of all the terms at each level of
+ * the walk which are not yet cached with a single request.
+ * <p>
+ * Edges expire after {@link #DEFAULT_TTL_MSECS}. Asserting or unasserting a genls or isa GAF
+ * through the {@link AssertToolImpl} or {@link UnassertToolImpl} of the same client invalidates the
+ * edges of its arguments. Sentences given as strings, and kills, merges and other bulk changes made
+ * through those tools, clear the whole cache. Changes made in any other way are only seen once the
+ * edges expire, or after {@link #invalidate(Object)} or {@link #clear()}.
+ * <p>
+ * The cache is disabled by default. It can be enabled for all clients by setting the system
+ * property {@value #ENABLED_PROPERTY} to <code>true</code>, or for one client with
+ * {@link #setEnabled(boolean)}. When enabled, it is consulted by the genls, specs and isa methods
+ * of {@link LookupToolImpl}, and by the isa and genl tests of {@link InspectorToolImpl}, for terms
+ * which are {@link com.cyc.base.cycobject.Fort}s. Other terms, such as numbers, strings and NAUTs,
+ * may have genls and isas which are not asserted, so they are always looked up by the server. A
+ * null mt stands for all mts.
+ */
+public class TaxonomyCache {
+
+  /**
+   * The system property which, when set to <code>true</code>, enables the taxonomy cache.
+   */
+  public static final String ENABLED_PROPERTY = "com.cyc.baseclient.kbtool.taxonomyCache";
+
+  /**
+   * The system property which sets the number of msecs for which cached edges are used.
+   */
+  public static final String TTL_PROPERTY = "com.cyc.baseclient.kbtool.taxonomyCacheTtl";
+
+  public static final long DEFAULT_TTL_MSECS
+          = Math.max(1, Long.getLong(TTL_PROPERTY, 60000));
+
+  /**
+   * The system property which sets the maximum number of (relation, term, mt) edge lists cached.
+   */
+  public static final String SIZE_PROPERTY = "com.cyc.baseclient.kbtool.taxonomyCacheSize";
+
+  public static final int DEFAULT_SIZE = Math.max(1, Integer.getInteger(SIZE_PROPERTY, 100000));
+
+  /**
+   * The kinds of edge which are cached, named by the SubL function which returns them.
+   */
+  enum Relation {
+    GENLS("genls"), SPECS("specs"), ISA("isa");
+
+    private final String function;
+
+    private Relation(String function) {
+      this.function = function;
+    }
+
+    String getFunction() {
+      return function;
+    }
+  }
+
+  /**
+   * Fetches the direct edges of several terms.
+   */
+  @FunctionalInterface
+  interface EdgeSource {
+
+    /**
+     * @return one list of related terms per term, in the order of the terms
+     */
+    List<List<?>> fetch(Relation relation, List<Object> terms, CycObject mt)
+            throws CycConnectionException, CycApiException;
+
+  }
+
+  //// Constructors
+
+  /**
+   * Creates a new TaxonomyCache which fetches edges from the given Cyc server.
+   *
+   * @param access the Cyc server
+   */
+  public TaxonomyCache(CycAccess access) {
+    this((relation, terms, mt) -> fetch(access, relation, terms, mt),
+            Boolean.getBoolean(ENABLED_PROPERTY), DEFAULT_TTL_MSECS, DEFAULT_SIZE);
+  }
+
+  TaxonomyCache(EdgeSource source, boolean enabled, long ttlMsecs, int size) {
+    this.source = source;
+    this.enabled = enabled;
+    this.edges = new FreshLruCache<>(Math.max(1, ttlMsecs), Math.min(1000, size), size, true);
+    this.maxIndexedKeys = 2 * size;
+  }
+
+  //// Public Area
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables the cache. Disabling it also clears it.
+   *
+   * @param enabled whether the cache should be used
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      clear();
+    }
+  }
+
+  /**
+   * Returns the direct genls of a term.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the direct genls of the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getGenls(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(getEdges(Relation.GENLS, term, mt));
+  }
+
+  /**
+   * Returns the direct specs of a term.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the direct specs of the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getSpecs(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(getEdges(Relation.SPECS, term, mt));
+  }
+
+  /**
+   * Returns the collections of which a term is a direct instance.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the direct isas of the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getIsas(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(getEdges(Relation.ISA, term, mt));
+  }
+
+  /**
+   * Returns the term and all of its genls.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the transitive closure of genls from the term, starting with the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getAllGenls(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(closure(Relation.GENLS, Collections.singletonList(term), mt));
+  }
+
+  /**
+   * Returns the term and all of its specs.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the transitive closure of specs from the term, starting with the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getAllSpecs(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(closure(Relation.SPECS, Collections.singletonList(term), mt));
+  }
+
+  /**
+   * Returns all the collections of which a term is an instance.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the direct isas of the term and all of their genls
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getAllIsa(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return new CycArrayList(closure(Relation.GENLS, getEdges(Relation.ISA, term, mt), mt));
+  }
+
+  /**
+   * Returns the direct genls of a term which are not genls of its other direct genls.
+   *
+   * @param term the term
+   * @param mt   the mt, or null for all mts
+   *
+   * @return the most specific genls of the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public CycList getMinGenls(CycObject term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    final Map<Object, Set<Object>> genlClosures = new LinkedHashMap<>();
+    for (Object genl : getEdges(Relation.GENLS, term, mt)) {
+      if (!genl.equals(term)) {
+        genlClosures.put(genl, closure(Relation.GENLS, Collections.singletonList(genl), mt));
+      }
+    }
+    final CycList result = new CycArrayList();
+    for (Object genl : genlClosures.keySet()) {
+      boolean subsumed = false;
+      for (Map.Entry<Object, Set<Object>> other : genlClosures.entrySet()) {
+        // Mutual genls (a cycle) do not subsume each other:
+        if (!other.getKey().equals(genl) && other.getValue().contains(genl)
+                && !genlClosures.get(genl).contains(other.getKey())) {
+          subsumed = true;
+          break;
+        }
+      }
+      if (!subsumed) {
+        result.add(genl);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Tests whether one term is a genl of another.
+   *
+   * @param genl the putative genl
+   * @param spec the putative spec
+   * @param mt   the mt, or null for all mts
+   *
+   * @return true if genl is spec, or is among the genls of spec
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public boolean isGenlOf(CycObject genl, CycObject spec, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return closure(Relation.GENLS, Collections.singletonList(spec), mt).contains(genl);
+  }
+
+  /**
+   * Tests whether a term is an instance of a collection.
+   *
+   * @param term       the term
+   * @param collection the collection
+   * @param mt         the mt, or null for all mts
+   *
+   * @return true if the collection is a genl of one of the direct isas of the term
+   *
+   * @throws CycConnectionException if a communication error occurs
+   * @throws CycApiException if the Cyc server returns an error
+   */
+  public boolean isa(CycObject term, CycObject collection, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return closure(Relation.GENLS, getEdges(Relation.ISA, term, mt), mt).contains(collection);
+  }
+
+  /**
+   * Removes the cached edges of a term, in every mt.
+   *
+   * @param term the term
+   */
+  public void invalidate(Object term) {
+    synchronized (keysByTerm) {
+      final Set<EdgeKey> keys = keysByTerm.remove(term);
+      if (keys != null) {
+        indexedKeys -= keys.size();
+        for (EdgeKey key : keys) {
+          edges.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidates the edges which may be changed by asserting or unasserting a GAF. A sentence given
+   * as a string is not parsed: the whole cache is cleared if it mentions genls or isa.
+   *
+   * @param gaf the GAF, as a {@link FormulaSentence}, a list, or a string
+   */
+  public void noteChange(Object gaf) {
+    if (gaf instanceof CharSequence) {
+      if (!edges.isEmpty() && TAXONOMIC_SENTENCE.matcher((CharSequence) gaf).find()) {
+        clear();
+      }
+      return;
+    }
+    final List<?> args = (gaf instanceof FormulaSentence)
+                         ? ((FormulaSentence) gaf).getArgsUnmodifiable()
+                         : (gaf instanceof List) ? (List<?>) gaf : null;
+    if (args != null && args.size() == 3) {
+      noteChange(args.get(0), args.get(1), args.get(2));
+    }
+  }
+
+  /**
+   * Invalidates the edges which may be changed by asserting or unasserting
+   * <code>(predicate arg1 arg2)</code>.
+   *
+   * @param predicate the predicate
+   * @param arg1      the first argument
+   * @param arg2      the second argument
+   */
+  public void noteChange(Object predicate, Object arg1, Object arg2) {
+    if (edges.isEmpty()) {
+      return;
+    }
+    if (CommonConstants.GENLS.equals(predicate)) {
+      invalidate(arg1);
+      invalidate(arg2);
+    } else if (CommonConstants.ISA.equals(predicate)) {
+      invalidate(arg1);
+    }
+  }
+
+  /**
+   * Removes all cached edges.
+   */
+  public void clear() {
+    synchronized (keysByTerm) {
+      edges.clear();
+      keysByTerm.clear();
+      indexedKeys = 0;
+    }
+  }
+
+  public int size() {
+    return edges.size();
+  }
+
+  //// Private Area
+
+  private List<?> getEdges(Relation relation, Object term, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    return getEdges(relation, Collections.singletonList(term), mt).get(term);
+  }
+
+  /**
+   * Returns the edges of the given terms, fetching all those which are not cached with a single
+   * request.
+   */
+  private Map<Object, List<?>> getEdges(Relation relation, Collection<?> terms, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    final Map<Object, List<?>> result = new LinkedHashMap<>();
+    final List<Object> misses = new ArrayList<>();
+    for (Object term : terms) {
+      final List<?> cached = edges.get(new EdgeKey(relation, term, mt));
+      if (cached != null) {
+        result.put(term, cached);
+      } else if (!result.containsKey(term)) {
+        result.put(term, null);
+        misses.add(term);
+      }
+    }
+    if (!misses.isEmpty()) {
+      final List<List<?>> fetched = source.fetch(relation, misses, mt);
+      if (fetched.size() != misses.size()) {
+        throw new CycApiException("Expected " + misses.size() + " results from "
+                + relation.getFunction() + " but got " + fetched.size());
+      }
+      for (int i = 0; i < misses.size(); i++) {
+        final List<?> related = Collections.unmodifiableList(new ArrayList<>(
+                new LinkedHashSet<>(fetched.get(i))));
+        cache(new EdgeKey(relation, misses.get(i), mt), related);
+        result.put(misses.get(i), related);
+      }
+      LOGGER.trace("Fetched {} edges of {} terms", relation, misses.size());
+    }
+    return result;
+  }
+
+  /**
+   * Caches the edges of a term, and indexes them by the term so that {@link #invalidate(Object)}
+   * need not scan the whole cache. Keys which the cache has since evicted or expired linger in the
+   * index until their term is invalidated, so the index is rebuilt from the cache whenever it grows
+   * to twice the cache's maximum size.
+   */
+  private void cache(EdgeKey key, List<?> related) {
+    synchronized (keysByTerm) {
+      edges.put(key, related);
+      if (index(key) && ++indexedKeys > maxIndexedKeys) {
+        keysByTerm.clear();
+        indexedKeys = 0;
+        for (EdgeKey cached : edges.keySet()) {
+          index(cached);
+          indexedKeys++;
+        }
+      }
+    }
+  }
+
+  /** Adds a key to the index, returning whether it was not already there. */
+  private boolean index(EdgeKey key) {
+    Set<EdgeKey> keys = keysByTerm.get(key.term);
+    if (keys == null) {
+      keys = new HashSet<>(4);
+      keysByTerm.put(key.term, keys);
+    }
+    return keys.add(key);
+  }
+
+  /**
+   * Walks the edges from the given terms, one level at a time.
+   */
+  private Set<Object> closure(Relation relation, Collection<?> start, CycObject mt)
+          throws CycConnectionException, CycApiException {
+    final Set<Object> seen = new LinkedHashSet<>(start);
+    List<Object> frontier = new ArrayList<>(seen);
+    while (!frontier.isEmpty()) {
+      final Map<Object, List<?>> level = getEdges(relation, frontier, mt);
+      final List<Object> next = new ArrayList<>();
+      for (List<?> related : level.values()) {
+        for (Object term : related) {
+          if (seen.add(term)) {
+            next.add(term);
+          }
+        }
+      }
+      frontier = next;
+    }
+    return seen;
+  }
+
+  /**
+   * Fetches edges with <code>(mapcar (quote relation) (quote terms) (quote mts))</code>, or
+   * <code>(with-all-mts (mapcar (quote relation) (quote terms)))</code> when mt is null.
+   */
+  static CycList makeFetchCommand(Relation relation, List<Object> terms, CycObject mt) {
+    final CycList command = CycArrayList.makeCycList(makeCycSymbol("mapcar"),
+            CycArrayList.makeCycList(CycObjectFactory.quote, makeCycSymbol(relation.getFunction())),
+            CycArrayList.makeCycList(CycObjectFactory.quote, new CycArrayList(terms)));
+    if (mt == null) {
+      return CycArrayList.makeCycList(WITH_ALL_MTS, command);
+    }
+    command.add(CycArrayList.makeCycList(CycObjectFactory.quote,
+            new CycArrayList(Collections.nCopies(terms.size(), mt))));
+    return command;
+  }
+
+  private static List<List<?>> fetch(CycAccess access,
+                                     Relation relation,
+                                     List<Object> terms,
+                                     CycObject mt)
+          throws CycConnectionException, CycApiException {
+    final CycList response = access.converse().converseList(makeFetchCommand(relation, terms, mt));
+    final List<List<?>> result = new ArrayList<>(response.size());
+    for (Object related : response) {
+      result.add((related instanceof List) ? (List<?>) related : Collections.emptyList());
+    }
+    return result;
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaxonomyCache.class);
+
+  private static final CycObject WITH_ALL_MTS = makeCycSymbol("with-all-mts");
+
+  /**
+   * Matches the genls or isa predicate anywhere within the CycL string of a sentence.
+   */
+  private static final Pattern TAXONOMIC_SENTENCE
+          = Pattern.compile("(?i)(^|[\\s(])(#\\$)?(genls|isa)(?=[\\s)])");
+
+  private final EdgeSource source;
+  private final FreshLruCache<EdgeKey, List<?>> edges;
+
+  /** The keys of the cached edges of each term. Also guards updates to the cache. */
+  private final Map<Object, Set<EdgeKey>> keysByTerm = new HashMap<>();
+
+  /** The number of keys in {@link #keysByTerm}. */
+  private int indexedKeys = 0;
+
+  private final int maxIndexedKeys;
+  private volatile boolean enabled;
+
+  private static final class EdgeKey {
+
+    private final Relation relation;
+    private final Object term;
+    private final Object mt;
+
+    private EdgeKey(Relation relation, Object term, Object mt) {
+      this.relation = relation;
+      this.term = term;
+      this.mt = mt;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof EdgeKey)) {
+        return false;
+      }
+      final EdgeKey that = (EdgeKey) object;
+      return relation == that.relation && term.equals(that.term) && Objects.equals(mt, that.mt);
+    }
+
+    @Override
+    public int hashCode() {
+      return (relation.hashCode() * 31 + term.hashCode()) * 31 + Objects.hashCode(mt);
+    }
+
+  }
+
+}
@@ -32,6 +32,7 @@ import com.cyc.baseclient.cycobject.CycConstantImpl;
 import com.cyc.baseclient.cycobject.CycSymbolImpl;
 import com.cyc.baseclient.inference.params.DefaultInferenceParameters;
 import com.cyc.baseclient.inference.params.SpecifiedInferenceParameters;
+import com.cyc.baseclient.subl.SublCommandTemplate;
 import com.cyc.query.parameters.InferenceParameters;
 import java.util.Arrays;
 import java.util.Collections;
@@ -189,6 +190,36 @@ public class TemplateOeToolImpl extends AbstractKbTool {
     
   }
   
+  /**
+   * A batch of results dequeued from an ipc-queue, along with the number of results which were
+   * still on the queue immediately afterwards.
+   * 
+   * @see TemplateOeToolImpl#getResultsBatch(int, int, int)
+   */
+  public static class ResultsBatch {
+    
+    private final CycList<CycList> results;
+    private final int numberResultsRemaining;
+    
+    public ResultsBatch(CycList<CycList> results, int numberResultsRemaining) {
+      this.results = results;
+      this.numberResultsRemaining = numberResultsRemaining;
+    }
+    
+    public CycList<CycList> getResults() {
+      return this.results;
+    }
+    
+    public int getNumberResultsRemaining() {
+      return this.numberResultsRemaining;
+    }
+    
+    @Override
+    public String toString() {
+      return "results: " + results.size() + " remaining: " + numberResultsRemaining;
+    }
+  }
+  
   //====|    Fields    |==========================================================================//
   
   public static final String CREATE_NEW_QUEUE_ITERATIVE_TOE_ASSERT_VIA_KBQ_FUNC
@@ -236,6 +267,14 @@ public class TemplateOeToolImpl extends AbstractKbTool {
 
   public static final Map<CycObject, Object> EMPTY_SUBSTITUTIONS = Collections.EMPTY_MAP;
   
+  /**
+   * Dequeues up to ?2 results from queue ?1, with a timeout of ?3 seconds, and reports the size of
+   * the queue afterwards, in a single round trip.
+   */
+  private static final SublCommandTemplate DEQUEUE_N_AND_QUEUE_SIZE = new SublCommandTemplate(
+          "(list (" + DEQUEUE_N_WITH_TIMEOUT_ITERATIVE_TOE_ASSERT_VIA_KBQ_FUNC + " ?1 ?2 ?3)"
+          + " (" + CURRENT_QUEUE_SIZE_ITERATIVE_TOE_ASSERT_VIA_KBQ_FUNC + " ?1))");
+  
   private static final Logger LOG = LoggerFactory.getLogger(TemplateOeToolImpl.class);
   
   //====|    Construction    |====================================================================//
@@ -518,4 +557,31 @@ public class TemplateOeToolImpl extends AbstractKbTool {
     return result;
   }
   
+  /**
+   * Returns up to n results, per {@code maxResultBatchSize}, with a timeout of {@code timeoutSecs},
+   * together with the number of results which remain on the queue. This is equivalent to
+   * {@link #getResults(int, int, int)} followed by {@link #getNumberResultsRemaining(int)}, but
+   * costs a single round trip.
+   * 
+   * @param queueId
+   * @param maxResultBatchSize
+   * @param timeoutSecs
+   * @return the results and the size of the queue after they were dequeued
+   * @throws CycConnectionException 
+   */
+  public ResultsBatch getResultsBatch(final int queueId,
+                                      final int maxResultBatchSize,
+                                      final int timeoutSecs) throws CycConnectionException {
+    final CycList<Object> cmd = DEQUEUE_N_AND_QUEUE_SIZE
+            .bind(queueId, maxResultBatchSize, timeoutSecs);
+    LOG.debug("Command: {}", cmd);
+    final CycList response = getCyc().converse().converseList(cmd);
+    final Object results = response.get(0);
+    final ResultsBatch result = new ResultsBatch(
+            (results instanceof CycList) ? (CycList<CycList>) results : new CycArrayList<>(),
+            ((Number) response.get(1)).intValue());
+    LOG.debug("      -> {}", result);
+    return result;
+  }
+  
 }
@@ -154,6 +154,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
     if (cycFort instanceof CycConstantImpl) {
       CycObjectFactory.removeCaches((CycConstantImpl) cycFort);
     }
+    clearTaxonomyCache();
   }
   
   /**
@@ -182,6 +183,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
                 mt) + "\n  "
                 + sentence.cyclify());
       }
+      noteTaxonomyChange(sentence);
     }
   }
 
@@ -244,6 +246,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
         command = getConverse().wrapBookkeeping(command);
       }
       getConverse().converseVoid(command);
+      noteTaxonomyChange(gaf);
     }
   }
 
@@ -266,12 +269,14 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
       getCurrentTransaction().noteForUnassertion(assertion.stringApiValue(), makeElMt_inner(assertion.getMt()), bookkeeping, transcript);
     } else {
       final String fn = (transcript) ? "ke-unassert" : "cyc-unassert";
-      String command = "(" + fn + " " + assertion.getELFormula(getCyc()).stringApiValue() + " " 
+      final FormulaSentence formula = assertion.getELFormula(getCyc());
+      String command = "(" + fn + " " + formula.stringApiValue() + " " 
               + assertion.getMt().stringApiValue() + ")";
       if (bookkeeping) {
         command = getConverse().wrapBookkeeping(command);
       }
       getConverse().converseVoid(command);
+      noteTaxonomyChange(formula);
     }
   }
   
@@ -292,7 +297,8 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
           boolean transcript)
           throws CycConnectionException, CycApiException {
 
-    final String assertionString = assertion.getELFormula(getCyc()).stringApiValue();
+    final FormulaSentence formula = assertion.getELFormula(getCyc());
+    final String assertionString = formula.stringApiValue();
     final String mt = assertion.getMt().stringApiValue();
     String command;
 
@@ -306,6 +312,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
       command = getConverse().wrapBookkeeping(command);
     }
     getConverse().converseVoid(command);
+    noteTaxonomyChange(formula);
   }
 
   /**
@@ -329,6 +336,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
               makeElMt_inner(mt)));
       getConverse().converseVoid(command);
     }
+    clearTaxonomyCache();
   }
 
   /**
@@ -352,6 +360,7 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
       String command = makeSublStmt("cyc-unassert", assertion, makeElMt_inner(mt));
       getConverse().converseVoid(command);
     }
+    clearTaxonomyCache();
   }
 
   /**
@@ -394,5 +403,6 @@ public class UnassertToolImpl extends AbstractKbTool implements UnassertTool {
               + makeElMt_inner(mt).stringApiValue() + "))";
       getConverse().converseVoid(command);
     }
+    clearTaxonomyCache();
   }
 }
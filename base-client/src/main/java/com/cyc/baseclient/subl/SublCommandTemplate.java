@@ -0,0 +1,265 @@
+package com.cyc.baseclient.subl;
+
+/*
+ * #%L
+ * File: SublCommandTemplate.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.CycObject;
+import com.cyc.base.cycobject.CycSymbol;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycListParser;
+import java.util.List;
+
+/**
+ * A SubL command which is parsed once, and then bound with arguments each time it is sent to Cyc,
+ * much like a JDBC PreparedStatement. Sending the bound CycList skips the client-side parsing
+ * which a command string requires on every call.
+ *
+ * <p>Placeholders are written <code>?1</code>, <code>?2</code>, etc., and are replaced by the
+ * corresponding arguments to {@link #bind(Object...)}. An unquoted placeholder is replaced by a
+ * form which evaluates to the argument, as if the argument's <code>stringApiValue()</code> had
+ * been concatenated into a command string; for example, a CycList argument is quoted. A
+ * placeholder within a quoted form is replaced by the argument itself.
+ *
+ * <p>Constants may only appear in the template itself (as opposed to being passed as arguments)
+ * if a CycAccess is supplied to look them up when the template is parsed.
+ *
+ * <P>Example usage: <code>
+ *  private static final SublCommandTemplate ALL_SPECS
+ *          = new SublCommandTemplate("(remove-duplicates (with-all-mts (all-specs ?1)))");
+ *  ...
+ *  access.converse().converseList(ALL_SPECS.bind(collection));
+ * </code>
+ */
+public class SublCommandTemplate {
+
+  //// Constructors
+
+  /**
+   * Parses a template which does not mention any constants.
+   *
+   * @param form the SubL form, with placeholders
+   *
+   * @throws CycApiException if the form cannot be parsed, or mentions a constant
+   */
+  public SublCommandTemplate(String form) throws CycApiException {
+    this(form, null);
+  }
+
+  /**
+   * Parses a template, looking up any constants which it mentions.
+   *
+   * @param form   the SubL form, with placeholders
+   * @param access used to look up constants, or null if the form mentions none
+   *
+   * @throws CycApiException if the form cannot be parsed, or mentions an unknown constant
+   */
+  public SublCommandTemplate(String form, CycAccess access) throws CycApiException {
+    this.form = form;
+    final String markedForm = markPlaceholders(form, access != null);
+    final CycArrayList parsed = new CycListParser(access).read(markedForm);
+    int[] maxIndex = {0};
+    this.template = (CycArrayList) compile(parsed, false, maxIndex);
+    this.arity = maxIndex[0];
+  }
+
+  //// Public Area
+
+  /**
+   * Returns the command, with the placeholders replaced by <code>args</code>. The result is a new
+   * CycList, which the caller may modify.
+   *
+   * @param args the arguments, in placeholder order
+   *
+   * @return the command, ready to be sent to Cyc
+   *
+   * @throws IllegalArgumentException if the wrong number of arguments is supplied
+   */
+  public CycList<Object> bind(Object... args) {
+    if (args.length != arity) {
+      throw new IllegalArgumentException("Expected " + arity + " arguments but got "
+              + args.length + " for " + form);
+    }
+    return instantiate(template, args);
+  }
+
+  /** Returns the number of arguments which {@link #bind(Object...)} requires. */
+  public int getArity() {
+    return arity;
+  }
+
+  @Override
+  public String toString() {
+    return form;
+  }
+
+  //// Private Area
+
+  /**
+   * Rewrites each placeholder as a symbol which CycListParser will accept, since
+   * <code>?1</code> is not a valid variable name.
+   */
+  private static String markPlaceholders(String form, boolean constantsAllowed) {
+    final StringBuilder sb = new StringBuilder(form.length() + 32);
+    boolean inString = false;
+    for (int i = 0; i < form.length(); i++) {
+      final char c = form.charAt(i);
+      if (inString) {
+        if (c == '\\' && i + 1 < form.length()) {
+          sb.append(c).append(form.charAt(++i));
+          continue;
+        }
+        inString = (c != '"');
+      } else if (c == '"') {
+        inString = true;
+      } else if (c == '#' && !constantsAllowed && form.startsWith("#$", i)) {
+        throw new CycApiException("A CycAccess is required to parse constants in " + form);
+      } else if (c == '?' && isDelimiter(form, i - 1)) {
+        int end = i + 1;
+        while (end < form.length() && Character.isDigit(form.charAt(end))) {
+          end++;
+        }
+        if (end > i + 1 && isDelimiter(form, end)) {
+          sb.append(PLACEHOLDER_PREFIX).append(form, i + 1, end);
+          i = end - 1;
+          continue;
+        }
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  private static boolean isDelimiter(String form, int i) {
+    if (i < 0 || i >= form.length()) {
+      return true;
+    }
+    final char c = form.charAt(i);
+    return Character.isWhitespace(c) || c == '(' || c == ')' || c == '\'' || c == '`'
+            || c == ',';
+  }
+
+  /**
+   * Replaces the placeholder symbols in <code>obj</code> with {@link Placeholder}s, recording the
+   * highest placeholder index in <code>maxIndex</code>.
+   */
+  private Object compile(Object obj, boolean quoted, int[] maxIndex) {
+    if (obj instanceof CycSymbol) {
+      final String name = ((CycSymbol) obj).getSymbolName();
+      if (name.regionMatches(true, 0, PLACEHOLDER_PREFIX, 0, PLACEHOLDER_PREFIX.length())) {
+        final int index = Integer.parseInt(name.substring(PLACEHOLDER_PREFIX.length()));
+        if (index < 1) {
+          throw new CycApiException("Invalid placeholder ?" + index + " in " + form);
+        }
+        maxIndex[0] = Math.max(maxIndex[0], index);
+        return new Placeholder(index - 1, quoted);
+      }
+      return obj;
+    }
+    if (!(obj instanceof CycArrayList)) {
+      return obj;
+    }
+    final CycArrayList list = (CycArrayList) obj;
+    final boolean quotesArgs = quoted
+            || (list.size() == 2 && CycObjectFactory.quote.equals(list.get(0)));
+    final CycArrayList result = new CycArrayList(list.size());
+    for (Object element : list) {
+      result.add(compile(element, quotesArgs, maxIndex));
+    }
+    if (!list.isProperList()) {
+      result.setDottedElement(compile(list.getDottedElement(), quotesArgs, maxIndex));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static CycArrayList<Object> instantiate(CycArrayList<Object> list, Object[] args) {
+    final CycArrayList<Object> result = new CycArrayList<>(list.size());
+    for (Object element : list) {
+      result.add(instantiateElement(element, args));
+    }
+    if (!list.isProperList()) {
+      result.setDottedElement(instantiateElement(list.getDottedElement(), args));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object instantiateElement(Object element, Object[] args) {
+    if (element instanceof Placeholder) {
+      final Placeholder placeholder = (Placeholder) element;
+      final Object arg = args[placeholder.index];
+      return placeholder.quoted ? toLiteral(arg) : toEvaluatedForm(arg);
+    } else if (element instanceof CycArrayList) {
+      return instantiate((CycArrayList<Object>) element, args);
+    }
+    return element;
+  }
+
+  private static Object toLiteral(Object arg) {
+    if (arg == null || Boolean.FALSE.equals(arg)) {
+      return CycObjectFactory.nil;
+    } else if (Boolean.TRUE.equals(arg)) {
+      return CycObjectFactory.t;
+    }
+    return arg;
+  }
+
+  /** Returns a form which evaluates to <code>arg</code>. */
+  private static Object toEvaluatedForm(Object arg) {
+    if (arg instanceof CycList) {
+      return ((CycList) arg).cycListApiValue(true);
+    } else if (arg instanceof CycObject) {
+      return ((CycObject) arg).cycListApiValue();
+    } else if (arg instanceof List) {
+      return CycArrayList.makeCycList(CycObjectFactory.quote, new CycArrayList((List) arg));
+    }
+    return toLiteral(arg);
+  }
+
+  //// Internal Rep
+
+  private static final String PLACEHOLDER_PREFIX = "SUBL-TEMPLATE-ARG-";
+
+  private static final class Placeholder {
+
+    final int index;
+    final boolean quoted;
+
+    Placeholder(int index, boolean quoted) {
+      this.index = index;
+      this.quoted = quoted;
+    }
+
+    @Override
+    public String toString() {
+      return "?" + (index + 1);
+    }
+  }
+
+  private final String form;
+  private final CycArrayList<Object> template;
+  private final int arity;
+
+}
@@ -0,0 +1,297 @@
+package com.cyc.baseclient.util;
+
+/*
+ * #%L
+ * File: ConcurrentLruCache.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe, size-bounded cache with approximately least-recently-used eviction, which does
+ * not take a lock on reads.
+ *
+ * <p>Entries are kept in a ConcurrentHashMap, each stamped with the time at which it was last
+ * read or written. When a put takes the cache over its maximum size, the putting thread (only one
+ * at a time; others carry on without waiting) samples a few entries and evicts the one which was
+ * accessed least recently, preferring any {@link CachedValue} which has expired. The cache may
+ * therefore briefly hold slightly more than its maximum size under contention.
+ *
+ * <p>Like {@link java.util.LinkedHashMap}, a null key and null values may be stored; a lookup
+ * which finds a null value counts as a hit. Iterators are weakly consistent, and reading an entry
+ * through them does not count as an access.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @see LruCache
+ */
+public class ConcurrentLruCache<K, V> extends AbstractMap<K, V> {
+
+  /** The number of entries examined when choosing an entry to evict. */
+  public static final int EVICTION_SAMPLE_SIZE = 16;
+
+  //// Constructors
+
+  /** Creates a new instance of ConcurrentLruCache. */
+  public ConcurrentLruCache(int defaultSize, int maxSize) {
+    this(defaultSize, maxSize, .75f);
+  }
+
+  /** Creates a new instance of ConcurrentLruCache. */
+  public ConcurrentLruCache(int defaultSize, int maxSize, float loadFactor) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Invalid maxSize " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.map = new ConcurrentHashMap<>(defaultSize, loadFactor);
+  }
+
+  //// Public Area
+
+  @Override
+  public V get(Object key) {
+    final Node<V> node = map.get(maskNull(key));
+    if (node == null) {
+      misses.increment();
+      return null;
+    }
+    node.touch();
+    hits.increment();
+    return node.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(maskNull(key));
+  }
+
+  /**
+   * Associates <code>value</code> with <code>key</code>, evicting other entries if the cache is
+   * over its maximum size.
+   */
+  @Override
+  public V put(K key, V value) {
+    final Node<V> previous = map.put(maskNull(key), new Node<>(value));
+    if (map.size() > maxSize) {
+      evict();
+    }
+    return (previous == null) ? null : previous.value;
+  }
+
+  @Override
+  public V remove(Object key) {
+    final Node<V> previous = map.remove(maskNull(key));
+    return (previous == null) ? null : previous.value;
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return entrySet;
+  }
+
+  /** Returns the maximum number of entries which this cache retains. */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the number of lookups which found a value. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Returns the number of lookups which did not find a value. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Returns the number of entries which have been evicted to keep within the maximum size. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  //// Protected Area
+
+  /**
+   * Returns true iff <code>value</code> should be evicted in preference to any unexpired value.
+   * By default, a value is expired iff it is a {@link CachedValue} which has expired.
+   */
+  protected boolean isExpired(V value) {
+    return (value instanceof CachedValue) && ((CachedValue) value).isExpired();
+  }
+
+  /**
+   * Called after an entry has been evicted to keep within the maximum size. It is not called
+   * for entries which are removed explicitly. By default, does nothing.
+   */
+  protected void onEviction(K key, V value) {
+  }
+
+  //// Private Area
+
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      while (map.size() > maxSize) {
+        final Map.Entry<Object, Node<V>> victim = sampleVictim();
+        if (victim == null) {
+          return;
+        }
+        if (map.remove(victim.getKey(), victim.getValue())) {
+          evictions.increment();
+          onEviction(unmaskNull(victim.getKey()), victim.getValue().value);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Examines up to {@link #EVICTION_SAMPLE_SIZE} entries, continuing from where the previous
+   * sample left off, and returns the first expired one or else the least recently accessed one.
+   * Must be called while holding the eviction lock.
+   */
+  private Map.Entry<Object, Node<V>> sampleVictim() {
+    Map.Entry<Object, Node<V>> victim = null;
+    for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+      if (!sampler.hasNext()) {
+        sampler = map.entrySet().iterator();
+        if (!sampler.hasNext()) {
+          break;
+        }
+      }
+      final Map.Entry<Object, Node<V>> candidate = sampler.next();
+      final Node<V> node = candidate.getValue();
+      if (isExpired(node.value)) {
+        return candidate;
+      }
+      if ((victim == null) || (node.lastAccess < victim.getValue().lastAccess)) {
+        victim = candidate;
+      }
+    }
+    return victim;
+  }
+
+  /** Stands for the null key, which ConcurrentHashMap does not accept. */
+  private static Object maskNull(Object key) {
+    return (key == null) ? NULL_KEY : key;
+  }
+
+  @SuppressWarnings("unchecked")
+  private K unmaskNull(Object key) {
+    return (key == NULL_KEY) ? null : (K) key;
+  }
+
+  //// Internal Rep
+
+  private static final Object NULL_KEY = new Object();
+
+  private static final class Node<V> {
+
+    final V value;
+    volatile long lastAccess;
+
+    Node(V value) {
+      this.value = value;
+      this.lastAccess = System.nanoTime();
+    }
+
+    void touch() {
+      lastAccess = System.nanoTime();
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      final Iterator<Map.Entry<Object, Node<V>>> nodes = map.entrySet().iterator();
+      return new Iterator<Map.Entry<K, V>>() {
+        @Override
+        public boolean hasNext() {
+          return nodes.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+          final Map.Entry<Object, Node<V>> entry = nodes.next();
+          return new AbstractMap.SimpleEntry<K, V>(unmaskNull(entry.getKey()),
+                  entry.getValue().value) {
+            @Override
+            public V setValue(V value) {
+              super.setValue(value);
+              return put(getKey(), value);
+            }
+          };
+        }
+
+        @Override
+        public void remove() {
+          nodes.remove();
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public void clear() {
+      map.clear();
+    }
+  }
+
+  private final int maxSize;
+  private final ConcurrentHashMap<Object, Node<V>> map;
+  private final Set<Map.Entry<K, V>> entrySet = new EntrySet();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private Iterator<Map.Entry<Object, Node<V>>> sampler = Collections.emptyIterator();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+}
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 //// External Imports
 
@@ -35,11 +36,24 @@ import java.util.Set;
  * <P>
  * LRUCache is designed to...
  * 
+ * <P>
+ * Synchronized instances are backed by a {@link ConcurrentLruCache}, so that reads do not
+ * contend on a lock, unless the system property {@value #CONCURRENT_PROPERTY} is set to
+ * <code>false</code>, in which case they are backed by a synchronized, access-ordered
+ * LinkedHashMap. Both accept a null key and null values, and count a lookup as a hit iff the key
+ * is present, whatever its value.
+ * 
  * @author tbrussea,  Feb 28, 2010, 3:27:51 PM
  * @version $Id: LruCache.java 176591 2018-01-09 17:27:27Z nwinant $
  */
 public class LruCache<K, V> implements Map<K, V> {
 
+	/**
+	 * The system property which, when set to <code>false</code>, backs synchronized instances by a
+	 * synchronized LinkedHashMap rather than by a {@link ConcurrentLruCache}.
+	 */
+	public static final String CONCURRENT_PROPERTY = "com.cyc.baseclient.util.concurrentLruCache";
+
 	// // Constructors
 
 	/** Creates a new synchronized instance of LRUCache. */
@@ -56,6 +70,12 @@ public class LruCache<K, V> implements Map<K, V> {
 	public LruCache(int defaultSize, final int maxSize, boolean isSynchronized,
 			float loadFactor) {
 		this.maxSize = maxSize;
+		if (isSynchronized && USE_CONCURRENT_CACHE) {
+			this.concurrentCache = new ConcurrentLruCache<K, V>(defaultSize, maxSize, loadFactor);
+			this.cache = concurrentCache;
+			return;
+		}
+		this.concurrentCache = null;
 		this.cache = new LinkedHashMap<K, V>(defaultSize, loadFactor, true) {
 			private static final long serialVersionUID = 7046745637375687927L;
 
@@ -65,10 +85,15 @@ public class LruCache<K, V> implements Map<K, V> {
 				V val = eldest.getValue();
 				if (val instanceof CachedValue) {
 					if (((CachedValue) val).isExpired()) {
+						evictions.increment();
 						return true;
 					}
 				}
-				return size() > maxSize;
+				if (size() > maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
 			}
 		};
 		if (isSynchronized) {
@@ -94,7 +119,13 @@ public class LruCache<K, V> implements Map<K, V> {
 	}
 
 	public V get(Object key) {
-		return cache.get((K) key);
+		final V value = cache.get((K) key);
+		if (value != null || cache.containsKey(key)) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return value;
 	}
 
 	public boolean isEmpty() {
@@ -125,14 +156,47 @@ public class LruCache<K, V> implements Map<K, V> {
 		return cache.values();
 	}
 
+	/** Returns the maximum number of entries which this cache retains. */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/** Returns the number of lookups which found a value. */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/** Returns the number of lookups which did not find a value. */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/** Returns the number of entries which have been evicted to keep within the maximum size. */
+	public long getEvictionCount() {
+		return (concurrentCache != null) ? concurrentCache.getEvictionCount() : evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "LruCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
 	// // Protected Area
 
 	// // Private Area
 
 	// // Internal Rep
 
+	private static final boolean USE_CONCURRENT_CACHE = Boolean.parseBoolean(
+			System.getProperty(CONCURRENT_PROPERTY, "true"));
+
 	private int maxSize;
 	private Map<K, V> cache;
+	private final ConcurrentLruCache<K, V> concurrentCache;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
 
 	// // Main
 
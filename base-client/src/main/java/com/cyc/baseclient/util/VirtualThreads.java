@@ -0,0 +1,137 @@
+package com.cyc.baseclient.util;
+
+/*
+ * #%L
+ * File: VirtualThreads.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates executors which run each task on its own virtual thread, when the JVM supports them
+ * (JDK 21 and later) and they have been enabled by setting the system property
+ * {@value #VIRTUAL_THREADS_PROPERTY} to <code>true</code>. Otherwise, a fallback executor is used.
+ *
+ * <p>Virtual threads are cheap enough to give every blocking API request its own thread, so they
+ * remove the need to bound thread pools when many thousands of requests are outstanding. The
+ * virtual thread API is reached by reflection, so this class compiles and runs on Java 8.
+ */
+public final class VirtualThreads {
+
+  /**
+   * System property which enables virtual threads for API request handling, notification delivery
+   * and worker listener callbacks. It is ignored on JVMs which do not support virtual threads.
+   */
+  public static final String VIRTUAL_THREADS_PROPERTY = "com.cyc.baseclient.virtualThreads";
+
+  //// Constructors
+
+  private VirtualThreads() {}
+
+  //// Public Area
+
+  /**
+   * Returns whether this JVM supports virtual threads.
+   *
+   * @return whether virtual thread executors can be created
+   */
+  public static boolean isAvailable() {
+    return NEW_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * Returns whether virtual threads have been enabled, and are supported by this JVM.
+   *
+   * @return whether {@link #newExecutor(String, Supplier)} creates virtual thread executors
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Creates an executor which runs each task on a new virtual thread named
+   * <code>namePrefix</code> followed by a sequence number, if virtual threads are enabled.
+   * Otherwise, returns the executor supplied by <code>fallback</code>.
+   *
+   * @param namePrefix the prefix for the names of the virtual threads
+   * @param fallback   supplies the executor to use when virtual threads are not enabled
+   *
+   * @return the executor
+   */
+  public static ExecutorService newExecutor(String namePrefix,
+                                            Supplier<? extends ExecutorService> fallback) {
+    if (ENABLED) {
+      try {
+        final Object builder = OF_VIRTUAL.invoke(null);
+        final ThreadFactory factory
+                = (ThreadFactory) FACTORY.invoke(NAME.invoke(builder, namePrefix, 1L));
+        return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+      } catch (ReflectiveOperationException | RuntimeException ex) {
+        LOGGER.warn("Could not create a virtual thread executor for " + namePrefix
+                + "; using the fallback executor", ex);
+      }
+    }
+    return fallback.get();
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+  private static final Method OF_VIRTUAL;
+  private static final Method NAME;
+  private static final Method FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+  private static final boolean ENABLED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method factory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builderClass.getMethod("name", String.class, long.class);
+      factory = builderClass.getMethod("factory");
+      newThreadPerTaskExecutor
+              = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      // virtual threads are not supported by this JVM
+      newThreadPerTaskExecutor = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    final boolean requested = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+    ENABLED = requested && isAvailable();
+    if (requested && !ENABLED) {
+      LOGGER.warn("{} is set, but this JVM does not support virtual threads; using platform threads",
+              VIRTUAL_THREADS_PROPERTY);
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+package com.cyc.baseclient;
+
+/*
+ * #%L
+ * File: ConstantChangeEventTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.Guid;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the parsing of constant change events, and their application to the constant caches.
+ */
+public class ConstantChangeEventTest {
+
+  private static final String GUID_1 = "bd58c19d-9c29-11b1-9dad-c379636f7270";
+  private static final String GUID_2 = "bd58daa0-9c29-11b1-9dad-c379636f7270";
+
+  @Test
+  public void testParseEvents() {
+    final Object rename = CycArrayList.makeCycList(
+            CycObjectFactory.makeCycSymbol(":RENAME"), GUID_1, "OldName", "NewName");
+    List<ConstantChangeEvent> events = ConstantChangeEvent.parseEvents(rename);
+    assertEquals(1, events.size());
+    assertEquals(ConstantChangeEvent.Type.RENAME, events.get(0).getType());
+    assertEquals(GUID_1, events.get(0).getGuid().getGuidString());
+    assertEquals("OldName", events.get(0).getName());
+    assertEquals("NewName", events.get(0).getNewName());
+
+    final Object kill = CycArrayList.makeCycList(
+            CycObjectFactory.makeCycSymbol(":KILL"), CycObjectFactory.makeGuid(GUID_2), "Doomed");
+    final CycArrayList merge = new CycArrayList();
+    merge.add(CycObjectFactory.makeCycSymbol(":MERGE"));
+    merge.add(GUID_2);
+    merge.add("Doomed");
+    merge.add(GUID_1);
+    merge.add("Survivor");
+    events = ConstantChangeEvent.parseEvents(CycArrayList.makeCycList(kill, merge));
+    assertEquals(2, events.size());
+    assertEquals(ConstantChangeEvent.Type.KILL, events.get(0).getType());
+    assertNull(events.get(0).getSurvivingGuid());
+    assertEquals(ConstantChangeEvent.Type.MERGE, events.get(1).getType());
+    assertEquals(GUID_1, events.get(1).getSurvivingGuid().getGuidString());
+    assertEquals("Survivor", events.get(1).getNewName());
+
+    assertEquals(0, ConstantChangeEvent.parseEvents(CycObjectFactory.nil).size());
+    try {
+      ConstantChangeEvent.parseEvents(CycArrayList.makeCycList(
+              CycObjectFactory.makeCycSymbol(":KILL"), GUID_1));
+      fail("Expected a malformed event to be rejected");
+    } catch (CycApiException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testInvalidateCycConstant() {
+    final Guid guid = CycObjectFactory.makeGuid(GUID_1);
+    CycObjectFactory.addCycConstantCache(new CycConstantImpl("OldName", guid));
+    assertNotNull(CycObjectFactory.getCycConstantCacheByName("OldName"));
+    assertNotNull(CycObjectFactory.getCycConstantCacheByGuid(guid));
+    final List<ConstantChangeEvent> notified = new ArrayList<>();
+    final ConstantChangeListener listener = new ConstantChangeListener() {
+      @Override
+      public void constantChanged(ConstantChangeEvent event) {
+        notified.add(event);
+      }
+    };
+    CycObjectFactory.addConstantChangeListener(listener);
+    try {
+      final ConstantChangeEvent event = ConstantChangeEvent.rename(guid, "OldName", "NewName");
+      CycObjectFactory.invalidateCycConstant(event);
+      assertNull(CycObjectFactory.getCycConstantCacheByName("OldName"));
+      assertNull(CycObjectFactory.getCycConstantCacheByGuid(guid));
+      assertEquals(1, notified.size());
+      assertEquals(event, notified.get(0));
+    } finally {
+      CycObjectFactory.removeConstantChangeListener(listener);
+    }
+  }
+
+}
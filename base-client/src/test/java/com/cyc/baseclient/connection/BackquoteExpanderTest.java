@@ -0,0 +1,199 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: BackquoteExpanderTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycListParser;
+import com.cyc.baseclient.cycobject.CycSymbolImpl;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static com.cyc.baseclient.CycObjectFactory.makeCycSymbol;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests BackquoteExpander, and the backquote flag of CycArrayList which it relies on.
+ */
+public class BackquoteExpanderTest {
+
+  @Test
+  public void testBackquoteFlag() {
+    assertFalse(list(RET, list(LIST, A, B)).mayContainBackquote());
+    final CycArrayList<Object> template = list(RET, BQ, list(LIST, COMMA, A));
+    assertTrue(template.mayContainBackquote());
+    assertTrue(list(FOO, template).mayContainBackquote());
+    assertTrue(new CycArrayList<>(Arrays.asList(FOO, template)).mayContainBackquote());
+    final CycArrayList<Object> outer = list(FOO);
+    outer.add(0, template);
+    assertTrue(outer.mayContainBackquote());
+    final CycArrayList<Object> dotted = list(FOO);
+    dotted.setDottedElement(template);
+    assertTrue(dotted.mayContainBackquote());
+    assertTrue(list(FOO).appendElements(template).mayContainBackquote());
+    assertTrue(BackquoteExpander.mayContainBackquote(template));
+  }
+
+  @Test
+  public void testBackquoteAddedToNestedList() {
+    final CycArrayList<Object> nested = list(LIST, A);
+    final CycArrayList<Object> command = list(RET, nested);
+    assertFalse(command.mayContainBackquote());
+    nested.add(0, BQ);
+    assertTrue(command.mayContainBackquote());
+    assertTrue(BackquoteExpander.mayContainBackquote(command));
+    assertEquals(list(RET, list(quote(LIST), A)), BackquoteExpander.expand(command));
+  }
+
+  @Test
+  public void testBackquoteAddedToDeeplyNestedList() {
+    final CycArrayList<Object> deepest = list(A);
+    final CycArrayList<Object> nested = list(LIST, deepest);
+    final CycArrayList<Object> command = list(RET, nested);
+    final CycArrayList<Object> other = list(FOO, deepest);
+    assertFalse(command.mayContainBackquote());
+    assertFalse(other.mayContainBackquote());
+    deepest.add(BQ);
+    assertTrue(nested.mayContainBackquote());
+    assertTrue(command.mayContainBackquote());
+    assertTrue(other.mayContainBackquote());
+  }
+
+  @Test
+  public void testBackquoteAddedToParsedNestedList() {
+    final CycArrayList<Object> command = new CycListParser(null).read("(ret (list a))");
+    assertFalse(command.mayContainBackquote());
+    ((CycArrayList<Object>) command.second()).add(0, BQ);
+    assertTrue(command.mayContainBackquote());
+  }
+
+  @Test
+  public void testWithoutBackquote() {
+    final CycArrayList<Object> command = list(RET, list(LIST, A, B));
+    assertSame(command, BackquoteExpander.expand(command));
+  }
+
+  @Test
+  public void testUnquote() {
+    // (ret `(list ,a ,b))
+    final CycArrayList<Object> command = list(RET, BQ, list(LIST, COMMA, A, COMMA, B));
+    final CycArrayList<Object> original = command.deepCopy();
+    assertEquals(list(RET, list(LIST, quote(LIST), A, B)), BackquoteExpander.expand(command));
+    assertEquals(original, command);
+  }
+
+  @Test
+  public void testLiteralTemplate() {
+    // (foo `(a (b 1) "c"))
+    final CycArrayList<Object> template = list(A, list(B, 1), "c");
+    assertEquals(list(FOO, quote(template)),
+            BackquoteExpander.expand(list(FOO, BQ, template)));
+    // (foo `a `1)
+    assertEquals(list(FOO, quote(A), 1), BackquoteExpander.expand(list(FOO, BQ, A, BQ, 1)));
+  }
+
+  @Test
+  public void testNestedTemplate() {
+    // (foo `(a (b ,c) 1 "d"))
+    final CycList expanded = BackquoteExpander.expand(
+            list(FOO, BQ, list(A, list(B, COMMA, C), 1, "d")));
+    assertEquals(list(FOO, list(LIST, quote(A), list(LIST, quote(B), C), 1, "d")), expanded);
+  }
+
+  @Test
+  public void testSplice() {
+    // (foo `(a ,@b c))
+    final CycList expanded = BackquoteExpander.expand(
+            list(FOO, BQ, list(A, COMMA_AT, B, C)));
+    assertEquals(list(FOO, list(APPEND, list(LIST, quote(A)), B, list(LIST, quote(C)))),
+            expanded);
+  }
+
+  @Test
+  public void testDottedTemplate() {
+    // (foo `(,a . b))
+    final CycArrayList<Object> template = list(COMMA, A);
+    template.setDottedElement(B);
+    assertEquals(list(FOO, list(APPEND, list(LIST, A), quote(B))),
+            BackquoteExpander.expand(list(FOO, BQ, template)));
+  }
+
+  @Test
+  public void testUnquotedTemplate() {
+    // (foo `,a (bar `(,b)))
+    assertEquals(list(FOO, A, list(BAR, list(LIST, B))),
+            BackquoteExpander.expand(list(FOO, BQ, COMMA, A, list(BAR, BQ, list(COMMA, B)))));
+  }
+
+  @Test
+  public void testBackquoteWithinComma() {
+    // (foo `(a ,(bar `(,b))))
+    final CycList expanded = BackquoteExpander.expand(
+            list(FOO, BQ, list(A, COMMA, list(BAR, BQ, list(COMMA, B)))));
+    assertEquals(list(FOO, list(LIST, quote(A), list(BAR, list(LIST, B)))), expanded);
+  }
+
+  @Test
+  public void testNestedBackquoteIsNotExpanded() {
+    // (foo `(a `(b ,,c)))
+    assertNull(BackquoteExpander.expand(
+            list(FOO, BQ, list(A, BQ, list(B, COMMA, COMMA, C)))));
+  }
+
+  @Test(expected = CycApiException.class)
+  public void testMissingForm() {
+    BackquoteExpander.expand(list(FOO, BQ, list(A, COMMA)));
+  }
+
+  //====|    Internal    |========================================================================//
+
+  private static final CycSymbolImpl BQ = CycObjectFactory.backquote;
+  private static final CycSymbolImpl COMMA = makeCycSymbol(",");
+  private static final CycSymbolImpl COMMA_AT = makeCycSymbol(",@");
+  private static final CycSymbolImpl LIST = makeCycSymbol("list");
+  private static final CycSymbolImpl APPEND = makeCycSymbol("append");
+  private static final CycSymbolImpl RET = makeCycSymbol("ret");
+  private static final CycSymbolImpl FOO = makeCycSymbol("foo");
+  private static final CycSymbolImpl BAR = makeCycSymbol("bar");
+  private static final CycSymbolImpl A = makeCycSymbol("a");
+  private static final CycSymbolImpl B = makeCycSymbol("b");
+  private static final CycSymbolImpl C = makeCycSymbol("c");
+
+  private static CycArrayList<Object> list(Object... elements) {
+    final CycArrayList<Object> result = new CycArrayList<>();
+    for (Object element : elements) {
+      result.add(element);
+    }
+    return result;
+  }
+
+  private static CycArrayList<Object> quote(Object object) {
+    return list(CycObjectFactory.quote, object);
+  }
+
+}
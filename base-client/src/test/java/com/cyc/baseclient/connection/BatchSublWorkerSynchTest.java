@@ -0,0 +1,115 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: BatchSublWorkerSynchTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycListParser;
+import com.cyc.baseclient.exception.CycApiServerSideException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests how BatchSublWorkerSynch builds its command and splits the response.
+ */
+public class BatchSublWorkerSynchTest {
+
+  @Test
+  public void testMakeBatchCommand() {
+    final CycList command = BatchSublWorkerSynch.makeBatchCommand(
+            Arrays.asList(read("(+ 1 1)"), read("(/ 1 0)")));
+    assertEquals(read("(list " + evaluation("(+ 1 1)") + " " + evaluation("(/ 1 0)") + ")"),
+            command);
+  }
+
+  @Test
+  public void testMakeEmptyBatchCommand() {
+    assertEquals(read("(list)"),
+            BatchSublWorkerSynch.makeBatchCommand(Collections.<CycList>emptyList()));
+  }
+
+  @Test
+  public void testParseResults() throws Exception {
+    final List<CycList> commands = Arrays.asList(read("(+ 1 1)"), read("(/ 1 0)"));
+    final List<BatchSublWorkerSynch.CommandResult> results = BatchSublWorkerSynch.parseResults(
+            commands, read("((:ok 2) (:error \"Division by zero\"))"));
+    assertEquals(2, results.size());
+
+    final BatchSublWorkerSynch.CommandResult sum = results.get(0);
+    assertSame(commands.get(0), sum.getCommand());
+    assertTrue(sum.isSuccessful());
+    assertNull(sum.getErrorMessage());
+    assertEquals(2, sum.getValue());
+
+    final BatchSublWorkerSynch.CommandResult quotient = results.get(1);
+    assertSame(commands.get(1), quotient.getCommand());
+    assertFalse(quotient.isSuccessful());
+    assertEquals("Division by zero", quotient.getErrorMessage());
+    try {
+      quotient.getValue();
+      fail("Expected the error to be thrown");
+    } catch (CycApiServerSideException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testParseNilResults() {
+    assertTrue(BatchSublWorkerSynch.parseResults(Collections.<CycList>emptyList(),
+            CycObjectFactory.nil).isEmpty());
+  }
+
+  @Test(expected = CycApiException.class)
+  public void testParseTooFewResults() {
+    BatchSublWorkerSynch.parseResults(Arrays.asList(read("(+ 1 1)"), read("(/ 1 0)")),
+            read("((:ok 2))"));
+  }
+
+  @Test(expected = CycApiException.class)
+  public void testParseInvalidResults() {
+    BatchSublWorkerSynch.parseResults(Arrays.asList(read("(+ 1 1)")), "2");
+  }
+
+  private static String evaluation(String command) {
+    return "(clet (batch-command-result batch-command-error)"
+            + " (catch-error-message (batch-command-error)"
+            + " (csetq batch-command-result " + command + "))"
+            + " (fif batch-command-error"
+            + " (list :error batch-command-error)"
+            + " (list :ok batch-command-result)))";
+  }
+
+  private static CycList read(String string) {
+    return new CycListParser(null).read(string);
+  }
+
+}
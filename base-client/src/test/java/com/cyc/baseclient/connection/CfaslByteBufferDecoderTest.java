@@ -0,0 +1,175 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CfaslByteBufferDecoderTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.ByteArray;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that CfaslByteBufferDecoder decodes the same objects as CfaslInputStream.
+ */
+public class CfaslByteBufferDecoderTest {
+
+  @Test
+  public void testAtoms() throws IOException {
+    assertDecodesLikeStream(0);
+    assertDecodesLikeStream(127);
+    assertDecodesLikeStream(128);
+    assertDecodesLikeStream(-1);
+    assertDecodesLikeStream(70000);
+    assertDecodesLikeStream(-16777216);
+    assertDecodesLikeStream(Integer.MAX_VALUE);
+    assertDecodesLikeStream(new BigInteger("123456789012345678901234567890"));
+    assertDecodesLikeStream(3.25);
+    assertDecodesLikeStream(-0.001);
+    assertDecodesLikeStream("abc");
+    assertDecodesLikeStream("");
+    assertDecodesLikeStream("a" + (char) 0x401);
+    assertDecodesLikeStream(CycObjectFactory.makeCycSymbol(":KEYWORD"));
+    assertDecodesLikeStream(CycObjectFactory.makeCycSymbol("SYMBOL"));
+    assertDecodesLikeStream(CycObjectFactory.nil);
+    assertDecodesLikeStream(CycObjectFactory.makeGuid("bd58c19d-9c29-11b1-9dad-c379636f7270"));
+  }
+
+  @Test
+  public void testLists() throws IOException {
+    final CycArrayList list = new CycArrayList();
+    list.add(1);
+    list.add("two");
+    list.add(CycObjectFactory.makeCycSymbol(":THREE"));
+    list.add(new CycArrayList(Arrays.asList(4, 5.5)));
+    assertDecodesLikeStream(list);
+    final CycArrayList dotted = new CycArrayList(Arrays.asList(1, 2));
+    dotted.setDottedElement(3);
+    assertDecodesLikeStream(dotted);
+  }
+
+  @Test
+  public void testByteVector() throws IOException {
+    final byte[] bytes = new byte[]{1, 2, 3, (byte) 0xFF};
+    final byte[] encoded = encode(new ByteArray(bytes));
+    final Object decoded = new CfaslByteBufferDecoder().readObject(ByteBuffer.wrap(encoded));
+    assertArrayEquals(bytes, ((ByteArray) decoded).byteArrayValue());
+    final ByteBuffer view = new CfaslByteBufferDecoder().readByteVectorView(ByteBuffer.wrap(encoded));
+    assertEquals(bytes.length, view.remaining());
+    assertEquals((byte) 0xFF, view.get(3));
+  }
+
+  @Test
+  public void testPrimitives() throws IOException {
+    final CfaslByteBufferDecoder decoder = new CfaslByteBufferDecoder();
+    final ByteBuffer buffer = ByteBuffer.wrap(concat(encode(42), encode(-70000), encode(2.5)));
+    assertTrue(decoder.isFixnumNext(buffer));
+    assertEquals(42, decoder.readFixnum(buffer));
+    assertEquals(-70000, decoder.readFixnum(buffer));
+    assertFalse(decoder.isFixnumNext(buffer));
+    final int position = buffer.position();
+    try {
+      decoder.readFixnum(buffer);
+      fail("Expected a float not to be read as a fixnum");
+    } catch (RuntimeException e) {
+      assertEquals(position, buffer.position());
+    }
+    assertEquals(2.5, decoder.readDouble(buffer), 0.0);
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testRepeatedGuids() throws IOException {
+    final Object first = CycObjectFactory.makeGuid("bd58c19d-9c29-11b1-9dad-c379636f7270");
+    final Object second = CycObjectFactory.makeGuid("bd5880f4-9c29-11b1-9dad-c379636f7270");
+    final CfaslByteBufferDecoder decoder = new CfaslByteBufferDecoder();
+    final ByteBuffer buffer = ByteBuffer.wrap(
+            concat(encode(first), encode(second), encode(first), encode(second)));
+    final Object decodedFirst = decoder.readObject(buffer);
+    final Object decodedSecond = decoder.readObject(buffer);
+    assertEquals(first, decodedFirst);
+    assertEquals(second, decodedSecond);
+    assertSame(decodedFirst, decoder.readObject(buffer));
+    assertSame(decodedSecond, decoder.readObject(buffer));
+  }
+
+  @Test
+  public void testUnderflowLeavesPosition() throws IOException {
+    final byte[] encoded = encode("a string which will be truncated");
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length);
+    buffer.put(encoded, 0, encoded.length - 5);
+    buffer.flip();
+    final CfaslByteBufferDecoder decoder = new CfaslByteBufferDecoder();
+    try {
+      decoder.readObject(buffer);
+      fail("Expected a BufferUnderflowException");
+    } catch (BufferUnderflowException e) {
+      assertEquals(0, buffer.position());
+    }
+    buffer.limit(buffer.capacity());
+    buffer.position(encoded.length - 5);
+    buffer.put(encoded, encoded.length - 5, 5);
+    buffer.flip();
+    assertEquals("a string which will be truncated", decoder.readObject(buffer));
+  }
+
+  private static void assertDecodesLikeStream(Object obj) throws IOException {
+    final byte[] encoded = encode(obj);
+    final Object expected = new CfaslInputStream(new ByteArrayInputStream(encoded)).readObject();
+    final ByteBuffer heapBuffer = ByteBuffer.wrap(encoded);
+    assertEquals(expected, new CfaslByteBufferDecoder().readObject(heapBuffer));
+    assertFalse(heapBuffer.hasRemaining());
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(encoded.length);
+    directBuffer.put(encoded);
+    directBuffer.flip();
+    assertEquals(expected, new CfaslByteBufferDecoder().readObject(directBuffer));
+  }
+
+  private static byte[] encode(Object obj) throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final CfaslOutputStream cos = new CfaslOutputStream(baos);
+    cos.writeObject(obj);
+    cos.flush();
+    return baos.toByteArray();
+  }
+
+  private static byte[] concat(byte[]... arrays) {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      baos.write(array, 0, array.length);
+    }
+    return baos.toByteArray();
+  }
+
+}
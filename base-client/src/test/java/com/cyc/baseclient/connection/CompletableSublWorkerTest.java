@@ -0,0 +1,99 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CompletableSublWorkerTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.connection.WorkerStatus;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.exception.CycApiServerSideException;
+import com.cyc.baseclient.exception.CycTaskInterruptedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests how CompletableSublWorker completes its future for each way in which a worker can end.
+ */
+public class CompletableSublWorkerTest {
+
+  @Test
+  public void testCompletesWithWork() throws Exception {
+    final CompletableSublWorker worker = newWorker();
+    worker.fireSublWorkerStartedEvent(new SublWorkerEvent(worker, 1));
+    assertTrue(!worker.getFuture().isDone());
+    worker.fireSublWorkerDataAvailableEvent(new SublWorkerEvent(worker, 2, -1.0f));
+    worker.fireSublWorkerTerminatedEvent(
+            new SublWorkerEvent(worker, WorkerStatus.FINISHED_STATUS, null));
+    assertEquals(2, worker.getFuture().get());
+  }
+
+  @Test
+  public void testServerSideErrorCompletesExceptionally() throws Exception {
+    final CompletableSublWorker worker = newWorker();
+    final CycApiServerSideException error = new CycApiServerSideException("Simulated error");
+    worker.fireSublWorkerStartedEvent(new SublWorkerEvent(worker, 1));
+    worker.fireSublWorkerTerminatedEvent(
+            new SublWorkerEvent(worker, WorkerStatus.EXCEPTION_STATUS, error));
+    assertSame(error, getCause(worker.getFuture()));
+  }
+
+  @Test
+  public void testAbortedCompletesExceptionally() throws Exception {
+    final CompletableSublWorker worker = newWorker();
+    worker.fireSublWorkerStartedEvent(new SublWorkerEvent(worker, 1));
+    worker.fireSublWorkerTerminatedEvent(
+            new SublWorkerEvent(worker, WorkerStatus.ABORTED_STATUS, null));
+    assertTrue(getCause(worker.getFuture()) instanceof CycTaskInterruptedException);
+  }
+
+  @Test
+  public void testCancelBeforeStart() {
+    final CompletableSublWorker worker = newWorker();
+    assertTrue(worker.getFuture().cancel(false));
+    assertTrue(worker.getFuture().isCancelled());
+    // a late response does not change the outcome
+    worker.fireSublWorkerTerminatedEvent(
+            new SublWorkerEvent(worker, WorkerStatus.FINISHED_STATUS, null));
+    assertTrue(worker.getFuture().isCancelled());
+  }
+
+  private static CompletableSublWorker newWorker() {
+    return new CompletableSublWorker(
+            CycArrayList.<Object>list(CycObjectFactory.makeCycSymbol("+"), 1, 1), null);
+  }
+
+  private static Throwable getCause(CompletableFuture<Object> future) throws InterruptedException {
+    try {
+      future.get();
+      fail("Expected the future to complete exceptionally");
+      return null;
+    } catch (ExecutionException ex) {
+      return ex.getCause();
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: CycConnectionImplTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the parts of CycConnectionImpl which do not need a Cyc server.
+ */
+public class CycConnectionImplTest {
+
+  @Test
+  public void testNextApiRequestIdWrapsToOne() {
+    assertEquals(2, CycConnectionImpl.nextApiRequestId(1));
+    assertEquals(Integer.MAX_VALUE, CycConnectionImpl.nextApiRequestId(Integer.MAX_VALUE - 1));
+    assertEquals(1, CycConnectionImpl.nextApiRequestId(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testNextApiRequestIdIsUniqueAcrossThreads() throws InterruptedException {
+    final int threadCount = 8;
+    final int idsPerThread = 10000;
+    final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    final CountDownLatch start = new CountDownLatch(1);
+    final Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+        for (int j = 0; j < idsPerThread; j++) {
+          ids.add(CycConnectionImpl.nextApiRequestId());
+        }
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(threadCount * idsPerThread, ids.size());
+    assertTrue(ids.stream().allMatch((id) -> id > 0));
+  }
+
+  @Test
+  public void testSelectSocketPairPrefersPrimaryOnTies() {
+    final TestSocketPair first = new TestSocketPair(true, 0);
+    assertNull(CycConnectionImpl.selectSocketPair(0, Collections.<CfaslSocketPair>emptyList()));
+    assertNull(CycConnectionImpl.selectSocketPair(0, Arrays.<CfaslSocketPair>asList(first)));
+    assertSame(first, CycConnectionImpl.selectSocketPair(1, Arrays.<CfaslSocketPair>asList(first)));
+  }
+
+  @Test
+  public void testSelectSocketPairChoosesLeastLoaded() {
+    final TestSocketPair busy = new TestSocketPair(true, 3);
+    final TestSocketPair idle = new TestSocketPair(true, 1);
+    final TestSocketPair alsoIdle = new TestSocketPair(true, 1);
+    assertSame(idle, CycConnectionImpl.selectSocketPair(2,
+            Arrays.<CfaslSocketPair>asList(busy, idle, alsoIdle)));
+    idle.requestStarted();
+    assertSame(alsoIdle, CycConnectionImpl.selectSocketPair(2,
+            Arrays.<CfaslSocketPair>asList(busy, idle, alsoIdle)));
+    alsoIdle.requestStarted();
+    assertNull(CycConnectionImpl.selectSocketPair(2,
+            Arrays.<CfaslSocketPair>asList(busy, idle, alsoIdle)));
+    idle.requestTerminated();
+    idle.requestTerminated();
+    assertSame(idle, CycConnectionImpl.selectSocketPair(2,
+            Arrays.<CfaslSocketPair>asList(busy, idle, alsoIdle)));
+  }
+
+  @Test
+  public void testSelectSocketPairSkipsDisconnectedPairs() {
+    final TestSocketPair disconnected = new TestSocketPair(false, 0);
+    final TestSocketPair connected = new TestSocketPair(true, 2);
+    assertSame(connected, CycConnectionImpl.selectSocketPair(5,
+            Arrays.<CfaslSocketPair>asList(disconnected, connected)));
+    assertNull(CycConnectionImpl.selectSocketPair(1,
+            Arrays.<CfaslSocketPair>asList(disconnected, connected)));
+  }
+
+  /**
+   * A socket pair which is never opened, with a given connection state and initial load.
+   */
+  private static class TestSocketPair extends CfaslSocketPair {
+
+    TestSocketPair(boolean isConnected, int inFlightCount) {
+      super(null, "localhost", 0);
+      this.isConnected = isConnected;
+      for (int i = 0; i < inFlightCount; i++) {
+        requestStarted();
+      }
+    }
+
+    @Override
+    boolean isConnected() {
+      return isConnected;
+    }
+
+    private final boolean isConnected;
+  }
+
+}
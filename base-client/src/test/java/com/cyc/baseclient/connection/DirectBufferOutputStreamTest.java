@@ -0,0 +1,83 @@
+package com.cyc.baseclient.connection;
+
+/*
+ * #%L
+ * File: DirectBufferOutputStreamTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that CfaslOutputStream produces the same bytes when encoding into direct buffers.
+ */
+public class DirectBufferOutputStreamTest {
+
+  @Test
+  public void testSameEncodingAsBufferedStream() throws IOException {
+    final CycArrayList message = new CycArrayList();
+    message.add(CycObjectFactory.makeCycSymbol("CSETQ"));
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 3 * DirectBufferOutputStream.CHUNK_SIZE; i++) {
+      sb.append((char) ('a' + (i % 26)));
+    }
+    message.add(sb.toString());
+    message.add(12345);
+    message.add(-1.5);
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final CfaslOutputStream bufferedStream = new CfaslOutputStream(baos);
+    bufferedStream.writeObject(message);
+    bufferedStream.flush();
+    final byte[] expected = baos.toByteArray();
+
+    final DirectBufferOutputStream buffers = new DirectBufferOutputStream();
+    final CfaslOutputStream directStream = new CfaslOutputStream(buffers);
+    directStream.writeObject(message);
+    directStream.flush();
+    assertEquals(expected.length, buffers.size());
+    final ByteBuffer[] chunks = buffers.getBuffers();
+    assertTrue(chunks.length > 1);
+    assertArrayEquals(expected, DirectBufferOutputStream.toByteArray(chunks));
+
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    final WritableByteChannel channel = Channels.newChannel(sink);
+    for (ByteBuffer chunk : chunks) {
+      while (chunk.hasRemaining()) {
+        channel.write(chunk);
+      }
+    }
+    assertArrayEquals(expected, sink.toByteArray());
+
+    buffers.release();
+    assertEquals(0, buffers.size());
+    assertEquals(0, buffers.getBuffers().length);
+  }
+
+}
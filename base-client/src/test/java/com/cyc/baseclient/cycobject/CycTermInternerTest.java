@@ -0,0 +1,246 @@
+package com.cyc.baseclient.cycobject;
+
+/*
+ * #%L
+ * File: CycTermInternerTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.connection.CfaslByteBufferDecoder;
+import com.cyc.baseclient.connection.CfaslInputStream;
+import com.cyc.baseclient.connection.CfaslOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests which terms CycTermInterner shares, and that the lists it shares cannot be modified.
+ */
+public class CycTermInternerTest {
+
+  @After
+  public void tearDown() {
+    CycTermInterner.setEnabled(Boolean.getBoolean(CycTermInterner.ENABLED_PROPERTY));
+  }
+
+  @Test
+  public void testSharesEqualLists() {
+    final CycArrayList first = makeTerm("A");
+    final CycArrayList second = makeTerm("A");
+    assertNotSame(first, second);
+    final CycArrayList interned = CycTermInterner.intern(first);
+    assertTrue(interned instanceof CycTermInterner.InternedCycList);
+    assertSame(interned, CycTermInterner.intern(second));
+    assertSame(interned, CycTermInterner.intern(interned));
+    // The nested list is shared too:
+    assertSame(interned.get(1), CycTermInterner.intern(makeTerm("A").get(1)));
+    assertFalse(interned.equals(CycTermInterner.intern(makeTerm("B"))));
+  }
+
+  @Test
+  public void testEqualToUninternedLists() {
+    final CycArrayList plain = makeTerm("A");
+    final CycArrayList interned = CycTermInterner.intern(makeTerm("A"));
+    assertEquals(plain, interned);
+    assertEquals(interned, plain);
+    assertEquals(plain.hashCode(), interned.hashCode());
+    final Map<Object, String> map = new HashMap<>();
+    map.put(plain, "value");
+    assertEquals("value", map.get(interned));
+    assertFalse(interned.equals(makeTerm("B")));
+  }
+
+  @Test
+  public void testDottedLists() {
+    final CycArrayList dotted = new CycArrayList(Arrays.asList(1, 2));
+    dotted.setDottedElement(makeTerm("A"));
+    final CycArrayList interned = CycTermInterner.intern(dotted);
+    assertFalse(interned.isProperList());
+    assertEquals(dotted, interned);
+    assertSame(CycTermInterner.intern(makeTerm("A")), interned.getDottedElement());
+    final CycArrayList proper = new CycArrayList(Arrays.asList(1, 2, makeTerm("A")));
+    assertFalse(interned.equals(CycTermInterner.intern(proper)));
+  }
+
+  @Test
+  public void testInternedListsAreImmutable() {
+    final CycList interned = CycTermInterner.intern(makeTerm("A"));
+    try {
+      interned.add(1);
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException ex) {
+      // expected
+    }
+    try {
+      interned.clear();
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException ex) {
+      // expected
+    }
+    final CycList copy = interned.deepCopy();
+    copy.add(1);
+    assertEquals(interned.size() + 1, copy.size());
+  }
+
+  @Test
+  public void testInternElementsLeavesOuterListModifiable() {
+    final CycArrayList outer = new CycArrayList(Arrays.asList(makeTerm("A"), makeTerm("A")));
+    CycTermInterner.internElements(outer);
+    assertSame(outer.get(0), outer.get(1));
+    assertTrue(outer.get(0) instanceof CycTermInterner.InternedCycList);
+    outer.add("more");
+    assertEquals(3, outer.size());
+  }
+
+  @Test
+  public void testOtherObjectsAreUnchanged() {
+    final String string = "string";
+    assertSame(string, CycTermInterner.intern(string));
+    assertSame(CycObjectFactory.nil, CycTermInterner.intern(CycObjectFactory.nil));
+    assertEquals(null, CycTermInterner.intern(null));
+  }
+
+  @Test
+  public void testDecoderInternsNestedTerms() throws IOException {
+    final CycArrayList list = new CycArrayList(Arrays.asList(makeTerm("A"), makeTerm("A")));
+    final byte[] encoded = encode(list);
+    CycTermInterner.setEnabled(false);
+    final CycArrayList plain = (CycArrayList) new CfaslByteBufferDecoder()
+            .readObject(ByteBuffer.wrap(encoded));
+    assertNotSame(plain.get(0), plain.get(1));
+    CycTermInterner.setEnabled(true);
+    final CycArrayList interned = (CycArrayList) new CfaslByteBufferDecoder()
+            .readObject(ByteBuffer.wrap(encoded));
+    assertEquals(plain, interned);
+    assertSame(interned.get(0), interned.get(1));
+    assertFalse(interned instanceof CycTermInterner.InternedCycList);
+  }
+
+  @Test
+  public void testNartsAreCopiedWhenInterned() {
+    final CycConstantImpl fn = new CycConstantImpl("FruitFn",
+            CycObjectFactory.makeGuid("bd58c19d-9c29-11b1-9dad-c379636f7270"));
+    final NartImpl nart = new NartImpl(fn, "Apple", new NartImpl(fn, "Pear"));
+    final Object nestedArg = nart.getFormula().getArgs().get(2);
+    final NartImpl interned = CycTermInterner.intern(nart);
+    assertTrue(interned instanceof CycTermInterner.InternedNart);
+    assertEquals(nart, interned);
+    assertSame(nestedArg, nart.getFormula().getArgs().get(2));
+    final int hash = interned.hashCode();
+    nart.setArgument(1, "Banana");
+    assertEquals(hash, interned.hashCode());
+    assertEquals("Apple", interned.getArgument(1));
+    assertTrue(interned.getArgument(2) instanceof CycTermInterner.InternedNart);
+    assertSame(interned, CycTermInterner.intern(new NartImpl(fn, "Apple", new NartImpl(fn, "Pear"))));
+  }
+
+  @Test
+  public void testListsWithFormulasAreNotInterned() {
+    final NautImpl naut = new NautImpl(new CycConstantImpl("FruitFn",
+            CycObjectFactory.makeGuid("bd58c19d-9c29-11b1-9dad-c379636f7270")), "Apple");
+    final CycArrayList list = new CycArrayList(Arrays.asList(naut, 1));
+    assertSame(list, CycTermInterner.intern(list));
+    // Its other elements are still interned, into a copy:
+    final CycArrayList withTerm = new CycArrayList(Arrays.asList(naut, makeTerm("A")));
+    final CycArrayList result = CycTermInterner.intern(withTerm);
+    assertFalse(result instanceof CycTermInterner.InternedCycList);
+    assertNotSame(withTerm, result);
+    assertSame(CycTermInterner.intern(makeTerm("A")), result.get(1));
+    // Nor are the lists which contain them:
+    final CycArrayList outer = new CycArrayList(Arrays.asList(list, 2));
+    assertFalse(CycTermInterner.intern(outer) instanceof CycTermInterner.InternedCycList);
+  }
+
+  @Test
+  public void testListsWithCanonicalElementsAreNotCopied() {
+    final CycArrayList interned = CycTermInterner.intern(makeTerm("A"));
+    final CycArrayList outer = new CycArrayList(Arrays.asList(interned, 1));
+    final CycArrayList result = CycTermInterner.intern(outer);
+    assertTrue(result instanceof CycTermInterner.InternedCycList);
+    assertSame(interned, result.get(0));
+    assertSame(result, CycTermInterner.intern(new CycArrayList(Arrays.asList(makeTerm("A"), 1))));
+  }
+
+  @Test
+  public void testInvalidNartsAreUnchanged() {
+    assertSame(CycObjectFactory.INVALID_NART, CycTermInterner.intern(CycObjectFactory.INVALID_NART));
+  }
+
+  @Test
+  public void testDecodersLeaveInvalidNartsInLists() throws IOException {
+    // (1 <invalid NART>), where the invalid NART is encoded as a NART whose formula is NIL:
+    final byte[] encoded = concat(new byte[]{CFASL_LIST}, encode(2), encode(1),
+            new byte[]{CFASL_NART, CFASL_NIL});
+    CycTermInterner.setEnabled(true);
+    final CycArrayList fromBuffer = (CycArrayList) new CfaslByteBufferDecoder()
+            .readObject(ByteBuffer.wrap(encoded));
+    assertEquals(1, fromBuffer.get(0));
+    assertSame(CycObjectFactory.INVALID_NART, fromBuffer.get(1));
+    final CycArrayList fromStream = (CycArrayList) new CfaslInputStream(
+            new ByteArrayInputStream(encoded)).readObject();
+    assertEquals(1, fromStream.get(0));
+    assertSame(CycObjectFactory.INVALID_NART, fromStream.get(1));
+  }
+
+  //====|    Internal    |========================================================================//
+
+  /**
+   * Returns a fresh list like (:TERM (FN "name") 42).
+   */
+  private static CycArrayList makeTerm(String name) {
+    final CycArrayList inner = new CycArrayList(Arrays.asList(
+            CycObjectFactory.makeCycSymbol("FN"), name));
+    return new CycArrayList(Arrays.asList(CycObjectFactory.makeCycSymbol(":TERM"), inner, 42));
+  }
+
+  private static byte[] encode(Object obj) throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final CfaslOutputStream cos = new CfaslOutputStream(baos);
+    cos.writeObject(obj);
+    cos.flush();
+    return baos.toByteArray();
+  }
+
+  private static byte[] concat(byte[]... arrays) {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      baos.write(array, 0, array.length);
+    }
+    return baos.toByteArray();
+  }
+
+  private static final byte CFASL_NIL = 12;
+  private static final byte CFASL_LIST = 13;
+  private static final byte CFASL_NART = 31;
+
+}
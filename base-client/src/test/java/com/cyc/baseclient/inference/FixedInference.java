@@ -0,0 +1,78 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: FixedInference.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.cycobject.CycListParser;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An inference with a fixed number of answers, each of which binds ?X to its answer id. Answers
+ * are returned in the format of {@link InferenceAnswerCache#makeFetchCommand}, without sources.
+ */
+class FixedInference implements InferenceAnswerPager.PageSource {
+
+  final AtomicInteger fetches = new AtomicInteger();
+  final AtomicInteger failures = new AtomicInteger();
+  private final int answerCount;
+
+  FixedInference(int answerCount) {
+    this.answerCount = answerCount;
+  }
+
+  /**
+   * Returns answers <code>first</code> to <code>first + count - 1</code>, with nil for each
+   * answer id at or beyond the answer count.
+   */
+  CycList<Object> getAnswers(int first, int count) {
+    final StringBuilder answers = new StringBuilder("(");
+    for (int answerId = first; answerId < first + count; answerId++) {
+      answers.append((answerId < answerCount) ? "(((?X . " + answerId + "))) " : "nil ");
+    }
+    return new CycListParser(null).read(answers.append(")").toString());
+  }
+
+  @Override
+  public CompletableFuture<List<?>> fetch(int firstAnswerId, int count) {
+    fetches.incrementAndGet();
+    final CompletableFuture<List<?>> response = new CompletableFuture<>();
+    if (failures.getAndDecrement() > 0) {
+      response.completeExceptionally(new CycConnectionException("Simulated failure"));
+      return response;
+    }
+    try {
+      response.complete(getAnswers(firstAnswerId, count));
+    } catch (RuntimeException ex) {
+      response.completeExceptionally(ex);
+    }
+    return response;
+  }
+
+  @Override
+  public int countAnswers() {
+    return answerCount;
+  }
+
+}
@@ -0,0 +1,130 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerCacheTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycVariable;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycListParser;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests how InferenceAnswerCache decodes fetched answers, and which of them it remembers.
+ */
+public class InferenceAnswerCacheTest {
+
+  @Test
+  public void testAddAll() throws Exception {
+    final InferenceAnswerCache cache = newCache();
+    cache.addAll(5, new CycListParser(null).read(
+            "((((?X . 1) (?Y . \"two\")) (:source-a :source-b)) nil (nil nil))"), 8);
+    final CycVariable x = CycObjectFactory.makeCycVariable("?X");
+    final CycVariable y = CycObjectFactory.makeCycVariable("?Y");
+
+    final InferenceAnswerCache.AnswerData first = cache.get(5);
+    assertEquals(2, first.getBindings().size());
+    assertEquals(1, first.getBindings().get(x));
+    assertEquals("two", first.getBindings().get(y));
+    assertEquals(Arrays.asList(CycObjectFactory.makeCycSymbol(":source-a"),
+            CycObjectFactory.makeCycSymbol(":source-b")), first.getSources());
+
+    final InferenceAnswerCache.AnswerData third = cache.get(7);
+    assertTrue(third.getBindings().isEmpty());
+    assertEquals(Collections.emptyList(), third.getSources());
+
+    // Cached as missing, so this does not try to fetch it with the null CycAccess:
+    assertNull(cache.get(6));
+  }
+
+  @Test
+  public void testMissingAnswersAtOrBeyondCountAreNotCached() throws Exception {
+    final InferenceAnswerCache cache = newCache();
+    // Answer 1 is below the count, but has gone:
+    cache.addAll(0, new FixedInference(1).getAnswers(0, 4), 2);
+    assertTrue(cache.isCached(0));
+    assertTrue(cache.isCached(1));
+    assertFalse(cache.isCached(2));
+    assertFalse(cache.isCached(3));
+    assertNull(cache.get(1));
+
+    // Once a running inference has found them, a later fetch caches them:
+    cache.addAll(2, new FixedInference(4).getAnswers(2, 2), 4);
+    assertEquals(3, cache.get(3).getBindings().get(CycObjectFactory.makeCycVariable("?X")));
+  }
+
+  @Test
+  public void testFailedAnswerDoesNotFailOthers() throws Exception {
+    final InferenceAnswerCache cache = newCache();
+    cache.addAll(0, new CycListParser(null).read("((((?X . 0)) nil) :error (((?X . 2)) nil))"), 3);
+    final CycVariable x = CycObjectFactory.makeCycVariable("?X");
+    assertEquals(0, cache.get(0).getBindings().get(x));
+    assertEquals(2, cache.get(2).getBindings().get(x));
+    assertTrue(cache.isCached(1));
+    assertNull(cache.get(1));
+  }
+
+  @Test
+  public void testBindingsWithoutSources() throws Exception {
+    final InferenceAnswerCache.AnswerData data = InferenceAnswerCache.toAnswerData(
+            new CycListParser(null).read("(((?X . 1)))"));
+    assertEquals(1, data.getBindings().get(CycObjectFactory.makeCycVariable("?X")));
+    assertNull(data.getSources());
+    assertNull(InferenceAnswerCache.toAnswerData(CycObjectFactory.nil));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    final InferenceAnswerCache cache = newCache();
+    cache.addAll(0, new FixedInference(1).getAnswers(0, 1), 1);
+    assertTrue(cache.isCached(0));
+    cache.clear();
+    assertFalse(cache.isCached(0));
+  }
+
+  @Test
+  public void testSharedPerInference() {
+    final InferenceAnswerCache cache
+            = InferenceAnswerCache.forInference(new DefaultInferenceIdentifier(1, 2), null);
+    assertSame(cache,
+            InferenceAnswerCache.forInference(new DefaultInferenceIdentifier(1, 2), null));
+    assertNotSame(cache,
+            InferenceAnswerCache.forInference(new DefaultInferenceIdentifier(1, 3), null));
+    InferenceAnswerCache.forget(new DefaultInferenceIdentifier(1, 2), null);
+    assertNotSame(cache,
+            InferenceAnswerCache.forInference(new DefaultInferenceIdentifier(1, 2), null));
+    InferenceAnswerCache.forget(new DefaultInferenceIdentifier(1, 2), null);
+    InferenceAnswerCache.forget(new DefaultInferenceIdentifier(1, 3), null);
+  }
+
+  private static InferenceAnswerCache newCache() {
+    return new InferenceAnswerCache(new DefaultInferenceIdentifier(1, 2), null);
+  }
+
+}
@@ -0,0 +1,122 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerPagerTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.base.inference.InferenceAnswer;
+import com.cyc.baseclient.CycObjectFactory;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the page cache and prefetching of InferenceAnswerPager.
+ */
+public class InferenceAnswerPagerTest {
+
+  @Test
+  public void testGetAnswersSpansPages() throws Exception {
+    final InferenceAnswerPager pager = newPager(new FixedInference(120), 50, 3);
+    final List<InferenceAnswer> answers = pager.getAnswers(40, 110);
+    assertEquals(70, answers.size());
+    for (int i = 0; i < answers.size(); i++) {
+      assertEquals(40 + i, answers.get(i).getAnswerID());
+    }
+    assertEquals(40 + 3,
+            answers.get(3).getBindings().get(CycObjectFactory.makeCycVariable("?X")));
+  }
+
+  @Test
+  public void testGetAnswersBeyondLastAnswer() throws Exception {
+    final InferenceAnswerPager pager = newPager(new FixedInference(120), 50, 3);
+    assertEquals(20, pager.getAnswers(100, 200).size());
+    assertTrue(pager.getAnswers(500, 600).isEmpty());
+  }
+
+  @Test
+  public void testGetAnswerCount() throws Exception {
+    final FixedInference inference = new FixedInference(120);
+    assertEquals(120, newPager(inference, 50, 3).getAnswerCount());
+    assertEquals(0, inference.fetches.get());
+  }
+
+  @Test
+  public void testSequentialAccessPrefetches() throws Exception {
+    final FixedInference inference = new FixedInference(1000);
+    final InferenceAnswerPager pager = newPager(inference, 10, 3);
+    pager.getPage(0);
+    assertTrue(pager.isCached(1));
+    pager.getPage(1);
+    assertTrue(pager.isCached(2));
+    assertEquals(3, inference.fetches.get());
+  }
+
+  @Test
+  public void testRandomAccessDoesNotPrefetch() throws Exception {
+    final FixedInference inference = new FixedInference(1000);
+    final InferenceAnswerPager pager = newPager(inference, 10, 3);
+    pager.getPage(5);
+    assertFalse(pager.isCached(6));
+    assertEquals(1, inference.fetches.get());
+  }
+
+  @Test
+  public void testIteratorHoldsFewPages() {
+    final FixedInference inference = new FixedInference(1000);
+    final InferenceAnswerPager pager = newPager(inference, 10, 3);
+    int count = 0;
+    for (Iterator<InferenceAnswer> it = pager.iterator(); it.hasNext();) {
+      assertEquals(count, it.next().getAnswerID());
+      count++;
+      assertTrue(pager.getCachedPageCount() <= 3);
+    }
+    assertEquals(1000, count);
+    assertEquals(101, inference.fetches.get());
+  }
+
+  @Test
+  public void testFailedPageIsFetchedAgain() throws Exception {
+    final FixedInference inference = new FixedInference(100);
+    inference.failures.set(1);
+    final InferenceAnswerPager pager = newPager(inference, 10, 3);
+    try {
+      pager.getPage(0);
+      fail("Expected the first fetch to fail");
+    } catch (CycConnectionException ex) {
+      // expected
+    }
+    assertFalse(pager.isCached(0));
+    assertEquals(10, pager.getPage(0).size());
+  }
+
+  private static InferenceAnswerPager newPager(FixedInference inference,
+                                               int pageSize, int cachedPages) {
+    return new InferenceAnswerPager(new DefaultInferenceIdentifier(1, 2), inference, pageSize,
+            cachedPages);
+  }
+
+}
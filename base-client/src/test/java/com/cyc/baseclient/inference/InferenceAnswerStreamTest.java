@@ -0,0 +1,142 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: InferenceAnswerStreamTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.exception.BaseClientRuntimeException;
+import com.cyc.query.InferenceStatus;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the buffering and flow control of InferenceAnswerStream.
+ */
+public class InferenceAnswerStreamTest {
+
+  @Test
+  public void testBackpressure() {
+    final EagerStream stream = new EagerStream(4, null);
+    stream.runStarted();
+    stream.deliver(0, 4, DefaultInferenceSuspendReason.MAX_NUMBER);
+    assertEquals(4, stream.getBufferedAnswerCount());
+    assertEquals(0, stream.next());
+    assertTrue(stream.requests.isEmpty());
+    assertEquals(1, stream.next());
+    assertEquals(Arrays.asList(2), stream.requests);
+    final List<Object> rest = new ArrayList<>();
+    while (stream.hasNext()) {
+      rest.add(stream.next());
+      assertTrue(stream.getBufferedAnswerCount() <= 4);
+    }
+    assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9), rest);
+    assertEquals(Arrays.asList(2, 2, 2), stream.requests);
+    assertEquals(10, stream.getReceivedAnswerCount());
+  }
+
+  @Test
+  public void testMaxAnswerCount() {
+    final EagerStream stream = new EagerStream(4, 5);
+    assertEquals(4, stream.getRunSize(0));
+    stream.runStarted();
+    stream.deliver(0, 4, DefaultInferenceSuspendReason.MAX_NUMBER);
+    int count = 0;
+    while (stream.hasNext()) {
+      stream.next();
+      count++;
+    }
+    assertEquals(5, count);
+    assertEquals(Arrays.asList(1), stream.requests);
+  }
+
+  @Test
+  public void testFailure() {
+    final EagerStream stream = new EagerStream(4, null);
+    stream.runStarted();
+    stream.answersArrived(Arrays.asList("a"));
+    stream.runTerminated(new Exception("lost connection"));
+    assertEquals("a", stream.next());
+    try {
+      stream.hasNext();
+      fail("Expected a BaseClientRuntimeException");
+    } catch (BaseClientRuntimeException ex) {
+      assertEquals("lost connection", ex.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testClose() {
+    final EagerStream stream = new EagerStream(4, null);
+    stream.runStarted();
+    stream.deliver(0, 4, DefaultInferenceSuspendReason.MAX_NUMBER);
+    stream.close();
+    assertFalse(stream.hasNext());
+    assertTrue(stream.isReleased);
+  }
+
+  /**
+   * Answers each request for more answers at once, until 10 answers have been produced, after
+   * which the inference is exhausted.
+   */
+  private static class EagerStream extends InferenceAnswerStream {
+
+    EagerStream(int capacity, Integer maxAnswerCount) {
+      super(capacity, maxAnswerCount);
+    }
+
+    void deliver(int first, int count, DefaultInferenceSuspendReason suspendReason) {
+      final List<Object> answers = new ArrayList<>();
+      for (int i = first; i < first + count; i++) {
+        answers.add(i);
+      }
+      answersArrived(answers);
+      statusChanged(InferenceStatus.SUSPENDED, suspendReason);
+      runTerminated(null);
+    }
+
+    @Override
+    void requestMoreAnswers(int count) {
+      requests.add(count);
+      final int first = getReceivedAnswerCount();
+      final int delivered = Math.min(count, TOTAL_ANSWERS - first);
+      deliver(first, delivered, (first + delivered < TOTAL_ANSWERS)
+                                        ? DefaultInferenceSuspendReason.MAX_NUMBER
+                                        : DefaultInferenceSuspendReason.EXHAUST);
+    }
+
+    @Override
+    void releaseInference() {
+      isReleased = true;
+    }
+
+    private static final int TOTAL_ANSWERS = 10;
+
+    private final List<Integer> requests = new ArrayList<>();
+    private boolean isReleased = false;
+  }
+
+}
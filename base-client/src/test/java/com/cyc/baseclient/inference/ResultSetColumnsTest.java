@@ -0,0 +1,137 @@
+package com.cyc.baseclient.inference;
+
+/*
+ * #%L
+ * File: ResultSetColumnsTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycListParser;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests ResultSetColumns, and DefaultResultSet's use of it.
+ */
+public class ResultSetColumnsTest {
+
+  @Test
+  public void testColumnIndex() {
+    final ResultSetColumns columns = new ResultSetColumns();
+    assertEquals(0, columns.addColumnIfAbsent("?X"));
+    assertEquals(1, columns.addColumnIfAbsent("?Y"));
+    assertEquals(0, columns.addColumnIfAbsent("?X"));
+    assertEquals(1, columns.indexOf("?Y"));
+    assertEquals(-1, columns.indexOf("?Z"));
+    assertEquals(Arrays.asList("?X", "?Y"), columns.getColumnNames());
+  }
+
+  @Test
+  public void testPrimitiveColumns() {
+    final ResultSetColumns columns = new ResultSetColumns();
+    final int ints = columns.addColumnIfAbsent("?INT");
+    final int longs = columns.addColumnIfAbsent("?LONG");
+    final int doubles = columns.addColumnIfAbsent("?DOUBLE");
+    for (int i = 0; i < 100; i++) {
+      final int row = columns.addRow();
+      columns.set(row, ints, i);
+      columns.set(row, longs, i * 10000000000L);
+      columns.set(row, doubles, i + 0.5);
+    }
+    assertEquals(100, columns.getRowCount());
+    assertEquals(Integer.valueOf(42), columns.get(42, ints));
+    assertEquals(42, columns.getInt(42, ints));
+    assertEquals(42.0, columns.getDouble(42, ints), 0);
+    assertEquals(Long.valueOf(420000000000L), columns.get(42, longs));
+    assertEquals(420000000000L, columns.getLong(42, longs));
+    assertEquals((int) 420000000000L, columns.getInt(42, longs));
+    assertEquals(Double.valueOf(42.5), columns.get(42, doubles));
+    assertEquals(42.5, columns.getDouble(42, doubles), 0);
+    assertEquals(42, columns.getInt(42, doubles));
+  }
+
+  @Test
+  public void testMixedColumn() {
+    final ResultSetColumns columns = new ResultSetColumns();
+    final int col = columns.addColumnIfAbsent("?X");
+    columns.addRow();
+    columns.addRow();
+    columns.addRow();
+    columns.set(0, col, 7);
+    columns.set(2, col, "seven");
+    assertEquals(Integer.valueOf(7), columns.get(0, col));
+    assertNull(columns.get(1, col));
+    assertEquals("seven", columns.get(2, col));
+    assertEquals(7, columns.getInt(0, col));
+    try {
+      columns.getInt(1, col);
+      fail("Expected a NullPointerException");
+    } catch (NullPointerException ex) {
+      // expected
+    }
+    try {
+      columns.getInt(2, col);
+      fail("Expected a ClassCastException");
+    } catch (ClassCastException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLateColumnAndRowView() {
+    final ResultSetColumns columns = new ResultSetColumns();
+    final int x = columns.addColumnIfAbsent("?X");
+    columns.set(columns.addRow(), x, "a");
+    final int y = columns.addColumnIfAbsent("?Y");
+    columns.set(columns.addRow(), y, 2);
+    assertEquals(Arrays.asList("a", null), columns.getRow(0));
+    assertEquals(Arrays.asList(null, 2), columns.getRow(1));
+    try {
+      columns.getRow(2);
+      fail("Expected an IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testDefaultResultSet() {
+    final DefaultResultSet rs = new DefaultResultSet(new CycListParser(null).read(
+            "(((?X . 1) (?Y . \"one\")) ((?X . 2) (?Z . :two)))"));
+    assertFalse(rs.hasTruthValue());
+    assertEquals(Arrays.asList("?X", "?Y", "?Z"), rs.getColumnNames());
+    assertEquals(2, rs.getCurrentRowCount());
+    assertTrue(rs.next());
+    assertEquals(1, rs.getInt("?X"));
+    assertEquals("one", rs.getString("?Y"));
+    assertNull(rs.getObject("?Z"));
+    assertTrue(rs.next());
+    assertEquals(2L, rs.getLong(rs.findColumn("?X")));
+    assertNull(rs.getObject("?Y"));
+    assertEquals(CycObjectFactory.makeCycSymbol(":two"), rs.getObject("?Z"));
+    assertFalse(rs.next());
+  }
+
+}
@@ -0,0 +1,229 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: BulkAssertLoaderTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CycAccess;
+import com.cyc.base.CycAccessOptions;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.Fort;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.CommonConstants;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the commands which BulkAssertLoader sends, and the order in which it reports results.
+ */
+public class BulkAssertLoaderTest {
+
+  private static final CycAccess ACCESS = stubAccess();
+
+  @Test
+  public void testMakeCommand() {
+    final BulkAssertRecord record = makeRecord(0);
+    final String form = new BulkAssertLoader(ACCESS)
+            .makeCommand(record, null, null).cyclify().toLowerCase();
+    assertTrue(form,
+            form.startsWith("(with-bookkeeping-info (new-bookkeeping-info nil (the-date)"));
+    assertTrue(form, form.contains("(*the-cyclist* nil)"));
+    assertTrue(form, form.contains("(multiple-value-list (cyc-assert (quote (#$isa "));
+    assertTrue(form, form.contains("(quote #$basekb) (quote (:strength :default))))"));
+    assertFalse(form, form.contains("with-strict-wff"));
+  }
+
+  @Test
+  public void testMakeTranscriptCommand() {
+    final BulkAssertRecord record = new BulkAssertRecord(
+            makeSentence(0), CommonConstants.BASE_KB, ":monotonic", ":forward");
+    final String form = new BulkAssertLoader(ACCESS)
+            .setBookkeeping(false)
+            .setTranscript(true)
+            .setWffCheckingDisabled(true)
+            .makeCommand(record, null, null).cyclify().toLowerCase();
+    assertTrue(form,
+            form.startsWith("(with-strict-wff (clet ((*assume-assert-sentence-is-wf?* t))"));
+    assertTrue(form, form.contains("(ke-assert-now (quote (#$isa "));
+    assertTrue(form, form.contains("(quote #$basekb) :monotonic :forward)"));
+    assertFalse(form, form.contains("bookkeeping"));
+  }
+
+  @Test
+  public void testParseResponse() {
+    final BulkAssertRecord record = makeRecord(0);
+    final CycList assertions = CycArrayList.makeCycList("assertion");
+    BulkAssertResult result = BulkAssertLoader.parseResponse(
+            record, CycArrayList.makeCycList(CycObjectFactory.t, assertions));
+    assertTrue(result.isSuccessful());
+    assertSame(assertions, result.getAssertions());
+    assertSame(record, result.getRecord());
+    result = BulkAssertLoader.parseResponse(
+            record, CycArrayList.makeCycList(CycObjectFactory.t, CycObjectFactory.nil));
+    assertTrue(result.isSuccessful());
+    assertNull(result.getAssertions());
+    result = BulkAssertLoader.parseResponse(
+            record, CycArrayList.makeCycList(CycObjectFactory.nil, "not wff"));
+    assertFalse(result.isSuccessful());
+    assertTrue(result.getErrorMessage().contains("not wff"));
+    assertFalse(BulkAssertLoader.parseResponse(record, CycObjectFactory.nil).isSuccessful());
+  }
+
+  @Test
+  public void testLoadInOrder() throws Exception {
+    final AtomicInteger read = new AtomicInteger();
+    final AtomicInteger reported = new AtomicInteger();
+    final AtomicInteger maxReadAhead = new AtomicInteger();
+    final ChunkLoader loader = new ChunkLoader();
+    loader.setChunkSize(10).setParallelism(3);
+    final Iterator<BulkAssertRecord> records = IntStream.range(0, 1000)
+            .mapToObj(BulkAssertLoaderTest::makeRecord)
+            .peek((record) -> { read.incrementAndGet(); })
+            .iterator();
+    final long asserted = loader.load(records, (result) -> {
+      final int i = reported.getAndIncrement();
+      assertEquals(makeSentence(i), result.getRecord().getSentence());
+      assertEquals(i % 7 != 0, result.isSuccessful());
+      maxReadAhead.accumulateAndGet(read.get() - i, Math::max);
+    });
+    assertEquals(1000, reported.get());
+    assertEquals(1000 - 143, asserted);
+    assertEquals(100, loader.chunks.get());
+    assertTrue(loader.maxInFlight.get() <= 3);
+    assertTrue(maxReadAhead.get() <= 3 * 10);
+  }
+
+  @Test
+  public void testLoadCollection() throws Exception {
+    final List<BulkAssertRecord> records = IntStream.range(0, 25)
+            .mapToObj(BulkAssertLoaderTest::makeRecord)
+            .collect(Collectors.toList());
+    final List<BulkAssertResult> results = new ChunkLoader().setChunkSize(10).load(records);
+    assertEquals(25, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertSame(records.get(i), results.get(i).getRecord());
+    }
+  }
+
+  @Test
+  public void testConnectionErrorIsThrown() {
+    final ChunkLoader loader = new ChunkLoader();
+    loader.failOnChunk = 2;
+    loader.setChunkSize(10).setParallelism(2);
+    final List<BulkAssertResult> results = new ArrayList<>();
+    try {
+      loader.load(IntStream.range(0, 100).mapToObj(BulkAssertLoaderTest::makeRecord), results::add);
+      fail("Expected a CycConnectionException");
+    } catch (CycConnectionException ex) {
+      assertEquals(20, results.size());
+    }
+  }
+
+  //====|    Internal    |========================================================================//
+
+  private static CycList makeSentence(int i) {
+    return CycArrayList.makeCycList(CommonConstants.ISA, "term-" + i, CommonConstants.COLLECTION);
+  }
+
+  private static BulkAssertRecord makeRecord(int i) {
+    return new BulkAssertRecord(makeSentence(i), CommonConstants.BASE_KB);
+  }
+
+  private static int termIndex(BulkAssertRecord record) {
+    final String term = (String) record.getSentence().get(1);
+    return Integer.parseInt(term.substring("term-".length()));
+  }
+
+  /**
+   * A CycAccess whose options have neither a cyclist nor a KE purpose, and which does nothing else.
+   */
+  private static CycAccess stubAccess() {
+    final CycAccessOptions options = (CycAccessOptions) Proxy.newProxyInstance(
+            CycAccessOptions.class.getClassLoader(),
+            new Class<?>[]{CycAccessOptions.class},
+            (proxy, method, args) -> { return null; });
+    return (CycAccess) Proxy.newProxyInstance(
+            CycAccess.class.getClassLoader(),
+            new Class<?>[]{CycAccess.class},
+            (proxy, method, args) -> {
+              return "getOptions".equals(method.getName()) ? options : null;
+            });
+  }
+
+  /**
+   * Asserts chunks without a server: every seventh record fails.
+   */
+  private static class ChunkLoader extends BulkAssertLoader {
+
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int failOnChunk = -1;
+
+    private ChunkLoader() {
+      super(Collections.singletonList(ACCESS));
+    }
+
+    @Override
+    List<BulkAssertResult> assertChunk(CycAccess access,
+                                       List<BulkAssertRecord> chunk,
+                                       Fort cyclist,
+                                       Fort kePurpose) throws CycConnectionException {
+      chunks.incrementAndGet();
+      final int chunkIndex = termIndex(chunk.get(0)) / getChunkSize();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(chunkIndex % 3);
+        if (chunkIndex == failOnChunk) {
+          throw new CycConnectionException("Simulated failure");
+        }
+        final List<BulkAssertResult> results = new ArrayList<>();
+        for (BulkAssertRecord record : chunk) {
+          final int i = termIndex(record);
+          results.add((i % 7 != 0)
+                      ? BulkAssertResult.success(record, null)
+                      : BulkAssertResult.failure(record, "Simulated failure"));
+        }
+        return results;
+      } catch (InterruptedException ex) {
+        throw new IllegalStateException(ex);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+
+}
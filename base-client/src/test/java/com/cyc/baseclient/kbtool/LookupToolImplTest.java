@@ -0,0 +1,162 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: LookupToolImplTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.CommandTool;
+import com.cyc.base.CycAccess;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.Guid;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bulk constant lookups of LookupToolImpl against a simulated Cyc server.
+ */
+public class LookupToolImplTest {
+
+  private static final CycConstantImpl DOG = new CycConstantImpl("TestDog",
+          CycObjectFactory.makeGuid("bd58daa0-9c29-11b1-9dad-c379636f7270"));
+  private static final CycConstantImpl CAT = new CycConstantImpl("TestCat",
+          CycObjectFactory.makeGuid("bd590573-9c29-11b1-9dad-c379636f7270"));
+
+  private final List<CycList> commands = new ArrayList<>();
+  private final Map<Object, CycConstantImpl> kb = new HashMap<>();
+  private LookupToolImpl lookupTool;
+
+  @Before
+  public void setUp() {
+    CycObjectFactory.resetCycConstantCaches();
+    kb.put(DOG.getName(), DOG);
+    kb.put(DOG.getGuid(), DOG);
+    kb.put(CAT.getName(), CAT);
+    kb.put(CAT.getGuid(), CAT);
+    lookupTool = new LookupToolImpl(stubAccess());
+  }
+
+  @Test
+  public void testMakeBulkLookupCommand() {
+    final String form = LookupToolImpl.makeBulkLookupCommand("find-constant",
+            Arrays.asList("TestDog", "TestCat")).cyclify().toLowerCase();
+    assertEquals("(mapcar (quote find-constant) (quote (\"testdog\" \"testcat\")))", form);
+  }
+
+  @Test
+  public void testFindConstantsByName() throws Exception {
+    final Map<String, CycConstantImpl> found = lookupTool.findConstantsByName(
+            Arrays.asList("#$TestDog", "TestCat", "NoSuchConstant", "TestCat"));
+    assertEquals(2, found.size());
+    assertSame(DOG, found.get("#$TestDog"));
+    assertSame(CAT, found.get("TestCat"));
+    assertEquals(1, commands.size());
+    assertSame(DOG, CycObjectFactory.getCycConstantCacheByGuid(DOG.getGuid()));
+    // Served from the cache the second time:
+    lookupTool.findConstantsByName(Arrays.asList("TestDog", "TestCat"));
+    assertEquals(1, commands.size());
+  }
+
+  @Test
+  public void testFindConstantsForGuids() throws Exception {
+    final List result = lookupTool.findConstantsForGuids(Arrays.asList(
+            CAT, DOG.getGuid(), "00000000-0000-0000-0000-000000000000"));
+    assertEquals(Arrays.asList(CAT, DOG, CycObjectFactory.nil), result);
+    assertEquals(1, commands.size());
+    assertSame(CAT, CycObjectFactory.getCycConstantCacheByName("TestCat"));
+  }
+
+  @Test
+  public void testFindConstantsForNames() throws Exception {
+    final List result = lookupTool.findConstantsForNames(
+            Arrays.asList("TestCat", "NoSuchConstant", "TestDog"));
+    assertEquals(Arrays.asList(CAT, CycObjectFactory.nil, DOG), result);
+  }
+
+  @Test
+  public void testReadWarmSet() throws Exception {
+    final List<Guid> guids = new ArrayList<>();
+    final List<String> names = new ArrayList<>();
+    LookupToolImpl.readWarmSet(new StringReader(
+            "; constants used at startup\n"
+            + "bd58daa0-9c29-11b1-9dad-c379636f7270\n"
+            + "\n"
+            + "# by name\n"
+            + "  #$TestCat  \n"
+            + "Collection\n"), guids, names);
+    assertEquals(Arrays.asList(DOG.getGuid()), guids);
+    assertEquals(Arrays.asList("#$TestCat", "Collection"), names);
+  }
+
+  @Test
+  public void testWarmConstantCache() throws Exception {
+    final int found = lookupTool.warmConstantCache(new StringReader(
+            "bd58daa0-9c29-11b1-9dad-c379636f7270\nTestCat\nNoSuchConstant\n"));
+    assertEquals(2, found);
+    assertEquals(2, commands.size());
+    assertSame(DOG, CycObjectFactory.getCycConstantCacheByName("TestDog"));
+    assertSame(CAT, CycObjectFactory.getCycConstantCacheByGuid(CAT.getGuid()));
+  }
+
+  //====|    Internal    |========================================================================//
+
+  /**
+   * A CycAccess which answers bulk lookups from the simulated KB, and does nothing else.
+   */
+  private CycAccess stubAccess() {
+    final CommandTool converse = (CommandTool) Proxy.newProxyInstance(
+            CommandTool.class.getClassLoader(),
+            new Class<?>[]{CommandTool.class},
+            (proxy, method, args) -> {
+              return "converseList".equals(method.getName()) ? lookup((CycList) args[0]) : null;
+            });
+    return (CycAccess) Proxy.newProxyInstance(
+            CycAccess.class.getClassLoader(),
+            new Class<?>[]{CycAccess.class},
+            (proxy, method, args) -> {
+              return "converse".equals(method.getName()) ? converse : null;
+            });
+  }
+
+  private CycList lookup(CycList command) {
+    commands.add(command);
+    final CycList keys = (CycList) ((CycList) command.get(2)).get(1);
+    final CycList<Object> answers = new CycArrayList<>();
+    for (Object key : keys) {
+      final CycConstantImpl constant = kb.get(key);
+      answers.add((constant != null) ? constant : CycObjectFactory.nil);
+    }
+    return answers;
+  }
+
+}
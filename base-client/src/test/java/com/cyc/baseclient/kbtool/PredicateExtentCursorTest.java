@@ -0,0 +1,237 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: PredicateExtentCursorTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycAssertion;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that PredicateExtentCursor pages through an extent, and releases it however iteration ends.
+ */
+public class PredicateExtentCursorTest {
+
+  @Test
+  public void testIteratesInPages() throws Exception {
+    final HeldExtent extent = new HeldExtent(25);
+    final PredicateExtentCursor cursor = new PredicateExtentCursor(extent, 10);
+    assertEquals(25, cursor.getSize());
+    final List<CycAssertion> seen = new ArrayList<>();
+    while (cursor.hasNext()) {
+      seen.add(cursor.next());
+    }
+    assertEquals(extent.assertions, seen);
+    // open with the first page, then two more pages:
+    assertEquals(2, extent.nexts.get());
+    assertEquals(0, extent.closes.get());
+    cursor.close();
+    assertEquals(0, extent.closes.get());
+    assertEquals(1, extent.releases.get());
+  }
+
+  @Test
+  public void testSmallExtentNeedsOneRequest() throws Exception {
+    final HeldExtent extent = new HeldExtent(3);
+    final PredicateExtentCursor cursor = new PredicateExtentCursor(extent, 10);
+    assertEquals(3, cursor.stream().count());
+    assertEquals(0, extent.nexts.get());
+    assertFalse(extent.held);
+    assertEquals(1, extent.releases.get());
+  }
+
+  @Test
+  public void testSkipsNonAssertions() throws Exception {
+    final HeldExtent extent = new HeldExtent(5);
+    extent.remaining.add(2, CycObjectFactory.nil);
+    final PredicateExtentCursor cursor = new PredicateExtentCursor(extent, 2);
+    assertEquals(extent.assertions, cursor.stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testCloseReleasesExtent() throws Exception {
+    final HeldExtent extent = new HeldExtent(100);
+    try (Stream<CycAssertion> stream = new PredicateExtentCursor(extent, 10).stream()) {
+      assertSame(extent.assertions.get(0), stream.findFirst().get());
+    }
+    assertEquals(1, extent.closes.get());
+    assertFalse(extent.held);
+    assertEquals(1, extent.releases.get());
+  }
+
+  @Test
+  public void testFailedOpenReleasesExtent() throws Exception {
+    final HeldExtent extent = new HeldExtent(100);
+    extent.openFailure = new IllegalStateException("lost");
+    try {
+      new PredicateExtentCursor(extent, 10);
+      fail("The open should have failed");
+    } catch (IllegalStateException ex) {
+      assertSame(extent.openFailure, ex);
+    }
+    assertEquals(1, extent.closes.get());
+    assertFalse(extent.held);
+    assertEquals(1, extent.releases.get());
+  }
+
+  @Test
+  public void testFailedPageReleasesExtent() throws Exception {
+    final HeldExtent extent = new HeldExtent(100);
+    extent.nextFailure = new IllegalStateException("lost");
+    final PredicateExtentCursor cursor = new PredicateExtentCursor(extent, 10);
+    for (int i = 0; i < 10; i++) {
+      cursor.next();
+    }
+    try {
+      cursor.hasNext();
+      fail("The page should have failed");
+    } catch (IllegalStateException ex) {
+      assertSame(extent.nextFailure, ex);
+    }
+    assertEquals(1, extent.closes.get());
+    assertFalse(extent.held);
+    assertEquals(1, extent.releases.get());
+    cursor.close();
+    assertEquals(1, extent.closes.get());
+    assertEquals(1, extent.releases.get());
+  }
+
+  @Test
+  public void testShrunkenExtent() throws Exception {
+    final HeldExtent extent = new HeldExtent(20);
+    final PredicateExtentCursor cursor = new PredicateExtentCursor(extent, 5);
+    // the first page has been taken, and the second prefetched:
+    extent.shrinkTo(13);
+    assertEquals(20, cursor.getSize());
+    assertEquals(13, cursor.stream().count());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPageSize() throws Exception {
+    new PredicateExtentCursor(new HeldExtent(1), 0);
+  }
+
+  //====|    Internal    |========================================================================//
+
+  private static CycAssertion makeAssertion(int i) {
+    return (CycAssertion) Proxy.newProxyInstance(
+            CycAssertion.class.getClassLoader(),
+            new Class<?>[]{CycAssertion.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "equals":
+                  return proxy == args[0];
+                case "hashCode":
+                  return i;
+                default:
+                  return "assertion-" + i;
+              }
+            });
+  }
+
+  /**
+   * An extent held on the server, which counts the requests made for it.
+   */
+  private static class HeldExtent implements PredicateExtentCursor.ExtentSource {
+
+    private final List<CycAssertion> assertions = new ArrayList<>();
+    private final List<Object> remaining = new ArrayList<>();
+    private final AtomicInteger nexts = new AtomicInteger();
+    private final AtomicInteger closes = new AtomicInteger();
+    private final AtomicInteger releases = new AtomicInteger();
+    private RuntimeException openFailure = null;
+    private RuntimeException nextFailure = null;
+    private int delivered = 0;
+    private volatile boolean held = false;
+
+    private HeldExtent(int size) {
+      for (int i = 0; i < size; i++) {
+        assertions.add(makeAssertion(i));
+      }
+      remaining.addAll(assertions);
+    }
+
+    private synchronized void shrinkTo(int size) {
+      while (!remaining.isEmpty() && delivered + remaining.size() > size) {
+        remaining.remove(remaining.size() - 1);
+      }
+    }
+
+    private synchronized List<Object> take(int pageSize) {
+      final List<Object> page = new CycArrayList<>();
+      while (page.size() < pageSize && !remaining.isEmpty()) {
+        page.add(remaining.remove(0));
+      }
+      delivered += page.size();
+      held = !remaining.isEmpty();
+      return page;
+    }
+
+    @Override
+    public List<?> open(int pageSize) {
+      final int size = remaining.size();
+      if (openFailure != null) {
+        // As if the response were lost after the extent was gathered:
+        held = true;
+        throw openFailure;
+      }
+      return CycArrayList.makeCycList(size, take(pageSize));
+    }
+
+    @Override
+    public CompletableFuture<? extends List<?>> next(int pageSize) {
+      nexts.incrementAndGet();
+      if (nextFailure != null) {
+        final CompletableFuture<List<?>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(nextFailure);
+        return failed;
+      }
+      return CompletableFuture.completedFuture(take(pageSize));
+    }
+
+    @Override
+    public synchronized void close() {
+      closes.incrementAndGet();
+      remaining.clear();
+      held = false;
+    }
+
+    @Override
+    public void release() {
+      releases.incrementAndGet();
+    }
+  }
+
+}
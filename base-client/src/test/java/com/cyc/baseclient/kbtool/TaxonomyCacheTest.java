@@ -0,0 +1,239 @@
+package com.cyc.baseclient.kbtool;
+
+/*
+ * #%L
+ * File: TaxonomyCacheTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycObject;
+import com.cyc.baseclient.CommonConstants;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import com.cyc.baseclient.kbtool.TaxonomyCache.Relation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the closures computed by TaxonomyCache, and the expiry and invalidation of its entries.
+ */
+public class TaxonomyCacheTest {
+
+  private static final CycConstantImpl THING = makeConstant("TestThing", 1);
+  private static final CycConstantImpl ANIMAL = makeConstant("TestAnimal", 2);
+  private static final CycConstantImpl MAMMAL = makeConstant("TestMammal", 3);
+  private static final CycConstantImpl DOG = makeConstant("TestDog", 4);
+  private static final CycConstantImpl PET = makeConstant("TestPet", 5);
+  private static final CycConstantImpl FIDO = makeConstant("TestFido", 6);
+
+  private final Map<Object, List<Object>> genls = new HashMap<>();
+  private final Map<Object, List<Object>> isas = new HashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+
+  public TaxonomyCacheTest() {
+    genls.put(DOG, new ArrayList<>(Arrays.asList(MAMMAL, ANIMAL)));
+    genls.put(MAMMAL, new ArrayList<>(Arrays.asList(ANIMAL)));
+    genls.put(ANIMAL, new ArrayList<>(Arrays.asList(THING)));
+    isas.put(FIDO, new ArrayList<>(Arrays.asList(DOG)));
+  }
+
+  @Test
+  public void testMakeFetchCommand() {
+    assertEquals("(with-all-mts (mapcar (quote genls) (quote (#$testdog #$testpet))))",
+            TaxonomyCache.makeFetchCommand(Relation.GENLS, Arrays.asList(DOG, PET), null)
+                    .cyclify().toLowerCase());
+    assertEquals("(mapcar (quote isa) (quote (#$testfido)) (quote (#$basekb)))",
+            TaxonomyCache.makeFetchCommand(Relation.ISA, Arrays.asList(FIDO),
+                    CommonConstants.BASE_KB).cyclify().toLowerCase());
+  }
+
+  @Test
+  public void testAllGenls() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    assertEquals(CycArrayList.makeCycList(DOG, MAMMAL, ANIMAL, THING),
+            cache.getAllGenls(DOG, null));
+    // One request per level: (Dog), (Mammal Animal), (Thing)
+    assertEquals(3, requests.get());
+    assertTrue(cache.isGenlOf(THING, DOG, null));
+    assertTrue(cache.isGenlOf(DOG, DOG, null));
+    assertFalse(cache.isGenlOf(DOG, THING, null));
+    assertEquals(3, requests.get());
+    assertEquals(CycArrayList.makeCycList(MAMMAL, ANIMAL), cache.getGenls(DOG, null));
+  }
+
+  @Test
+  public void testAllSpecs() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    assertEquals(new HashSet<>(Arrays.asList(ANIMAL, DOG, MAMMAL)),
+            new HashSet<>(cache.getAllSpecs(ANIMAL, null)));
+  }
+
+  @Test
+  public void testIsa() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    assertTrue(cache.isa(FIDO, THING, null));
+    assertFalse(cache.isa(FIDO, PET, null));
+    assertEquals(CycArrayList.makeCycList(DOG, MAMMAL, ANIMAL, THING),
+            cache.getAllIsa(FIDO, null));
+  }
+
+  @Test
+  public void testMinGenls() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    assertEquals(CycArrayList.makeCycList(MAMMAL), cache.getMinGenls(DOG, null));
+    // Mutual genls are both minimal:
+    genls.put(PET, new ArrayList<>(Arrays.asList(ANIMAL)));
+    genls.get(ANIMAL).add(PET);
+    genls.put(DOG, new ArrayList<>(Arrays.asList(ANIMAL, PET)));
+    cache.clear();
+    assertEquals(CycArrayList.makeCycList(ANIMAL, PET), cache.getMinGenls(DOG, null));
+  }
+
+  @Test
+  public void testMtsAreCachedSeparately() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    cache.getGenls(DOG, null);
+    cache.getGenls(DOG, CommonConstants.BASE_KB);
+    cache.getGenls(DOG, CommonConstants.BASE_KB);
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  public void testNoteChange() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    assertFalse(cache.isa(FIDO, PET, null));
+    isas.get(FIDO).add(PET);
+    assertFalse(cache.isa(FIDO, PET, null));
+    cache.noteChange(CycArrayList.makeCycList(CommonConstants.ISA, FIDO, PET));
+    assertTrue(cache.isa(FIDO, PET, null));
+
+    assertFalse(cache.isGenlOf(PET, DOG, null));
+    genls.get(DOG).add(PET);
+    cache.noteChange(CommonConstants.GENLS, DOG, PET);
+    assertTrue(cache.isGenlOf(PET, DOG, null));
+    assertTrue(cache.getAllSpecs(PET, null).contains(DOG));
+
+    final int before = requests.get();
+    cache.noteChange(CycArrayList.makeCycList(CommonConstants.COMMENT, DOG, "A dog"));
+    cache.isGenlOf(PET, DOG, null);
+    assertEquals(before, requests.get());
+  }
+
+  @Test
+  public void testNoteChangeOfString() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    cache.getGenls(DOG, null);
+    cache.noteChange("(#$comment #$TestDog \"A dog\")");
+    cache.noteChange("(#$isaTest #$TestDog #$TestPet)");
+    assertEquals(1, cache.size());
+    cache.noteChange("(#$and (#$isa #$TestFido #$TestPet) (#$genls #$TestDog #$TestPet))");
+    assertEquals(0, cache.size());
+    cache.getGenls(DOG, null);
+    cache.noteChange("(genls #$TestDog #$TestPet)");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final TaxonomyCache cache = newCache(60000);
+    cache.getGenls(DOG, null);
+    cache.getGenls(DOG, CommonConstants.BASE_KB);
+    cache.getIsas(DOG, null);
+    cache.getGenls(MAMMAL, null);
+    assertEquals(4, cache.size());
+    cache.invalidate(DOG);
+    assertEquals(1, cache.size());
+    cache.getGenls(MAMMAL, null);
+    assertEquals(4, requests.get());
+    cache.invalidate(DOG);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInvalidateAfterEviction() throws Exception {
+    final List<CycConstantImpl> terms = Arrays.asList(THING, ANIMAL, MAMMAL, DOG, PET, FIDO);
+    final TaxonomyCache cache = new TaxonomyCache(this::fetch, true, 60000, 2);
+    for (CycConstantImpl term : terms) {
+      cache.getGenls(term, null);
+    }
+    assertEquals(2, cache.size());
+    for (CycConstantImpl term : terms) {
+      cache.invalidate(term);
+    }
+    assertEquals(0, cache.size());
+    cache.getGenls(FIDO, null);
+    assertEquals(7, requests.get());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    final TaxonomyCache cache = newCache(1);
+    cache.getGenls(DOG, null);
+    Thread.sleep(5);
+    cache.getGenls(DOG, null);
+    assertEquals(2, requests.get());
+  }
+
+  //====|    Internal    |========================================================================//
+
+  private static CycConstantImpl makeConstant(String name, int i) {
+    return new CycConstantImpl(name,
+            CycObjectFactory.makeGuid(String.format("00000000-0000-0000-0000-%012d", i)));
+  }
+
+  private TaxonomyCache newCache(long ttlMsecs) {
+    return new TaxonomyCache(this::fetch, true, ttlMsecs, 1000);
+  }
+
+  private List<List<?>> fetch(Relation relation, List<Object> terms, CycObject mt) {
+    requests.incrementAndGet();
+    final List<List<?>> result = new ArrayList<>();
+    for (Object term : terms) {
+      switch (relation) {
+        case GENLS:
+          result.add(genls.getOrDefault(term, Collections.emptyList()));
+          break;
+        case ISA:
+          result.add(isas.getOrDefault(term, Collections.emptyList()));
+          break;
+        default:
+          final List<Object> specs = new ArrayList<>();
+          genls.forEach((spec, specGenls) -> {
+            if (specGenls.contains(term)) {
+              specs.add(spec);
+            }
+          });
+          result.add(specs);
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.cyc.baseclient.subl;
+
+/*
+ * #%L
+ * File: SublCommandTemplateTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests how SublCommandTemplate binds its placeholders.
+ */
+public class SublCommandTemplateTest {
+
+  @Test
+  public void testBind() {
+    final SublCommandTemplate template
+            = new SublCommandTemplate("(remove-duplicates (all-specs ?1 ?2) \"?1\")");
+    assertEquals(2, template.getArity());
+    final CycList<Object> command = template.bind("a string", 42);
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.makeCycSymbol("remove-duplicates"),
+            CycArrayList.makeCycList(CycObjectFactory.makeCycSymbol("all-specs"), "a string", 42),
+            "?1"),
+            command);
+  }
+
+  @Test
+  public void testBindQuotesListsAndSymbols() {
+    final SublCommandTemplate template = new SublCommandTemplate("(min-col ?1 ?2)");
+    final CycList<Object> list = CycArrayList.makeCycList((Object) "a", "b");
+    final Object symbol = CycObjectFactory.makeCycSymbol("foo");
+    final Object keyword = CycObjectFactory.makeCycSymbol(":key");
+    final CycList<Object> command = template.bind(list, symbol);
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.quote, list), command.get(1));
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.quote, symbol), command.get(2));
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.quote, new CycArrayList<>(list)),
+            template.bind(Arrays.asList("a", "b"), keyword).get(1));
+    assertEquals(keyword, template.bind(list, keyword).get(2));
+  }
+
+  @Test
+  public void testQuotedPlaceholders() {
+    final SublCommandTemplate template = new SublCommandTemplate("(foo '(?1 bar) ?2 ?1)");
+    final CycList<Object> list = CycArrayList.makeCycList((Object) "a");
+    final CycList<Object> command = template.bind(list, true);
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.quote,
+            CycArrayList.makeCycList(list, CycObjectFactory.makeCycSymbol("bar"))),
+            command.get(1));
+    assertEquals(CycObjectFactory.t, command.get(2));
+    assertEquals(CycArrayList.makeCycList(CycObjectFactory.quote, list), command.get(3));
+  }
+
+  @Test
+  public void testBindReturnsFreshLists() {
+    final SublCommandTemplate template = new SublCommandTemplate("(with-all-mts (all-genls ?1))");
+    final CycList<Object> first = template.bind("x");
+    final CycList<Object> second = template.bind("x");
+    assertEquals(first, second);
+    assertNotSame(first, second);
+    assertNotSame(first.get(1), second.get(1));
+  }
+
+  @Test
+  public void testInvalidUse() {
+    final SublCommandTemplate template = new SublCommandTemplate("(foo ?1)");
+    try {
+      template.bind();
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new SublCommandTemplate("(isa ?1 #$Collection)");
+      fail("Expected CycApiException");
+    } catch (CycApiException expected) {
+    }
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.cyc.baseclient.util;
+
+/*
+ * #%L
+ * File: ConcurrentLruCacheTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bounds, eviction order and statistics of ConcurrentLruCache.
+ */
+public class ConcurrentLruCacheTest {
+
+  @Test
+  public void testBoundedWithStatistics() {
+    final ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(16, 100);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, "v" + i);
+    }
+    assertEquals(100, cache.size());
+    assertEquals(900, cache.getEvictionCount());
+    final Integer key = cache.keySet().iterator().next();
+    assertEquals("v" + key, cache.get(key));
+    assertNull(cache.get(-1));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testRecentlyUsedEntriesSurvive() {
+    final int maxSize = 4 * ConcurrentLruCache.EVICTION_SAMPLE_SIZE;
+    final ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(16, maxSize);
+    for (int i = 0; i < maxSize; i++) {
+      cache.put(i, i);
+    }
+    final Integer hotKey = 7;
+    for (int i = maxSize; i < 10 * maxSize; i++) {
+      assertEquals(hotKey, cache.get(hotKey));
+      cache.put(i, i);
+    }
+    assertTrue(cache.containsKey(hotKey));
+  }
+
+  @Test
+  public void testExpiredValuesEvictedFirst() throws InterruptedException {
+    final ConcurrentLruCache<Integer, CachedValue<String>> cache = new ConcurrentLruCache<>(16, 8);
+    for (int i = 0; i < 8; i++) {
+      cache.put(i, new CachedValue<>("v" + i, (i == 5) ? 1 : 0));
+    }
+    Thread.sleep(5);
+    cache.put(8, new CachedValue<>("v8", 0));
+    assertEquals(8, cache.size());
+    assertFalse(cache.containsKey(5));
+  }
+
+  @Test
+  public void testEvictionHooks() {
+    final List<Integer> evicted = new ArrayList<>();
+    final ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<Integer, Integer>(16, 8) {
+      @Override
+      protected boolean isExpired(Integer value) {
+        return value < 0;
+      }
+
+      @Override
+      protected void onEviction(Integer key, Integer value) {
+        evicted.add(key);
+      }
+    };
+    for (int i = 0; i < 8; i++) {
+      cache.put(i, (i == 3) ? -1 : i);
+    }
+    cache.remove(0);
+    cache.put(0, 0);
+    cache.put(8, 8);
+    assertEquals(1, evicted.size());
+    assertEquals(Integer.valueOf(3), evicted.get(0));
+    assertEquals(8, cache.size());
+  }
+
+  @Test
+  public void testNullKeysAndValues() {
+    final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(16, 10);
+    cache.put("a", "b");
+    assertEquals("b", cache.put("a", null));
+    assertTrue(cache.containsKey("a"));
+    assertNull(cache.get("a"));
+    assertEquals(1, cache.getHitCount());
+    assertNull(cache.put(null, "c"));
+    assertTrue(cache.containsKey(null));
+    assertEquals("c", cache.get(null));
+    assertTrue(cache.keySet().contains(null));
+    assertTrue(cache.containsValue(null));
+    assertEquals(2, cache.size());
+    assertEquals("c", cache.remove(null));
+    assertFalse(cache.containsKey(null));
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    final ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(16, 500);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int offset = t * 10000;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 5000; i++) {
+            cache.put(offset + i, i);
+            cache.get(offset + i / 2);
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    cache.put(-1, -1);
+    assertTrue(cache.size() <= 500);
+    assertEquals(40000, cache.getHitCount() + cache.getMissCount());
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.cyc.baseclient.util;
+
+/*
+ * #%L
+ * File: LruCacheTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that LruCache treats nulls and counts lookups alike whether or not it is backed by a
+ * ConcurrentLruCache.
+ */
+public class LruCacheTest {
+
+  @Test
+  public void testNullsWhenSynchronized() {
+    checkNulls(new LruCache<String, String>(16, 10, true));
+  }
+
+  @Test
+  public void testNullsWhenUnsynchronized() {
+    checkNulls(new LruCache<String, String>(16, 10, false));
+  }
+
+  private static void checkNulls(LruCache<String, String> cache) {
+    assertNull(cache.put(null, "a"));
+    assertNull(cache.put("b", null));
+    assertEquals(2, cache.size());
+    assertEquals("a", cache.get(null));
+    assertNull(cache.get("b"));
+    assertTrue(cache.containsKey("b"));
+    assertNull(cache.get("c"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals("a", cache.remove(null));
+    assertEquals(1, cache.size());
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.cyc.baseclient.util;
+
+/*
+ * #%L
+ * File: VirtualThreadsTest.java
+ * Project: Base Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests VirtualThreads on whichever JVM runs the tests.
+ */
+public class VirtualThreadsTest {
+
+  @Test
+  public void testEnabledOnlyWhenAvailable() {
+    assertTrue(VirtualThreads.isAvailable() || !VirtualThreads.isEnabled());
+    assertEquals(Boolean.getBoolean(VirtualThreads.VIRTUAL_THREADS_PROPERTY)
+            && VirtualThreads.isAvailable(), VirtualThreads.isEnabled());
+  }
+
+  @Test
+  public void testNewExecutorRunsTasks() throws Exception {
+    final ExecutorService fallback = Executors.newSingleThreadExecutor();
+    final ExecutorService executor = VirtualThreads.newExecutor("test-", () -> fallback);
+    try {
+      if (!VirtualThreads.isEnabled()) {
+        assertSame(fallback, executor);
+      }
+      assertEquals(Integer.valueOf(2), executor.submit(() -> 1 + 1).get());
+    } finally {
+      executor.shutdownNow();
+      fallback.shutdownNow();
+    }
+  }
+
+}
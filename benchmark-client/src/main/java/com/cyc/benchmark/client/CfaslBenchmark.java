@@ -0,0 +1,121 @@
+package com.cyc.benchmark.client;
+
+/*
+ * #%L
+ * File: CfaslBenchmark.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.connection.CfaslInputStream;
+import com.cyc.baseclient.connection.CfaslOutputStream;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures CFASL encoding and decoding of a message shaped like an inference answer: a list of
+ * binding lists mixing constants, variables, keywords, strings and numbers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CfaslBenchmark {
+
+  /** The number of binding lists in the message. */
+  @Param({"10", "1000"})
+  public int rows;
+
+  @Setup
+  public void setUp() throws IOException {
+    message = makeMessage(rows);
+    sink = new ByteArrayOutputStream();
+    final CfaslOutputStream out = new CfaslOutputStream(sink);
+    out.writeObject(message);
+    out.flush();
+    encoded = sink.toByteArray();
+  }
+
+  @Benchmark
+  public Object readObject() throws IOException {
+    return new CfaslInputStream(new ByteArrayInputStream(encoded)).readObject();
+  }
+
+  @Benchmark
+  public int writeObject() throws IOException {
+    sink.reset();
+    final CfaslOutputStream out = new CfaslOutputStream(sink);
+    out.writeObject(message);
+    out.flush();
+    return sink.size();
+  }
+
+  /**
+   * Returns a list of <code>rows</code> binding lists, each of the form
+   * <code>((?X #$Constant-n) (?NAME "n") (?COUNT n) (?SCORE n.5) (?TYPE :keyword))</code>.
+   */
+  static CycList<Object> makeMessage(int rows) {
+    final CycList<Object> message = new CycArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      final CycList<Object> bindings = new CycArrayList<>(5);
+      bindings.add(binding("?X", makeConstant("BenchmarkConstant-" + i)));
+      bindings.add(binding("?NAME", "benchmark string " + i));
+      bindings.add(binding("?COUNT", i));
+      bindings.add(binding("?SCORE", i + 0.5));
+      bindings.add(binding("?TYPE", CycObjectFactory.makeCycSymbol(":benchmark-keyword")));
+      message.add(bindings);
+    }
+    return message;
+  }
+
+  static CycConstantImpl makeConstant(String name) {
+    final UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    return new CycConstantImpl(name, CycObjectFactory.makeGuid(uuid.toString()));
+  }
+
+  private static CycList<Object> binding(String variableName, Object value) {
+    return new CycArrayList<>(CycObjectFactory.makeCycVariable(variableName), value);
+  }
+
+  //// Internal Rep
+
+  private CycList<Object> message;
+  private byte[] encoded;
+  private ByteArrayOutputStream sink;
+
+}
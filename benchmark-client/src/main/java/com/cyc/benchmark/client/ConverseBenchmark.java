@@ -0,0 +1,101 @@
+package com.cyc.benchmark.client;
+
+/*
+ * #%L
+ * File: ConverseBenchmark.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.CycClient;
+import com.cyc.baseclient.cycobject.CycListParser;
+import com.cyc.benchmark.client.mock.MockCycServer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures round trips through CycClient and CycConnectionImpl to a {@link MockCycServer}, from one
+ * thread and from several threads sharing the connection. The number of CFASL socket pairs which
+ * the connection opens may be set with
+ * <code>-jvmArgs -Dcom.cyc.baseclient.connection.socketPairs=N</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverseBenchmark {
+
+  /** The simulated server latency, in milliseconds. */
+  @Param({"0", "2"})
+  public long latencyMsecs;
+
+  @Setup
+  public void setUp() throws IOException, CycConnectionException {
+    server = new MockCycServer()
+            .respondTo("benchmark-echo", form -> form.second())
+            .setLatency(latencyMsecs, latencyMsecs);
+    server.start();
+    access = CycClient.get(server.getCycAddress());
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (access != null) {
+      access.close();
+    }
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Benchmark
+  public Object converse() throws CycConnectionException {
+    return access.converse().converseObject(COMMAND);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object converseConcurrently() throws CycConnectionException {
+    return access.converse().converseObject(COMMAND);
+  }
+
+  //// Internal Rep
+
+  private static final CycList COMMAND = new CycListParser(null)
+          .read("(benchmark-echo (quote (:benchmark-keyword \"benchmark string\" 42 2.5)))");
+
+  private MockCycServer server;
+  private CycClient access;
+
+}
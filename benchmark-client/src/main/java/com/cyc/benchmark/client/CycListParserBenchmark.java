@@ -0,0 +1,72 @@
+package com.cyc.benchmark.client;
+
+/*
+ * #%L
+ * File: CycListParserBenchmark.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.cycobject.CycListParser;
+import com.cyc.baseclient.subl.SublCommandTemplate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares building a SubL command by parsing its text, as most tools still do, with binding a
+ * prepared {@link SublCommandTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CycListParserBenchmark {
+
+  @Benchmark
+  public CycList parseCommand() {
+    return new CycListParser(null).read("(with-all-mts (remove-duplicates (all-specs (quote "
+            + SYMBOL_NAME + ") (quote (" + ARGUMENT + ")) \"" + STRING + "\" 42)))");
+  }
+
+  @Benchmark
+  public CycList bindTemplate() {
+    return TEMPLATE.bind(SYMBOL, ARGUMENTS, STRING, 42);
+  }
+
+  //// Internal Rep
+
+  private static final String SYMBOL_NAME = "benchmark-symbol";
+  private static final String ARGUMENT = ":benchmark-keyword 1 2.5 \"three\"";
+  private static final String STRING = "benchmark string";
+  private static final Object SYMBOL = CycObjectFactory.makeCycSymbol(SYMBOL_NAME);
+  private static final CycList ARGUMENTS = new CycListParser(null).read("(" + ARGUMENT + ")");
+  private static final SublCommandTemplate TEMPLATE = new SublCommandTemplate(
+          "(with-all-mts (remove-duplicates (all-specs '?1 ?2 ?3 ?4)))");
+
+}
@@ -0,0 +1,112 @@
+package com.cyc.benchmark.client;
+
+/*
+ * #%L
+ * File: KbObjectFactoryBenchmark.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import com.cyc.benchmark.client.mock.MockCycServer;
+import com.cyc.kb.client.KbCollectionImpl;
+import com.cyc.kb.client.KbObjectImplFactory;
+import com.cyc.kb.exception.CreateException;
+import com.cyc.kb.exception.KbTypeException;
+import com.cyc.session.CycSessionConfigurationProperties;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures KbObjectImplFactory lookups of KB collections, both when they are served from its cache
+ * and when each one must be categorized and validated by the (mock) Cyc server.
+ *
+ * <p>The default session is pointed at the {@link MockCycServer} via the
+ * {@link CycSessionConfigurationProperties#SERVER_KEY} system property, so this benchmark must run
+ * in its own fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class KbObjectFactoryBenchmark {
+
+  /** The number of distinct collections which are looked up. */
+  @Param({"100", "10000"})
+  public int terms;
+
+  @Setup
+  public void setUp() throws IOException {
+    server = new MockCycServer();
+    server.start();
+    System.setProperty(CycSessionConfigurationProperties.SERVER_KEY,
+            "localhost:" + server.getBasePort());
+    constants = new CycConstantImpl[terms];
+    for (int i = 0; i < terms; i++) {
+      constants[i] = CfaslBenchmark.makeConstant("BenchmarkCollection-" + i);
+    }
+    KbObjectImplFactory.clearKBObjectCache();
+  }
+
+  @TearDown
+  public void tearDown() {
+    KbObjectImplFactory.clearKBObjectCache();
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Benchmark
+  public KbCollectionImpl cachedGet() throws KbTypeException, CreateException {
+    return KbObjectImplFactory.get(nextConstant(), KbCollectionImpl.class);
+  }
+
+  @Benchmark
+  public KbCollectionImpl uncachedGet() throws KbTypeException, CreateException {
+    KbObjectImplFactory.clearKBObjectCache();
+    return KbObjectImplFactory.get(nextConstant(), KbCollectionImpl.class);
+  }
+
+  //// Private Area
+
+  private CycConstantImpl nextConstant() {
+    next = (next + 1) % terms;
+    return constants[next];
+  }
+
+  //// Internal Rep
+
+  private MockCycServer server;
+  private CycConstantImpl[] constants;
+  private int next = 0;
+
+}
@@ -0,0 +1,451 @@
+package com.cyc.benchmark.client.mock;
+
+/*
+ * #%L
+ * File: MockCycServer.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.connection.CycConnection;
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.cycobject.CycSymbol;
+import com.cyc.baseclient.CycObjectFactory;
+import com.cyc.baseclient.connection.CfaslInputStream;
+import com.cyc.baseclient.connection.CfaslOutputStream;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import com.cyc.session.CycAddress;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-process stand-in for a Cyc server, which speaks the task-processor CFASL protocol used by
+ * CycConnectionImpl, so that the client stack can be exercised and benchmarked without a Cyc
+ * image.
+ *
+ * <p>SubL forms are answered by the {@link SublResponder} registered for their operator, after a
+ * simulated latency; forms with no responder evaluate to NIL. A few standard responders are
+ * registered by default, enough for CycClient to connect and renew its API services lease:
+ * <ul>
+ * <li><code>cyc-image-id</code>, <code>acquire-api-services-lease</code>,
+ * <code>fboundp</code> and <code>boundp</code></li>
+ * <li><code>find-constant</code>, which returns a constant with a GUID derived from its name</li>
+ * <li><code>quick-quiet-has-type?</code>, which is always true</li>
+ * <li><code>with-immediate-execution</code>, <code>with-all-mts</code>, <code>clet</code>,
+ * <code>progn</code> and <code>with-bookkeeping-info</code>, which answer their last form, and
+ * <code>fif</code>, which answers its "then" form</li>
+ * </ul>
+ *
+ * <P>Example usage: <code>
+ *  try (MockCycServer server = new MockCycServer()) {
+ *    server.respondTo("+", form -> (Integer) form.second() + (Integer) form.third());
+ *    server.setLatency(1, 5);
+ *    server.start();
+ *    CycClient access = CycClient.get(server.getCycAddress());
+ *    ...
+ *  }
+ * </code>
+ */
+public class MockCycServer implements Closeable {
+
+  /** The image ID reported by the mock server. */
+  public static final String IMAGE_ID = "mock-cyc-image";
+
+  //// Constructors
+
+  /** Creates a new mock server with the standard responders. Call {@link #start()} to use it. */
+  public MockCycServer() {
+    addStandardResponders();
+  }
+
+  //// Public Area
+
+  /**
+   * Answers forms whose operator is <code>functionName</code> with <code>responder</code>,
+   * replacing any existing responder for it.
+   *
+   * @param functionName the SubL function or macro name, in any case
+   * @param responder    computes the result of each form
+   *
+   * @return this server
+   */
+  public MockCycServer respondTo(String functionName, SublResponder responder) {
+    responders.put(canonicalize(functionName), responder);
+    return this;
+  }
+
+  /**
+   * Answers forms whose operator is <code>functionName</code> with <code>response</code>.
+   *
+   * @param functionName the SubL function or macro name, in any case
+   * @param response     the result of every such form
+   *
+   * @return this server
+   */
+  public MockCycServer respondWith(String functionName, Object response) {
+    return respondTo(functionName, form -> response);
+  }
+
+  /**
+   * Answers forms which have no responder of their own with <code>responder</code>. By default,
+   * they evaluate to NIL.
+   *
+   * @param responder computes the result of each form
+   *
+   * @return this server
+   */
+  public MockCycServer setDefaultResponder(SublResponder responder) {
+    this.defaultResponder = responder;
+    return this;
+  }
+
+  /**
+   * Delays each task-processor response by a random time between <code>minMsecs</code> and
+   * <code>maxMsecs</code>, inclusive. By default, responses are sent immediately.
+   *
+   * @param minMsecs the minimum latency in milliseconds
+   * @param maxMsecs the maximum latency in milliseconds
+   *
+   * @return this server
+   */
+  public MockCycServer setLatency(long minMsecs, long maxMsecs) {
+    if (minMsecs < 0 || maxMsecs < minMsecs) {
+      throw new IllegalArgumentException("Invalid latency " + minMsecs + " - " + maxMsecs);
+    }
+    this.minLatencyMsecs = minMsecs;
+    this.maxLatencyMsecs = maxMsecs;
+    return this;
+  }
+
+  /**
+   * Starts listening on an ephemeral port of the loopback interface.
+   *
+   * @throws IOException if the server socket cannot be opened
+   */
+  public synchronized void start() throws IOException {
+    if (serverSocket != null) {
+      throw new IllegalStateException("Already started: " + this);
+    }
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    final Thread acceptor = new Thread(this::acceptConnections, "MockCycServer acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOGGER.debug("Started {}", this);
+  }
+
+  /**
+   * Returns the base port to which clients should connect; the CFASL port, on which this server
+   * actually listens, is offset from it as usual.
+   */
+  public int getBasePort() {
+    if (serverSocket == null) {
+      throw new IllegalStateException("Not started: " + this);
+    }
+    return serverSocket.getLocalPort() - CycConnection.CFASL_PORT_OFFSET;
+  }
+
+  /** Returns the address to which clients should connect. */
+  public CycAddress getCycAddress() {
+    return CycAddress.get(serverSocket.getInetAddress().getHostAddress(), getBasePort());
+  }
+
+  /** Returns the number of task-processor requests which have been received. */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Returns the result of <code>form</code>, as computed by the responder for its operator. This
+   * may be used by responders for macros, to answer their body forms.
+   *
+   * @param form a SubL form
+   *
+   * @return the result of the form
+   */
+  public Object respond(Object form) {
+    if (!(form instanceof CycList) || ((CycList) form).isEmpty()) {
+      return form;
+    }
+    final CycList list = (CycList) form;
+    final Object operator = list.first();
+    final SublResponder responder = (operator instanceof CycSymbol)
+            ? responders.get(canonicalize(((CycSymbol) operator).getSymbolName()))
+            : null;
+    return (responder != null ? responder : defaultResponder).respond(list);
+  }
+
+  /** Stops the server, and closes all client connections. */
+  @Override
+  public synchronized void close() {
+    isClosed = true;
+    closeQuietly(serverSocket);
+    for (Socket socket : connections.keySet()) {
+      closeQuietly(socket);
+    }
+    connections.clear();
+    responseChannels.clear();
+    taskProcessors.shutdownNow();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "["
+            + ((serverSocket == null) ? "not started" : serverSocket.getLocalSocketAddress())
+            + "]";
+  }
+
+  //// Private Area
+
+  private void addStandardResponders() {
+    respondWith("cyc-image-id", IMAGE_ID);
+    respondWith("acquire-api-services-lease", "api services lease granted by " + IMAGE_ID);
+    respondWith("fboundp", CycObjectFactory.t);
+    respondWith("boundp", CycObjectFactory.t);
+    respondWith("quick-quiet-has-type?", CycObjectFactory.t);
+    respondTo("find-constant", form -> makeConstant((String) form.second()));
+    for (String macro : new String[]{"with-immediate-execution", "with-all-mts", "clet", "progn",
+                                     "with-bookkeeping-info"}) {
+      respondTo(macro, form -> respond(form.last()));
+    }
+    respondTo("fif", form -> respond(form.third()));
+  }
+
+  private static CycConstantImpl makeConstant(String name) {
+    final UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    return new CycConstantImpl(name, CycObjectFactory.makeGuid(uuid.toString()));
+  }
+
+  private void acceptConnections() {
+    while (!isClosed) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+      } catch (IOException ex) {
+        if (!isClosed) {
+          LOGGER.error("{} stopped accepting connections", this, ex);
+        }
+        return;
+      }
+      connections.put(socket, Boolean.TRUE);
+      final Thread reader = new Thread(() -> serveConnection(socket),
+              "MockCycServer connection " + connectionCount.incrementAndGet());
+      reader.setDaemon(true);
+      reader.start();
+    }
+  }
+
+  /**
+   * Reads requests from a client socket. The first message on an inbound (response) socket
+   * registers it under the client's UUID; every message on an outbound socket is a request.
+   */
+  private void serveConnection(Socket socket) {
+    try {
+      final CfaslInputStream in = new CfaslInputStream(socket.getInputStream());
+      while (!isClosed) {
+        final Object message = in.readObject();
+        if (isOperator(message, INITIALIZE_PASSIVE_SOCKET)) {
+          final ResponseChannel channel = new ResponseChannel(socket);
+          channel.send(CycObjectFactory.t, CycObjectFactory.t);
+          responseChannels.put((String) ((CycList) message).second(), channel);
+        } else if (isOperator(message, TASK_PROCESSOR_REQUEST)) {
+          requestCount.incrementAndGet();
+          final CycList request = (CycList) message;
+          taskProcessors.execute(() -> process(request));
+        } else if (isOperator(message, FIF)) {
+          cancelIfRequested((CycList) message);
+        } else {
+          LOGGER.debug("Ignoring message {}", message);
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      if (!isClosed) {
+        LOGGER.debug("Closing connection {}: {}", socket, ex.toString());
+      }
+    } finally {
+      connections.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  /**
+   * Answers <code>(task-processor-request form id priority requestor bindings uuid)</code>
+   * with <code>(task-processor-response form id priority requestor result error finished)</code>
+   * over the requesting client's inbound socket.
+   */
+  private void process(CycList request) {
+    final Object form = request.get(1);
+    Object result;
+    Object error = CycObjectFactory.nil;
+    try {
+      sleep(minLatencyMsecs == maxLatencyMsecs
+              ? minLatencyMsecs
+              : ThreadLocalRandom.current().nextLong(minLatencyMsecs, maxLatencyMsecs + 1));
+      result = respond(form);
+    } catch (MockSublError ex) {
+      result = CycObjectFactory.nil;
+      error = ex.getMessage();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Responder failed for {}", form, ex);
+      result = CycObjectFactory.nil;
+      error = "Mock responder failed: " + ex;
+    }
+    sendResponse(request, result, error);
+  }
+
+  /**
+   * Handles <code>(fif (terminate-active-task-process id uuid :cancel) ...)</code>, which the
+   * client sends outside the task processor to cancel a request.
+   */
+  private void cancelIfRequested(CycList message) {
+    final Object test = message.second();
+    if (!isOperator(test, TERMINATE_ACTIVE_TASK_PROCESS)) {
+      return;
+    }
+    final CycList terminate = (CycList) test;
+    if (CANCEL.equals(terminate.get(3))) {
+      final CycArrayList<Object> request = new CycArrayList<>();
+      request.add(TASK_PROCESSOR_REQUEST);
+      request.add(CycObjectFactory.nil);
+      request.add(terminate.get(1));
+      request.add(0);
+      request.add(CycObjectFactory.nil);
+      request.add(CycObjectFactory.nil);
+      request.add(terminate.get(2));
+      sendResponse(request, CycObjectFactory.nil, CANCEL);
+    }
+  }
+
+  private void sendResponse(CycList request, Object result, Object error) {
+    final String uuid = (String) request.get(6);
+    final ResponseChannel channel = responseChannels.get(uuid);
+    if (channel == null) {
+      LOGGER.warn("No response socket registered for {}", uuid);
+      return;
+    }
+    final CycArrayList<Object> response = new CycArrayList<>();
+    response.add(TASK_PROCESSOR_RESPONSE);
+    response.add(request.get(1));
+    response.add(request.get(2));
+    response.add(request.get(3));
+    response.add(request.get(4));
+    response.add(result);
+    response.add(error);
+    response.add(CycObjectFactory.t);
+    try {
+      channel.send(CycObjectFactory.t, response);
+    } catch (IOException ex) {
+      if (!isClosed) {
+        LOGGER.debug("Could not send response to {}: {}", uuid, ex.toString());
+      }
+    }
+  }
+
+  private static boolean isOperator(Object message, CycSymbol operator) {
+    return (message instanceof CycList) && !((CycList) message).isEmpty()
+            && operator.equals(((CycList) message).first());
+  }
+
+  private static String canonicalize(String functionName) {
+    return functionName.toUpperCase(Locale.ENGLISH);
+  }
+
+  private static void sleep(long msecs) {
+    if (msecs > 0) {
+      try {
+        TimeUnit.MILLISECONDS.sleep(msecs);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException ex) {
+        // ignore
+      }
+    }
+  }
+
+  /** The inbound socket of one client, over which responses are sent as (status response). */
+  private static final class ResponseChannel {
+
+    private final CfaslOutputStream out;
+
+    ResponseChannel(Socket socket) throws IOException {
+      this.out = new CfaslOutputStream(socket.getOutputStream());
+    }
+
+    synchronized void send(Object status, Object response) throws IOException {
+      out.writeObject(status);
+      out.writeObject(response);
+      out.flush();
+    }
+  }
+
+  //// Internal Rep
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MockCycServer.class);
+
+  private static final CycSymbol INITIALIZE_PASSIVE_SOCKET
+          = CycObjectFactory.makeCycSymbol("initialize-java-api-passive-socket");
+  private static final CycSymbol TASK_PROCESSOR_REQUEST
+          = CycObjectFactory.makeCycSymbol("task-processor-request");
+  private static final CycSymbol TASK_PROCESSOR_RESPONSE
+          = CycObjectFactory.makeCycSymbol("task-processor-response");
+  private static final CycSymbol TERMINATE_ACTIVE_TASK_PROCESS
+          = CycObjectFactory.makeCycSymbol("terminate-active-task-process");
+  private static final CycSymbol FIF = CycObjectFactory.makeCycSymbol("fif");
+  private static final CycSymbol CANCEL = CycObjectFactory.makeCycSymbol(":cancel");
+
+  private final Map<String, SublResponder> responders = new ConcurrentHashMap<>();
+  private final Map<String, ResponseChannel> responseChannels = new ConcurrentHashMap<>();
+  private final Map<Socket, Boolean> connections = new ConcurrentHashMap<>();
+  private final ExecutorService taskProcessors = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "MockCycServer task processor");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicLong requestCount = new AtomicLong(0);
+  private final AtomicInteger connectionCount = new AtomicInteger(0);
+  private volatile SublResponder defaultResponder = form -> CycObjectFactory.nil;
+  private volatile long minLatencyMsecs = 0;
+  private volatile long maxLatencyMsecs = 0;
+  private volatile ServerSocket serverSocket;
+  private volatile boolean isClosed = false;
+
+}
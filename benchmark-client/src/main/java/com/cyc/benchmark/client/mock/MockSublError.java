@@ -0,0 +1,34 @@
+package com.cyc.benchmark.client.mock;
+
+/*
+ * #%L
+ * File: MockSublError.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Thrown by a {@link SublResponder} to make the {@link MockCycServer} report a SubL error, which
+ * the client raises as a CycApiServerSideException.
+ */
+public class MockSublError extends RuntimeException {
+
+  public MockSublError(String message) {
+    super(message);
+  }
+
+}
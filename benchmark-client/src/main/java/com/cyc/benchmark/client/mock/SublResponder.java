@@ -0,0 +1,43 @@
+package com.cyc.benchmark.client.mock;
+
+/*
+ * #%L
+ * File: SublResponder.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+
+/**
+ * Computes the response of a {@link MockCycServer} to a SubL form.
+ */
+@FunctionalInterface
+public interface SublResponder {
+
+  /**
+   * Returns the result of evaluating <code>form</code>, which must be CFASL-serializable.
+   *
+   * @param form the SubL form sent by the client
+   *
+   * @return the result of the form
+   *
+   * @throws MockSublError to report a SubL error to the client
+   */
+  Object respond(CycList form) throws MockSublError;
+
+}
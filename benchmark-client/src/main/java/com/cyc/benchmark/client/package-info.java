@@ -0,0 +1,29 @@
+/**
+ * Provides JMH benchmarks of the client stack; <em>this code is <strong>not supported</strong> for
+ * external developers.</em> Build with the <code>benchmarks</code> profile of core-client-parent,
+ * and run with <code>java -jar benchmark-client/target/benchmarks.jar</code>.
+ * 
+ * @see com.cyc.benchmark.client.mock.MockCycServer
+ */
+package com.cyc.benchmark.client;
+
+/*
+ * #%L
+ * File: package-info.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
@@ -0,0 +1,117 @@
+package com.cyc.benchmark.client.mock;
+
+/*
+ * #%L
+ * File: MockCycServerTest.java
+ * Project: Benchmark Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.CycClient;
+import com.cyc.baseclient.cycobject.CycConstantImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Connects a real CycClient to a MockCycServer.
+ */
+public class MockCycServerTest {
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockCycServer()
+            .respondTo("+", form -> (Integer) form.second() + (Integer) form.third())
+            .respondTo("mock-error", form -> {
+              throw new MockSublError("mock error");
+            })
+            .respondWith("mock-greeting", "hello");
+    server.start();
+    access = CycClient.get(server.getCycAddress());
+  }
+
+  @After
+  public void tearDown() {
+    if (access != null) {
+      access.close();
+    }
+    server.close();
+  }
+
+  @Test
+  public void testConverse() throws Exception {
+    assertEquals(MockCycServer.IMAGE_ID, access.getCycImageID());
+    assertEquals(3, access.converse().converseInt("(+ 1 2)"));
+    assertEquals("hello", access.converse().converseString("(mock-greeting)"));
+    assertTrue(server.getRequestCount() >= 2);
+  }
+
+  @Test
+  public void testUnknownFunctionsReturnNil() throws Exception {
+    assertTrue(access.converse().converseList("(some-unknown-function 1 2)").isEmpty());
+  }
+
+  @Test
+  public void testFindConstant() throws Exception {
+    final Object constant = access.converse().converseObject("(find-constant \"Dog\")");
+    assertTrue(constant instanceof CycConstantImpl);
+    assertEquals("Dog", ((CycConstantImpl) constant).getName());
+  }
+
+  @Test
+  public void testSublError() throws Exception {
+    try {
+      access.converse().converseObject("(mock-error)");
+      fail("Expected a CycApiException");
+    } catch (CycApiException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("mock error"));
+    }
+  }
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    server.setLatency(5, 20);
+    final Thread[] threads = new Thread[8];
+    final int[] results = new int[threads.length];
+    for (int i = 0; i < threads.length; i++) {
+      final int index = i;
+      threads[i] = new Thread(() -> {
+        try {
+          results[index] = access.converse().converseInt("(+ " + index + " 100)");
+        } catch (Exception ex) {
+          results[index] = -1;
+        }
+      });
+      threads[i].start();
+    }
+    for (int i = 0; i < threads.length; i++) {
+      threads[i].join();
+      assertEquals(i + 100, results[i]);
+    }
+  }
+
+  //// Internal Rep
+
+  private MockCycServer server;
+  private CycClient access;
+
+}
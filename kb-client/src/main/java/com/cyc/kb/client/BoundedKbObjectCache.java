@@ -0,0 +1,268 @@
+package com.cyc.kb.client;
+
+/*
+ * #%L
+ * File: BoundedKbObjectCache.java
+ * Project: KB Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import com.cyc.baseclient.util.ConcurrentLruCache;
+import com.cyc.kb.KbObject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The cache behind {@link KbObjectImplFactory}. Each cached term is an <em>entry</em>, which holds
+ * the KbObjectImpls built for that term, indexed by the class they were requested as. An entry is
+ * reachable through several <em>aliases</em>: the name or id it was requested by, the cyclified
+ * core and the core's string representation.
+ *
+ * <p>The number of entries is bounded, and entries may optionally expire a fixed time after they
+ * were created. When an entry is evicted or expires, all of its aliases are removed with it.
+ *
+ * <p>The bounds are read from the system properties {@value #MAX_ENTRIES_PROPERTY} (default
+ * {@value #DEFAULT_MAX_ENTRIES}) and {@value #TIME_TO_LIVE_PROPERTY} (in milliseconds; default 0,
+ * meaning entries do not expire).
+ *
+ * @see KbObjectImplFactory#clearKBObjectCache()
+ */
+final class BoundedKbObjectCache {
+
+  static final String MAX_ENTRIES_PROPERTY = "com.cyc.kb.client.objectCache.maxEntries";
+
+  static final String TIME_TO_LIVE_PROPERTY = "com.cyc.kb.client.objectCache.timeToLiveMsecs";
+
+  static final int DEFAULT_MAX_ENTRIES = 100000;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BoundedKbObjectCache.class);
+
+  //// Constructors
+
+  BoundedKbObjectCache(final int maxEntries, final long timeToLiveMsecs) {
+    if (timeToLiveMsecs < 0) {
+      throw new IllegalArgumentException("Invalid time to live " + timeToLiveMsecs);
+    }
+    this.timeToLiveMsecs = timeToLiveMsecs;
+    this.entries = new ConcurrentLruCache<String, CachedTerm>(1024, maxEntries) {
+      @Override
+      protected boolean isExpired(CachedTerm entry) {
+        return BoundedKbObjectCache.this.isExpired(entry);
+      }
+
+      @Override
+      protected void onEviction(String canonicalKey, CachedTerm entry) {
+        removeAliases(entry);
+      }
+    };
+  }
+
+  static BoundedKbObjectCache fromSystemProperties() {
+    return new BoundedKbObjectCache(
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES),
+            Long.getLong(TIME_TO_LIVE_PROPERTY, 0));
+  }
+
+  //// Package Area
+
+  /**
+   * Returns the most recently cached valid object for <code>key</code> which is an instance of
+   * <code>c</code>, or null if there is none. If the entry for <code>key</code> has expired, or
+   * holds an object which is no longer valid, the entry is removed together with all its aliases.
+   */
+  <O extends KbObject> O get(final String key, final Class<O> c) {
+    final CachedTerm entry = lookup(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    O result = null;
+    for (final KbObjectImpl kbObject : entry.objectsByClass.values()) {
+      if (!kbObject.isValid()) {
+        LOG.info("The cached entry {} is not valid anymore! Removing it from the cache.", kbObject);
+        remove(entry);
+        misses.increment();
+        return null;
+      }
+      if (c.isAssignableFrom(kbObject.getClass())) {
+        result = (O) kbObject;
+      }
+    }
+    if (result == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the object cached under <code>key</code> for exactly the class <code>c</code>, or
+   * null. Does not affect the statistics.
+   */
+  KbObjectImpl getExact(final String key, final Class<?> c) {
+    final CachedTerm entry = lookup(key);
+    return (entry == null) ? null : entry.objectsByClass.get(c);
+  }
+
+  boolean containsKey(final String key) {
+    return lookup(key) != null;
+  }
+
+  /**
+   * Caches <code>kbObject</code> as class <code>c</code> in the entry for
+   * <code>canonicalKey</code>, and makes each of <code>aliases</code> refer to that entry. The most
+   * specific object in the entry is then used for every class it is cached as.
+   */
+  void put(final String canonicalKey, final Collection<String> aliases,
+          final Class<?> c, final KbObjectImpl kbObject) {
+    CachedTerm entry = lookup(canonicalKey);
+    if (entry == null) {
+      entry = new CachedTerm(canonicalKey);
+      final CachedTerm previous = entries.put(canonicalKey, entry);
+      if (previous != null && previous != entry) {
+        removeAliases(previous);
+      }
+    }
+    KbObjectImpl bestKbObject = kbObject;
+    // Ensure the most specific KBObject is used for all classes:
+    for (final KbObjectImpl maybeBest : entry.objectsByClass.values()) {
+      if (bestKbObject != maybeBest
+              && bestKbObject.getClass().isAssignableFrom(maybeBest.getClass())) {
+        bestKbObject = maybeBest;
+      }
+    }
+    entry.objectsByClass.put(c, bestKbObject);
+    for (final Class<?> oneClass : entry.objectsByClass.keySet()) {
+      entry.objectsByClass.put(oneClass, bestKbObject);
+    }
+    addAlias(entry, canonicalKey);
+    for (final String alias : aliases) {
+      addAlias(entry, alias);
+    }
+  }
+
+  /**
+   * Removes the entry which <code>key</code> refers to, together with all of its aliases.
+   *
+   * @return the objects which the entry held, or an empty collection if there was no entry
+   */
+  Collection<KbObjectImpl> invalidate(final String key) {
+    final CachedTerm entry = lookup(key);
+    if (entry == null) {
+      return Collections.emptyList();
+    }
+    remove(entry);
+    return entry.objectsByClass.values();
+  }
+
+  void clear() {
+    entries.clear();
+    aliases.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long getEvictionCount() {
+    return entries.getEvictionCount() + expirations.sum();
+  }
+
+  //// Private Area
+
+  private CachedTerm lookup(final String key) {
+    final String canonicalKey = aliases.get(key);
+    if (canonicalKey == null) {
+      return null;
+    }
+    final CachedTerm entry = entries.get(canonicalKey);
+    if (entry == null) {
+      // The entry was evicted after this alias was read:
+      aliases.remove(key, canonicalKey);
+      return null;
+    }
+    if (isExpired(entry)) {
+      if (remove(entry)) {
+        expirations.increment();
+      }
+      return null;
+    }
+    return entry;
+  }
+
+  private boolean isExpired(final CachedTerm entry) {
+    return (timeToLiveMsecs > 0)
+            && (System.currentTimeMillis() - entry.createdMsecs >= timeToLiveMsecs);
+  }
+
+  private void addAlias(final CachedTerm entry, final String alias) {
+    entry.aliases.add(alias);
+    final String previous = aliases.put(alias, entry.canonicalKey);
+    if (previous != null && !previous.equals(entry.canonicalKey)) {
+      LOG.trace("Cache key \"{}\" now refers to {} rather than {}", alias, entry.canonicalKey,
+              previous);
+    }
+  }
+
+  private boolean remove(final CachedTerm entry) {
+    final boolean removed = entries.remove(entry.canonicalKey, entry);
+    removeAliases(entry);
+    return removed;
+  }
+
+  private void removeAliases(final CachedTerm entry) {
+    for (final String alias : entry.aliases) {
+      aliases.remove(alias, entry.canonicalKey);
+    }
+  }
+
+  //// Internal Rep
+
+  private static final class CachedTerm {
+
+    final String canonicalKey;
+    final long createdMsecs = System.currentTimeMillis();
+    final Map<Class<?>, KbObjectImpl> objectsByClass = new ConcurrentHashMap<>();
+    final Set<String> aliases = ConcurrentHashMap.newKeySet();
+
+    CachedTerm(final String canonicalKey) {
+      this.canonicalKey = canonicalKey;
+    }
+  }
+
+  private final long timeToLiveMsecs;
+  private final ConcurrentLruCache<String, CachedTerm> entries;
+  private final Map<String, String> aliases = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+}
@@ -520,19 +520,25 @@ public class ContextImpl extends KbIndividualImpl<ElMt> implements Context {
   //====|    Methods    |=========================================================================//
   
   void setCore(CycObject cycObject) throws KbTypeException {
-    final ElMt newCore;
+    super.setCore(toElMt(cycObject));
+  }
+  
+  @Override
+  void setValidatedCore(CycObject cycObject) {
+    super.setValidatedCore(toElMt(cycObject));
+  }
+  
+  private ElMt toElMt(CycObject cycObject) {
     if (cycObject instanceof ElMt) {
-      newCore = (ElMt) cycObject;
-    } else {
-      try {
-        newCore = getAccess().getObjectTool().makeElMt(cycObject);
-      } catch (CycConnectionException e) {
-        throw KbRuntimeException.fromThrowable(
-                "The term \"" + cycObject.toString()
-                + "\" could not be converted to an " + ElMt.class.getSimpleName(), e);
-      }
+      return (ElMt) cycObject;
+    }
+    try {
+      return getAccess().getObjectTool().makeElMt(cycObject);
+    } catch (CycConnectionException e) {
+      throw KbRuntimeException.fromThrowable(
+              "The term \"" + cycObject.toString()
+              + "\" could not be converted to an " + ElMt.class.getSimpleName(), e);
     }
-    super.setCore(newCore);
   }
   
   @Override
@@ -25,12 +25,14 @@ import com.cyc.base.cycobject.CycList;
 import com.cyc.base.cycobject.CycObject;
 import com.cyc.base.cycobject.DenotationalTerm;
 import com.cyc.base.cycobject.FormulaSentence;
+import com.cyc.base.cycobject.Fort;
 import com.cyc.base.cycobject.Guid;
 import com.cyc.base.exception.CycApiException;
 import com.cyc.base.exception.CycConnectionException;
 import com.cyc.baseclient.cycobject.CycArrayList;
 import com.cyc.baseclient.cycobject.CycConstantImpl;
 import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
+import com.cyc.baseclient.subl.SublCommandTemplate;
 import com.cyc.kb.Context;
 import com.cyc.kb.KbCollection;
 import com.cyc.kb.KbFunction;
@@ -75,6 +77,23 @@ public class KbCollectionImpl<T extends DenotationalTerm>
   private static final Logger LOG = LoggerFactory.getLogger(KbCollectionImpl.class.getName());
   private static final DenotationalTerm TYPE_CORE =
           new CycConstantImpl("Collection", new Guid("bd5880cc-9c29-11b1-9dad-c379636f7270"));
+  
+  private static final SublCommandTemplate MIN_COL = new SublCommandTemplate("("
+          + SublConstants.getInstance().withAllMts.stringApiValue() + " ("
+          + SublConstants.getInstance().minCol.stringApiValue() + " ?1))");
+  private static final SublCommandTemplate ALL_SPECS = new SublCommandTemplate("("
+          + SublConstants.getInstance().removeDuplicates.stringApiValue() + " ("
+          + SublConstants.getInstance().withAllMts.stringApiValue() + " ("
+          + SublConstants.getInstance().allSpecs.stringApiValue() + " ?1)))");
+  private static final SublCommandTemplate ALL_SPECS_IN_MT = new SublCommandTemplate("("
+          + SublConstants.getInstance().allSpecs.stringApiValue() + " ?1 ?2)");
+  private static final SublCommandTemplate ALL_GENLS = new SublCommandTemplate("("
+          + SublConstants.getInstance().removeDuplicates.stringApiValue() + " ("
+          + SublConstants.getInstance().withAllMts.stringApiValue() + " ("
+          + SublConstants.getInstance().allGenls.stringApiValue() + " ?1)))");
+  private static final SublCommandTemplate ALL_GENLS_IN_MT = new SublCommandTemplate("("
+          + SublConstants.getInstance().removeDuplicates.stringApiValue() + " ("
+          + SublConstants.getInstance().allGenls.stringApiValue() + " ?1 ?2))");
 
   static DenotationalTerm getClassTypeCore() {
     return TYPE_CORE;
@@ -485,9 +504,7 @@ public class KbCollectionImpl<T extends DenotationalTerm>
       for (KbCollection col : cols) {
         cl.add(KbObjectImpl.getCore(col));
       }
-      final String command = "(" + SublConstants.getInstance().withAllMts.stringApiValue() 
-              + " (" + SublConstants.getInstance().minCol.stringApiValue() + " " + cl.stringApiValue() + "))";
-      final CycObject co = getStaticAccess().converse().converseCycObject(command);
+      final CycObject co = getStaticAccess().converse().converseCycObject(MIN_COL.bind(cl));
       return KbCollectionImpl.get(co);
     } catch (CycConnectionException e) {
       throw KbRuntimeException.fromThrowable(e);
@@ -517,24 +534,20 @@ public class KbCollectionImpl<T extends DenotationalTerm>
     final Set<KbCollection> results = new HashSet<>();
     CycList cycResults;
     try {
-      if (ctx != null) {
-        final String command = "(" + SublConstants.getInstance().allSpecs.stringApiValue()
-                + " " + this.getCore().stringApiValue() + " " + ctx.stringApiValue() + ")";
-        cycResults = getAccess().converse().converseList(command);
+      // Forts go through the LookupTool, which may answer from the client's taxonomy cache:
+      if (getCore() instanceof Fort && ctx != null) {
+        cycResults = getAccess().getLookupTool()
+                .getAllSpecs((Fort) getCore(), KbObjectImpl.getCore(ctx));
+      } else if (getCore() instanceof Fort) {
+        cycResults = getAccess().getLookupTool().getAllSpecs((Fort) getCore());
+      } else if (ctx != null) {
+        cycResults = getAccess().converse().converseList(
+                ALL_SPECS_IN_MT.bind(this.getCore(), KbObjectImpl.getCore(ctx)));
       } else {
-        final String command = "(" + SublConstants.getInstance().removeDuplicates.stringApiValue()
-                + " (" + SublConstants.getInstance().withAllMts.stringApiValue()
-                + " (" + SublConstants.getInstance().allSpecs.stringApiValue()
-                + " " + this.getCore().stringApiValue() + ")))";
-        cycResults = getAccess().converse().converseList(command);
-      }
-      for (Object o : cycResults) {
-        try {
-          results.add(KbCollectionImpl.get((CycObject) o));
-        } catch (CreateException | KbTypeException ce){
-          // ignore
-        }
+        cycResults = getAccess().converse().converseList(ALL_SPECS.bind(this.getCore()));
       }
+      // Terms which are not collections are omitted:
+      results.addAll(KbObjectImplFactory.getAll(cycResults, KbCollectionImpl.class));
       return results;
     } catch (CycConnectionException | CycApiException ex) {
       throw KbRuntimeException.fromThrowable(ex);
@@ -610,25 +623,20 @@ public class KbCollectionImpl<T extends DenotationalTerm>
     final Set<KbCollection> results = new HashSet<>();
     CycList<Object> cycResults;
     try {
-      if (ctx != null) {
-        final String command = "(" + SublConstants.getInstance().removeDuplicates.stringApiValue()
-                + " (" + SublConstants.getInstance().allGenls.stringApiValue()
-                + " " + this.getCore().stringApiValue() + " " + ctx.stringApiValue() + "))";
-        cycResults = (CycList<Object>) getAccess().converse().converseList(command);
+      // Forts go through the LookupTool, which may answer from the client's taxonomy cache:
+      if (getCore() instanceof Fort && ctx != null) {
+        cycResults = getAccess().getLookupTool()
+                .getAllGenls(getCore(), KbObjectImpl.getCore(ctx));
+      } else if (getCore() instanceof Fort) {
+        cycResults = getAccess().getLookupTool().getAllGenls((Fort) getCore());
+      } else if (ctx != null) {
+        cycResults = (CycList<Object>) getAccess().converse().converseList(
+                ALL_GENLS_IN_MT.bind(this.getCore(), KbObjectImpl.getCore(ctx)));
       } else {
-        final String command = "(" + SublConstants.getInstance().removeDuplicates.stringApiValue()
-                + " (" + SublConstants.getInstance().withAllMts
-                + " (" + SublConstants.getInstance().allGenls + " "
-                + this.getCore().stringApiValue() + ")))";
-        cycResults = getAccess().converse().converseList(command);
-      }
-      for (Object o : cycResults) {
-        try {
-          results.add(KbCollectionImpl.get((CycObject) o));
-        } catch (CreateException | KbTypeException ce){
-          // ignore
-        }        
+        cycResults = getAccess().converse().converseList(ALL_GENLS.bind(this.getCore()));
       }
+      // Terms which are not collections are omitted:
+      results.addAll(KbObjectImplFactory.getAll(cycResults, KbCollectionImpl.class));
       return results;
     } catch (CycConnectionException | CycApiException ex) {
       throw KbRuntimeException.fromThrowable(ex);
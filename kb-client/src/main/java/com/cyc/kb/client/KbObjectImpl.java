@@ -41,6 +41,7 @@ import com.cyc.baseclient.cycobject.DefaultCycObjectImpl;
 import com.cyc.baseclient.cycobject.FormulaSentenceImpl;
 import com.cyc.baseclient.cycobject.NautImpl;
 import com.cyc.baseclient.datatype.DateConverter;
+import com.cyc.baseclient.subl.SublCommandTemplate;
 import com.cyc.baseclient.subl.functions.CycEvaluateFunction.UnevaluatableExpressionException;
 import com.cyc.kb.Context;
 import com.cyc.kb.KbCollection;
@@ -75,6 +76,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -111,6 +114,13 @@ public class KbObjectImpl<T extends CycObject> implements KbObject {
   private static final CycConstant THE_EMPTY_SET = new CycConstantImpl(
           "TheEmptySet", new Guid("bdf8edae-9c29-11b1-9dad-c379636f7270"));
   
+  /**
+   * The prepared type-check commands used by {@link #isValidCore(CycObject)}, keyed by
+   * {@link #getTypeString()}. Each is parsed on first use, since the type constant must be looked up.
+   */
+  private static final ConcurrentMap<String, SublCommandTemplate> HAS_TYPE_COMMANDS
+          = new ConcurrentHashMap<>();
+  
   //====|    Static factory methods    |==========================================================//
   
   /**
@@ -954,9 +964,20 @@ public class KbObjectImpl<T extends CycObject> implements KbObject {
       if (cycObject instanceof CycVariable) {
         return true;
       } else {
-        String command = "(" + SublConstants.getInstance().quickQuietHasTypeQ.stringApiValue() 
-                + " " + cycObject.stringApiValue() + " " + getTypeString() + ")";
-        return CycAccessManager.getCurrentAccess().converse().converseBoolean(command);
+        final CycAccess access = CycAccessManager.getCurrentAccess();
+        final String typeString = getTypeString();
+        SublCommandTemplate command = HAS_TYPE_COMMANDS.get(typeString);
+        if (command == null) {
+          // Parsing looks up the type constant, so it is done outside the map:
+          command = new SublCommandTemplate("("
+                  + SublConstants.getInstance().quickQuietHasTypeQ.stringApiValue()
+                  + " ?1 " + typeString + ")", access);
+          final SublCommandTemplate existing = HAS_TYPE_COMMANDS.putIfAbsent(typeString, command);
+          if (existing != null) {
+            command = existing;
+          }
+        }
+        return access.converse().converseBoolean(command.bind(cycObject));
       }
     } catch (CycApiException e) {
       throw KbServerSideException.fromThrowable(e);
@@ -983,6 +1004,17 @@ public class KbObjectImpl<T extends CycObject> implements KbObject {
     }
   }
   
+  /**
+   * Sets the core of an object made with the default constructor to a cycObject which the caller
+   * has already established is a valid core for this class, e.g. by a bulk categorization in
+   * {@link KbObjectImplFactory}, without checking it again.
+   *
+   * @param cycObject the object to be assigned
+   */
+  void setValidatedCore(CycObject cycObject) {
+    core = (T) cycObject;
+  }
+  
   public Boolean isValid() {
     return isValid;
   }
@@ -31,6 +31,8 @@ import com.cyc.base.cycobject.FormulaSentence;
 import com.cyc.base.cycobject.Nart;
 import com.cyc.base.exception.CycApiException;
 import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.ConstantChangeEvent;
+import com.cyc.baseclient.ConstantChangeListener;
 import com.cyc.baseclient.CycObjectFactory;
 import com.cyc.baseclient.cycobject.CycVariableImpl;
 import com.cyc.baseclient.cycobject.DefaultCycObjectImpl;
@@ -46,6 +48,7 @@ import com.cyc.kb.exception.KbTypeConflictException;
 import com.cyc.kb.exception.KbTypeException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,9 +56,8 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,8 +65,11 @@ import static com.cyc.kb.client.KbObjectImpl.getStaticAccess;
 
 /**
  * This class provides factory methods to build instance of KBObjects and its subclasses. The class
- * also provides caching for the retrieved objects. Note that the cache may be stale and the API
- * does not yet attempt to synchronize based on KB Events.
+ * also provides caching for the retrieved objects. Note that the cache may be stale, unless a
+ * {@link com.cyc.baseclient.ConstantChangeSubscription} has been configured, in which case the
+ * entries for constants which are renamed, killed or merged on the Cyc server are evicted as it
+ * happens. The cache listens for those changes from the time the first object is stored in it
+ * until {@link #clearKBObjectCache()} is called.
  *
  * The class and the methods of this class are not part of the KB API.
  *
@@ -75,9 +80,12 @@ public class KbObjectImplFactory {
 
   private static final Logger LOG = LoggerFactory.getLogger(KbObjectImplFactory.class);
   
-  //a cache from the cyclified names/ids/non-cyclified names to classes to KBObjects
-  private static final Map<String, Map<Class<?>, KbObjectImpl>> STRING_CACHE
-          = new ConcurrentHashMap<>();
+  //a bounded cache from the cyclified names/ids/non-cyclified names to classes to KBObjects
+  private static final BoundedKbObjectCache CACHE = BoundedKbObjectCache.fromSystemProperties();
+  
+  //evicts the entries for changed constants while CACHE has entries; see cacheKBObject
+  private static final ConstantChangeListener EVICTOR = KbObjectImplFactory::evictChangedConstant;
+  private static final AtomicBoolean IS_EVICTOR_REGISTERED = new AtomicBoolean();
   
   /*
   private static final List<Class<? extends KbObjectImpl>> KB_OBJECT_TYPES = Arrays.asList(
@@ -345,10 +353,87 @@ public class KbObjectImplFactory {
    */
   public static void clearKBObjectCache() {
     LOG.info("Cleaning the cache");
-    STRING_CACHE.clear();
+    if (IS_EVICTOR_REGISTERED.compareAndSet(true, false)) {
+      CycObjectFactory.removeConstantChangeListener(EVICTOR);
+    }
+    CACHE.clear();
     CycObjectFactory.resetCycConstantCaches();
   }
 
+  /**
+   * Returns the number of terms currently held in the <code>KBObject</code> cache. Its maximum
+   * size is set by the system property <code>com.cyc.kb.client.objectCache.maxEntries</code>, and
+   * the time after which an entry expires by <code>com.cyc.kb.client.objectCache.timeToLiveMsecs
+   * </code>.
+   *
+   * @return the number of cached terms
+   */
+  public static int getKBObjectCacheSize() {
+    return CACHE.size();
+  }
+
+  /**
+   * Returns the number of cache lookups which found a <code>KBObject</code>.
+   *
+   * @return the number of cache hits
+   */
+  public static long getKBObjectCacheHitCount() {
+    return CACHE.getHitCount();
+  }
+
+  /**
+   * Returns the number of cache lookups which did not find a <code>KBObject</code>.
+   *
+   * @return the number of cache misses
+   */
+  public static long getKBObjectCacheMissCount() {
+    return CACHE.getMissCount();
+  }
+
+  /**
+   * Returns the fraction of cache lookups which found a <code>KBObject</code>, or 0 if there have
+   * been no lookups.
+   *
+   * @return the cache hit rate, between 0 and 1
+   */
+  public static double getKBObjectCacheHitRate() {
+    final long hits = CACHE.getHitCount();
+    final long lookups = hits + CACHE.getMissCount();
+    return (lookups == 0) ? 0 : (double) hits / lookups;
+  }
+
+  /**
+   * Returns the number of terms which have been evicted from the cache, either to keep it within
+   * its maximum size or because they expired.
+   *
+   * @return the number of evicted terms
+   */
+  public static long getKBObjectCacheEvictionCount() {
+    return CACHE.getEvictionCount();
+  }
+
+  /**
+   * Evict the cache entries for a constant which has been renamed, killed or merged on the Cyc
+   * server. The objects for a killed or merged constant are also marked as no longer valid.
+   *
+   * @param event the change to the constant
+   */
+  private static void evictChangedConstant(final ConstantChangeEvent event) {
+    final String name = event.getName();
+    if (name == null) {
+      return;
+    }
+    final boolean isGone = event.getType() != ConstantChangeEvent.Type.RENAME;
+    for (final String key : Arrays.asList(name, "#$" + name)) {
+      for (final KbObjectImpl kbObject : CACHE.invalidate(key)) {
+        LOG.debug("Evicted {} from the cache: {}", kbObject, event);
+        if (isGone) {
+          kbObject.setIsValid(false);
+        }
+      }
+    }
+  }
+
   /**
    * Attempt to find a CycObject <code>cycObject</code> in the cache, as an instance of a subclass
    * <code>O</code> of KBObject
@@ -372,29 +457,7 @@ public class KbObjectImplFactory {
    * @return the cached {@link KbObjectImpl}, or null if there is no cached value
    */
   private static <O extends KbObject> O getCached(final String nameOrId, final Class<O> c) {
-    final List<String> invalidKeys = new ArrayList<>();
-    O returnValue = null;
-    if (STRING_CACHE.containsKey(nameOrId)) {
-      //if we find something that could be a c, return it.  It might be a subclass, but that's OK.
-      LOG.trace("Found cache-key \"" + nameOrId + "\" in the cache");
-      for (Entry<Class<?>, KbObjectImpl> e : STRING_CACHE.get(nameOrId).entrySet()) {
-        if (c.isAssignableFrom(e.getValue().getClass()) && e.getValue().isValid()) {
-          returnValue = (O) e.getValue();
-          LOG.debug("Found \"" + returnValue + "\" in the cache");
-        } else if (!e.getValue().isValid()) {
-          LOG.info("The cached entry " + e + " is not valid anymore! Adding to the cache.");
-          invalidKeys.add(nameOrId);
-          invalidKeys.add(e.getValue().getCore().cyclify());
-          invalidKeys.add(e.getValue().getCore().toString());
-        }
-      }
-    }
-    if (!invalidKeys.isEmpty()) {
-      for (String key : invalidKeys) {
-        STRING_CACHE.remove(key);
-      }
-    }
-    return returnValue;
+    return CACHE.get(nameOrId, c);
   }
 
   /**
@@ -414,46 +477,20 @@ public class KbObjectImplFactory {
     final String cyclifiedCore = core.cyclify();
     KbObjectImpl result = kbObject;
     LOG.trace("Storing " + result + " in cache");
-    if (STRING_CACHE.containsKey(cyclifiedCore)
-            && STRING_CACHE.get(cyclifiedCore).containsKey(c)) {
+    if (IS_EVICTOR_REGISTERED.compareAndSet(false, true)) {
+      CycObjectFactory.addConstantChangeListener(EVICTOR);
+    }
+    final KbObjectImpl existing = CACHE.getExact(cyclifiedCore, c);
+    if (existing != null) {
       //if this is already in the cache, but not by the ID, use the existing one.
-      if (!STRING_CACHE.containsKey(nameOrId)) {
-        result = STRING_CACHE.get(cyclifiedCore).get(c);
+      if (!CACHE.containsKey(nameOrId)) {
+        result = existing;
       }
     }
     final String coreString = getCacheKey(core);
-    cacheAs(nameOrId, c, result);
-    cacheAs(cyclifiedCore, c, result);
-    cacheAs(coreString, c, result);
+    CACHE.put(cyclifiedCore, Arrays.asList(nameOrId, coreString), c, result);
     return (O) result;
   }
-
-  /**
-   * Cache the <code>kbObject</code> with the key <code>key</code>.
-   *
-   * @param   key       the key to the {@link KbObjectImpl} cached
-   * @param   c         represents the class <code>O</code>, a subclass of {@link KbObjectImpl}
-   * @param   kbObject  the {@link KbObjectImpl} to be cached
-   */
-  private static <O extends KbObject> void cacheAs(
-          final String key, Class<O> c, final KbObjectImpl kbObject) {
-    if (!STRING_CACHE.containsKey(key)) {
-      STRING_CACHE.put(key, new ConcurrentHashMap<Class<?>, KbObjectImpl>());
-    }
-    KbObjectImpl bestKBObject = kbObject;
-    final Map<Class<?>, KbObjectImpl> cacheForKey = STRING_CACHE.get(key);
-    // Ensure the most specific KBObject is used for all classes:
-    for (final KbObjectImpl maybeBest : cacheForKey.values()) {
-      if (bestKBObject != maybeBest
-              && bestKBObject.getClass().isAssignableFrom(maybeBest.getClass())) {
-        bestKBObject = maybeBest;
-      }
-    }
-    cacheForKey.put(c, bestKBObject);
-    for (final Class<?> oneClass : cacheForKey.keySet()) {
-      cacheForKey.put(oneClass, bestKBObject);
-    }
-  }
   
   /**
    * Convert a CycObject into an instance of its most specific type. E.g., if a CycList instance 
@@ -493,6 +530,121 @@ public class KbObjectImplFactory {
   @Deprecated
   public static <O extends KbObjectImpl> O get(
           final CycObject rawCycObject, final Class<O> requestedClass) throws KbTypeException, CreateException {
+    return KbObjectImplFactory.<O>get(
+            rawCycObject, requestedClass, Collections.<CycObject, CycObject>emptyMap());
+  }
+  
+  /**
+   * Find an instance of {@link KbObjectImpl} subclass <code>O</code> for each CycObject in
+   * <code>rawCycObjects</code>. Unlike calling {@link #get(CycObject, Class)} for each element, all
+   * of the terms which are not already cached are categorized in a single call to the Cyc server,
+   * and the resulting categories are also used to validate the new objects' cores, so building
+   * the objects requires no further server calls.
+   *
+   * <p>Elements which are not CycObjects, and CycObjects which cannot be retrieved as
+   * <code>requestedClass</code>, are omitted from the result.
+   *
+   * @param   <O>            the class of objects to be returned
+   * @param   rawCycObjects  the candidate CycObjects, e.g. the result of a SubL command
+   * @param   requestedClass the class <code>O</code>, a subclass of {@link KbObjectImpl} to be
+   *                         returned
+   * @return  the instances of {@link KbObjectImpl} subclass <code>O</code>, in the order of
+   *          <code>rawCycObjects</code>
+   */
+  static <O extends KbObjectImpl> List<O> getAll(
+          final Collection<?> rawCycObjects, final Class<O> requestedClass) {
+    final List<CycObject> cycObjects = new ArrayList<>(rawCycObjects.size());
+    for (Object obj : rawCycObjects) {
+      if (obj instanceof CycObject) {
+        cycObjects.add(tightenCycObject((CycObject) obj));
+      }
+    }
+    final Map<CycObject, CycObject> categories = categorizeUncachedTerms(cycObjects, requestedClass);
+    final List<O> results = new ArrayList<>(cycObjects.size());
+    for (CycObject cycObject : cycObjects) {
+      try {
+        results.add(KbObjectImplFactory.<O>get(cycObject, requestedClass, categories));
+      } catch (KbTypeException | CreateException ex) {
+        LOG.trace("Omitting {} from bulk results: {}", cycObject, ex.getMessage());
+      }
+    }
+    return results;
+  }
+  
+  /**
+   * Caches a {@link KbObjectImpl} for each CycObject in <code>rawCycObjects</code>, as
+   * {@link #getAll(Collection, Class)} does, so that later lookups of them, e.g. by
+   * {@link KbObjectImpl#checkAndCastObject(Object)}, are answered from the cache without calling
+   * the Cyc server. Elements which are not CycObjects, or cannot be retrieved, are ignored.
+   *
+   * @param rawCycObjects the candidate CycObjects, e.g. the result of a SubL command
+   */
+  static void primeCache(final Collection<?> rawCycObjects) {
+    getAll(rawCycObjects, KbObjectImpl.class);
+  }
+  
+  /**
+   * Categorizes, with respect to the KB API, all of the terms in <code>cycObjects</code> which are
+   * neither cached nor categorized locally, using a single call to the Cyc server.
+   *
+   * @param   cycObjects     tightened CycObjects
+   * @param   requestedClass the class the objects will be requested as
+   * @return  a map from each categorized term to its category; an empty map if no terms needed to
+   *          be categorized, or if the server could not categorize them together
+   */
+  private static Map<CycObject, CycObject> categorizeUncachedTerms(
+          final List<CycObject> cycObjects, final Class<?> requestedClass) {
+    final Set<CycObject> uncachedSet = new LinkedHashSet<>();
+    for (CycObject cycObject : cycObjects) {
+      if (requiresCategorization(cycObject) && getCached(cycObject, requestedClass) == null) {
+        uncachedSet.add(cycObject);
+      }
+    }
+    if (uncachedSet.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final List<CycObject> uncached = new ArrayList<>(uncachedSet);
+    final List<CycObject> categories;
+    try {
+      categories = getStaticAccess().getInspectorTool().categorizeTermsWRTApi(uncached);
+    } catch (CycConnectionException cce) {
+      throw KbRuntimeException.fromThrowable(cce);
+    } catch (CycApiException ex) {
+      // Fall back on categorizing the terms one at a time, so that a single problematic term only
+      // affects itself:
+      LOG.debug("Could not categorize {} terms together: {}", uncached.size(), ex.getMessage());
+      return Collections.emptyMap();
+    }
+    if (categories.size() != uncached.size()) {
+      LOG.warn("Expected {} categories but received {}", uncached.size(), categories.size());
+      return Collections.emptyMap();
+    }
+    final Map<CycObject, CycObject> result = new HashMap<>();
+    for (int i = 0; i < uncached.size(); i++) {
+      result.put(uncached.get(i), categories.get(i));
+    }
+    return result;
+  }
+  
+  private static boolean requiresCategorization(final CycObject cycObject) {
+    return !(cycObject instanceof CycAssertion
+            || cycObject instanceof FormulaSentence
+            || cycObject instanceof CycVariable
+            || cycObject instanceof CycSymbol
+            || (cycObject instanceof List && ((List) cycObject).isEmpty()));
+  }
+  
+  /**
+   * @see #get(CycObject, Class)
+   * 
+   * @param knownCategories categories which have already been retrieved from the Cyc server for
+   *                        some terms; a term which is a key of this map will not be categorized
+   *                        again, and its core will be assumed to be valid for its category
+   */
+  private static <O extends KbObjectImpl> O get(
+          final CycObject rawCycObject,
+          final Class<O> requestedClass,
+          final Map<CycObject, CycObject> knownCategories) throws KbTypeException, CreateException {
     if (CycObjectFactory.nil.equals(rawCycObject)
             || (rawCycObject instanceof List && ((List) rawCycObject).isEmpty())) {
       throw new KbTypeException("NIL is not a " + requestedClass);
@@ -514,6 +666,7 @@ public class KbObjectImplFactory {
       }
     }
     Class<? extends O> requiredKbClass = requestedClass;
+    boolean isCoreValidated = false;
     if (cycObject instanceof CycAssertion) {
       if (((CycAssertion) cycObject).isGaf()) {
         requiredKbClass = (Class<? extends O>) FactImpl.class;
@@ -527,16 +680,23 @@ public class KbObjectImplFactory {
     } else if (cycObject instanceof CycSymbol) {
       requiredKbClass = (Class<? extends O>) SymbolImpl.class;
     } else {
+      final boolean isCategoryKnown = knownCategories.containsKey(cycObject);
       CycObject tightestCycCol = null;
-      try {
-        tightestCycCol = getStaticAccess().getInspectorTool().categorizeTermWRTApi(cycObject);
-      } catch (CycConnectionException cce) {
-        throw KbRuntimeException.fromThrowable(cce);
+      if (isCategoryKnown) {
+        tightestCycCol = knownCategories.get(cycObject);
+      } else {
+        try {
+          tightestCycCol = getStaticAccess().getInspectorTool().categorizeTermWRTApi(cycObject);
+        } catch (CycConnectionException cce) {
+          throw KbRuntimeException.fromThrowable(cce);
+        }
       }
       final Class tightestKbClass = CYC_OBJECT_TO_KB_API_CLASS.get(tightestCycCol);
       if (tightestCycCol != null && tightestKbClass != null) {
         if (requiredKbClass.isAssignableFrom(tightestKbClass)) {
           requiredKbClass = tightestKbClass;
+          // The category is the most specific API type of which the term is an instance:
+          isCoreValidated = isCategoryKnown;
         } else // Currently the tightening code only makes sence for subclasses of KBTerm
          if (cycObject instanceof DenotationalTerm) {
             // If the user wants to tighten the object, we should allow them
@@ -562,7 +722,9 @@ public class KbObjectImplFactory {
     }
     Exception constructionException = null;
     try {
-      final O kbObj = (O) constructKbObject(requiredKbClass, cycObject);
+      final O kbObj = isCoreValidated
+                      ? (O) constructKbObjectWithValidatedCore(requiredKbClass, cycObject)
+                      : (O) constructKbObject(requiredKbClass, cycObject);
       return cacheKBObject(kbObj, getCacheKey(cycObject), requestedClass);
     } catch (NoSuchMethodException
             | SecurityException 
@@ -625,6 +787,21 @@ public class KbObjectImplFactory {
             .getDeclaredConstructor(constructorArgClass)
             .newInstance(constructorArgClass.cast(core));
   }
+  
+  /**
+   * Constructs a KbObjectImpl whose core is already known to be a valid core for
+   * <code>requestedClass</code>, using its default constructor and
+   * {@link KbObjectImpl#setValidatedCore(CycObject)}, and so skipping the server-side type check
+   * otherwise performed by {@link KbObjectImpl#setCore(CycObject)}.
+   */
+  private static <O extends KbObjectImpl> O constructKbObjectWithValidatedCore(
+          final Class<O> requestedClass, final CycObject core)
+          throws NoSuchMethodException, InstantiationException, IllegalAccessException,
+          IllegalArgumentException, InvocationTargetException {
+    final O kbObj = requestedClass.getDeclaredConstructor().newInstance();
+    kbObj.setValidatedCore(getKbObjectCycCoreClassConstructorArg(requestedClass).cast(core));
+    return kbObj;
+  }
 
   /**
    * Find an instance of {@link KbObjectImpl} subclass <code>O</code>, named <code>nameOrId</code>.
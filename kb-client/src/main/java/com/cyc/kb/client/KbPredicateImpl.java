@@ -30,6 +30,7 @@ import com.cyc.base.exception.CycApiException;
 import com.cyc.base.exception.CycConnectionException;
 import com.cyc.baseclient.CycObjectFactory;
 import com.cyc.baseclient.cycobject.CycConstantImpl;
+import com.cyc.baseclient.kbtool.PredicateExtentCursor;
 import com.cyc.kb.Context;
 import com.cyc.kb.Fact;
 import com.cyc.kb.KbCollection;
@@ -52,7 +53,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -547,6 +550,41 @@ public class KbPredicateImpl<T extends DenotationalTerm> extends RelationImpl<T>
     return kbFacts;
   }
 
+  /**
+   * Streams the facts in the extent of this predicate. The assertions are fetched from Cyc a page
+   * at a time (see {@link PredicateExtentCursor}) and converted to facts as they are consumed, so
+   * that an extent of any size can be processed in bounded client memory. Unlike
+   * {@link #getExtent(Context)}, which fetches the whole extent in a single call, this costs a
+   * round trip per page.
+   * <p>
+   * The whole extent is gathered on the Cyc server when the stream is created, and held there
+   * until it has been consumed or the stream is closed. The stream should therefore be closed,
+   * e.g. with try-with-resources, if it is not consumed to the end.
+   *
+   * @param ctx the context, or null for all contexts
+   *
+   * @return a stream of the facts in the extent
+   */
+  public Stream<Fact> getExtentStream(Context ctx) {
+    final PredicateExtentCursor cursor;
+    try {
+      cursor = PredicateExtentCursor.open(getAccess(), getCore(),
+              (ctx != null ? getCore(ctx) : null));
+    } catch (CycConnectionException ex) {
+      throw KbRuntimeException.fromThrowable(ex);
+    }
+    return cursor.stream()
+            .<Fact>map((assertion) -> {
+              try {
+                return FactImpl.get(assertion);
+              } catch (KbTypeException | CreateException e) {
+                // ignore
+                return null;
+              }
+            })
+            .filter(Objects::nonNull);
+  }
+
   /**
    * Return the KBCollection as a KBObject of the Cyc term that underlies this
    * class.
@@ -667,10 +705,15 @@ public class KbPredicateImpl<T extends DenotationalTerm> extends RelationImpl<T>
           Object arg, int argPosition, int valuePosition, Context ctx) {
     final Set<O> results = new HashSet<>();
     final Collection<Fact> facts = getFacts(arg, argPosition, ctx);
+    final List<Object> values = new ArrayList<>(facts.size());
     for (Fact fact : facts) {
       final CycAssertion ca = (CycAssertion) fact.getCore();
       final CycList<Object> g = ca.getGaf().getArgs();
-      final Object o = g.get(valuePosition);
+      values.add(g.get(valuePosition));
+    }
+    // Categorize all of the values in one server call, so that each of them is found in the cache:
+    KbObjectImplFactory.primeCache(values);
+    for (Object o : values) {
       try {
         results.add(KbObjectImpl.<O>checkAndCastObject(o));
       } catch (KbException kbe) {
@@ -55,7 +55,7 @@ public class LogicalConnectiveImpl<T extends DenotationalTerm> extends RelationI
    * @throws Exception
    */
   @SuppressWarnings("unused")
-private LogicalConnectiveImpl() {
+  LogicalConnectiveImpl() {
     super();
   }
 
@@ -54,7 +54,7 @@ public class QuantifierImpl<T extends DenotationalTerm> extends ScopingRelationI
    * @throws Exception
    */
   @SuppressWarnings("unused")
-  private QuantifierImpl() {
+  QuantifierImpl() {
     super();
   }
 
@@ -44,6 +44,7 @@ import com.cyc.base.exception.CycConnectionException;
 import com.cyc.baseclient.CycClientManager;
 import com.cyc.baseclient.inference.DefaultInferenceSuspendReason;
 import com.cyc.baseclient.kbtool.TemplateOeToolImpl;
+import com.cyc.baseclient.util.VirtualThreads;
 import com.cyc.kb.KbIndividual;
 import com.cyc.kb.KbObject;
 import com.cyc.query.InferenceSuspendReason;
@@ -61,9 +62,14 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
@@ -93,28 +99,100 @@ public class OeTemplateProcessor {
   
   private static final Logger LOG = LoggerFactory.getLogger(OeTemplateProcessor.class);
   
-  private static final ExecutorService DEFAULT_EXECUTOR_SERVICE = Executors.newCachedThreadPool();
+  /**
+   * System property for the size of the executor which runs templates for processors which are not
+   * given their own; each running job occupies one of its threads, and jobs beyond that wait in its
+   * queue. Each job's results are handled by an executor of the same size, so that a job's result
+   * handler runs alongside it rather than queuing behind other jobs. Neither is used when
+   * {@link VirtualThreads#isEnabled() virtual threads are enabled}, in which case every task runs
+   * on its own virtual thread.
+   */
+  public static final String THREADS_PROPERTY = "com.cyc.query.client.templates.threads";
+  
+  public static final int DEFAULT_THREADS = Math.max(2, Integer.getInteger(THREADS_PROPERTY, 16));
+  
+  /**
+   * System property for the size of the executor which issues pipelined results requests. When it
+   * is saturated, requests are issued from the thread which is handling the job's results. Like
+   * {@link #THREADS_PROPERTY}, it is not used when virtual threads are enabled.
+   */
+  public static final String FETCH_THREADS_PROPERTY
+          = "com.cyc.query.client.templates.fetchThreads";
+  
+  public static final int DEFAULT_FETCH_THREADS
+          = Math.max(1, Integer.getInteger(FETCH_THREADS_PROPERTY, 8));
+  
+  /**
+   * System property for the size of the executor which delivers events to listeners. Each job's
+   * events are delivered in order, one at a time, so a slow listener only delays its own job's
+   * events. Like {@link #THREADS_PROPERTY}, it is not used when virtual threads are enabled.
+   */
+  public static final String LISTENER_THREADS_PROPERTY
+          = "com.cyc.query.client.templates.listenerThreads";
+  
+  public static final int DEFAULT_LISTENER_THREADS
+          = Math.max(1, Integer.getInteger(LISTENER_THREADS_PROPERTY, 4));
+  
+  private static final ExecutorService DEFAULT_EXECUTOR_SERVICE = VirtualThreads.newExecutor(
+          "toe-processor-", () -> newBoundedExecutor(
+                  "toe-processor", DEFAULT_THREADS, DEFAULT_THREADS,
+                  new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy()));
+  
+  private static final ExecutorService RESULTS_HANDLER_EXECUTOR_SERVICE
+          = VirtualThreads.newExecutor(
+                  "toe-result-handler-", () -> newBoundedExecutor(
+                          "toe-result-handler", DEFAULT_THREADS, DEFAULT_THREADS,
+                          new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy()));
+  
+  private static final ExecutorService LISTENER_EXECUTOR_SERVICE = VirtualThreads.newExecutor(
+          "toe-listeners-", () -> newBoundedExecutor(
+                  "toe-listeners", DEFAULT_LISTENER_THREADS, DEFAULT_LISTENER_THREADS,
+                  new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy()));
+  
+  private static final ExecutorService FETCH_EXECUTOR_SERVICE = VirtualThreads.newExecutor(
+          "toe-results-", () -> newBoundedExecutor(
+                  "toe-results", 0, DEFAULT_FETCH_THREADS,
+                  new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy()));
   
   private final KbIndividual queryId;
   private final DenotationalTerm queryTerm;
   private final TemplateOeToolImpl toeClient;
   private final ExecutorService executorSvc;
+  private final ExecutorService fetchExecutorSvc;
   private final Map<OeTemplateJob, Long> jobs;
   private String threadPrefix;
   
   //====|    Construction    |====================================================================//
   
+  /**
+   * 
+   * @param queryId
+   * @param toeClient
+   * @param executorSvc      runs templates; their results are handled, and listeners notified,
+   *                         on separate executors
+   * @param fetchExecutorSvc issues pipelined results requests; it should not queue tasks behind
+   *                         long-running ones, e.g. by using a
+   *                         {@link ThreadPoolExecutor.CallerRunsPolicy}
+   */
   public OeTemplateProcessor(final KbIndividual queryId,
                              final TemplateOeToolImpl toeClient, 
-                             final ExecutorService executorSvc) {
+                             final ExecutorService executorSvc,
+                             final ExecutorService fetchExecutorSvc) {
     this.queryId = queryId;
     this.queryTerm = (DenotationalTerm) queryId.getCore();
     this.toeClient = toeClient;
     this.executorSvc = executorSvc;
+    this.fetchExecutorSvc = fetchExecutorSvc;
     this.jobs = new ConcurrentHashMap<>();
     this.threadPrefix = Thread.currentThread().getName();
   }
   
+  public OeTemplateProcessor(final KbIndividual queryId,
+                             final TemplateOeToolImpl toeClient, 
+                             final ExecutorService executorSvc) {
+    this(queryId, toeClient, executorSvc, FETCH_EXECUTOR_SERVICE);
+  }
+  
   public OeTemplateProcessor(final KbIndividual queryId, TemplateOeToolImpl toeClient) {
     this(queryId, toeClient, DEFAULT_EXECUTOR_SERVICE);
   }
@@ -144,6 +222,24 @@ public class OeTemplateProcessor {
     return this.queryId;
   }
   
+  //====|    Executors    |=======================================================================//
+  
+  private static ExecutorService newBoundedExecutor(final String name,
+                                                    final int coreThreads,
+                                                    final int maxThreads,
+                                                    final BlockingQueue<Runnable> queue,
+                                                    final RejectedExecutionHandler handler) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            coreThreads, maxThreads, 60L, TimeUnit.SECONDS, queue,
+            (runnable) -> {
+              return new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            },
+            handler);
+    executor.allowCoreThreadTimeOut(coreThreads > 0);
+    return executor;
+  }
+  
   //====|    Logging utilities    |===============================================================//
   
   private static final int MSG_MIN_PAD = 18;
@@ -169,18 +265,37 @@ public class OeTemplateProcessor {
     private final Consumer<Consumer<OeTemplateListener>> fireListeners;
     public final Consumer<Exception>         errorHandler;
     public final Supplier<Boolean>           hasRemainingResults;
+    /**
+     * @deprecated each results batch now reports the number of results remaining, so this extra
+     * round trip is no longer made while draining.
+     */
+    @Deprecated
     public final Supplier<Integer>           remainingResultsCount;
     public final Supplier<OeTemplateResults> resultsSupplier;
     public final Supplier<OeTemplateResults> resultsDrainer;
     public final Supplier<InferenceSuspendReason>   toeRunner;
     
+    /** The last notification for this job, so that the next one is delivered after it. */
+    private CompletableFuture<Void> lastNotification = CompletableFuture.completedFuture(null);
+    
+    /** The results which the current call to the pipeline has retrieved. */
+    private OeTemplateResults drained;
+    
     public Functions(final TemplateJobId jobId,
                      final Map<KbObject, Object> substitutions,
                      final OeTemplateProcessorConfig config,
                      final Collection<OeTemplateListener> listeners) {
       final int resultsQueueId = jobId.getResultsId();
       fireListeners = (trigger) -> {
-        executorSvc.submit(() -> { listeners.forEach(trigger); });
+        synchronized (this) {
+          lastNotification = lastNotification.thenRunAsync(() -> {
+            try {
+              listeners.forEach(trigger);
+            } catch (RuntimeException ex) {
+              LOG.error("Listener error for " + jobId, ex);
+            }
+          }, LISTENER_EXECUTOR_SERVICE);
+        }
       };
       errorHandler = (ex) -> {              // TODO: use completeExceptionally - nwinant, 2017-08-23
         if (ex instanceof TaskComplete) {
@@ -218,14 +333,6 @@ public class OeTemplateProcessor {
           Thread.currentThread().setName(oldName);
         }
       };
-      hasRemainingResults = () -> {
-        try {
-          return toeClient.hasMoreResults(resultsQueueId);
-        } catch (CycApiException | CycConnectionException ex) {
-          errorHandler.accept(ex);
-          return null;
-        }
-      };
       remainingResultsCount = () -> {
         try {
           return toeClient.getNumberResultsRemaining(resultsQueueId);
@@ -234,33 +341,41 @@ public class OeTemplateProcessor {
           return -1;
         }
       };
-      resultsSupplier = () -> {
+      hasRemainingResults = () -> {
         try {
-          //if (!hasRemainingResults.get()) {
-          //  return new OeTemplateResults();
-          //}
-          final CycList<CycList> resultList = toeClient
-                  .getResults(resultsQueueId, config.getResultsBatchSize(), config.getTimeoutSec());
-          final OeTemplateResults results = new OeTemplateResults(resultList);
-          if (!results.isEmpty()) {
-            debug("Results retrieved:", results.size(), jobId);
-            fireListeners.accept((l) -> { l.onResults(jobId, results); });
-          } else {
-            trace("No results retrieved", jobId);
-          }
-          return results;
+          return toeClient.hasMoreResults(resultsQueueId);
         } catch (CycApiException | CycConnectionException ex) {
           errorHandler.accept(ex);
           return null;
         }
       };
-      resultsDrainer = () -> {
-        final OeTemplateResults results = new OeTemplateResults();
-        while (hasRemainingResults.get()) {
-          debug("Results to drain:", remainingResultsCount.get(), jobId);
-          results.addAll(resultsSupplier.get());
+      final OeTemplateResultsPipeline resultsPipeline = new OeTemplateResultsPipeline(
+              (batchSize) -> {
+                return toeClient.getResultsBatch(resultsQueueId, batchSize, config.getTimeoutSec());
+              },
+              (batch) -> {
+                final OeTemplateResults results = new OeTemplateResults(batch.getResults());
+                debug("Results retrieved:", results.size(), jobId);
+                trace("Results remaining: " + batch.getNumberResultsRemaining(), jobId);
+                drained.addAll(results);
+                fireListeners.accept((l) -> { l.onResults(jobId, results); });
+              },
+              errorHandler,
+              fetchExecutorSvc,
+              config);
+      resultsSupplier = () -> {
+        final OeTemplateResults results = drain(resultsPipeline);
+        if (results != null && results.isEmpty()) {
+          trace("No results retrieved", jobId);
         }
-        if (!results.isEmpty()) {
+        return results;
+      };
+      resultsDrainer = () -> {
+        final Boolean hasResults = hasRemainingResults.get();
+        final OeTemplateResults results = Boolean.TRUE.equals(hasResults)
+                                                  ? drain(resultsPipeline)
+                                                  : new OeTemplateResults();
+        if (results != null && !results.isEmpty()) {
           debug("... Draining complete.", jobId);
         } else {
           debug("... Nothing to drain.", jobId);
@@ -275,6 +390,19 @@ public class OeTemplateProcessor {
                      final OeTemplateListener listener) {
       this(jobId, substitutions, config, new LinkedHashSet<>(Arrays.asList(listener)));
     }
+    
+    /**
+     * Drains the results queue through the pipeline, returning the results retrieved, or null if
+     * an error was passed to the error handler.
+     */
+    private OeTemplateResults drain(OeTemplateResultsPipeline resultsPipeline) {
+      drained = new OeTemplateResults();
+      try {
+        return (resultsPipeline.drain() < 0) ? null : drained;
+      } finally {
+        drained = null;
+      }
+    }
   }
   
   //====|    Execution   |========================================================================//
@@ -314,7 +442,7 @@ public class OeTemplateProcessor {
                 while (!toeHandler.isDone()) {
                   trace("Checking for results...", jobId);
                   functions.resultsSupplier.get();
-                  if (!functions.hasRemainingResults.get()) {
+                  if (!toeHandler.isDone()) {
                     try {
                       TimeUnit.MILLISECONDS.sleep(config.getPollingIntervalMillis());
                     } catch (InterruptedException ex) {
@@ -329,7 +457,7 @@ public class OeTemplateProcessor {
                 functions.errorHandler.accept(ex);
                 //jobFuture.completeExceptionally(ex);
               }
-            }, executorSvc)
+            }, RESULTS_HANDLER_EXECUTOR_SERVICE)
             .thenRun(() -> {
               String oldName = Thread.currentThread().getName();
               Thread.currentThread().setName(threadPrefix + "-jobdrainer");
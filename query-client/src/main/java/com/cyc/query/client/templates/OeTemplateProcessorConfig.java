@@ -238,6 +238,9 @@ public class OeTemplateProcessorConfig {
   // Fields
   
   private int resultsBatchSize = 100;
+  private int maxResultsBatchSize = 1000;
+  private int maxResultsRequestsInFlight = 4;
+  private int targetResultsLatencyMillis = 250;
   private int timeoutSec = 5;
   private int pollingIntervalMillis = 500;
   private int pollingMaxDurationSecs = 15;
@@ -253,6 +256,51 @@ public class OeTemplateProcessorConfig {
     return this;
   }
 
+  /**
+   * The largest batch size to which results retrieval will grow while the results queue is backed
+   * up and batches are being retrieved faster than {@link #getTargetResultsLatencyMillis()}.
+   * 
+   * @return the upper bound on the results batch size
+   */
+  public int getMaxResultsBatchSize() {
+    return this.maxResultsBatchSize;
+  }
+
+  public OeTemplateProcessorConfig setMaxResultsBatchSize(int value) {
+    this.maxResultsBatchSize = value;
+    return this;
+  }
+
+  /**
+   * The maximum number of results batches which may be requested at once while draining a
+   * backed-up results queue.
+   * 
+   * @return the maximum number of concurrent results requests per job
+   */
+  public int getMaxResultsRequestsInFlight() {
+    return this.maxResultsRequestsInFlight;
+  }
+
+  public OeTemplateProcessorConfig setMaxResultsRequestsInFlight(int value) {
+    this.maxResultsRequestsInFlight = value;
+    return this;
+  }
+
+  /**
+   * The round-trip time for a full results batch above which the batch size is reduced, and below
+   * which it may be increased.
+   * 
+   * @return the target latency per results batch
+   */
+  public int getTargetResultsLatencyMillis() {
+    return this.targetResultsLatencyMillis;
+  }
+
+  public OeTemplateProcessorConfig setTargetResultsLatencyMillis(int value) {
+    this.targetResultsLatencyMillis = value;
+    return this;
+  }
+
   public int getTimeoutSec() {
     return this.timeoutSec;
   }
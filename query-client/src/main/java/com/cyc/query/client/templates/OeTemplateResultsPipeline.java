@@ -0,0 +1,278 @@
+package com.cyc.query.client.templates;
+
+/*
+ * #%L
+ * File: OeTemplateResultsPipeline.java
+ * Project: Query Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.exception.CycConnectionException;
+import com.cyc.baseclient.kbtool.TemplateOeToolImpl.ResultsBatch;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains a TOE results queue with several dequeue requests in flight at once.
+ * <p>
+ * Every request returns the size of the queue along with its results (see
+ * {@link com.cyc.baseclient.kbtool.TemplateOeToolImpl#getResultsBatch(int, int, int)}), so the
+ * pipeline knows the backlog without separate polls. It keeps issuing requests until the
+ * outstanding requests cover the backlog, up to
+ * {@link OeTemplateProcessorConfig#getMaxResultsRequestsInFlight()} of them.
+ * The batch size starts at {@link OeTemplateProcessorConfig#getResultsBatchSize()}; it doubles
+ * while batches come back full and faster than
+ * {@link OeTemplateProcessorConfig#getTargetResultsLatencyMillis()}, up to
+ * {@link OeTemplateProcessorConfig#getMaxResultsBatchSize()}, and halves when full batches are
+ * slower than that. Batches are delivered to the sink in the order in which they were requested.
+ * <p>
+ * Instances are not thread-safe; each should be driven by a single thread.
+ */
+class OeTemplateResultsPipeline {
+
+  //====|    BatchSource    |=====================================================================//
+
+  /**
+   * Dequeues results from a TOE results queue.
+   */
+  @FunctionalInterface
+  interface BatchSource {
+
+    ResultsBatch fetch(int maxResults) throws CycConnectionException;
+
+  }
+
+  //====|    Fields    |==========================================================================//
+
+  private static final Logger LOG = LoggerFactory.getLogger(OeTemplateResultsPipeline.class);
+
+  private static final int UNKNOWN = -1;
+
+  private final BatchSource source;
+  private final Consumer<ResultsBatch> sink;
+  private final Consumer<Exception> errorHandler;
+  private final Executor executor;
+  private final int maxBatchSize;
+  private final int maxInFlight;
+  private final long targetLatencyNanos;
+  private final Deque<Request> pending = new ArrayDeque<>();
+  private final AtomicLong completions = new AtomicLong();
+  private int batchSize;
+  private int remaining = UNKNOWN;
+  private long remainingAsOf = 0;
+  private int requestCount = 0;
+  private int maxObservedInFlight = 0;
+
+  //====|    Construction    |====================================================================//
+
+  OeTemplateResultsPipeline(final BatchSource source,
+                            final Consumer<ResultsBatch> sink,
+                            final Consumer<Exception> errorHandler,
+                            final Executor executor,
+                            final int initialBatchSize,
+                            final int maxBatchSize,
+                            final int maxInFlight,
+                            final int targetLatencyMillis) {
+    this.source = source;
+    this.sink = sink;
+    this.errorHandler = errorHandler;
+    this.executor = executor;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, targetLatencyMillis));
+    this.batchSize = Math.max(1, Math.min(initialBatchSize, this.maxBatchSize));
+  }
+
+  OeTemplateResultsPipeline(final BatchSource source,
+                            final Consumer<ResultsBatch> sink,
+                            final Consumer<Exception> errorHandler,
+                            final Executor executor,
+                            final OeTemplateProcessorConfig config) {
+    this(source, sink, errorHandler, executor,
+            config.getResultsBatchSize(),
+            config.getMaxResultsBatchSize(),
+            config.getMaxResultsRequestsInFlight(),
+            config.getTargetResultsLatencyMillis());
+  }
+
+  //====|    Methods    |=========================================================================//
+
+  /**
+   * Dequeues results until the queue reports that it is empty, passing each non-empty batch to the
+   * sink. The first request is always issued, and may wait for results per the configured timeout.
+   *
+   * @return the number of results dequeued, or -1 if an error was passed to the error handler
+   */
+  int drain() {
+    int total = 0;
+    remaining = UNKNOWN;
+    remainingAsOf = 0;
+    try {
+      fill();
+      while (!pending.isEmpty()) {
+        final Request request = pending.removeFirst();
+        final ResultsBatch batch = request.await();
+        if (request.completion > remainingAsOf) {
+          remaining = batch.getNumberResultsRemaining();
+          remainingAsOf = request.completion;
+        }
+        adapt(request, batch);
+        final int size = batch.getResults().size();
+        if (size > 0) {
+          total += size;
+          sink.accept(batch);
+        }
+        fill();
+      }
+      return total;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      abandon(ex);
+      return -1;
+    } catch (ExecutionException ex) {
+      abandon((ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : ex);
+      return -1;
+    }
+  }
+
+  /**
+   * The number of results which the last completed request reported as remaining on the queue,
+   * or -1 if no request has completed since {@link #drain()} was last called.
+   *
+   * @return the last reported backlog
+   */
+  int getRemaining() {
+    return this.remaining;
+  }
+
+  int getBatchSize() {
+    return this.batchSize;
+  }
+
+  int getRequestCount() {
+    return this.requestCount;
+  }
+
+  int getMaxObservedInFlight() {
+    return this.maxObservedInFlight;
+  }
+
+  //====|    Private    |=========================================================================//
+
+  /**
+   * Issues requests until they cover the known backlog, so that the pipeline does not ask for
+   * results which the queue cannot supply (and wait out the timeout for them).
+   * <p>
+   * Concurrent requests may be served in any order, so a response is only trusted for the size of
+   * the queue if it completed after the response which was last trusted, and the backlog is
+   * reduced by every request which had not completed by then.
+   */
+  private void fill() {
+    if (remaining == UNKNOWN) {
+      if (pending.isEmpty()) {
+        submit(batchSize);
+      }
+      return;
+    }
+    int unclaimed = remaining - getOutstanding();
+    while (pending.size() < maxInFlight && unclaimed > 0) {
+      final int size = Math.min(batchSize, unclaimed);
+      submit(size);
+      unclaimed -= size;
+    }
+  }
+
+  private int getOutstanding() {
+    int outstanding = 0;
+    for (Request request : pending) {
+      if (request.completion == 0 || request.completion > remainingAsOf) {
+        outstanding += request.size;
+      }
+    }
+    return outstanding;
+  }
+
+  private void submit(int size) {
+    final Request request = new Request(size);
+    pending.addLast(request);
+    requestCount++;
+    maxObservedInFlight = Math.max(maxObservedInFlight, pending.size());
+    executor.execute(request.task);
+  }
+
+  private void adapt(Request request, ResultsBatch batch) {
+    final boolean full = batch.getResults().size() >= request.size && request.size >= batchSize;
+    if (!full) {
+      return;
+    }
+    final int oldSize = batchSize;
+    if (request.latencyNanos <= targetLatencyNanos) {
+      if (batch.getNumberResultsRemaining() > 0) {
+        batchSize = Math.min(maxBatchSize, batchSize * 2);
+      }
+    } else {
+      batchSize = Math.max(1, batchSize / 2);
+    }
+    if (batchSize != oldSize) {
+      LOG.trace("Results batch size {} -> {} ({} msecs, {} remaining)",
+              oldSize, batchSize, TimeUnit.NANOSECONDS.toMillis(request.latencyNanos),
+              batch.getNumberResultsRemaining());
+    }
+  }
+
+  private void abandon(Exception ex) {
+    pending.forEach((request) -> { request.task.cancel(false); });
+    pending.clear();
+    errorHandler.accept(ex);
+  }
+
+  //====|    Internal Rep    |====================================================================//
+
+  private class Request {
+
+    private final int size;
+    private final FutureTask<ResultsBatch> task;
+    private volatile long latencyNanos;
+    private volatile long completion = 0;
+
+    private Request(int size) {
+      this.size = size;
+      this.task = new FutureTask<>(() -> {
+        final long start = System.nanoTime();
+        try {
+          return source.fetch(size);
+        } finally {
+          latencyNanos = System.nanoTime() - start;
+          completion = completions.incrementAndGet();
+        }
+      });
+    }
+
+    private ResultsBatch await() throws InterruptedException, ExecutionException {
+      return task.get();
+    }
+  }
+
+}
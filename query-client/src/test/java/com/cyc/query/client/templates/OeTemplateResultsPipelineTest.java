@@ -0,0 +1,170 @@
+package com.cyc.query.client.templates;
+
+/*
+ * #%L
+ * File: OeTemplateResultsPipelineTest.java
+ * Project: Query Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.cyc.base.cycobject.CycList;
+import com.cyc.base.exception.CycApiException;
+import com.cyc.baseclient.cycobject.CycArrayList;
+import com.cyc.baseclient.kbtool.TemplateOeToolImpl.ResultsBatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that OeTemplateResultsPipeline drains a results queue in batches sized to the observed
+ * latency, and abandons the drain at the first error.
+ */
+public class OeTemplateResultsPipelineTest {
+
+  private ExecutorService executor;
+  private final List<Exception> errors = new ArrayList<>();
+  private final AtomicInteger delivered = new AtomicInteger();
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testDrainBacklog() {
+    final ResultsQueue queue = new ResultsQueue(1000, 0);
+    final OeTemplateResultsPipeline pipeline = newPipeline(queue, 10, 200, 4, 1000);
+    assertEquals(1000, pipeline.drain());
+    assertEquals(1000, delivered.get());
+    assertEquals(0, queue.size.get());
+    assertEquals(0, pipeline.getRemaining());
+    assertTrue(errors.isEmpty());
+    assertTrue(pipeline.getMaxObservedInFlight() > 1);
+    assertTrue(pipeline.getBatchSize() > 10);
+    assertTrue(pipeline.getRequestCount() < 100);
+    // Requests are sized to the reported backlog, although a response which is overtaken by a
+    // later one between the server and the pipeline may occasionally cause one to come back short:
+    assertTrue(queue.shortBatches.get() <= 2);
+  }
+
+  @Test
+  public void testDrainEmptyQueue() {
+    final ResultsQueue queue = new ResultsQueue(0, 0);
+    final OeTemplateResultsPipeline pipeline = newPipeline(queue, 10, 200, 4, 1000);
+    assertEquals(0, pipeline.drain());
+    assertEquals(1, pipeline.getRequestCount());
+    assertEquals(0, delivered.get());
+  }
+
+  @Test
+  public void testSlowBatchesShrink() {
+    final ResultsQueue queue = new ResultsQueue(200, 5);
+    final OeTemplateResultsPipeline pipeline = newPipeline(queue, 64, 200, 1, 1);
+    assertEquals(200, pipeline.drain());
+    assertTrue(pipeline.getBatchSize() < 64);
+  }
+
+  @Test
+  public void testSerialWhenOneRequestInFlight() {
+    final ResultsQueue queue = new ResultsQueue(100, 0);
+    final OeTemplateResultsPipeline pipeline = newPipeline(queue, 10, 10, 1, 1000);
+    assertEquals(100, pipeline.drain());
+    assertEquals(1, pipeline.getMaxObservedInFlight());
+    assertEquals(10, pipeline.getRequestCount());
+  }
+
+  @Test
+  public void testErrorAbandonsDrain() {
+    final ResultsQueue queue = new ResultsQueue(1000, 0);
+    queue.failAfter = 2;
+    final OeTemplateResultsPipeline pipeline = newPipeline(queue, 10, 10, 4, 1000);
+    assertEquals(-1, pipeline.drain());
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0) instanceof CycApiException);
+  }
+
+  private OeTemplateResultsPipeline newPipeline(ResultsQueue queue,
+                                                int initialBatchSize,
+                                                int maxBatchSize,
+                                                int maxInFlight,
+                                                int targetLatencyMillis) {
+    return new OeTemplateResultsPipeline(
+            queue::fetch,
+            (batch) -> { delivered.addAndGet(batch.getResults().size()); },
+            errors::add,
+            executor,
+            initialBatchSize, maxBatchSize, maxInFlight, targetLatencyMillis);
+  }
+
+  private static class ResultsQueue {
+
+    private final AtomicInteger size;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger shortBatches = new AtomicInteger();
+    private final long delayMsecs;
+    private volatile int failAfter = Integer.MAX_VALUE;
+
+    private ResultsQueue(int size, long delayMsecs) {
+      this.size = new AtomicInteger(size);
+      this.delayMsecs = delayMsecs;
+    }
+
+    private ResultsBatch fetch(int maxResults) {
+      if (requests.incrementAndGet() > failAfter) {
+        throw new CycApiException("Simulated failure");
+      }
+      sleep();
+      final int count;
+      final int remaining;
+      synchronized (this) {
+        count = Math.min(maxResults, size.get());
+        remaining = size.addAndGet(-count);
+      }
+      if (count < maxResults && requests.get() > 1) {
+        shortBatches.incrementAndGet();
+      }
+      final CycList<CycList> results = new CycArrayList<>();
+      for (int i = 0; i < count; i++) {
+        results.add(new CycArrayList<>());
+      }
+      return new ResultsBatch(results, remaining);
+    }
+
+    private void sleep() {
+      try {
+        TimeUnit.MILLISECONDS.sleep(delayMsecs);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+}
@@ -26,17 +26,36 @@ package com.cyc.session;
 import com.cyc.session.exception.SessionCommunicationException;
 import com.cyc.session.exception.SessionConfigurationException;
 import com.cyc.session.exception.SessionInitializationException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * A pool of Cyc servers, each of which may run up to its concurrency level of jobs at once.
+ *
+ * <p>{@link #acquireWorker()} leases the healthy server with a free slot which is expected to
+ * finish a new job soonest, judging by its jobs in flight, its concurrency level and a moving
+ * average of its latency; callers must return each {@link Lease} with
+ * {@link #releaseWorker(Lease, boolean)}. ({@link #requestWorker()} and
+ * {@link #releaseWorker(CycAddress, boolean)} do the same by address, but cannot tell which of a
+ * server's jobs is being released.) A server which fails
+ * {@link #getFailureThreshold()} jobs in a row is ejected from the pool, and re-admitted once a
+ * background probe (by default, a connection to its CFASL port) succeeds.
  */
 public class CycServerPool {
 
@@ -138,16 +157,34 @@ public class CycServerPool {
   
   // Fields
   
+  public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+  public static final long DEFAULT_PROBE_INTERVAL_MSECS = 5000;
+  public static final int DEFAULT_PROBE_TIMEOUT_MSECS = 2000;
+  
+  /** The weight of the latest job in each server's moving average latency. */
+  private static final double LATENCY_SMOOTHING = 0.2;
+  
   private static final Logger LOG = LoggerFactory.getLogger(CycServerPool.class);
   private final List<CycAddress> cycServers;
-  private final BlockingQueue<CycAddress> cycWorkerPool;
-  private int maxWorkerCount;
+  private final Map<CycAddress, ServerState> serverStates;
+  private final List<ServerState> serverStateList;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workerAvailable = lock.newCondition();
+  private final int maxWorkerCount;
+  private int nextServerIndex = 0;
+  private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+  private volatile long probeIntervalMsecs = DEFAULT_PROBE_INTERVAL_MSECS;
+  private volatile Predicate<CycAddress> healthProbe = CycServerPool::isCfaslPortOpen;
+  private ScheduledExecutorService prober;
+  private boolean isShutdown = false;
   
   // Construction
   
   public CycServerPool(List<CycAddress> cycAddresses) {
     cycServers = new ArrayList(cycAddresses);
-    cycWorkerPool = createServerPool(cycServers);
+    serverStates = createServerStates(cycServers);
+    serverStateList = new ArrayList<>(serverStates.values());
+    maxWorkerCount = serverStates.values().stream().mapToInt(state -> state.capacity).sum();
   }
   
   public CycServerPool(CycAddress cycAddress) {
@@ -181,22 +218,18 @@ public class CycServerPool {
   }
   
   
-  private BlockingQueue<CycAddress> createServerPool(Collection<CycAddress> cycServers) {
-    List<CycAddress> tempPool = new ArrayList<>();
-  
+  private static Map<CycAddress, ServerState> createServerStates(Collection<CycAddress> cycServers) {
+    final Map<CycAddress, ServerState> states = new LinkedHashMap<>();
     for (CycAddress server : cycServers) {
-      for (int i = 0; i < server.getConcurrencyLevel().orElse(1); i++) {
-        tempPool.add(server);
+      final int capacity = Math.max(0, server.getConcurrencyLevel().orElse(1));
+      final ServerState existing = states.get(server);
+      if (existing != null) {
+        existing.capacity += capacity;
+      } else {
+        states.put(server, new ServerState(server, capacity));
       }
     }
-  
-    maxWorkerCount = tempPool.size();
-    Collections.shuffle(tempPool);
-    
-    BlockingQueue<CycAddress> pool = new ArrayBlockingQueue<>(maxWorkerCount);
-    pool.addAll(tempPool);
-    
-    return pool;
+    return states;
   }
   
   private static List<CycAddress> serversFromSpecs(Collection<String> cycServersSpecs) {
@@ -248,8 +281,114 @@ public class CycServerPool {
     return cycServers.size();
   }
   
+  /**
+   * Returns the number of free slots on healthy servers.
+   * 
+   * @return the number of workers which could be requested without blocking
+   */
   public int getAvailableWorkerCount() {
-    return cycWorkerPool.size();
+    lock.lock();
+    try {
+      int count = 0;
+      for (ServerState state : serverStates.values()) {
+        if (state.healthy) {
+          count += Math.max(0, state.capacity - state.inFlight);
+        }
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Returns the number of servers which have not been ejected from the pool.
+   * 
+   * @return the number of healthy servers
+   */
+  public int getHealthyServerCount() {
+    lock.lock();
+    try {
+      return (int) serverStates.values().stream().filter(state -> state.healthy).count();
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  public boolean isHealthy(CycAddress cyc) {
+    lock.lock();
+    try {
+      return getState(cyc).healthy;
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  public int getInFlightCount(CycAddress cyc) {
+    lock.lock();
+    try {
+      return getState(cyc).inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Returns the moving average time in milliseconds between a server being requested and being
+   * released, or 0 if no job has yet completed on that server.
+   * 
+   * @param cyc a server in this pool
+   * @return the average latency of the server in milliseconds
+   */
+  public double getAverageLatencyMsecs(CycAddress cyc) {
+    lock.lock();
+    try {
+      return getState(cyc).averageLatencyMsecs;
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+  
+  /**
+   * Sets the number of consecutive failed jobs after which a server is ejected from the pool.
+   * 
+   * @param failureThreshold the number of consecutive failures, at least 1
+   */
+  public void setFailureThreshold(int failureThreshold) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("Invalid failure threshold " + failureThreshold);
+    }
+    this.failureThreshold = failureThreshold;
+  }
+  
+  public long getProbeIntervalMsecs() {
+    return probeIntervalMsecs;
+  }
+  
+  /**
+   * Sets how often ejected servers are probed. Takes effect for servers ejected afterwards.
+   * 
+   * @param probeIntervalMsecs the interval between probes in milliseconds
+   */
+  public void setProbeIntervalMsecs(long probeIntervalMsecs) {
+    if (probeIntervalMsecs <= 0) {
+      throw new IllegalArgumentException("Invalid probe interval " + probeIntervalMsecs);
+    }
+    this.probeIntervalMsecs = probeIntervalMsecs;
+  }
+  
+  /**
+   * Sets the test which decides whether an ejected server may be re-admitted to the pool. By
+   * default, a server is re-admitted once a connection can be made to its CFASL port.
+   * 
+   * @param healthProbe returns true iff the server is fit to receive jobs
+   */
+  public void setHealthProbe(Predicate<CycAddress> healthProbe) {
+    this.healthProbe = healthProbe;
   }
   
   public int getMaxWorkerCount() {
@@ -257,22 +396,111 @@ public class CycServerPool {
   }
   
   /**
-   * Requests a Cyc worker from the pool, will block until one is available.
+   * Leases a Cyc worker from the pool, blocking until one is available. The worker is the healthy
+   * server with a free slot which is expected to finish a new job soonest.
+   * 
+   * @return the lease of the worker, to be passed to {@link #releaseWorker(Lease, boolean)}
+   * @throws InterruptedException
+   */
+  public Lease acquireWorker() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      return lease();
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Returns a leased Cyc worker to the pool. The time since the worker was leased is added to the
+   * server's average latency; a failure counts towards ejecting the server.
+   * 
+   * @param lease a lease from {@link #acquireWorker()} on this pool
+   * @param succeeded whether the job run on the worker succeeded
+   * @throws IllegalStateException if the lease has already been released
+   */
+  public void releaseWorker(Lease lease, boolean succeeded) {
+    if (lease.pool != this) {
+      throw new IllegalArgumentException(lease + " is not from " + this);
+    }
+    lock.lock();
+    try {
+      if (lease.isReleased) {
+        throw new IllegalStateException(lease + " has already been released");
+      }
+      release(lease, succeeded);
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Requests a Cyc worker from the pool, will block until one is available. The worker is the
+   * healthy server with a free slot which is expected to finish a new job soonest.
+   * <p>
+   * Prefer {@link #acquireWorker()}: a worker requested by address is released by address, so the
+   * pool cannot tell a second release of the same job from the release of another job on the same
+   * server, and charges each release's latency to the server's oldest such job.
+   * 
    * @return Cyc server specification
    * @throws InterruptedException
    */
   public CycAddress requestWorker() throws InterruptedException {
-    return cycWorkerPool.take();
+    lock.lockInterruptibly();
+    try {
+      final Lease lease = lease();
+      lease.state.addressLeases.addLast(lease);
+      return lease.getAddress();
+    } finally {
+      lock.unlock();
+    }
   }
   
   /**
-   * Returns an unused Cyc worker back to the pool.
+   * Returns an unused Cyc worker back to the pool, after a successful job.
    * @param cyc Cyc worker to return to the pool
    */
   public void releaseWorker(CycAddress cyc) {
-    // TODO: mark CycAddress as a part of the pool and change state whenever it's returned to the pool
-    // to prevent the same Cyc server being released to the pool more than once
-    cycWorkerPool.offer(cyc);
+    releaseWorker(cyc, true);
+  }
+  
+  /**
+   * Returns a Cyc worker which was requested by {@link #requestWorker()} back to the pool, releasing
+   * the server's oldest such worker. The time since that worker was requested is added to the
+   * server's average latency; a failure counts towards ejecting the server. A server which is
+   * released more often than it has been requested is logged and otherwise ignored.
+   * @param cyc Cyc worker to return to the pool
+   * @param succeeded whether the job run on the worker succeeded
+   */
+  public void releaseWorker(CycAddress cyc, boolean succeeded) {
+    lock.lock();
+    try {
+      final Lease lease = getState(cyc).addressLeases.pollFirst();
+      if (lease == null) {
+        LOG.warn("Ignoring release of {}, which has no workers requested by address", cyc);
+        return;
+      }
+      release(lease, succeeded);
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Stops the background probing of ejected servers. Ejected servers will no longer be
+   * re-admitted.
+   */
+  public void shutdown() {
+    lock.lock();
+    try {
+      isShutdown = true;
+      if (prober != null) {
+        prober.shutdownNow();
+        prober = null;
+      }
+    } finally {
+      lock.unlock();
+    }
   }
   
   public List<CycAddress> getServerAddresses() {
@@ -287,6 +515,191 @@ public class CycServerPool {
     return sb.toString();
   }
   
+  // Private
+  
+  private ServerState getState(CycAddress cyc) {
+    final ServerState state = serverStates.get(cyc);
+    if (state == null) {
+      throw new IllegalArgumentException(cyc + " is not a part of " + this);
+    }
+    return state;
+  }
+  
+  /**
+   * Waits for the best server with a free slot, and leases it. Must be called while holding the
+   * lock.
+   */
+  private Lease lease() throws InterruptedException {
+    ServerState best;
+    while ((best = selectServer()) == null) {
+      workerAvailable.await();
+    }
+    best.inFlight++;
+    return new Lease(this, best, System.nanoTime());
+  }
+  
+  /**
+   * Releases a lease which has not yet been released. Must be called while holding the lock.
+   */
+  private void release(Lease lease, boolean succeeded) {
+    final ServerState state = lease.state;
+    lease.isReleased = true;
+    state.inFlight--;
+    final long elapsedNanos = System.nanoTime() - lease.startNanos;
+    if (succeeded) {
+      state.consecutiveFailures = 0;
+      final double latencyMsecs = elapsedNanos / 1e6;
+      state.averageLatencyMsecs = (state.averageLatencyMsecs == 0)
+              ? latencyMsecs
+              : (LATENCY_SMOOTHING * latencyMsecs)
+                        + ((1 - LATENCY_SMOOTHING) * state.averageLatencyMsecs);
+    } else if (++state.consecutiveFailures >= failureThreshold && state.healthy) {
+      eject(state);
+    }
+    workerAvailable.signalAll();
+  }
+  
+  /**
+   * Returns the healthy server with a free slot which has the lowest expected completion time for
+   * a new job, or null if there is none. Servers are considered starting from a rotating index,
+   * so that equally good servers share the load. Must be called while holding the lock.
+   */
+  private ServerState selectServer() {
+    final List<ServerState> states = serverStateList;
+    ServerState best = null;
+    double bestScore = Double.MAX_VALUE;
+    for (int i = 0; i < states.size(); i++) {
+      final ServerState state = states.get((nextServerIndex + i) % states.size());
+      if (state.healthy && state.inFlight < state.capacity) {
+        final double score = state.getExpectedCompletionMsecs();
+        if (score < bestScore) {
+          best = state;
+          bestScore = score;
+        }
+      }
+    }
+    nextServerIndex = (nextServerIndex + 1) % Math.max(1, states.size());
+    return best;
+  }
+  
+  /**
+   * Marks a server as unhealthy, and schedules probes until it recovers, unless the pool has been
+   * shut down. Must be called while holding the lock.
+   */
+  private void eject(ServerState state) {
+    LOG.warn("Ejecting {} from {} after {} consecutive failures",
+            state.address, this, state.consecutiveFailures);
+    state.healthy = false;
+    if (isShutdown) {
+      return;
+    }
+    if (prober == null) {
+      prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "CycServerPool prober");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    final long interval = probeIntervalMsecs;
+    prober.schedule(() -> probe(state), interval, TimeUnit.MILLISECONDS);
+  }
+  
+  private void probe(ServerState state) {
+    boolean isUp;
+    try {
+      isUp = healthProbe.test(state.address);
+    } catch (RuntimeException ex) {
+      LOG.debug("Health probe of {} failed: {}", state.address, ex.getMessage());
+      isUp = false;
+    }
+    lock.lock();
+    try {
+      if (isUp) {
+        LOG.info("Re-admitting {} to {}", state.address, this);
+        state.healthy = true;
+        state.consecutiveFailures = 0;
+        workerAvailable.signalAll();
+      } else if (prober != null) {
+        prober.schedule(() -> probe(state), probeIntervalMsecs, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  private static boolean isCfaslPortOpen(CycAddress cyc) {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(cyc.getHostName(),
+              cyc.getPortNumber() + CycAddress.STANDARD_CFASL_PORT_OFFSET),
+              DEFAULT_PROBE_TIMEOUT_MSECS);
+      return true;
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+  
+  /**
+   * The load and health of one server in the pool. Guarded by the pool's lock.
+   */
+  private static final class ServerState {
+    
+    final CycAddress address;
+    int capacity;
+    int inFlight = 0;
+    double averageLatencyMsecs = 0;
+    int consecutiveFailures = 0;
+    boolean healthy = true;
+    /** The unreleased leases of workers which were requested by address, oldest first. */
+    final ArrayDeque<Lease> addressLeases = new ArrayDeque<>();
+    
+    ServerState(CycAddress address, int capacity) {
+      this.address = address;
+      this.capacity = capacity;
+    }
+    
+    /**
+     * Returns the expected time for this server to finish a new job, if its slots work through
+     * their jobs in parallel. A server whose latency is not yet known is assumed to be fast, so
+     * that it is tried.
+     */
+    double getExpectedCompletionMsecs() {
+      return Math.max(averageLatencyMsecs, 1.0) * (inFlight + 1) / Math.max(capacity, 1);
+    }
+  }
+  
+  /**
+   * A worker leased from the pool by {@link #acquireWorker()}, which is returned to the pool by
+   * passing it to {@link #releaseWorker(Lease, boolean)} exactly once.
+   */
+  public static final class Lease {
+    
+    private final CycServerPool pool;
+    private final ServerState state;
+    private final long startNanos;
+    /** Guarded by the pool's lock. */
+    private boolean isReleased = false;
+    
+    private Lease(CycServerPool pool, ServerState state, long startNanos) {
+      this.pool = pool;
+      this.state = state;
+      this.startNanos = startNanos;
+    }
+    
+    /**
+     * Returns the server on which the job should be run.
+     * 
+     * @return the leased Cyc server
+     */
+    public CycAddress getAddress() {
+      return state.address;
+    }
+    
+    @Override
+    public String toString() {
+      return "Lease of " + state.address + "#" + Integer.toHexString(hashCode());
+    }
+  }
+  
   @Override
   public String toString() {
     return CycServerPool.class.getSimpleName()
@@ -0,0 +1,165 @@
+package com.cyc.session;
+
+/*
+ * #%L
+ * File: CycServerPoolTest.java
+ * Project: Session Client
+ * %%
+ * Copyright (C) 2013 - 2018 Cycorp, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the load-aware selection and health tracking of CycServerPool.
+ */
+public class CycServerPoolTest {
+  
+  private static final CycAddress FAST = CycAddress.get("fast", 3600, 2);
+  private static final CycAddress SLOW = CycAddress.get("slow", 3600, 2);
+  
+  @Test
+  public void testLeastLoadedServerIsChosen() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(Arrays.asList(FAST, SLOW));
+    assertEquals(4, pool.getMaxWorkerCount());
+    final CycAddress first = pool.requestWorker();
+    final CycAddress second = pool.requestWorker();
+    assertNotEquals(first, second);
+    assertEquals(2, pool.getAvailableWorkerCount());
+    pool.releaseWorker(first);
+    pool.releaseWorker(second);
+    assertEquals(4, pool.getAvailableWorkerCount());
+  }
+  
+  @Test
+  public void testFasterServerIsPreferred() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(Arrays.asList(FAST, SLOW));
+    final CycAddress a = pool.requestWorker();
+    final CycAddress b = pool.requestWorker();
+    assertNotEquals(a, b);
+    pool.releaseWorker(FAST);
+    Thread.sleep(20);
+    pool.releaseWorker(SLOW);
+    assertTrue(pool.getAverageLatencyMsecs(SLOW) > pool.getAverageLatencyMsecs(FAST));
+    assertEquals(FAST, pool.requestWorker());
+    assertEquals(FAST, pool.requestWorker());
+    assertEquals(SLOW, pool.requestWorker());
+  }
+  
+  @Test
+  public void testDoubleReleaseIsIgnored() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(FAST);
+    final CycAddress cyc = pool.requestWorker();
+    pool.releaseWorker(cyc);
+    pool.releaseWorker(cyc);
+    assertEquals(2, pool.getAvailableWorkerCount());
+    assertEquals(0, pool.getInFlightCount(FAST));
+  }
+  
+  @Test
+  public void testLeaseCanOnlyBeReleasedOnce() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(FAST);
+    final CycServerPool.Lease first = pool.acquireWorker();
+    final CycServerPool.Lease second = pool.acquireWorker();
+    assertEquals(FAST, first.getAddress());
+    pool.releaseWorker(first, true);
+    try {
+      pool.releaseWorker(first, true);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException ex) {
+      // expected
+    }
+    assertEquals(1, pool.getInFlightCount(FAST));
+    pool.releaseWorker(second, true);
+    assertEquals(0, pool.getInFlightCount(FAST));
+    // Address-based releases cannot release leases:
+    final CycServerPool.Lease third = pool.acquireWorker();
+    pool.releaseWorker(FAST);
+    assertEquals(1, pool.getInFlightCount(FAST));
+    pool.releaseWorker(third, true);
+  }
+  
+  @Test
+  public void testLatencyIsChargedToTheReleasedLease() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(FAST);
+    final CycServerPool.Lease slow = pool.acquireWorker();
+    Thread.sleep(50);
+    final CycServerPool.Lease fast = pool.acquireWorker();
+    pool.releaseWorker(fast, true);
+    assertTrue(pool.getAverageLatencyMsecs(FAST) < 50);
+    pool.releaseWorker(slow, true);
+    assertTrue(pool.getAverageLatencyMsecs(FAST) > 9);
+  }
+  
+  @Test
+  public void testEjectedServerIsNotProbedAfterShutdown() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(Arrays.asList(FAST, SLOW));
+    final AtomicBoolean probed = new AtomicBoolean(false);
+    pool.setFailureThreshold(1);
+    pool.setProbeIntervalMsecs(1);
+    pool.setHealthProbe(cyc -> probed.getAndSet(true) || true);
+    pool.shutdown();
+    final CycServerPool.Lease lease = pool.acquireWorker();
+    pool.releaseWorker(lease, false);
+    assertFalse(pool.isHealthy(lease.getAddress()));
+    Thread.sleep(50);
+    assertFalse(probed.get());
+    assertFalse(pool.isHealthy(lease.getAddress()));
+  }
+  
+  @Test
+  public void testFailingServerIsEjectedAndReadmitted() throws InterruptedException {
+    final CycServerPool pool = new CycServerPool(Arrays.asList(FAST, SLOW));
+    final AtomicBoolean slowIsUp = new AtomicBoolean(false);
+    pool.setFailureThreshold(2);
+    pool.setProbeIntervalMsecs(10);
+    pool.setHealthProbe(cyc -> slowIsUp.get());
+    try {
+      for (int i = 0; i < 2; i++) {
+        pool.requestWorker();
+        pool.requestWorker();
+        pool.releaseWorker(FAST, true);
+        pool.releaseWorker(SLOW, false);
+      }
+      assertFalse(pool.isHealthy(SLOW));
+      assertEquals(1, pool.getHealthyServerCount());
+      assertEquals(2, pool.getAvailableWorkerCount());
+      for (int i = 0; i < 3; i++) {
+        final CycAddress cyc = pool.requestWorker();
+        assertEquals(FAST, cyc);
+        pool.releaseWorker(cyc);
+      }
+      slowIsUp.set(true);
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (!pool.isHealthy(SLOW) && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertTrue(pool.isHealthy(SLOW));
+      assertEquals(4, pool.getAvailableWorkerCount());
+    } finally {
+      pool.shutdown();
+    }
+  }
+  
+}